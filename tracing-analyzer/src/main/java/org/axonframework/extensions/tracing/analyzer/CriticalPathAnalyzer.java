@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.analyzer;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Command line entry point analyzing recorded spans of an Axon application offline. Reads Zipkin V2 JSON files (or
+ * standard input), rebuilds the traces, computes their critical paths and reports which operations dominate the
+ * end-to-end latency across all traces. Requires no external services.
+ * <p>
+ * Usage: {@code java -jar axon-tracing-analyzer.jar [--top N] [--max-open-traces N] [file...]}. Files ending in
+ * {@code .gz} are decompressed on the fly; {@code -} or no files at all reads standard input.
+ *
+ * @since 4.2
+ */
+public class CriticalPathAnalyzer {
+
+    private static final int DEFAULT_TOP = 25;
+    private static final int DEFAULT_MAX_OPEN_TRACES = 10_000;
+
+    private final ZipkinSpanReader reader = new ZipkinSpanReader();
+    private final CriticalPathCalculator calculator = new CriticalPathCalculator();
+    private final CriticalPathReport report = new CriticalPathReport();
+    private final TraceAssembler assembler;
+
+    /**
+     * Initialize an analyzer keeping at most the given number of traces open while reading interleaved spans.
+     *
+     * @param maxOpenTraces the maximum number of traces to keep in memory while reading
+     */
+    public CriticalPathAnalyzer(int maxOpenTraces) {
+        this.assembler = new TraceAssembler(maxOpenTraces, spans -> report.accept(calculator.analyze(spans)));
+    }
+
+    /**
+     * Run the analyzer from the command line.
+     *
+     * @param args the command line arguments
+     * @throws IOException if one of the inputs could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        int top = DEFAULT_TOP;
+        int maxOpenTraces = DEFAULT_MAX_OPEN_TRACES;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--top":
+                    top = Integer.parseInt(requireValue(args, ++i));
+                    break;
+                case "--max-open-traces":
+                    maxOpenTraces = Integer.parseInt(requireValue(args, ++i));
+                    break;
+                case "--help":
+                case "-h":
+                    printUsage(System.out);
+                    return;
+                default:
+                    files.add(args[i]);
+            }
+        }
+        if (files.isEmpty()) {
+            files.add("-");
+        }
+        CriticalPathAnalyzer analyzer = new CriticalPathAnalyzer(maxOpenTraces);
+        for (String file : files) {
+            try (InputStream input = open(file)) {
+                analyzer.read(input);
+            }
+        }
+        analyzer.report().write(System.out, top);
+    }
+
+    /**
+     * Read all spans from the given {@code input}, analyzing every trace once it is complete.
+     *
+     * @param input the {@link InputStream} containing Zipkin V2 JSON spans
+     * @throws IOException if the input could not be read
+     */
+    public void read(InputStream input) throws IOException {
+        reader.read(input, assembler);
+    }
+
+    /**
+     * Complete all traces still being assembled and return the report of all traces analyzed.
+     *
+     * @return the report of all traces analyzed
+     */
+    public CriticalPathReport report() {
+        assembler.flush();
+        return report;
+    }
+
+    private static InputStream open(String file) throws IOException {
+        if ("-".equals(file)) {
+            return new BufferedInputStream(System.in) {
+                @Override
+                public void close() {
+                    // never close standard input
+                }
+            };
+        }
+        InputStream input = new BufferedInputStream(new FileInputStream(file), 1 << 16);
+        return file.endsWith(".gz") ? new GZIPInputStream(input, 1 << 16) : input;
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            printUsage(System.err);
+            throw new IllegalArgumentException("Missing value for option " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static void printUsage(PrintStream out) {
+        out.println("Usage: java -jar axon-tracing-analyzer.jar [--top N] [--max-open-traces N] [file...]");
+        out.println();
+        out.println("Reads Zipkin V2 JSON spans (an array of spans, an array of traces or one span per line)");
+        out.println("from the given files, or from standard input when no file or '-' is given.");
+        out.println("  --top N              the number of operations to report (default " + DEFAULT_TOP + ")");
+        out.println("  --max-open-traces N  the number of traces kept in memory while reading interleaved spans"
+                            + " (default " + DEFAULT_MAX_OPEN_TRACES + ")");
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.analyzer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rebuilds the span tree of a single trace and computes its critical path: the chain of spans which determined the
+ * end-to-end latency of the trace.
+ * <p>
+ * The tree is built from the parent identifiers of the spans. For Axon applications this yields command, event and
+ * query handling chains, as the tracing extension propagates the trace context through message metadata. As events
+ * are typically handled asynchronously, a child span may end after its parent. The critical path therefore follows
+ * the descendants which finished last, rather than being bound by the end of their parent.
+ * <p>
+ * Every microsecond of the end-to-end latency is attributed to exactly one span on the critical path:
+ * <ul>
+ * <li>as <em>self time</em> of a span, when it was running while none of its critical children were,</li>
+ * <li>as <em>wait time</em> of a span, when its parent already finished but the span itself had not started yet,
+ * for example while an event waited to be picked up by an event processor.</li>
+ * </ul>
+ * Time not covered by any span, for example between two unrelated root spans, is attributed to
+ * {@link #UNTRACED_OPERATION}.
+ *
+ * @since 4.2
+ */
+public class CriticalPathCalculator {
+
+    /**
+     * The operation to which time on the critical path is attributed when no span was active.
+     */
+    public static final String UNTRACED_OPERATION = "(untraced)";
+
+    private static final Comparator<Node> LATEST_FINISHING_FIRST =
+            Comparator.comparingLong((Node n) -> n.subtreeEnd).reversed();
+
+    /**
+     * Compute the critical path of the trace consisting of the given {@code spans}.
+     *
+     * @param spans the spans of a single trace
+     * @return the {@link TraceAnalysis} describing the critical path of the trace
+     */
+    public TraceAnalysis analyze(List<SpanRecord> spans) {
+        List<Node> roots = buildTree(spans);
+        Node trace = new Node(null);
+        trace.children.addAll(roots);
+        trace.start = Long.MAX_VALUE;
+        for (Node root : roots) {
+            computeSubtreeEnd(root, Collections.newSetFromMap(new IdentityHashMap<>()));
+            trace.start = Math.min(trace.start, root.start);
+            trace.subtreeEnd = Math.max(trace.subtreeEnd, root.subtreeEnd);
+        }
+        if (roots.isEmpty()) {
+            trace.start = 0;
+        }
+        trace.end = trace.subtreeEnd;
+        trace.children.sort(LATEST_FINISHING_FIRST);
+
+        Map<String, TraceAnalysis.Contribution> contributions = new LinkedHashMap<>();
+        walk(trace, trace.subtreeEnd, contributions);
+        String traceId = spans.isEmpty() ? null : spans.get(0).traceId();
+        String rootOperation = roots.isEmpty() ? UNTRACED_OPERATION : earliest(roots).span.operation();
+        return new TraceAnalysis(traceId, rootOperation, trace.subtreeEnd - trace.start, contributions);
+    }
+
+    private List<Node> buildTree(List<SpanRecord> spans) {
+        Map<String, Node> nodesById = new HashMap<>();
+        List<Node> nodes = new ArrayList<>(spans.size());
+        for (SpanRecord span : spans) {
+            Node node = new Node(span);
+            nodes.add(node);
+            if (span.shared()) {
+                nodesById.putIfAbsent(span.id(), node);
+            } else {
+                // the client side of a shared span takes precedence, regardless of the reporting order
+                nodesById.put(span.id(), node);
+            }
+        }
+        List<Node> roots = new ArrayList<>();
+        for (Node node : nodes) {
+            Node parent;
+            Node sameId = nodesById.get(node.span.id());
+            if (node.span.shared() && sameId != node) {
+                // the server side of a span shared with its client is a child of the client side
+                parent = sameId;
+            } else {
+                parent = node.span.parentId() == null ? null : nodesById.get(node.span.parentId());
+            }
+            if (parent == null || parent == node) {
+                roots.add(node);
+            } else {
+                parent.children.add(node);
+            }
+        }
+        return roots;
+    }
+
+    private void computeSubtreeEnd(Node node, Set<Node> visited) {
+        if (!visited.add(node)) {
+            // a malformed trace containing a cycle; ignore the repeated node
+            node.subtreeEnd = node.end;
+            return;
+        }
+        node.subtreeEnd = node.end;
+        for (Node child : node.children) {
+            computeSubtreeEnd(child, visited);
+            node.subtreeEnd = Math.max(node.subtreeEnd, child.subtreeEnd);
+        }
+        node.children.sort(LATEST_FINISHING_FIRST);
+    }
+
+    /**
+     * Walk the critical path of the given {@code node} backwards in time, starting at the given {@code upperBound}.
+     * The last finishing child is followed first; earlier children are only on the critical path for the time before
+     * the start of the child which followed them.
+     */
+    private void walk(Node node, long upperBound, Map<String, TraceAnalysis.Contribution> contributions) {
+        long cursor = Math.min(node.subtreeEnd, upperBound);
+        Node nextOnPath = null;
+        for (Node child : node.children) {
+            if (cursor <= node.start) {
+                break;
+            }
+            if (child.start >= cursor || child.walked) {
+                continue;
+            }
+            long childEnd = Math.min(child.subtreeEnd, cursor);
+            attribute(node, childEnd, cursor, nextOnPath, contributions);
+            child.walked = true;
+            walk(child, childEnd, contributions);
+            cursor = Math.max(child.start, node.start);
+            nextOnPath = child;
+        }
+        attribute(node, node.start, cursor, nextOnPath, contributions);
+    }
+
+    private void attribute(Node node, long from, long to, Node nextOnPath,
+                           Map<String, TraceAnalysis.Contribution> contributions) {
+        if (to <= from) {
+            return;
+        }
+        long selfEnd = Math.min(to, node.end);
+        if (selfEnd > from) {
+            contribution(node, contributions).addSelfTime(selfEnd - from);
+        }
+        long waitStart = Math.max(from, node.end);
+        if (to > waitStart) {
+            Node waiting = nextOnPath != null ? nextOnPath : node;
+            contribution(waiting, contributions).addWaitTime(to - waitStart);
+        }
+    }
+
+    private TraceAnalysis.Contribution contribution(Node node, Map<String, TraceAnalysis.Contribution> contributions) {
+        String operation = node.span == null ? UNTRACED_OPERATION : node.span.operation();
+        String messageType = node.span == null ? null : node.span.messageType();
+        return contributions.computeIfAbsent(operation, o -> new TraceAnalysis.Contribution(o, messageType));
+    }
+
+    private Node earliest(List<Node> nodes) {
+        Node earliest = nodes.get(0);
+        for (Node node : nodes) {
+            if (node.start < earliest.start) {
+                earliest = node;
+            }
+        }
+        return earliest;
+    }
+
+    private static class Node {
+
+        private final SpanRecord span;
+        private final List<Node> children = new ArrayList<>();
+        private long start;
+        private long end;
+        private long subtreeEnd;
+        private boolean walked;
+
+        private Node(SpanRecord span) {
+            this.span = span;
+            if (span != null) {
+                this.start = span.timestamp();
+                this.end = span.end();
+            }
+        }
+    }
+}
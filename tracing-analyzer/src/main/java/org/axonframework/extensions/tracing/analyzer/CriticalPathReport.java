@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.analyzer;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Aggregates the {@link TraceAnalysis critical paths} of many traces, to report which operations dominate the
+ * end-to-end latency of an Axon application.
+ *
+ * @since 4.2
+ */
+public class CriticalPathReport implements Consumer<TraceAnalysis> {
+
+    private final Map<String, OperationSummary> operations = new HashMap<>();
+    private long traceCount;
+    private long totalDuration;
+
+    @Override
+    public void accept(TraceAnalysis analysis) {
+        traceCount++;
+        totalDuration += analysis.duration();
+        for (TraceAnalysis.Contribution contribution : analysis.contributions()) {
+            operations.computeIfAbsent(contribution.operation(),
+                                       o -> new OperationSummary(o, contribution.messageType()))
+                      .add(contribution);
+        }
+    }
+
+    /**
+     * Returns the number of traces aggregated in this report.
+     *
+     * @return the number of traces aggregated in this report
+     */
+    public long traceCount() {
+        return traceCount;
+    }
+
+    /**
+     * Returns the sum of the end-to-end latencies of all traces aggregated in this report, in microseconds.
+     *
+     * @return the sum of the end-to-end latencies of all traces, in microseconds
+     */
+    public long totalDuration() {
+        return totalDuration;
+    }
+
+    /**
+     * Returns the summaries of all operations found on a critical path, ordered by their total contribution to the
+     * critical paths, largest first.
+     *
+     * @return the summaries of all operations found on a critical path
+     */
+    public List<OperationSummary> operations() {
+        List<OperationSummary> result = new ArrayList<>(operations.values());
+        result.sort(Comparator.comparingLong(OperationSummary::totalTime).reversed()
+                              .thenComparing(OperationSummary::operation));
+        return result;
+    }
+
+    /**
+     * Write this report as a table to the given {@code out}, listing the given number of operations contributing
+     * most to the critical paths.
+     *
+     * @param out the {@link PrintStream} to write the report to
+     * @param top the maximum number of operations to list
+     */
+    public void write(PrintStream out, int top) {
+        out.printf(Locale.ROOT, "Analyzed %d traces, total end-to-end latency %.3f ms, average %.3f ms%n",
+                   traceCount, totalDuration / 1000d, traceCount == 0 ? 0d : totalDuration / 1000d / traceCount);
+        out.println();
+        out.printf(Locale.ROOT, "%7s %12s %12s %12s %8s  %-14s %s%n",
+                   "share", "total ms", "self ms", "wait ms", "traces", "message type", "operation");
+        List<OperationSummary> summaries = operations();
+        for (OperationSummary summary : summaries.subList(0, Math.min(top, summaries.size()))) {
+            out.printf(Locale.ROOT, "%6.2f%% %12.3f %12.3f %12.3f %8d  %-14s %s%n",
+                       totalDuration == 0 ? 0d : summary.totalTime() * 100d / totalDuration,
+                       summary.totalTime() / 1000d,
+                       summary.selfTime() / 1000d,
+                       summary.waitTime() / 1000d,
+                       summary.traceCount(),
+                       summary.messageType() == null ? "-" : summary.messageType(),
+                       summary.operation());
+        }
+    }
+
+    /**
+     * The contributions of a single operation to the critical paths of all traces aggregated in a report.
+     */
+    public static class OperationSummary {
+
+        private final String operation;
+        private final String messageType;
+        private long traceCount;
+        private long selfTime;
+        private long waitTime;
+
+        private OperationSummary(String operation, String messageType) {
+            this.operation = operation;
+            this.messageType = messageType;
+        }
+
+        private void add(TraceAnalysis.Contribution contribution) {
+            traceCount++;
+            selfTime += contribution.selfTime();
+            waitTime += contribution.waitTime();
+        }
+
+        /**
+         * Returns the operation summarized.
+         *
+         * @return the operation summarized
+         */
+        public String operation() {
+            return operation;
+        }
+
+        /**
+         * Returns the {@code axon.message.type} of the operation, or {@code null} if unknown.
+         *
+         * @return the {@code axon.message.type} of the operation, or {@code null}
+         */
+        public String messageType() {
+            return messageType;
+        }
+
+        /**
+         * Returns the number of traces of which the critical path contains this operation.
+         *
+         * @return the number of traces of which the critical path contains this operation
+         */
+        public long traceCount() {
+            return traceCount;
+        }
+
+        /**
+         * Returns the summed self time of this operation on all critical paths, in microseconds.
+         *
+         * @return the summed self time of this operation, in microseconds
+         */
+        public long selfTime() {
+            return selfTime;
+        }
+
+        /**
+         * Returns the summed wait time of this operation on all critical paths, in microseconds.
+         *
+         * @return the summed wait time of this operation, in microseconds
+         */
+        public long waitTime() {
+            return waitTime;
+        }
+
+        /**
+         * Returns the summed contribution of this operation to all critical paths, in microseconds.
+         *
+         * @return the summed contribution of this operation, in microseconds
+         */
+        public long totalTime() {
+            return selfTime + waitTime;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.analyzer;
+
+/**
+ * The subset of a recorded Zipkin span which is required to analyze the critical path of a trace. Timestamps and
+ * durations are expressed in microseconds.
+ *
+ * @since 4.2
+ */
+public class SpanRecord {
+
+    static final String TAG_AXON_MSG_TYPE = "axon.message.type";
+    static final String TAG_AXON_PAYLOAD_TYPE = "axon.message.payloadtype";
+    static final String TAG_AXON_COMMAND_NAME = "axon.message.commandname";
+
+    private final String traceId;
+    private final String id;
+    private final String parentId;
+    private final String name;
+    private final String kind;
+    private final long timestamp;
+    private final long duration;
+    private final boolean shared;
+    private final String messageType;
+    private final String payloadType;
+    private final String commandName;
+
+    /**
+     * Initialize a {@link SpanRecord} from the given recorded span properties.
+     *
+     * @param traceId     the identifier of the trace the span belongs to
+     * @param id          the identifier of the span
+     * @param parentId    the identifier of the parent span, or {@code null} for a root span
+     * @param name        the name of the span
+     * @param kind        the kind of span, or {@code null} if unknown
+     * @param timestamp   the start of the span, in epoch microseconds
+     * @param duration    the duration of the span, in microseconds
+     * @param shared      whether the span shares its identifier with the span of its remote client
+     * @param messageType the {@code axon.message.type} tag of the span, or {@code null} if absent
+     * @param payloadType the {@code axon.message.payloadtype} tag of the span, or {@code null} if absent
+     * @param commandName the {@code axon.message.commandname} tag of the span, or {@code null} if absent
+     */
+    public SpanRecord(String traceId, String id, String parentId, String name, String kind, long timestamp,
+                      long duration, boolean shared, String messageType, String payloadType, String commandName) {
+        this.traceId = traceId;
+        this.id = id;
+        this.parentId = parentId;
+        this.name = name;
+        this.kind = kind;
+        this.timestamp = timestamp;
+        this.duration = duration;
+        this.shared = shared;
+        this.messageType = messageType;
+        this.payloadType = payloadType;
+        this.commandName = commandName;
+    }
+
+    /**
+     * Returns the identifier of the trace this span belongs to.
+     *
+     * @return the identifier of the trace this span belongs to
+     */
+    public String traceId() {
+        return traceId;
+    }
+
+    /**
+     * Returns the identifier of this span.
+     *
+     * @return the identifier of this span
+     */
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Returns the identifier of the parent of this span, or {@code null} if this is a root span.
+     *
+     * @return the identifier of the parent of this span, or {@code null}
+     */
+    public String parentId() {
+        return parentId;
+    }
+
+    /**
+     * Returns the name of this span.
+     *
+     * @return the name of this span
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the kind of this span, being {@code CLIENT}, {@code SERVER}, {@code PRODUCER}, {@code CONSUMER} or
+     * {@code null} for local spans.
+     *
+     * @return the kind of this span
+     */
+    public String kind() {
+        return kind;
+    }
+
+    /**
+     * Returns the start of this span, in epoch microseconds.
+     *
+     * @return the start of this span, in epoch microseconds
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the duration of this span, in microseconds.
+     *
+     * @return the duration of this span, in microseconds
+     */
+    public long duration() {
+        return duration;
+    }
+
+    /**
+     * Returns the end of this span, in epoch microseconds.
+     *
+     * @return the end of this span, in epoch microseconds
+     */
+    public long end() {
+        return timestamp + duration;
+    }
+
+    /**
+     * Returns whether this span shares its identifier with the span of its remote client.
+     *
+     * @return whether this span shares its identifier with the span of its remote client
+     */
+    public boolean shared() {
+        return shared;
+    }
+
+    /**
+     * Returns the {@code axon.message.type} tag of this span, or {@code null} if absent.
+     *
+     * @return the {@code axon.message.type} tag of this span, or {@code null}
+     */
+    public String messageType() {
+        return messageType;
+    }
+
+    /**
+     * Returns the {@code axon.message.payloadtype} tag of this span, or {@code null} if absent.
+     *
+     * @return the {@code axon.message.payloadtype} tag of this span, or {@code null}
+     */
+    public String payloadType() {
+        return payloadType;
+    }
+
+    /**
+     * Returns the {@code axon.message.commandname} tag of this span, or {@code null} if absent.
+     *
+     * @return the {@code axon.message.commandname} tag of this span, or {@code null}
+     */
+    public String commandName() {
+        return commandName;
+    }
+
+    /**
+     * Returns the operation this span represents, used to aggregate spans of different traces. Spans of Axon messages
+     * are described by their name and payload type (or command name), other spans by their name only.
+     *
+     * @return the operation this span represents
+     */
+    public String operation() {
+        String messageName = commandName != null ? commandName : payloadType;
+        return messageName == null ? name : name + " " + messageName;
+    }
+}
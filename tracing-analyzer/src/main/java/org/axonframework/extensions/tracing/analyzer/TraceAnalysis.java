@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.analyzer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The critical path of a single trace, as computed by the {@link CriticalPathCalculator}.
+ *
+ * @since 4.2
+ */
+public class TraceAnalysis {
+
+    private final String traceId;
+    private final String rootOperation;
+    private final long duration;
+    private final Map<String, Contribution> contributions;
+
+    /**
+     * Initialize a {@link TraceAnalysis} with the given properties.
+     *
+     * @param traceId       the identifier of the analyzed trace
+     * @param rootOperation the operation of the earliest root span of the trace
+     * @param duration      the end-to-end latency of the trace, in microseconds
+     * @param contributions the contributions to the critical path, per operation
+     */
+    public TraceAnalysis(String traceId, String rootOperation, long duration, Map<String, Contribution> contributions) {
+        this.traceId = traceId;
+        this.rootOperation = rootOperation;
+        this.duration = duration;
+        this.contributions = contributions;
+    }
+
+    /**
+     * Returns the identifier of the analyzed trace.
+     *
+     * @return the identifier of the analyzed trace
+     */
+    public String traceId() {
+        return traceId;
+    }
+
+    /**
+     * Returns the operation of the earliest root span of the trace.
+     *
+     * @return the operation of the earliest root span of the trace
+     */
+    public String rootOperation() {
+        return rootOperation;
+    }
+
+    /**
+     * Returns the end-to-end latency of the trace, in microseconds.
+     *
+     * @return the end-to-end latency of the trace, in microseconds
+     */
+    public long duration() {
+        return duration;
+    }
+
+    /**
+     * Returns the contributions of the operations on the critical path of the trace.
+     *
+     * @return the contributions of the operations on the critical path of the trace
+     */
+    public Collection<Contribution> contributions() {
+        return Collections.unmodifiableCollection(new ArrayList<>(contributions.values()));
+    }
+
+    /**
+     * Returns the contribution of the given {@code operation} to the critical path, or {@code null} if the operation
+     * is not on the critical path.
+     *
+     * @param operation the operation to return the contribution of
+     * @return the contribution of the given operation, or {@code null}
+     */
+    public Contribution contribution(String operation) {
+        return contributions.get(operation);
+    }
+
+    /**
+     * The time a single operation contributed to the critical path of a trace.
+     */
+    public static class Contribution {
+
+        private final String operation;
+        private final String messageType;
+        private long selfTime;
+        private long waitTime;
+
+        /**
+         * Initialize an empty contribution of the given {@code operation}.
+         *
+         * @param operation   the operation contributing to the critical path
+         * @param messageType the {@code axon.message.type} of the operation, or {@code null} if unknown
+         */
+        public Contribution(String operation, String messageType) {
+            this.operation = operation;
+            this.messageType = messageType;
+        }
+
+        void addSelfTime(long micros) {
+            selfTime += micros;
+        }
+
+        void addWaitTime(long micros) {
+            waitTime += micros;
+        }
+
+        /**
+         * Returns the operation contributing to the critical path.
+         *
+         * @return the operation contributing to the critical path
+         */
+        public String operation() {
+            return operation;
+        }
+
+        /**
+         * Returns the {@code axon.message.type} of the operation, or {@code null} if unknown.
+         *
+         * @return the {@code axon.message.type} of the operation, or {@code null}
+         */
+        public String messageType() {
+            return messageType;
+        }
+
+        /**
+         * Returns the time, in microseconds, spans of this operation were running on the critical path.
+         *
+         * @return the self time of this operation on the critical path, in microseconds
+         */
+        public long selfTime() {
+            return selfTime;
+        }
+
+        /**
+         * Returns the time, in microseconds, spans of this operation were waiting to start on the critical path,
+         * after their parent finished.
+         *
+         * @return the wait time of this operation on the critical path, in microseconds
+         */
+        public long waitTime() {
+            return waitTime;
+        }
+
+        /**
+         * Returns the total time, in microseconds, this operation contributed to the critical path.
+         *
+         * @return the total contribution of this operation to the critical path, in microseconds
+         */
+        public long totalTime() {
+            return selfTime + waitTime;
+        }
+    }
+}
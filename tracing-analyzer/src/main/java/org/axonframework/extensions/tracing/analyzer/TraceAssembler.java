@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.analyzer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A {@link ZipkinSpanReader.SpanSink} which groups the spans it receives into traces. To keep memory bounded for
+ * inputs in which spans of many traces are interleaved, at most a configured number of traces is kept open. When
+ * that number is exceeded, the trace which received a span least recently is considered complete.
+ *
+ * @since 4.2
+ */
+public class TraceAssembler implements ZipkinSpanReader.SpanSink {
+
+    private final Consumer<List<SpanRecord>> traceConsumer;
+    private final Map<String, List<SpanRecord>> openTraces;
+
+    /**
+     * Initialize a {@link TraceAssembler} which passes completed traces to the given {@code traceConsumer}.
+     *
+     * @param maxOpenTraces the maximum number of traces to keep open
+     * @param traceConsumer the consumer of completed traces
+     */
+    public TraceAssembler(int maxOpenTraces, Consumer<List<SpanRecord>> traceConsumer) {
+        this.traceConsumer = traceConsumer;
+        this.openTraces = new LinkedHashMap<String, List<SpanRecord>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<SpanRecord>> eldest) {
+                if (size() > maxOpenTraces) {
+                    traceConsumer.accept(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void span(SpanRecord span) {
+        if (span.traceId() == null || span.id() == null) {
+            return;
+        }
+        openTraces.computeIfAbsent(span.traceId(), traceId -> new ArrayList<>()).add(span);
+    }
+
+    @Override
+    public void endOfTrace() {
+        flush();
+    }
+
+    /**
+     * Consider all open traces to be complete, passing them to the trace consumer.
+     */
+    public void flush() {
+        Iterator<List<SpanRecord>> iterator = openTraces.values().iterator();
+        while (iterator.hasNext()) {
+            traceConsumer.accept(iterator.next());
+            iterator.remove();
+        }
+    }
+}
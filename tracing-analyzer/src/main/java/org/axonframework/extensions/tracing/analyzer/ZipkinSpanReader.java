@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.analyzer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads recorded spans in the Zipkin V2 JSON format in a streaming fashion, so that inputs of any size can be read
+ * with constant memory. The following layouts are supported:
+ * <ul>
+ * <li>a JSON array of spans, as accepted by the Zipkin collector,</li>
+ * <li>a JSON array of traces, each being an array of spans, as returned by the Zipkin {@code /api/v2/traces}
+ * endpoint,</li>
+ * <li>a local span file, containing one span object after another, typically one per line.</li>
+ * </ul>
+ * Only the span properties required for critical path analysis are retained; annotations, endpoints and unrelated
+ * tags are skipped.
+ *
+ * @since 4.2
+ */
+public class ZipkinSpanReader {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Read all spans contained in the given {@code input} and pass them to the given {@code sink}.
+     *
+     * @param input the {@link InputStream} to read spans from
+     * @param sink  the {@link SpanSink} receiving the spans
+     * @throws IOException if the input could not be read or contains malformed JSON
+     */
+    public void read(InputStream input, SpanSink sink) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(input)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_ARRAY) {
+                    readArray(parser, sink);
+                } else if (token == JsonToken.START_OBJECT) {
+                    sink.span(readSpan(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private void readArray(JsonParser parser, SpanSink sink) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                sink.span(readSpan(parser));
+            } else if (token == JsonToken.START_ARRAY) {
+                readArray(parser, sink);
+                sink.endOfTrace();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private SpanRecord readSpan(JsonParser parser) throws IOException {
+        String traceId = null;
+        String id = null;
+        String parentId = null;
+        String name = null;
+        String kind = null;
+        long timestamp = 0;
+        long duration = 0;
+        boolean shared = false;
+        String messageType = null;
+        String payloadType = null;
+        String commandName = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "traceId":
+                    traceId = parser.getValueAsString();
+                    break;
+                case "id":
+                    id = parser.getValueAsString();
+                    break;
+                case "parentId":
+                    parentId = parser.getValueAsString();
+                    break;
+                case "name":
+                    name = parser.getValueAsString();
+                    break;
+                case "kind":
+                    kind = parser.getValueAsString();
+                    break;
+                case "timestamp":
+                    timestamp = parser.getValueAsLong();
+                    break;
+                case "duration":
+                    duration = parser.getValueAsLong();
+                    break;
+                case "shared":
+                    shared = parser.getValueAsBoolean();
+                    break;
+                case "tags":
+                    if (value != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String tag = parser.getCurrentName();
+                        parser.nextToken();
+                        if (SpanRecord.TAG_AXON_MSG_TYPE.equals(tag)) {
+                            messageType = parser.getValueAsString();
+                        } else if (SpanRecord.TAG_AXON_PAYLOAD_TYPE.equals(tag)) {
+                            payloadType = parser.getValueAsString();
+                        } else if (SpanRecord.TAG_AXON_COMMAND_NAME.equals(tag)) {
+                            commandName = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return new SpanRecord(traceId, id, parentId, name == null ? "unknown" : name, kind, timestamp, duration,
+                              shared, messageType, payloadType, commandName);
+    }
+
+    /**
+     * Receives the spans read by a {@link ZipkinSpanReader}.
+     */
+    public interface SpanSink {
+
+        /**
+         * Invoked for every span read.
+         *
+         * @param span the span read
+         */
+        void span(SpanRecord span);
+
+        /**
+         * Invoked when the input explicitly marks that all spans of a trace have been read, which is the case for
+         * the array of traces layout.
+         */
+        void endOfTrace();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.analyzer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * Test class for the {@link CriticalPathCalculator}.
+ */
+public class CriticalPathCalculatorTest {
+
+    private final CriticalPathCalculator testSubject = new CriticalPathCalculator();
+
+    @Test
+    public void testAttributesQueueingOfAsynchronousEventHandlerAsWaitTime() {
+        SpanRecord command = span("a", null, "sendCommandMessage", 0, 100, "CommandMessage", "PlaceOrder");
+        SpanRecord handler = span("b", "a", "handleMessage", 10, 50, "CommandMessage", "PlaceOrder");
+        SpanRecord event = span("c", "b", "handleMessage", 150, 50, "EventMessage", "OrderPlaced");
+
+        TraceAnalysis result = testSubject.analyze(Arrays.asList(command, handler, event));
+
+        assertThat(result.duration(), is(200L));
+        assertThat(result.rootOperation(), is("sendCommandMessage PlaceOrder"));
+        assertThat(result.contribution("sendCommandMessage PlaceOrder").selfTime(), is(10L));
+        assertThat(result.contribution("handleMessage PlaceOrder").selfTime(), is(50L));
+        assertThat(result.contribution("handleMessage OrderPlaced").selfTime(), is(50L));
+        assertThat(result.contribution("handleMessage OrderPlaced").waitTime(), is(90L));
+        assertThat(result.contribution("handleMessage OrderPlaced").messageType(), is("EventMessage"));
+    }
+
+    @Test
+    public void testOnlyLatestFinishingChildIsOnCriticalPath() {
+        SpanRecord parent = span("a", null, "parent", 0, 100, null, null);
+        SpanRecord shortChild = span("b", "a", "short", 10, 30, null, null);
+        SpanRecord longChild = span("c", "a", "long", 20, 70, null, null);
+
+        TraceAnalysis result = testSubject.analyze(Arrays.asList(parent, shortChild, longChild));
+
+        assertThat(result.contribution("parent").selfTime(), is(20L));
+        assertThat(result.contribution("long").selfTime(), is(70L));
+        assertThat(result.contribution("short").selfTime(), is(10L));
+        assertThat(totalAttributed(result), is(result.duration()));
+    }
+
+    @Test
+    public void testAttributesGapsBetweenRootSpansToUntracedOperation() {
+        SpanRecord first = span("a", null, "first", 0, 10, null, null);
+        SpanRecord second = span("b", null, "second", 30, 10, null, null);
+
+        TraceAnalysis result = testSubject.analyze(Arrays.asList(first, second));
+
+        assertThat(result.duration(), is(40L));
+        assertThat(result.contribution(CriticalPathCalculator.UNTRACED_OPERATION).selfTime(), is(20L));
+        assertThat(totalAttributed(result), is(40L));
+    }
+
+    @Test
+    public void testServerSideOfSharedSpanIsChildOfClientSide() {
+        SpanRecord client = span("a", null, "dispatch", 0, 100, null, null);
+        SpanRecord server = new SpanRecord("1", "a", null, "handle", "SERVER", 20, 60, true, null, null, null);
+
+        TraceAnalysis result = testSubject.analyze(Arrays.asList(server, client));
+
+        assertThat(result.rootOperation(), is("dispatch"));
+        assertThat(result.contribution("dispatch").selfTime(), is(40L));
+        assertThat(result.contribution("handle").selfTime(), is(60L));
+    }
+
+    @Test
+    public void testIgnoresCyclesInMalformedTraces() {
+        SpanRecord first = span("a", "b", "first", 0, 10, null, null);
+        SpanRecord second = span("b", "a", "second", 5, 10, null, null);
+
+        TraceAnalysis result = testSubject.analyze(Arrays.asList(first, second));
+
+        assertThat(result.contributions().isEmpty(), is(true));
+    }
+
+    private static long totalAttributed(TraceAnalysis analysis) {
+        return analysis.contributions().stream().mapToLong(TraceAnalysis.Contribution::totalTime).sum();
+    }
+
+    private static SpanRecord span(String id, String parentId, String name, long timestamp, long duration,
+                                   String messageType, String payloadType) {
+        return new SpanRecord("1", id, parentId, name, null, timestamp, duration, false,
+                              messageType, payloadType, null);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.analyzer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Test class for the {@link ZipkinSpanReader} and {@link TraceAssembler}.
+ */
+public class ZipkinSpanReaderTest {
+
+    private final ZipkinSpanReader testSubject = new ZipkinSpanReader();
+    private final List<List<SpanRecord>> traces = new ArrayList<>();
+
+    @Test
+    public void testReadsArrayOfSpans() throws IOException {
+        read("[{\"traceId\":\"1\",\"id\":\"a\",\"name\":\"sendcommandmessage\",\"timestamp\":10,\"duration\":5,"
+                     + "\"localEndpoint\":{\"serviceName\":\"orders\"},"
+                     + "\"tags\":{\"axon.message.type\":\"CommandMessage\","
+                     + "\"axon.message.commandname\":\"PlaceOrder\",\"axon.message.id\":\"42\"}},"
+                     + "{\"traceId\":\"1\",\"id\":\"b\",\"parentId\":\"a\",\"kind\":\"SERVER\",\"shared\":true}]");
+
+        assertThat(traces.size(), is(1));
+        SpanRecord command = traces.get(0).get(0);
+        assertThat(command.timestamp(), is(10L));
+        assertThat(command.end(), is(15L));
+        assertThat(command.messageType(), is("CommandMessage"));
+        assertThat(command.commandName(), is("PlaceOrder"));
+        assertThat(command.payloadType(), nullValue());
+        assertThat(command.operation(), is("sendcommandmessage PlaceOrder"));
+        SpanRecord server = traces.get(0).get(1);
+        assertThat(server.parentId(), is("a"));
+        assertThat(server.kind(), is("SERVER"));
+        assertThat(server.shared(), is(true));
+        assertThat(server.name(), is("unknown"));
+    }
+
+    @Test
+    public void testReadsArrayOfTracesAsSeparateTraces() throws IOException {
+        read("[[{\"traceId\":\"1\",\"id\":\"a\"},{\"traceId\":\"1\",\"id\":\"b\"}],"
+                     + "[{\"traceId\":\"2\",\"id\":\"c\"}]]");
+
+        assertThat(traces.size(), is(2));
+        assertThat(traces.get(0).size(), is(2));
+        assertThat(traces.get(1).size(), is(1));
+    }
+
+    @Test
+    public void testGroupsNewlineDelimitedSpansByTrace() throws IOException {
+        read("{\"traceId\":\"1\",\"id\":\"a\"}\n"
+                     + "{\"traceId\":\"2\",\"id\":\"b\"}\n"
+                     + "{\"traceId\":\"1\",\"id\":\"c\",\"parentId\":\"a\"}\n");
+
+        assertThat(traces.size(), is(2));
+        // traces are completed least recently updated first
+        assertThat(traces.get(0).get(0).traceId(), is("2"));
+        assertThat(traces.get(1).size(), is(2));
+    }
+
+    @Test
+    public void testCompletesLeastRecentlyUpdatedTraceWhenExceedingMaxOpenTraces() throws IOException {
+        TraceAssembler assembler = new TraceAssembler(1, traces::add);
+
+        testSubject.read(input("{\"traceId\":\"1\",\"id\":\"a\"}{\"traceId\":\"2\",\"id\":\"b\"}"), assembler);
+
+        assertThat(traces.size(), is(1));
+        assertThat(traces.get(0).get(0).traceId(), is("1"));
+        assertThat(traces.get(0).get(0).timestamp(), is(0L));
+    }
+
+    private void read(String json) throws IOException {
+        TraceAssembler assembler = new TraceAssembler(100, traces::add);
+        testSubject.read(input(json), assembler);
+        assembler.flush();
+    }
+
+    private static ByteArrayInputStream input(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.benchmarks;
+
+import brave.Tracing;
+import java.util.concurrent.TimeUnit;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
+import org.axonframework.extensions.tracing.TracingCommandGateway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead of the {@link TracingCommandGateway} on sending a command to a {@link SimpleCommandBus} and
+ * waiting for its result, compared to a {@link DefaultCommandGateway}.
+ *
+ * @since 4.2
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandGatewayBenchmark {
+
+    @Param
+    private TracingMode mode;
+
+    private Tracing tracing;
+    private CommandGateway commandGateway;
+
+    @Setup
+    public void setUp() {
+        tracing = mode.createTracing();
+        CommandBus commandBus = SimpleCommandBus.builder().build();
+        commandBus.subscribe(String.class.getName(), command -> "result");
+        commandGateway = mode.isTraced()
+                ? TracingCommandGateway.builder().tracer(tracing).delegateCommandBus(commandBus).build()
+                : DefaultCommandGateway.builder().commandBus(commandBus).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (tracing != null) {
+            tracing.close();
+        }
+    }
+
+    @Benchmark
+    public Object sendAndWait() {
+        return commandGateway.sendAndWait("command");
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.benchmarks;
+
+import brave.Tracing;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.axonframework.extensions.tracing.OpenTraceDispatchInterceptor;
+import org.axonframework.extensions.tracing.OpenTraceHandlerInterceptor;
+import org.axonframework.messaging.DefaultInterceptorChain;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.MessageHandler;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.ResultMessage;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead of the {@link OpenTraceHandlerInterceptor} on handling a message carrying trace context in
+ * its metadata, compared to handling the message within a {@link DefaultUnitOfWork} without interceptors.
+ *
+ * @since 4.2
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandlerInterceptorBenchmark {
+
+    private static final MessageHandler<Message<?>> HANDLER = message -> "result";
+
+    @Param
+    private TracingMode mode;
+
+    private Tracing tracing;
+    private List<MessageHandlerInterceptor<Message<?>>> interceptors;
+    private Message<?> message;
+
+    @Setup
+    public void setUp() {
+        tracing = mode.createTracing();
+        message = new GenericMessage<>("payload");
+        if (mode.isTraced()) {
+            interceptors = Collections.singletonList(new OpenTraceHandlerInterceptor(tracing));
+            try (ParentSpan ignored = ParentSpan.open(tracing)) {
+                message = new OpenTraceDispatchInterceptor(tracing).handle(message);
+            }
+        } else {
+            interceptors = Collections.emptyList();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (tracing != null) {
+            tracing.close();
+        }
+    }
+
+    @Benchmark
+    public ResultMessage<?> handle() {
+        DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(message);
+        return unitOfWork.executeWithResult(
+                () -> new DefaultInterceptorChain<>(unitOfWork, interceptors, HANDLER).proceed()
+        );
+    }
+}
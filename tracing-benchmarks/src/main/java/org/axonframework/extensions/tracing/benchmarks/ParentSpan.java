@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.benchmarks;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+
+/**
+ * Keeps a span in scope on the benchmark thread, as is the case when messages are dispatched from within a handler
+ * or traced request.
+ *
+ * @since 4.2
+ */
+final class ParentSpan implements AutoCloseable {
+
+    private final Span span;
+    private final Tracer.SpanInScope scope;
+
+    private ParentSpan(Tracing tracing) {
+        this.span = tracing.tracer().nextSpan().name("benchmark").start();
+        this.scope = tracing.tracer().withSpanInScope(span);
+    }
+
+    /**
+     * Start a span and put it in scope of the current thread, if the given {@code tracing} is not {@code null}.
+     *
+     * @param tracing the {@link Tracing} to start the span with, or {@code null} for an undecorated benchmark
+     * @return the span in scope, or {@code null} if no tracing is used
+     */
+    static ParentSpan open(Tracing tracing) {
+        return tracing == null ? null : new ParentSpan(tracing);
+    }
+
+    /**
+     * Close the scope and finish the span of the given {@code parentSpan}, if not {@code null}.
+     *
+     * @param parentSpan the span in scope to close, or {@code null}
+     */
+    static void close(ParentSpan parentSpan) {
+        if (parentSpan != null) {
+            parentSpan.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        scope.close();
+        span.finish();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.benchmarks;
+
+import brave.Tracing;
+import java.util.concurrent.TimeUnit;
+import org.axonframework.extensions.tracing.TracingQueryGateway;
+import org.axonframework.queryhandling.DefaultQueryGateway;
+import org.axonframework.queryhandling.QueryBus;
+import org.axonframework.queryhandling.QueryGateway;
+import org.axonframework.queryhandling.SimpleQueryBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead of the {@link TracingQueryGateway} on sending a point-to-point query to a
+ * {@link SimpleQueryBus} and waiting for its result, compared to a {@link DefaultQueryGateway}.
+ *
+ * @since 4.2
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueryGatewayBenchmark {
+
+    @Param
+    private TracingMode mode;
+
+    private Tracing tracing;
+    private QueryGateway queryGateway;
+
+    @Setup
+    public void setUp() {
+        tracing = mode.createTracing();
+        QueryBus queryBus = SimpleQueryBus.builder().build();
+        queryBus.subscribe(String.class.getName(), String.class, query -> "result");
+        queryGateway = mode.isTraced()
+                ? TracingQueryGateway.builder().tracer(tracing).delegateQueryBus(queryBus).build()
+                : DefaultQueryGateway.builder().queryBus(queryBus).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (tracing != null) {
+            tracing.close();
+        }
+    }
+
+    @Benchmark
+    public String query() {
+        return queryGateway.query("query", String.class).join();
+    }
+}
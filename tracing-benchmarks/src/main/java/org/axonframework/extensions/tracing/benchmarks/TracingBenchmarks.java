@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the tracing benchmarks with the {@link GCProfiler} enabled, reporting the allocation rate per operation next to
+ * throughput and latency. Results are written as JSON to {@code jmh-result.json}, to allow comparing versions of the
+ * extension.
+ * <p>
+ * Accepts the regular JMH command line options, which take precedence over these defaults. For example, pass
+ * {@code Dispatch -p mode=SAMPLED,UNDECORATED} to only run the dispatch interceptor benchmark with and without
+ * sampled tracing.
+ *
+ * @since 4.2
+ */
+public class TracingBenchmarks {
+
+    /**
+     * Run the tracing benchmarks.
+     *
+     * @param args the JMH command line options
+     * @throws CommandLineOptionException if the command line options are invalid
+     * @throws RunnerException            if running the benchmarks fails
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        Options options = new OptionsBuilder().parent(new CommandLineOptions(args))
+                                              .include(TracingBenchmarks.class.getPackage().getName() + ".*Benchmark")
+                                              .addProfiler(GCProfiler.class)
+                                              .resultFormat(ResultFormatType.JSON)
+                                              .result("jmh-result.json")
+                                              .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.benchmarks;
+
+import brave.Tracing;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import brave.sampler.Sampler;
+
+/**
+ * The tracing configurations each benchmark is run with.
+ *
+ * @since 4.2
+ */
+public enum TracingMode {
+
+    /**
+     * The component is not decorated with tracing at all, serving as the baseline.
+     */
+    UNDECORATED,
+    /**
+     * The tracing component is used, but {@link Tracing#setNoop(boolean) tracing is disabled}.
+     */
+    NOOP,
+    /**
+     * The tracing component is used with a sampler which never samples, so spans are not recorded.
+     */
+    UNSAMPLED,
+    /**
+     * The tracing component is used with a sampler which always samples, so every span is recorded and reported to a
+     * reporter which discards it.
+     */
+    SAMPLED;
+
+    /**
+     * Returns whether the component under test should be decorated with tracing in this mode.
+     *
+     * @return whether the component under test should be decorated with tracing
+     */
+    public boolean isTraced() {
+        return this != UNDECORATED;
+    }
+
+    /**
+     * Create the {@link Tracing} instance for this mode, or {@code null} if this mode is {@link #UNDECORATED}.
+     *
+     * @return the {@link Tracing} instance for this mode, or {@code null}
+     */
+    public Tracing createTracing() {
+        if (!isTraced()) {
+            return null;
+        }
+        Tracing tracing = Tracing.newBuilder()
+                                 .localServiceName("axon-tracing-benchmarks")
+                                 .currentTraceContext(ThreadLocalCurrentTraceContext.create())
+                                 .sampler(this == UNSAMPLED ? Sampler.NEVER_SAMPLE : Sampler.ALWAYS_SAMPLE)
+                                 .spanReporter(span -> {
+                                 })
+                                 .build();
+        tracing.setNoop(this == NOOP);
+        return tracing;
+    }
+}
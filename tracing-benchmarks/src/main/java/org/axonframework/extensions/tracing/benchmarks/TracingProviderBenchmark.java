@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.benchmarks;
+
+import brave.Tracing;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.axonframework.extensions.tracing.TracingProvider;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.correlation.CorrelationDataProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead of the {@link TracingProvider} on resolving the correlation data of a message, compared to a
+ * {@link CorrelationDataProvider} providing no correlation data.
+ *
+ * @since 4.2
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TracingProviderBenchmark {
+
+    @Param
+    private TracingMode mode;
+
+    private Tracing tracing;
+    private ParentSpan parentSpan;
+    private CorrelationDataProvider provider;
+    private Message<?> message;
+
+    @Setup
+    public void setUp() {
+        tracing = mode.createTracing();
+        provider = mode.isTraced() ? new TracingProvider(tracing) : m -> Collections.emptyMap();
+        message = new GenericMessage<>("payload");
+        parentSpan = ParentSpan.open(tracing);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ParentSpan.close(parentSpan);
+        if (tracing != null) {
+            tracing.close();
+        }
+    }
+
+    @Benchmark
+    public Map<String, ?> correlationData() {
+        return provider.correlationDataFor(message);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.harness;
+
+import static org.axonframework.modelling.command.AggregateLifecycle.apply;
+
+import org.axonframework.commandhandling.CommandHandler;
+import org.axonframework.eventsourcing.EventSourcingHandler;
+import org.axonframework.extensions.tracing.harness.AccountApi.AccountOpenedEvent;
+import org.axonframework.extensions.tracing.harness.AccountApi.DepositCommand;
+import org.axonframework.extensions.tracing.harness.AccountApi.DepositedEvent;
+import org.axonframework.extensions.tracing.harness.AccountApi.OpenAccountCommand;
+import org.axonframework.modelling.command.AggregateIdentifier;
+import org.axonframework.spring.stereotype.Aggregate;
+
+/**
+ * Event sourced account aggregate the load harness sends its commands to.
+ *
+ * @since 4.2
+ */
+@Aggregate
+public class Account {
+
+    @AggregateIdentifier
+    private String accountId;
+    private long balance;
+
+    @CommandHandler
+    public Account(OpenAccountCommand command) {
+        apply(new AccountOpenedEvent(command.getAccountId()));
+    }
+
+    @CommandHandler
+    public long handle(DepositCommand command) {
+        apply(new DepositedEvent(accountId, command.getAmount()));
+        return balance;
+    }
+
+    @EventSourcingHandler
+    public void on(AccountOpenedEvent event) {
+        this.accountId = event.getAccountId();
+    }
+
+    @EventSourcingHandler
+    public void on(DepositedEvent event) {
+        this.balance += event.getAmount();
+    }
+
+    protected Account() {
+        // Required by Axon
+    }
+}
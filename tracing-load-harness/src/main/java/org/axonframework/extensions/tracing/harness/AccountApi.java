@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.harness;
+
+import java.util.Objects;
+import org.axonframework.modelling.command.TargetAggregateIdentifier;
+
+/**
+ * The commands, events and queries of the account domain the load harness drives.
+ *
+ * @since 4.2
+ */
+public final class AccountApi {
+
+    private AccountApi() {
+        // Utility class
+    }
+
+    /**
+     * Command to open an account.
+     */
+    public static class OpenAccountCommand {
+
+        @TargetAggregateIdentifier
+        private final String accountId;
+
+        public OpenAccountCommand(String accountId) {
+            this.accountId = accountId;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+    }
+
+    /**
+     * Command to deposit an amount on an account.
+     */
+    public static class DepositCommand {
+
+        @TargetAggregateIdentifier
+        private final String accountId;
+        private final long amount;
+
+        public DepositCommand(String accountId, long amount) {
+            this.accountId = accountId;
+            this.amount = amount;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public long getAmount() {
+            return amount;
+        }
+    }
+
+    /**
+     * Event signaling an account was opened.
+     */
+    public static class AccountOpenedEvent {
+
+        private final String accountId;
+
+        public AccountOpenedEvent(String accountId) {
+            this.accountId = accountId;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+    }
+
+    /**
+     * Event signaling an amount was deposited on an account.
+     */
+    public static class DepositedEvent {
+
+        private final String accountId;
+        private final long amount;
+
+        public DepositedEvent(String accountId, long amount) {
+            this.accountId = accountId;
+            this.amount = amount;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public long getAmount() {
+            return amount;
+        }
+    }
+
+    /**
+     * Query for the balance of an account.
+     */
+    public static class FindBalanceQuery {
+
+        private final String accountId;
+
+        public FindBalanceQuery(String accountId) {
+            this.accountId = accountId;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return Objects.equals(accountId, ((FindBalanceQuery) o).accountId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.harness;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.axonframework.config.ProcessingGroup;
+import org.axonframework.eventhandling.EventHandler;
+import org.axonframework.extensions.tracing.harness.AccountApi.AccountOpenedEvent;
+import org.axonframework.extensions.tracing.harness.AccountApi.DepositedEvent;
+import org.axonframework.extensions.tracing.harness.AccountApi.FindBalanceQuery;
+import org.axonframework.queryhandling.QueryHandler;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Projection of the account balances, updated by a tracking event processor. Answers balance queries and emits
+ * updates to subscription queries for the balance of an account.
+ *
+ * @since 4.2
+ */
+@Component
+@ProcessingGroup("balances")
+public class BalanceProjection {
+
+    private final Map<String, Long> balances = new ConcurrentHashMap<>();
+    private final QueryUpdateEmitter queryUpdateEmitter;
+
+    public BalanceProjection(QueryUpdateEmitter queryUpdateEmitter) {
+        this.queryUpdateEmitter = queryUpdateEmitter;
+    }
+
+    @EventHandler
+    public void on(AccountOpenedEvent event) {
+        balances.put(event.getAccountId(), 0L);
+    }
+
+    @EventHandler
+    public void on(DepositedEvent event) {
+        long balance = balances.merge(event.getAccountId(), event.getAmount(), Long::sum);
+        queryUpdateEmitter.emit(FindBalanceQuery.class,
+                                query -> query.getAccountId().equals(event.getAccountId()),
+                                balance);
+    }
+
+    @QueryHandler
+    public Long handle(FindBalanceQuery query) {
+        return balances.get(query.getAccountId());
+    }
+
+    /**
+     * Returns the number of accounts known to this projection.
+     *
+     * @return the number of accounts known to this projection
+     */
+    public int accountCount() {
+        return balances.size();
+    }
+}
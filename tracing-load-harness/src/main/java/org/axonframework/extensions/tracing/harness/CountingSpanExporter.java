@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.harness;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import org.axonframework.extensions.tracing.SpanBatchExporter;
+import zipkin2.Span;
+import zipkin2.codec.SpanBytesEncoder;
+
+/**
+ * Local stand-in for a tracing backend, encoding the exported spans as a Zipkin reporter would and discarding them
+ * afterwards, counting spans and encoded bytes.
+ *
+ * @since 4.2
+ */
+public class CountingSpanExporter implements SpanBatchExporter {
+
+    private final LongAdder spans = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    @Override
+    public void export(List<Span> batch) {
+        bytes.add(SpanBytesEncoder.JSON_V2.encodeList(batch).length);
+        spans.add(batch.size());
+    }
+
+    /**
+     * Returns the number of spans exported so far.
+     *
+     * @return the number of spans exported so far
+     */
+    public long spans() {
+        return spans.sum();
+    }
+
+    /**
+     * Returns the number of bytes the spans exported so far were encoded in.
+     *
+     * @return the number of bytes the spans exported so far were encoded in
+     */
+    public long bytes() {
+        return bytes.sum();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.harness;
+
+import brave.Tracing;
+import brave.sampler.Sampler;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.eventsourcing.eventstore.EventStorageEngine;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.extensions.tracing.BatchingSpanReporter;
+import org.axonframework.queryhandling.QueryGateway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the in-memory infrastructure of the load harness and, for traced runs, the {@link Tracing} instance
+ * used by the {@code TracingAutoConfiguration}.
+ *
+ * @since 4.2
+ */
+@Configuration
+@EnableConfigurationProperties(LoadProperties.class)
+public class HarnessConfiguration {
+
+    /**
+     * The property enabling tracing for a run.
+     */
+    public static final String TRACING_ENABLED_PROPERTY = "load.tracing.enabled";
+
+    @Bean
+    public EventStorageEngine eventStorageEngine() {
+        return new InMemoryEventStorageEngine();
+    }
+
+    @Bean
+    public LoadDriver loadDriver(CommandGateway commandGateway,
+                                 QueryGateway queryGateway,
+                                 BalanceProjection balanceProjection,
+                                 LoadProperties properties,
+                                 ObjectProvider<BatchingSpanReporter> spanReporter,
+                                 ObjectProvider<CountingSpanExporter> spanExporter) {
+        return new LoadDriver(commandGateway, queryGateway, balanceProjection, properties,
+                              spanReporter.getIfAvailable(), spanExporter.getIfAvailable());
+    }
+
+    /**
+     * Tracing infrastructure reporting to a {@link CountingSpanExporter}, only present in traced runs.
+     */
+    @Configuration
+    @ConditionalOnProperty(value = TRACING_ENABLED_PROPERTY, havingValue = "true")
+    public static class TracingConfiguration {
+
+        @Bean
+        public CountingSpanExporter countingSpanExporter() {
+            return new CountingSpanExporter();
+        }
+
+        @Bean(destroyMethod = "close")
+        public BatchingSpanReporter batchingSpanReporter(CountingSpanExporter exporter) {
+            return BatchingSpanReporter.builder().exporter(exporter).build();
+        }
+
+        @Bean(destroyMethod = "close")
+        public Tracing tracing(BatchingSpanReporter reporter, LoadProperties properties) {
+            return Tracing.newBuilder()
+                          .localServiceName("axon-tracing-load-harness")
+                          .sampler(Sampler.create(properties.getSampleRate()))
+                          .spanReporter(reporter)
+                          .build();
+        }
+    }
+}
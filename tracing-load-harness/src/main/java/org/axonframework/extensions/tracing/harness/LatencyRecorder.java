@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.harness;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the latencies of a single kind of operation during a measurement. Latencies are kept in a preallocated
+ * array sized for the expected number of operations; latencies exceeding the capacity are counted but not kept.
+ *
+ * @since 4.2
+ */
+public class LatencyRecorder {
+
+    private final long[] latencies;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Initialize a recorder able to keep the given number of latencies.
+     *
+     * @param capacity the number of latencies to keep
+     */
+    public LatencyRecorder(int capacity) {
+        this.latencies = new long[capacity];
+    }
+
+    /**
+     * Record the latency of a successful operation.
+     *
+     * @param latencyNanos the latency of the operation, in nanoseconds
+     */
+    public void record(long latencyNanos) {
+        int index = recorded.getAndIncrement();
+        if (index < latencies.length) {
+            latencies[index] = latencyNanos;
+        }
+    }
+
+    /**
+     * Record an operation which failed.
+     */
+    public void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * Returns the statistics of all latencies recorded. Should only be invoked once all operations completed.
+     *
+     * @return the statistics of all latencies recorded
+     */
+    public Snapshot snapshot() {
+        int count = recorded.get();
+        long[] sorted = Arrays.copyOf(latencies, Math.min(count, latencies.length));
+        Arrays.sort(sorted);
+        return new Snapshot(count, errors.sum(), sorted);
+    }
+
+    /**
+     * The statistics of the latencies recorded by a {@link LatencyRecorder}.
+     */
+    public static class Snapshot {
+
+        private final long count;
+        private final long errors;
+        private final long[] sortedLatencies;
+
+        private Snapshot(long count, long errors, long[] sortedLatencies) {
+            this.count = count;
+            this.errors = errors;
+            this.sortedLatencies = sortedLatencies;
+        }
+
+        /**
+         * Returns the number of successful operations.
+         *
+         * @return the number of successful operations
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Returns the number of failed operations.
+         *
+         * @return the number of failed operations
+         */
+        public long errors() {
+            return errors;
+        }
+
+        /**
+         * Returns the latency below which the given {@code percentile} of the kept latencies fall.
+         *
+         * @param percentile the percentile, between {@code 0} and {@code 100}
+         * @param unit       the {@link TimeUnit} to express the latency in
+         * @return the latency at the given percentile
+         */
+        public double percentile(double percentile, TimeUnit unit) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))]
+                    / (double) unit.toNanos(1);
+        }
+
+        /**
+         * Returns the highest latency kept.
+         *
+         * @param unit the {@link TimeUnit} to express the latency in
+         * @return the highest latency kept
+         */
+        public double max(TimeUnit unit) {
+            return percentile(100, unit);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.harness;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.common.AxonThreadFactory;
+import org.axonframework.extensions.tracing.BatchingSpanReporter;
+import org.axonframework.extensions.tracing.harness.AccountApi.DepositCommand;
+import org.axonframework.extensions.tracing.harness.AccountApi.FindBalanceQuery;
+import org.axonframework.extensions.tracing.harness.AccountApi.OpenAccountCommand;
+import org.axonframework.queryhandling.QueryGateway;
+import org.axonframework.queryhandling.SubscriptionQueryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drives a mix of deposit commands, balance queries and subscription queries at a fixed rate against the account
+ * domain.
+ * <p>
+ * Operations are started according to a fixed schedule, regardless of whether earlier operations completed, and
+ * executed on a bounded pool of worker threads. The latency of an operation is measured from the moment it was
+ * scheduled to start, so time spent queueing for a worker is included and a saturated application shows up as
+ * increasing latency rather than as a silently lowered rate.
+ *
+ * @since 4.2
+ */
+public class LoadDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String COMMAND = "command";
+    private static final String QUERY = "query";
+    private static final String SUBSCRIPTION_QUERY = "subscription-query";
+    private static final Duration UPDATE_TIMEOUT = Duration.ofSeconds(10);
+    private static final long COMPLETION_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final CommandGateway commandGateway;
+    private final QueryGateway queryGateway;
+    private final BalanceProjection balanceProjection;
+    private final LoadProperties properties;
+    private final BatchingSpanReporter spanReporter;
+    private final CountingSpanExporter spanExporter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Initialize a driver sending its operations through the given gateways.
+     *
+     * @param commandGateway    the {@link CommandGateway} to send deposit commands with
+     * @param queryGateway      the {@link QueryGateway} to send balance queries with
+     * @param balanceProjection the projection answering the queries, used to await the opening of the accounts
+     * @param properties        the settings of the run
+     * @param spanReporter      the reporter of the spans, or {@code null} for a run without tracing
+     * @param spanExporter      the exporter counting the reported spans, or {@code null} for a run without tracing
+     */
+    public LoadDriver(CommandGateway commandGateway, QueryGateway queryGateway, BalanceProjection balanceProjection,
+                      LoadProperties properties, BatchingSpanReporter spanReporter,
+                      CountingSpanExporter spanExporter) {
+        this.commandGateway = commandGateway;
+        this.queryGateway = queryGateway;
+        this.balanceProjection = balanceProjection;
+        this.properties = properties;
+        this.spanReporter = spanReporter;
+        this.spanExporter = spanExporter;
+    }
+
+    /**
+     * Open the accounts, warm up and measure the configured operation mix.
+     *
+     * @param label the label of the run
+     * @return the results of the measurement
+     * @throws InterruptedException if the thread is interrupted while driving the load
+     */
+    public LoadResult run(String label) throws InterruptedException {
+        List<String> accounts = openAccounts();
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getThreads(),
+                                                               new AxonThreadFactory("load-harness"));
+        try {
+            logger.info("[{}] Warming up for {}", label, properties.getWarmup());
+            drive(workers, accounts, properties.getWarmup(), null);
+            awaitCompletion();
+
+            logger.info("[{}] Measuring {} operations per second for {}",
+                        label, properties.getRate(), properties.getDuration());
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, expectedOperations(properties.getDuration()));
+            Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+            recorders.put(COMMAND, new LatencyRecorder(capacity));
+            recorders.put(QUERY, new LatencyRecorder(capacity));
+            recorders.put(SUBSCRIPTION_QUERY, new LatencyRecorder(capacity));
+            long spansBefore = exportedSpans();
+            long spanBytesBefore = spanExporter == null ? 0 : spanExporter.bytes();
+            long start = System.nanoTime();
+            drive(workers, accounts, properties.getDuration(), recorders);
+            awaitCompletion();
+            long elapsed = System.nanoTime() - start;
+            long spans = exportedSpans() - spansBefore;
+            long spanBytes = spanExporter == null ? 0 : spanExporter.bytes() - spanBytesBefore;
+
+            Map<String, LatencyRecorder.Snapshot> snapshots = new LinkedHashMap<>();
+            recorders.forEach((operation, recorder) -> snapshots.put(operation, recorder.snapshot()));
+            return new LoadResult(label, elapsed, snapshots, spans, spanBytes);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private List<String> openAccounts() throws InterruptedException {
+        List<String> accounts = new ArrayList<>(properties.getAccounts());
+        for (int i = 0; i < properties.getAccounts(); i++) {
+            String accountId = UUID.randomUUID().toString();
+            commandGateway.sendAndWait(new OpenAccountCommand(accountId));
+            accounts.add(accountId);
+        }
+        long deadline = System.nanoTime() + COMPLETION_TIMEOUT_NANOS;
+        while (balanceProjection.accountCount() < accounts.size()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("The balance projection did not catch up with the opened accounts");
+            }
+            Thread.sleep(10);
+        }
+        return accounts;
+    }
+
+    private long expectedOperations(Duration duration) {
+        return Math.max(1, properties.getRate() * duration.toNanos() / 1_000_000_000L);
+    }
+
+    private void drive(ExecutorService workers, List<String> accounts, Duration duration,
+                       Map<String, LatencyRecorder> recorders) {
+        long operations = duration.isZero() ? 0 : expectedOperations(duration);
+        long intervalNanos = 1_000_000_000L / Math.max(1, properties.getRate());
+        int totalWeight = properties.getCommandWeight()
+                + properties.getQueryWeight()
+                + properties.getSubscriptionQueryWeight();
+        long start = System.nanoTime();
+        for (long i = 0; i < operations; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long delay = intendedStart - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            String accountId = accounts.get(ThreadLocalRandom.current().nextInt(accounts.size()));
+            int pick = ThreadLocalRandom.current().nextInt(Math.max(1, totalWeight));
+            String operation = pick < properties.getCommandWeight() ? COMMAND
+                    : pick < properties.getCommandWeight() + properties.getQueryWeight() ? QUERY
+                    : SUBSCRIPTION_QUERY;
+            LatencyRecorder recorder = recorders == null ? null : recorders.get(operation);
+            inFlight.incrementAndGet();
+            workers.execute(() -> execute(operation, accountId).whenComplete(
+                    (result, exception) -> complete(recorder, intendedStart, exception)
+            ));
+        }
+    }
+
+    private CompletableFuture<?> execute(String operation, String accountId) {
+        try {
+            switch (operation) {
+                case COMMAND:
+                    return commandGateway.send(new DepositCommand(accountId, 1));
+                case QUERY:
+                    return queryGateway.query(new FindBalanceQuery(accountId), Long.class);
+                default:
+                    return awaitDepositUpdate(accountId);
+            }
+        } catch (Exception e) {
+            CompletableFuture<?> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    /**
+     * Subscribe to the balance of the given account, deposit on it and complete once the tracking processor updated
+     * the projection and emitted the new balance.
+     */
+    private CompletableFuture<Long> awaitDepositUpdate(String accountId) {
+        SubscriptionQueryResult<Long, Long> subscription =
+                queryGateway.subscriptionQuery(new FindBalanceQuery(accountId), Long.class, Long.class);
+        CompletableFuture<Long> update = subscription.updates()
+                                                     .next()
+                                                     .timeout(UPDATE_TIMEOUT)
+                                                     .toFuture()
+                                                     .whenComplete((balance, exception) -> subscription.cancel());
+        commandGateway.send(new DepositCommand(accountId, 1)).whenComplete((result, exception) -> {
+            if (exception != null) {
+                update.completeExceptionally(exception);
+            }
+        });
+        return update;
+    }
+
+    private void complete(LatencyRecorder recorder, long intendedStart, Throwable exception) {
+        if (recorder != null) {
+            if (exception == null) {
+                recorder.record(System.nanoTime() - intendedStart);
+            } else {
+                recorder.recordError();
+            }
+        }
+        inFlight.decrementAndGet();
+    }
+
+    private long exportedSpans() {
+        if (spanExporter == null) {
+            return 0;
+        }
+        spanReporter.flush();
+        return spanExporter.spans();
+    }
+
+    private void awaitCompletion() throws InterruptedException {
+        long deadline = System.nanoTime() + COMPLETION_TIMEOUT_NANOS;
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                logger.warn("{} operations did not complete in time and are left out of the results", inFlight.get());
+                return;
+            }
+            Thread.sleep(1);
+        }
+    }
+}
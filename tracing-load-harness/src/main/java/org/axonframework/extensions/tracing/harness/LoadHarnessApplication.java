@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.harness;
+
+import org.axonframework.extensions.tracing.autoconfig.TracingAutoConfiguration;
+import org.axonframework.springboot.autoconfig.AxonServerAutoConfiguration;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+
+/**
+ * Runs the load harness, comparing runs with the tracing extension disabled to runs with the
+ * {@link TracingAutoConfiguration} active, each in a fresh application context with an in-memory event store,
+ * tracking event processors and local buses instead of Axon Server.
+ * <p>
+ * All runs warm up before measuring, but share the JVM, so a run benefits from the JIT compilation and class loading
+ * done by the runs before it. To expose this bias rather than hide it in the overhead, the runs alternate: a baseline
+ * run is followed by two traced runs and another baseline run. The overhead is reported for both orders; measuring
+ * the traced run after the baseline understates it, measuring it before the baseline overstates it.
+ * <p>
+ * Runs are configured through the {@code load.*} properties described by {@link LoadProperties}, for example
+ * {@code --load.rate=2000 --load.duration=60s --load.sample-rate=0.1}.
+ *
+ * @since 4.2
+ */
+@SpringBootApplication
+public class LoadHarnessApplication {
+
+    /**
+     * Run the load harness.
+     *
+     * @param args the command line arguments, used as Spring Boot properties
+     * @throws InterruptedException if the thread is interrupted while driving the load
+     */
+    public static void main(String[] args) throws InterruptedException {
+        boolean skipBaseline = Boolean.parseBoolean(
+                new SimpleCommandLinePropertySource(args).getProperty("load.skip-baseline")
+        );
+
+        if (skipBaseline) {
+            LoadReport.print(System.out, "Traced run only", null, run(args, true, "traced"));
+            return;
+        }
+        LoadResult firstBaseline = run(args, false, "baseline-1");
+        LoadResult firstTraced = run(args, true, "traced-1");
+        LoadResult secondTraced = run(args, true, "traced-2");
+        LoadResult secondBaseline = run(args, false, "baseline-2");
+        LoadReport.print(System.out, "Traced run after baseline run", firstBaseline, firstTraced);
+        LoadReport.print(System.out, "Traced run before baseline run", secondBaseline, secondTraced);
+    }
+
+    private static LoadResult run(String[] args, boolean tracingEnabled, String label) throws InterruptedException {
+        SpringApplicationBuilder application =
+                new SpringApplicationBuilder(LoadHarnessApplication.class)
+                        .web(WebApplicationType.NONE)
+                        .bannerMode(Banner.Mode.OFF)
+                        .properties(HarnessConfiguration.TRACING_ENABLED_PROPERTY + "=" + tracingEnabled);
+        String excludedAutoConfiguration = AxonServerAutoConfiguration.class.getName();
+        if (!tracingEnabled) {
+            excludedAutoConfiguration += "," + TracingAutoConfiguration.class.getName();
+        }
+        application.properties("spring.autoconfigure.exclude=" + excludedAutoConfiguration);
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            return context.getBean(LoadDriver.class).run(label);
+        }
+    }
+}
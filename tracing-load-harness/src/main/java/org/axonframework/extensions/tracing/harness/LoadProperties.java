@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.harness;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of a load harness run, bound from the {@code load.*} properties.
+ *
+ * @since 4.2
+ */
+@ConfigurationProperties("load")
+public class LoadProperties {
+
+    /**
+     * The number of operations to start per second.
+     */
+    private int rate = 1000;
+    /**
+     * The duration of the warm up, of which the results are discarded.
+     */
+    private Duration warmup = Duration.ofSeconds(10);
+    /**
+     * The duration of the measurement.
+     */
+    private Duration duration = Duration.ofSeconds(30);
+    /**
+     * The number of threads executing operations. As commands and queries are handled on the dispatching thread,
+     * this bounds the concurrency of the application.
+     */
+    private int threads = 16;
+    /**
+     * The number of accounts to spread the commands and queries over.
+     */
+    private int accounts = 1000;
+    /**
+     * The relative weight of deposit commands in the operation mix.
+     */
+    private int commandWeight = 50;
+    /**
+     * The relative weight of balance queries in the operation mix.
+     */
+    private int queryWeight = 40;
+    /**
+     * The relative weight of subscription queries awaiting the update of a deposit in the operation mix.
+     */
+    private int subscriptionQueryWeight = 10;
+    /**
+     * The fraction of traces to sample when tracing is enabled.
+     */
+    private float sampleRate = 1.0f;
+    /**
+     * Whether to only run with tracing enabled, skipping the baseline run without tracing.
+     */
+    private boolean skipBaseline = false;
+
+    public int getRate() {
+        return rate;
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Duration warmup) {
+        this.warmup = warmup;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getAccounts() {
+        return accounts;
+    }
+
+    public void setAccounts(int accounts) {
+        this.accounts = accounts;
+    }
+
+    public int getCommandWeight() {
+        return commandWeight;
+    }
+
+    public void setCommandWeight(int commandWeight) {
+        this.commandWeight = commandWeight;
+    }
+
+    public int getQueryWeight() {
+        return queryWeight;
+    }
+
+    public void setQueryWeight(int queryWeight) {
+        this.queryWeight = queryWeight;
+    }
+
+    public int getSubscriptionQueryWeight() {
+        return subscriptionQueryWeight;
+    }
+
+    public void setSubscriptionQueryWeight(int subscriptionQueryWeight) {
+        this.subscriptionQueryWeight = subscriptionQueryWeight;
+    }
+
+    public float getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(float sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public boolean isSkipBaseline() {
+        return skipBaseline;
+    }
+
+    public void setSkipBaseline(boolean skipBaseline) {
+        this.skipBaseline = skipBaseline;
+    }
+}
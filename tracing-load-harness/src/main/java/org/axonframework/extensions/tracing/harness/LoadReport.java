@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.harness;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints the results of the load harness runs, and the overhead of tracing compared to the baseline run.
+ *
+ * @since 4.2
+ */
+public final class LoadReport {
+
+    private LoadReport() {
+        // Utility class
+    }
+
+    /**
+     * Print the given results to the given {@code out}.
+     *
+     * @param out      the {@link PrintStream} to print to
+     * @param heading  the heading describing the compared runs
+     * @param baseline the results of the run without tracing, or {@code null} if it was skipped
+     * @param traced   the results of the run with tracing
+     */
+    public static void print(PrintStream out, String heading, LoadResult baseline, LoadResult traced) {
+        out.println();
+        out.println(heading);
+        out.printf(Locale.ROOT, "%-10s %-20s %10s %8s %10s %10s %10s %10s %10s%n",
+                   "run", "operation", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        if (baseline != null) {
+            printRun(out, baseline);
+        }
+        printRun(out, traced);
+        out.println();
+        if (baseline != null) {
+            out.printf(Locale.ROOT, "Throughput: baseline %.1f ops/s, traced %.1f ops/s (%+.2f%%)%n",
+                       baseline.throughput(), traced.throughput(),
+                       relativeChange(baseline.throughput(), traced.throughput()));
+            for (Map.Entry<String, LatencyRecorder.Snapshot> entry : traced.operations().entrySet()) {
+                LatencyRecorder.Snapshot base = baseline.operations().get(entry.getKey());
+                LatencyRecorder.Snapshot with = entry.getValue();
+                if (base == null || base.count() == 0 || with.count() == 0) {
+                    continue;
+                }
+                out.printf(Locale.ROOT, "Tracing overhead %-20s p50 %+.3f ms, p99 %+.3f ms%n",
+                           entry.getKey(),
+                           with.percentile(50, TimeUnit.MILLISECONDS) - base.percentile(50, TimeUnit.MILLISECONDS),
+                           with.percentile(99, TimeUnit.MILLISECONDS) - base.percentile(99, TimeUnit.MILLISECONDS));
+            }
+        } else {
+            out.printf(Locale.ROOT, "Throughput: traced %.1f ops/s%n", traced.throughput());
+        }
+        long operations = traced.completedOperations();
+        out.printf(Locale.ROOT, "Spans exported: %d (%.2f per operation, %.0f bytes per span)%n",
+                   traced.spans(),
+                   operations == 0 ? 0d : traced.spans() / (double) operations,
+                   traced.spans() == 0 ? 0d : traced.spanBytes() / (double) traced.spans());
+    }
+
+    private static void printRun(PrintStream out, LoadResult result) {
+        result.operations().forEach((operation, snapshot) -> out.printf(
+                Locale.ROOT, "%-10s %-20s %10d %8d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                result.label(), operation, snapshot.count(), snapshot.errors(),
+                snapshot.percentile(50, TimeUnit.MILLISECONDS),
+                snapshot.percentile(90, TimeUnit.MILLISECONDS),
+                snapshot.percentile(99, TimeUnit.MILLISECONDS),
+                snapshot.percentile(99.9, TimeUnit.MILLISECONDS),
+                snapshot.max(TimeUnit.MILLISECONDS)
+        ));
+    }
+
+    private static double relativeChange(double from, double to) {
+        return from == 0 ? 0 : (to - from) * 100 / from;
+    }
+}
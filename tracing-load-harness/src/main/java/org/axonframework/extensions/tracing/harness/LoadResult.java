@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.harness;
+
+import java.util.Map;
+
+/**
+ * The results of a single load harness run.
+ *
+ * @since 4.2
+ */
+public class LoadResult {
+
+    private final String label;
+    private final long elapsedNanos;
+    private final Map<String, LatencyRecorder.Snapshot> operations;
+    private final long spans;
+    private final long spanBytes;
+
+    /**
+     * Initialize the results of a run.
+     *
+     * @param label        the label of the run
+     * @param elapsedNanos the duration of the measurement, until the last operation completed, in nanoseconds
+     * @param operations   the latency statistics per kind of operation
+     * @param spans        the number of spans exported during the measurement
+     * @param spanBytes    the number of bytes the exported spans were encoded in
+     */
+    public LoadResult(String label, long elapsedNanos, Map<String, LatencyRecorder.Snapshot> operations,
+                      long spans, long spanBytes) {
+        this.label = label;
+        this.elapsedNanos = elapsedNanos;
+        this.operations = operations;
+        this.spans = spans;
+        this.spanBytes = spanBytes;
+    }
+
+    /**
+     * Returns the label of the run.
+     *
+     * @return the label of the run
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Returns the latency statistics per kind of operation.
+     *
+     * @return the latency statistics per kind of operation
+     */
+    public Map<String, LatencyRecorder.Snapshot> operations() {
+        return operations;
+    }
+
+    /**
+     * Returns the number of successfully completed operations of all kinds.
+     *
+     * @return the number of successfully completed operations
+     */
+    public long completedOperations() {
+        return operations.values().stream().mapToLong(LatencyRecorder.Snapshot::count).sum();
+    }
+
+    /**
+     * Returns the number of successfully completed operations per second.
+     *
+     * @return the number of successfully completed operations per second
+     */
+    public double throughput() {
+        return elapsedNanos == 0 ? 0 : completedOperations() * 1_000_000_000d / elapsedNanos;
+    }
+
+    /**
+     * Returns the number of spans exported during the measurement, or {@code 0} for an untraced run.
+     *
+     * @return the number of spans exported during the measurement
+     */
+    public long spans() {
+        return spans;
+    }
+
+    /**
+     * Returns the number of bytes the spans exported during the measurement were encoded in.
+     *
+     * @return the number of bytes the exported spans were encoded in
+     */
+    public long spanBytes() {
+        return spanBytes;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import java.lang.reflect.Method;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Utility class to find the type beans are declared with, used by the tracing {@link
+ * org.springframework.beans.factory.config.BeanPostProcessor}s to only wrap beans which are declared with the
+ * interface the wrapper implements.
+ */
+abstract class BeanDeclarations {
+
+    private BeanDeclarations() {
+        // Utility class
+    }
+
+    /**
+     * Returns the return type of the factory method declaring the bean with the given {@code beanName}, or {@code
+     * null} if the bean is unknown or not declared through a factory method.
+     *
+     * @param beanFactory the bean factory holding the bean definition
+     * @param beanName    the name of the bean
+     * @return the return type of the factory method declaring the bean, or {@code null}
+     */
+    static Class<?> declaredType(ConfigurableListableBeanFactory beanFactory, String beanName) {
+        if (beanFactory == null) {
+            return null;
+        }
+        try {
+            BeanDefinition beanDefinition = beanFactory.getMergedBeanDefinition(beanName);
+            if (!(beanDefinition instanceof RootBeanDefinition)) {
+                return null;
+            }
+            Method factoryMethod = ((RootBeanDefinition) beanDefinition).getResolvedFactoryMethod();
+            return factoryMethod == null ? null : factoryMethod.getReturnType();
+        } catch (NoSuchBeanDefinitionException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.axonframework.extensions.tracing.HeavyHitters;
+import org.axonframework.extensions.tracing.TracingLockFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Actuator endpoint exposing the most contended aggregates, as tracked by the {@link TracingLockFactory} beans in the
+ * application context. Reading the endpoint returns the most contended aggregate identifiers per aggregate type,
+ * heaviest first.
+ *
+ * @since 4.2
+ */
+@Endpoint(id = "axonlocks")
+public class ContendedAggregatesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final List<TracingLockFactory> lockFactories;
+
+    /**
+     * Initialize an endpoint exposing the contended aggregates tracked by the given {@code lockFactories}.
+     *
+     * @param lockFactories the {@link TracingLockFactory} instances of which the contended aggregates are exposed
+     */
+    public ContendedAggregatesEndpoint(List<TracingLockFactory> lockFactories) {
+        this.lockFactories = new ArrayList<>(lockFactories);
+    }
+
+    /**
+     * Returns the most contended aggregates per aggregate type.
+     *
+     * @param limit the maximum number of aggregates to return per aggregate type, defaults to {@code 10}
+     * @return the most contended aggregates per aggregate type
+     */
+    @ReadOperation
+    public Map<String, List<AggregateDescriptor>> contendedAggregates(@Nullable Integer limit) {
+        Map<String, List<AggregateDescriptor>> result = new LinkedHashMap<>();
+        for (TracingLockFactory lockFactory : lockFactories) {
+            result.put(lockFactory.aggregateType(),
+                       lockFactory.contendedAggregates(limit == null ? DEFAULT_LIMIT : limit)
+                                  .stream()
+                                  .map(AggregateDescriptor::new)
+                                  .collect(Collectors.toList()));
+        }
+        return result;
+    }
+
+    /**
+     * Description of a single contended aggregate.
+     */
+    public static final class AggregateDescriptor {
+
+        private final HeavyHitters.HeavyHitter hitter;
+
+        private AggregateDescriptor(HeavyHitters.HeavyHitter hitter) {
+            this.hitter = hitter;
+        }
+
+        public String getAggregateIdentifier() {
+            return hitter.key();
+        }
+
+        public long getWaitMicros() {
+            return hitter.weight();
+        }
+
+        public long getMaxOverestimationMicros() {
+            return hitter.error();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.axonframework.extensions.tracing.FlowEdge;
+import org.axonframework.extensions.tracing.FlowNode;
+import org.axonframework.extensions.tracing.MessageFlowTopology;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Actuator endpoint exposing the message flow aggregated by a {@link MessageFlowTopology}. Reading the endpoint
+ * returns the nodes and the most frequently traversed edges of the topology, with their counts, fan out and latencies.
+ *
+ * @since 4.2
+ */
+@Endpoint(id = "axonflow")
+public class MessageFlowEndpoint {
+
+    private static final int DEFAULT_LIMIT = 100;
+
+    private final MessageFlowTopology topology;
+
+    /**
+     * Initialize an endpoint exposing the message flow aggregated by the given {@code topology}.
+     *
+     * @param topology the {@link MessageFlowTopology} of which the message flow is exposed
+     */
+    public MessageFlowEndpoint(MessageFlowTopology topology) {
+        this.topology = topology;
+    }
+
+    /**
+     * Returns the nodes and the most frequently traversed edges of the topology.
+     *
+     * @param limit the maximum number of edges to return, defaults to {@code 100}
+     * @return a descriptor of the topology
+     */
+    @ReadOperation
+    public TopologyDescriptor topology(@Nullable Integer limit) {
+        List<NodeDescriptor> nodes = topology.nodes()
+                                             .stream()
+                                             .sorted(Comparator.comparingLong(FlowNode::count).reversed())
+                                             .map(NodeDescriptor::new)
+                                             .collect(Collectors.toList());
+        List<EdgeDescriptor> edges = topology.edges()
+                                             .stream()
+                                             .sorted(Comparator.comparingLong(FlowEdge::count).reversed())
+                                             .limit(limit == null ? DEFAULT_LIMIT : limit)
+                                             .map(EdgeDescriptor::new)
+                                             .collect(Collectors.toList());
+        return new TopologyDescriptor(nodes, edges, topology.rejectedSpans(), topology.droppedChildren());
+    }
+
+    /**
+     * Description of the topology.
+     */
+    public static final class TopologyDescriptor {
+
+        private final List<NodeDescriptor> nodes;
+        private final List<EdgeDescriptor> edges;
+        private final long rejectedSpans;
+        private final long droppedChildren;
+
+        private TopologyDescriptor(List<NodeDescriptor> nodes, List<EdgeDescriptor> edges,
+                                   long rejectedSpans, long droppedChildren) {
+            this.nodes = nodes;
+            this.edges = edges;
+            this.rejectedSpans = rejectedSpans;
+            this.droppedChildren = droppedChildren;
+        }
+
+        public List<NodeDescriptor> getNodes() {
+            return nodes;
+        }
+
+        public List<EdgeDescriptor> getEdges() {
+            return edges;
+        }
+
+        public long getRejectedSpans() {
+            return rejectedSpans;
+        }
+
+        public long getDroppedChildren() {
+            return droppedChildren;
+        }
+    }
+
+    /**
+     * Description of a single node.
+     */
+    public static final class NodeDescriptor {
+
+        private final FlowNode node;
+
+        private NodeDescriptor(FlowNode node) {
+            this.node = node;
+        }
+
+        public String getId() {
+            return node.describe();
+        }
+
+        public String getSpanName() {
+            return node.spanName();
+        }
+
+        public String getMessageType() {
+            return node.messageType();
+        }
+
+        public String getMessageName() {
+            return node.messageName();
+        }
+
+        public String getProcessorName() {
+            return node.processorName();
+        }
+
+        public long getCount() {
+            return node.count();
+        }
+    }
+
+    /**
+     * Description of a single edge, with durations of the child spans and lags between the start of the parent and
+     * child spans in milliseconds.
+     */
+    public static final class EdgeDescriptor {
+
+        private final FlowEdge edge;
+
+        private EdgeDescriptor(FlowEdge edge) {
+            this.edge = edge;
+        }
+
+        public String getFrom() {
+            return edge.from().describe();
+        }
+
+        public String getTo() {
+            return edge.to().describe();
+        }
+
+        public long getCount() {
+            return edge.count();
+        }
+
+        public long getErrors() {
+            return edge.errors();
+        }
+
+        public double getFanOut() {
+            return edge.fanOut();
+        }
+
+        public double getMeanDuration() {
+            return edge.meanDuration(TimeUnit.MILLISECONDS);
+        }
+
+        public double getP50Duration() {
+            return edge.durationPercentile(0.5, TimeUnit.MILLISECONDS);
+        }
+
+        public double getP99Duration() {
+            return edge.durationPercentile(0.99, TimeUnit.MILLISECONDS);
+        }
+
+        public double getMaxDuration() {
+            return edge.maxDuration(TimeUnit.MILLISECONDS);
+        }
+
+        public double getMeanLag() {
+            return edge.meanLag(TimeUnit.MILLISECONDS);
+        }
+
+        public double getMaxLag() {
+            return edge.maxLag(TimeUnit.MILLISECONDS);
+        }
+    }
+}
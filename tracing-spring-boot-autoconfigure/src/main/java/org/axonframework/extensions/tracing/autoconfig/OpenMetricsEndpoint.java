@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import org.axonframework.extensions.tracing.OpenMetricsWriter;
+import org.axonframework.extensions.tracing.RedMetricsAggregator;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Actuator endpoint exposing the statistics of a {@link RedMetricsAggregator} in the OpenMetrics text format, with
+ * the trace ids of the exemplars of every latency bucket, to be scraped by a metrics backend supporting exemplars.
+ *
+ * @since 4.2
+ */
+@Endpoint(id = "axonopenmetrics")
+public class OpenMetricsEndpoint {
+
+    private final OpenMetricsWriter writer;
+
+    /**
+     * Initialize an endpoint exposing the statistics of the given {@code aggregator}.
+     *
+     * @param aggregator the {@link RedMetricsAggregator} of which the statistics are exposed
+     */
+    public OpenMetricsEndpoint(RedMetricsAggregator aggregator) {
+        this.writer = new OpenMetricsWriter(aggregator);
+    }
+
+    /**
+     * Returns the statistics of all operations aggregated so far in the OpenMetrics text format.
+     *
+     * @return the statistics of all operations in the OpenMetrics text format
+     */
+    @ReadOperation(produces = OpenMetricsWriter.CONTENT_TYPE)
+    public String scrape() {
+        return writer.write();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.axonframework.extensions.tracing.OpenTelemetryTracingBackend;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.springframework.beans.factory.BeanFactory;
+
+/**
+ * Creates the {@link OpenTelemetryTracingBackend}. Kept apart from the {@link TracingAutoConfiguration}, so that the
+ * OpenTelemetry API is only loaded when it is selected as backend.
+ */
+final class OpenTelemetryBackends {
+
+    private OpenTelemetryBackends() {
+        // Utility class
+    }
+
+    /**
+     * Create a backend tracing through the {@link OpenTelemetry} bean in the given {@code beanFactory} or, if there is
+     * none, through the globally registered instance.
+     *
+     * @param beanFactory the {@link BeanFactory} to look up the {@link OpenTelemetry} bean in
+     * @return a backend tracing through OpenTelemetry
+     */
+    static TracingBackend create(BeanFactory beanFactory) {
+        OpenTelemetry openTelemetry = beanFactory.getBeanProvider(OpenTelemetry.class)
+                                                 .getIfAvailable(GlobalOpenTelemetry::get);
+        return new OpenTelemetryTracingBackend(openTelemetry);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.axonframework.extensions.tracing.RecentTraceStore;
+import org.axonframework.extensions.tracing.RecordedSpan;
+import org.axonframework.extensions.tracing.RecordedTrace;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+
+/**
+ * Actuator endpoint exposing the traces held by a {@link RecentTraceStore}. Reading the endpoint returns the most
+ * recently finished traces and the slowest spans per operation; reading it with a trace identifier returns the spans
+ * of that trace which are still held by the store.
+ *
+ * @since 4.2
+ */
+@Endpoint(id = "axontraces")
+public class RecentTracesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final RecentTraceStore recentTraceStore;
+
+    /**
+     * Initialize an endpoint exposing the traces held by the given {@code recentTraceStore}.
+     *
+     * @param recentTraceStore the {@link RecentTraceStore} of which the traces are exposed
+     */
+    public RecentTracesEndpoint(RecentTraceStore recentTraceStore) {
+        this.recentTraceStore = recentTraceStore;
+    }
+
+    /**
+     * Returns the most recently finished traces and the slowest spans per operation.
+     *
+     * @param limit the maximum number of recent traces to return, defaults to {@code 20}
+     * @return a descriptor of the recent traces and slowest spans
+     */
+    @ReadOperation
+    public TracesDescriptor traces(@Nullable Integer limit) {
+        List<TraceDescriptor> recent = recentTraceStore.recentTraces(limit == null ? DEFAULT_LIMIT : limit)
+                                                       .stream()
+                                                       .map(TraceDescriptor::new)
+                                                       .collect(Collectors.toList());
+        Map<String, List<SpanDescriptor>> slowest = new LinkedHashMap<>();
+        recentTraceStore.slowestSpans().forEach((operation, spans) -> slowest.put(
+                operation, spans.stream().map(SpanDescriptor::new).collect(Collectors.toList())
+        ));
+        return new TracesDescriptor(recent, slowest);
+    }
+
+    /**
+     * Returns the spans of the trace with the given {@code traceId}, or {@code null} if the store holds none.
+     *
+     * @param traceId the identifier of the trace to return
+     * @return a descriptor of the trace, or {@code null} if the store holds no spans of it
+     */
+    @ReadOperation
+    public TraceDescriptor trace(@Selector String traceId) {
+        RecordedTrace trace = recentTraceStore.trace(traceId);
+        return trace == null ? null : new TraceDescriptor(trace);
+    }
+
+    /**
+     * Description of the recent traces and the slowest spans per operation.
+     */
+    public static final class TracesDescriptor {
+
+        private final List<TraceDescriptor> recent;
+        private final Map<String, List<SpanDescriptor>> slowest;
+
+        private TracesDescriptor(List<TraceDescriptor> recent, Map<String, List<SpanDescriptor>> slowest) {
+            this.recent = recent;
+            this.slowest = slowest;
+        }
+
+        public List<TraceDescriptor> getRecent() {
+            return recent;
+        }
+
+        public Map<String, List<SpanDescriptor>> getSlowest() {
+            return slowest;
+        }
+    }
+
+    /**
+     * Description of a single trace.
+     */
+    public static final class TraceDescriptor {
+
+        private final RecordedTrace trace;
+
+        private TraceDescriptor(RecordedTrace trace) {
+            this.trace = trace;
+        }
+
+        public String getTraceId() {
+            return trace.traceId();
+        }
+
+        public long getTimestamp() {
+            return trace.startTimestamp();
+        }
+
+        public long getDuration() {
+            return trace.duration();
+        }
+
+        public List<SpanDescriptor> getSpans() {
+            return trace.spans().stream().map(SpanDescriptor::new).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Description of a single span.
+     */
+    public static final class SpanDescriptor {
+
+        private final RecordedSpan span;
+
+        private SpanDescriptor(RecordedSpan span) {
+            this.span = span;
+        }
+
+        public String getTraceId() {
+            return span.traceId();
+        }
+
+        public String getId() {
+            return span.spanId();
+        }
+
+        public String getParentId() {
+            return span.parentId();
+        }
+
+        public String getName() {
+            return span.name();
+        }
+
+        public String getKind() {
+            return span.kind();
+        }
+
+        public long getTimestamp() {
+            return span.startTimestamp();
+        }
+
+        public long getDuration() {
+            return span.duration();
+        }
+
+        public boolean isError() {
+            return span.error();
+        }
+
+        public Map<String, String> getTags() {
+            return span.tags();
+        }
+    }
+}
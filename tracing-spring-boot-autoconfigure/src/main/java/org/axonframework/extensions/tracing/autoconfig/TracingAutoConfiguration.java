@@ -16,24 +16,75 @@
 package org.axonframework.extensions.tracing.autoconfig;
 
 import brave.Tracing;
+import brave.handler.FinishedSpanHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.List;
 import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.distributed.RoutingStrategy;
 import org.axonframework.commandhandling.gateway.CommandGateway;
 import org.axonframework.config.EventProcessingConfigurer;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.extensions.tracing.BatchingSpanReporter;
+import org.axonframework.extensions.tracing.BatchingSpanReporterMeterBinder;
+import org.axonframework.extensions.tracing.BraveTracingBackend;
+import org.axonframework.extensions.tracing.CommandRoutingListener;
+import org.axonframework.extensions.tracing.CommandRoutingMeterRecorder;
+import org.axonframework.extensions.tracing.LockWaitListener;
+import org.axonframework.extensions.tracing.LockWaitMeterRecorder;
+import org.axonframework.extensions.tracing.MessageFlowTopology;
+import org.axonframework.extensions.tracing.NoopTracingBackend;
 import org.axonframework.extensions.tracing.OpenTraceDispatchInterceptor;
 import org.axonframework.extensions.tracing.OpenTraceHandlerInterceptor;
+import org.axonframework.extensions.tracing.QueryResultCache;
+import org.axonframework.extensions.tracing.QueryUpdateListener;
+import org.axonframework.extensions.tracing.QueryUpdateMeterRecorder;
+import org.axonframework.extensions.tracing.RecentTraceStore;
+import org.axonframework.extensions.tracing.RedMetricsAggregator;
+import org.axonframework.extensions.tracing.RedMetricsMeterBinder;
+import org.axonframework.extensions.tracing.ReplayListener;
+import org.axonframework.extensions.tracing.ReplayMeterRecorder;
+import org.axonframework.extensions.tracing.SagaStoreListener;
+import org.axonframework.extensions.tracing.SagaStoreMeterRecorder;
+import org.axonframework.extensions.tracing.SchedulingLagListener;
+import org.axonframework.extensions.tracing.SchedulingLagMeterRecorder;
+import org.axonframework.extensions.tracing.SerializationListener;
+import org.axonframework.extensions.tracing.SerializationMeterRecorder;
+import org.axonframework.extensions.tracing.SlowHandlerWatchdog;
+import org.axonframework.extensions.tracing.SpanBatchExporter;
+import org.axonframework.extensions.tracing.TokenStoreListener;
+import org.axonframework.extensions.tracing.TokenStoreMeterRecorder;
+import org.axonframework.extensions.tracing.TracingBackend;
 import org.axonframework.extensions.tracing.TracingCommandGateway;
+import org.axonframework.extensions.tracing.TracingLockFactory;
 import org.axonframework.extensions.tracing.TracingProvider;
 import org.axonframework.extensions.tracing.TracingQueryGateway;
+import org.axonframework.extensions.tracing.UnitOfWorkPhaseListener;
+import org.axonframework.extensions.tracing.UnitOfWorkPhaseMeterRecorder;
+import org.axonframework.extensions.tracing.UpcasterListener;
+import org.axonframework.extensions.tracing.UpcasterMeterRecorder;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.MessageHandlerInterceptor;
 import org.axonframework.messaging.correlation.CorrelationDataProvider;
 import org.axonframework.queryhandling.QueryBus;
 import org.axonframework.queryhandling.QueryGateway;
 import org.axonframework.springboot.autoconfig.EventProcessingAutoConfiguration;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import zipkin2.Span;
+import zipkin2.reporter.Reporter;
 
 /**
  * Auto configure a tracing capabilities.
@@ -44,43 +95,201 @@ import org.springframework.context.annotation.Configuration;
  */
 @Configuration
 @AutoConfigureAfter(EventProcessingAutoConfiguration.class)
+@AutoConfigureBefore(name = TracingAutoConfiguration.SLEUTH_AUTO_CONFIGURATION)
 @ConditionalOnClass(Tracing.class)
+@EnableConfigurationProperties(TracingProperties.class)
 public class TracingAutoConfiguration {
 
+    static final String SLEUTH_AUTO_CONFIGURATION =
+            "org.springframework.cloud.sleuth.autoconfig.TraceAutoConfiguration";
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TracingBackend tracingBackend(TracingProperties tracingProperties,
+                                         ObjectProvider<Tracing> tracing,
+                                         BeanFactory beanFactory) {
+        if (!tracingProperties.isEnabled()) {
+            return NoopTracingBackend.INSTANCE;
+        }
+        if (tracingProperties.getBackend() == TracingProperties.Backend.OPENTELEMETRY) {
+            return OpenTelemetryBackends.create(beanFactory);
+        }
+        return new BraveTracingBackend(tracing.getObject());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "axon.extension.tracing.executors.propagate-context", havingValue = "true")
+    public static TracingExecutorBeanPostProcessor tracingExecutorBeanPostProcessor(
+            ObjectProvider<TracingBackend> tracingBackend
+    ) {
+        return new TracingExecutorBeanPostProcessor(tracingBackend);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "axon.extension.tracing.scheduling.enabled", havingValue = "true")
+    public static TracingSchedulingBeanPostProcessor tracingSchedulingBeanPostProcessor(
+            ObjectProvider<TracingBackend> tracingBackend,
+            ObjectProvider<SchedulingLagListener> schedulingLagListener,
+            ObjectProvider<EventBus> eventBus
+    ) {
+        return new TracingSchedulingBeanPostProcessor(tracingBackend, schedulingLagListener, eventBus);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "axon.extension.tracing.sagas.enabled", havingValue = "true")
+    public static TracingSagaStoreBeanPostProcessor tracingSagaStoreBeanPostProcessor(
+            ObjectProvider<TracingBackend> tracingBackend,
+            ObjectProvider<SagaStoreListener> sagaStoreListener
+    ) {
+        return new TracingSagaStoreBeanPostProcessor(tracingBackend, sagaStoreListener);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "axon.extension.tracing.query-updates.enabled", havingValue = "true")
+    public static TracingQueryUpdateEmitterBeanPostProcessor tracingQueryUpdateEmitterBeanPostProcessor(
+            ObjectProvider<TracingBackend> tracingBackend,
+            ObjectProvider<QueryUpdateListener> queryUpdateListener
+    ) {
+        return new TracingQueryUpdateEmitterBeanPostProcessor(tracingBackend, queryUpdateListener);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "axon.extension.tracing.token-store.enabled", havingValue = "true")
+    public static TracingTokenStoreBeanPostProcessor tracingTokenStoreBeanPostProcessor(
+            ObjectProvider<TracingBackend> tracingBackend,
+            ObjectProvider<TracingProperties> tracingProperties,
+            ObjectProvider<TokenStoreListener> tokenStoreListener
+    ) {
+        return new TracingTokenStoreBeanPostProcessor(tracingBackend, tracingProperties, tokenStoreListener);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "axon.extension.tracing.command-routing.enabled", havingValue = "true")
+    public static TracingCommandRoutingBeanPostProcessor tracingCommandRoutingBeanPostProcessor(
+            ObjectProvider<TracingBackend> tracingBackend,
+            ObjectProvider<RoutingStrategy> routingStrategy,
+            ObjectProvider<CommandRoutingListener> commandRoutingListener
+    ) {
+        return new TracingCommandRoutingBeanPostProcessor(tracingBackend, routingStrategy, commandRoutingListener);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "axon.extension.tracing.upcasters.enabled", havingValue = "true")
+    public static TracingEventUpcasterBeanPostProcessor tracingEventUpcasterBeanPostProcessor(
+            ObjectProvider<TracingBackend> tracingBackend,
+            ObjectProvider<UpcasterListener> upcasterListener,
+            ObjectProvider<TracingProperties> tracingProperties
+    ) {
+        return new TracingEventUpcasterBeanPostProcessor(tracingBackend, upcasterListener, tracingProperties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "axon.extension.tracing.serialization.enabled", havingValue = "true")
+    public static TracingSerializerBeanPostProcessor tracingSerializerBeanPostProcessor(
+            ObjectProvider<TracingBackend> tracingBackend,
+            ObjectProvider<SerializationListener> serializationListener
+    ) {
+        return new TracingSerializerBeanPostProcessor(tracingBackend, serializationListener);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TracingHandlerInterceptorFactory tracingHandlerInterceptorFactory(
+            TracingBackend tracingBackend,
+            TracingProperties tracingProperties,
+            ObjectProvider<UnitOfWorkPhaseListener> unitOfWorkPhaseListener,
+            ObjectProvider<SlowHandlerWatchdog> slowHandlerWatchdog,
+            ObjectProvider<ReplayListener> replayListener,
+            ObjectProvider<OpenTraceHandlerInterceptor> customHandlerInterceptor
+    ) {
+        TracingHandlerInterceptorFactory.Builder builder =
+                TracingHandlerInterceptorFactory.builder()
+                                                .backend(tracingBackend)
+                                                .tracingProperties(tracingProperties);
+        unitOfWorkPhaseListener.ifAvailable(builder::unitOfWorkPhaseListener);
+        slowHandlerWatchdog.ifAvailable(builder::slowHandlerWatchdog);
+        replayListener.ifAvailable(builder::replayListener);
+        customHandlerInterceptor.ifAvailable(builder::customInterceptor);
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "axon.extension.tracing.slow-handlers.enabled", havingValue = "true")
+    public SlowHandlerWatchdog slowHandlerWatchdog(TracingProperties tracingProperties) {
+        TracingProperties.SlowHandlerSettings settings = tracingProperties.getSlowHandlers();
+        return SlowHandlerWatchdog.builder()
+                                  .threshold(Duration.ofMillis(settings.getThresholdMs()))
+                                  .sampleInterval(Duration.ofMillis(settings.getSampleIntervalMs()))
+                                  .samples(settings.getSamples())
+                                  .maxFrames(settings.getMaxFrames())
+                                  .build();
+    }
+
     @Bean
-    public OpenTraceDispatchInterceptor traceDispatchInterceptor(Tracing tracing) {
-        return new OpenTraceDispatchInterceptor(tracing);
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "axon.extension.tracing.query-cache.enabled", havingValue = "true")
+    public QueryResultCache queryResultCache(TracingProperties tracingProperties, ObjectProvider<EventBus> eventBus) {
+        TracingProperties.QueryCacheSettings settings = tracingProperties.getQueryCache();
+        QueryResultCache.Builder builder = QueryResultCache.builder()
+                                                           .maxEntries(settings.getMaxEntries())
+                                                           .ttl(Duration.ofMillis(settings.getTtlMs()))
+                                                           .cache(settings.getQueries().toArray(new String[0]));
+        settings.getInvalidateOn().forEach(
+                (eventPayloadType, queryNames) -> builder.invalidateOn(eventPayloadType, queryNames.toArray(new String[0]))
+        );
+        QueryResultCache queryResultCache = builder.build();
+        eventBus.ifAvailable(queryResultCache::subscribeTo);
+        return queryResultCache;
     }
 
     @Bean
-    public OpenTraceHandlerInterceptor traceHandlerInterceptor(Tracing tracing) {
-        return new OpenTraceHandlerInterceptor(tracing);
+    public OpenTraceDispatchInterceptor traceDispatchInterceptor(TracingBackend tracingBackend) {
+        return new OpenTraceDispatchInterceptor(tracingBackend);
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public QueryGateway queryGateway(Tracing tracing,
+    public QueryGateway queryGateway(TracingBackend tracingBackend,
                                      QueryBus queryBus,
                                      OpenTraceDispatchInterceptor openTraceDispatchInterceptor,
-                                     OpenTraceHandlerInterceptor openTraceHandlerInterceptor) {
-        queryBus.registerHandlerInterceptor(openTraceHandlerInterceptor);
-        TracingQueryGateway tracingQueryGateway = TracingQueryGateway.builder()
-                                                                     .delegateQueryBus(queryBus)
-                                                                     .tracer(tracing)
-                                                                     .build();
+                                     TracingHandlerInterceptorFactory tracingHandlerInterceptorFactory,
+                                     ObjectProvider<QueryResultCache> queryResultCache) {
+        MessageHandlerInterceptor<Message<?>> handlerInterceptor =
+                tracingHandlerInterceptorFactory.queryBusInterceptor();
+        if (handlerInterceptor != null) {
+            queryBus.registerHandlerInterceptor(handlerInterceptor);
+        }
+        TracingQueryGateway.Builder builder = TracingQueryGateway.builder()
+                                                                 .delegateQueryBus(queryBus)
+                                                                 .backend(tracingBackend);
+        queryResultCache.ifAvailable(builder::resultCache);
+        TracingQueryGateway tracingQueryGateway = builder.build();
         tracingQueryGateway.registerDispatchInterceptor(openTraceDispatchInterceptor);
         return tracingQueryGateway;
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public CommandGateway commandGateway(Tracing tracing,
+    public CommandGateway commandGateway(TracingBackend tracingBackend,
                                          CommandBus commandBus,
                                          OpenTraceDispatchInterceptor openTraceDispatchInterceptor,
-                                         OpenTraceHandlerInterceptor openTraceHandlerInterceptor) {
-        commandBus.registerHandlerInterceptor(openTraceHandlerInterceptor);
+                                         TracingHandlerInterceptorFactory tracingHandlerInterceptorFactory) {
+        MessageHandlerInterceptor<Message<?>> handlerInterceptor =
+                tracingHandlerInterceptorFactory.commandBusInterceptor();
+        if (handlerInterceptor != null) {
+            commandBus.registerHandlerInterceptor(handlerInterceptor);
+        }
         TracingCommandGateway tracingCommandGateway = TracingCommandGateway.builder()
-                                                                           .tracer(tracing)
+                                                                           .backend(tracingBackend)
                                                                            .delegateCommandBus(commandBus)
                                                                            .build();
         tracingCommandGateway.registerDispatchInterceptor(openTraceDispatchInterceptor);
@@ -88,15 +297,337 @@ public class TracingAutoConfiguration {
     }
 
     @Bean
-    public CorrelationDataProvider tracingProvider(Tracing tracing) {
-        return new TracingProvider(tracing);
+    public CorrelationDataProvider tracingProvider(TracingBackend tracingBackend) {
+        return new TracingProvider(tracingBackend);
     }
 
     @Autowired
     public void configureEventHandler(EventProcessingConfigurer eventProcessingConfigurer,
-                                      OpenTraceHandlerInterceptor openTraceHandlerInterceptor) {
+                                      TracingHandlerInterceptorFactory tracingHandlerInterceptorFactory) {
+        // processors for which no interceptor is created are left without a tracing interceptor
         eventProcessingConfigurer.registerDefaultHandlerInterceptor(
-                (configuration, name) -> openTraceHandlerInterceptor
+                (configuration, name) -> tracingHandlerInterceptorFactory.eventProcessorInterceptor(name)
         );
     }
+
+    /**
+     * Records the lag of fired deadlines and scheduled events through Micrometer, if it is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(value = "axon.extension.tracing.scheduling.enabled", havingValue = "true")
+    public static class SchedulingLagMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(MeterRegistry.class)
+        public SchedulingLagListener schedulingLagListener(MeterRegistry meterRegistry) {
+            return new SchedulingLagMeterRecorder(meterRegistry);
+        }
+    }
+
+    /**
+     * Records saga store operations through Micrometer, if it is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(value = "axon.extension.tracing.sagas.enabled", havingValue = "true")
+    public static class SagaStoreMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(MeterRegistry.class)
+        public SagaStoreListener sagaStoreListener(MeterRegistry meterRegistry) {
+            return new SagaStoreMeterRecorder(meterRegistry);
+        }
+    }
+
+    /**
+     * Records the fan out of query updates through Micrometer, if it is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(value = "axon.extension.tracing.query-updates.enabled", havingValue = "true")
+    public static class QueryUpdateMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(MeterRegistry.class)
+        public QueryUpdateListener queryUpdateListener(MeterRegistry meterRegistry) {
+            return new QueryUpdateMeterRecorder(meterRegistry);
+        }
+    }
+
+    /**
+     * Records token store operations through Micrometer, if it is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(value = "axon.extension.tracing.token-store.enabled", havingValue = "true")
+    public static class TokenStoreMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(MeterRegistry.class)
+        public TokenStoreListener tokenStoreListener(MeterRegistry meterRegistry) {
+            return new TokenStoreMeterRecorder(meterRegistry);
+        }
+    }
+
+    /**
+     * Records the routing of commands through a distributed command bus through Micrometer, if it is on the
+     * classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(value = "axon.extension.tracing.command-routing.enabled", havingValue = "true")
+    public static class CommandRoutingMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(MeterRegistry.class)
+        public CommandRoutingListener commandRoutingListener(MeterRegistry meterRegistry) {
+            return new CommandRoutingMeterRecorder(meterRegistry);
+        }
+    }
+
+    /**
+     * Records upcasting through Micrometer, if it is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(value = "axon.extension.tracing.upcasters.enabled", havingValue = "true")
+    public static class UpcasterMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(MeterRegistry.class)
+        public UpcasterListener upcasterListener(MeterRegistry meterRegistry) {
+            return new UpcasterMeterRecorder(meterRegistry);
+        }
+    }
+
+    /**
+     * Records serialization through Micrometer, if it is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(value = "axon.extension.tracing.serialization.enabled", havingValue = "true")
+    public static class SerializationMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(MeterRegistry.class)
+        public SerializationListener serializationListener(MeterRegistry meterRegistry) {
+            return new SerializationMeterRecorder(meterRegistry);
+        }
+    }
+
+    /**
+     * Records the duration of the timed unit of work phases through Micrometer, if it is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(value = "axon.extension.tracing.unit-of-work-phases", havingValue = "true")
+    public static class UnitOfWorkPhaseMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(MeterRegistry.class)
+        public UnitOfWorkPhaseListener unitOfWorkPhaseListener(MeterRegistry meterRegistry) {
+            return new UnitOfWorkPhaseMeterRecorder(meterRegistry);
+        }
+    }
+
+    /**
+     * Records the progress of replays through Micrometer, if it is on the classpath. Replay progress is only reported
+     * by processors tracing replayed events in another {@link org.axonframework.extensions.tracing.ReplayMode} than
+     * {@code TRACE}.
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(value = "axon.extension.tracing.replay-metrics.enabled", havingValue = "true")
+    public static class ReplayMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(MeterRegistry.class)
+        public ReplayListener replayListener(MeterRegistry meterRegistry) {
+            return new ReplayMeterRecorder(meterRegistry);
+        }
+    }
+
+    /**
+     * Records the time spent waiting for aggregate locks through Micrometer, if it is on the classpath. The recorder
+     * only receives lock waits of {@link TracingLockFactory} instances which are configured with it, as repositories
+     * are not built with a tracing lock factory by default.
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(value = "axon.extension.tracing.locks.enabled", havingValue = "true")
+    public static class LockWaitMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(MeterRegistry.class)
+        public LockWaitListener lockWaitListener(MeterRegistry meterRegistry) {
+            return new LockWaitMeterRecorder(meterRegistry);
+        }
+    }
+
+    /**
+     * Exposes the most contended aggregates tracked by the {@link TracingLockFactory} beans through an actuator
+     * endpoint, if Spring Boot Actuator is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(Endpoint.class)
+    @ConditionalOnBean(TracingLockFactory.class)
+    @ConditionalOnProperty(value = "axon.extension.tracing.locks.enabled", havingValue = "true")
+    public static class ContendedAggregatesEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ContendedAggregatesEndpoint contendedAggregatesEndpoint(List<TracingLockFactory> lockFactories) {
+            return new ContendedAggregatesEndpoint(lockFactories);
+        }
+    }
+
+    /**
+     * Declares the {@link FinishedSpanHandler} and span {@link Reporter} beans of this extension, which Spring Cloud
+     * Sleuth adds to the Brave {@link Tracing} it builds. Nothing would add them to a {@link Tracing} defined by the
+     * application, nor to an OpenTelemetry tracer, hence they are only declared when Sleuth builds the tracer.
+     */
+    @Configuration
+    @ConditionalOnClass(name = SLEUTH_AUTO_CONFIGURATION)
+    @ConditionalOnProperty(value = "axon.extension.tracing.backend", havingValue = "brave", matchIfMissing = true)
+    @ConditionalOnMissingBean(Tracing.class)
+    public static class SleuthSpanHandlerConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(value = "axon.extension.tracing.batching-reporter.enabled", havingValue = "true")
+        public BatchingSpanReporter batchingSpanReporter(TracingProperties tracingProperties,
+                                                         SpanBatchExporter spanBatchExporter) {
+            TracingProperties.BatchingReporterSettings settings = tracingProperties.getBatchingReporter();
+            return BatchingSpanReporter.builder()
+                                       .exporter(spanBatchExporter)
+                                       .queueCapacity(settings.getQueueCapacity())
+                                       .maxBatchSize(settings.getMaxBatchSize())
+                                       .maxBatchDelay(Duration.ofMillis(settings.getMaxBatchDelayMs()))
+                                       .closeTimeout(Duration.ofMillis(settings.getCloseTimeoutMs()))
+                                       .overflowPolicy(settings.getOverflowPolicy())
+                                       .build();
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(value = "axon.extension.tracing.red-metrics.enabled", havingValue = "true")
+        public RedMetricsAggregator redMetricsAggregator() {
+            return RedMetricsAggregator.builder().build();
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(value = "axon.extension.tracing.recent-traces.enabled", havingValue = "true")
+        public RecentTraceStore recentTraceStore(TracingProperties tracingProperties) {
+            TracingProperties.RecentTracesSettings settings = tracingProperties.getRecentTraces();
+            return RecentTraceStore.builder()
+                                   .maxSpans(settings.getMaxSpans())
+                                   .slowestPerOperation(settings.getSlowestPerOperation())
+                                   .maxOperations(settings.getMaxOperations())
+                                   .alwaysSampleLocal(settings.isAlwaysSampleLocal())
+                                   .build();
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(value = "axon.extension.tracing.topology.enabled", havingValue = "true")
+        public MessageFlowTopology messageFlowTopology(TracingProperties tracingProperties) {
+            TracingProperties.TopologySettings settings = tracingProperties.getTopology();
+            return MessageFlowTopology.builder()
+                                      .maxNodes(settings.getMaxNodes())
+                                      .maxEdges(settings.getMaxEdges())
+                                      .cachedSpans(settings.getCachedSpans())
+                                      .build();
+        }
+
+        /**
+         * Exposes the queue and export statistics of the {@link BatchingSpanReporter} through Micrometer, if it is on
+         * the classpath.
+         */
+        @Configuration
+        @ConditionalOnClass(MeterBinder.class)
+        @ConditionalOnProperty(value = "axon.extension.tracing.batching-reporter.enabled", havingValue = "true")
+        public static class BatchingSpanReporterMetricsConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public BatchingSpanReporterMeterBinder batchingSpanReporterMeterBinder(BatchingSpanReporter spanReporter) {
+                return new BatchingSpanReporterMeterBinder(spanReporter);
+            }
+        }
+
+        /**
+         * Exposes the statistics of the {@link RedMetricsAggregator} through Micrometer, if it is on the classpath.
+         */
+        @Configuration
+        @ConditionalOnClass(MeterBinder.class)
+        @ConditionalOnProperty(value = "axon.extension.tracing.red-metrics.enabled", havingValue = "true")
+        public static class RedMetricsConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public RedMetricsMeterBinder redMetricsMeterBinder(RedMetricsAggregator redMetricsAggregator) {
+                return new RedMetricsMeterBinder(redMetricsAggregator);
+            }
+        }
+
+        /**
+         * Exposes the traces held by the {@link RecentTraceStore} through an actuator endpoint, if Spring Boot Actuator
+         * is on the classpath.
+         */
+        @Configuration
+        @ConditionalOnClass(Endpoint.class)
+        @ConditionalOnProperty(value = "axon.extension.tracing.recent-traces.enabled", havingValue = "true")
+        public static class RecentTracesEndpointConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public RecentTracesEndpoint recentTracesEndpoint(RecentTraceStore recentTraceStore) {
+                return new RecentTracesEndpoint(recentTraceStore);
+            }
+        }
+
+        /**
+         * Exposes the message flow aggregated by the {@link MessageFlowTopology} through an actuator endpoint, if
+         * Spring Boot Actuator is on the classpath.
+         */
+        @Configuration
+        @ConditionalOnClass(Endpoint.class)
+        @ConditionalOnProperty(value = "axon.extension.tracing.topology.enabled", havingValue = "true")
+        public static class MessageFlowEndpointConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public MessageFlowEndpoint messageFlowEndpoint(MessageFlowTopology messageFlowTopology) {
+                return new MessageFlowEndpoint(messageFlowTopology);
+            }
+        }
+
+        /**
+         * Exposes the statistics of the {@link RedMetricsAggregator}, with their exemplars, in the OpenMetrics text
+         * format through an actuator endpoint, if Spring Boot Actuator is on the classpath.
+         */
+        @Configuration
+        @ConditionalOnClass(Endpoint.class)
+        @ConditionalOnProperty(value = "axon.extension.tracing.red-metrics.enabled", havingValue = "true")
+        public static class OpenMetricsEndpointConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public OpenMetricsEndpoint openMetricsEndpoint(RedMetricsAggregator redMetricsAggregator) {
+                return new OpenMetricsEndpoint(redMetricsAggregator);
+            }
+        }
+    }
 }
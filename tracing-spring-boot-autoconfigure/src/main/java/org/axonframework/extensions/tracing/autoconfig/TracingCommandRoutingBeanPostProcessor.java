@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import org.axonframework.commandhandling.distributed.CommandBusConnector;
+import org.axonframework.commandhandling.distributed.CommandRouter;
+import org.axonframework.commandhandling.distributed.RoutingStrategy;
+import org.axonframework.extensions.tracing.CommandRoutingListener;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingCommandBusConnector;
+import org.axonframework.extensions.tracing.TracingCommandRouter;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+/**
+ * A {@link BeanPostProcessor} wrapping the {@link CommandRouter} and {@link CommandBusConnector} beans of a
+ * {@link org.axonframework.commandhandling.distributed.DistributedCommandBus} in a {@link TracingCommandRouter} and
+ * {@link TracingCommandBusConnector} respectively, reporting routing decisions and sent commands to the
+ * {@link CommandRoutingListener} bean, if any. The routing key of commands is tagged if a {@link RoutingStrategy}
+ * bean is available.
+ * <p>
+ * As with the {@link TracingExecutorBeanPostProcessor}, only beans declared through a factory method returning the
+ * {@code CommandRouter} or {@code CommandBusConnector} interface are wrapped. Beans implementing both interfaces,
+ * such as the {@code JGroupsConnector}, are declared through their own type and thereby left untouched, as wrapping
+ * them would hide one of the two roles.
+ *
+ * @since 4.2
+ */
+public class TracingCommandRoutingBeanPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    private final ObjectProvider<TracingBackend> tracingBackend;
+    private final ObjectProvider<RoutingStrategy> routingStrategy;
+    private final ObjectProvider<CommandRoutingListener> commandRoutingListener;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    /**
+     * Initialize a {@link BeanPostProcessor} wrapping {@link CommandRouter} and {@link CommandBusConnector} beans. All
+     * dependencies are resolved lazily, when the first router or connector is encountered.
+     *
+     * @param tracingBackend         the provider of the {@link TracingBackend} used to trace command routing
+     * @param routingStrategy        the provider of the {@link RoutingStrategy} resolving the tagged routing keys
+     * @param commandRoutingListener the provider of the {@link CommandRoutingListener} notified of command routing
+     */
+    public TracingCommandRoutingBeanPostProcessor(ObjectProvider<TracingBackend> tracingBackend,
+                                                  ObjectProvider<RoutingStrategy> routingStrategy,
+                                                  ObjectProvider<CommandRoutingListener> commandRoutingListener) {
+        this.tracingBackend = tracingBackend;
+        this.routingStrategy = routingStrategy;
+        this.commandRoutingListener = commandRoutingListener;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        if (beanFactory instanceof ConfigurableListableBeanFactory) {
+            this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        boolean router = bean instanceof CommandRouter && !(bean instanceof TracingCommandRouter);
+        boolean connector = bean instanceof CommandBusConnector && !(bean instanceof TracingCommandBusConnector);
+        if (!router && !connector) {
+            return bean;
+        }
+        Class<?> declaredType = BeanDeclarations.declaredType(beanFactory, beanName);
+        if (declaredType != CommandRouter.class && declaredType != CommandBusConnector.class) {
+            return bean;
+        }
+        TracingBackend backend = tracingBackend.getIfAvailable();
+        if (backend == null) {
+            return bean;
+        }
+        CommandRoutingListener listener = commandRoutingListener.getIfAvailable(() -> CommandRoutingListener.NO_OP);
+        if (declaredType == CommandRouter.class) {
+            TracingCommandRouter.Builder builder = TracingCommandRouter.builder()
+                                                                       .delegate((CommandRouter) bean)
+                                                                       .backend(backend)
+                                                                       .listener(listener);
+            RoutingStrategy strategy = routingStrategy.getIfAvailable();
+            if (strategy != null) {
+                builder.routingStrategy(strategy);
+            }
+            return builder.build();
+        }
+        return TracingCommandBusConnector.builder()
+                                         .delegate((CommandBusConnector) bean)
+                                         .backend(backend)
+                                         .listener(listener)
+                                         .build();
+    }
+}
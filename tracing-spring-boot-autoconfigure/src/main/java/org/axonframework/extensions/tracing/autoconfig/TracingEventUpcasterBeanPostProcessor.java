@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingEventUpcaster;
+import org.axonframework.extensions.tracing.UpcasterListener;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * A {@link BeanPostProcessor} wrapping {@link EventUpcaster} beans in a {@link TracingEventUpcaster}, named after the
+ * bean, reporting the upcasting they perform to the {@link UpcasterListener} bean, if any. As every upcaster is
+ * wrapped individually, the upcaster chain the Axon auto-configuration composes of them reports per upcaster.
+ * <p>
+ * Contrary to the other tracing {@link BeanPostProcessor}s, upcasters are wrapped regardless of the type they are
+ * declared with, as they are typically declared as components of their own class. Wrapped upcasters can only be
+ * injected as {@code EventUpcaster}, which is how the Axon auto-configuration looks them up.
+ *
+ * @since 4.2
+ */
+public class TracingEventUpcasterBeanPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<TracingBackend> tracingBackend;
+    private final ObjectProvider<UpcasterListener> upcasterListener;
+    private final ObjectProvider<TracingProperties> tracingProperties;
+
+    /**
+     * Initialize a {@link BeanPostProcessor} wrapping {@link EventUpcaster} beans. All dependencies are resolved
+     * lazily, when the first upcaster is encountered.
+     *
+     * @param tracingBackend    the provider of the {@link TracingBackend} used to trace conversions
+     * @param upcasterListener  the provider of the {@link UpcasterListener} notified of upcasting
+     * @param tracingProperties the provider of the {@link TracingProperties} holding the span sample rate
+     */
+    public TracingEventUpcasterBeanPostProcessor(ObjectProvider<TracingBackend> tracingBackend,
+                                                 ObjectProvider<UpcasterListener> upcasterListener,
+                                                 ObjectProvider<TracingProperties> tracingProperties) {
+        this.tracingBackend = tracingBackend;
+        this.upcasterListener = upcasterListener;
+        this.tracingProperties = tracingProperties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof EventUpcaster) || bean instanceof TracingEventUpcaster) {
+            return bean;
+        }
+        TracingBackend backend = tracingBackend.getIfAvailable();
+        if (backend == null) {
+            return bean;
+        }
+        TracingProperties properties = tracingProperties.getIfAvailable(TracingProperties::new);
+        return TracingEventUpcaster.builder()
+                                   .delegate((EventUpcaster) bean)
+                                   .name(beanName)
+                                   .backend(backend)
+                                   .spanSampleRate(properties.getUpcasters().getSpanSampleRate())
+                                   .listener(upcasterListener.getIfAvailable(() -> UpcasterListener.NO_OP))
+                                   .build();
+    }
+}
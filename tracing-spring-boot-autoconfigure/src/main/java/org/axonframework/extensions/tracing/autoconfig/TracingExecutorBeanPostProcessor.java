@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingExecutors;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+/**
+ * A {@link BeanPostProcessor} wrapping {@link Executor} beans through {@link TracingExecutors}, so that the tasks
+ * handed to them, for example by an {@link org.axonframework.commandhandling.AsynchronousCommandBus}, run in the trace
+ * context of the thread which submitted them.
+ * <p>
+ * Only beans declared through a factory method returning {@link Executor}, {@link ExecutorService} or
+ * {@link ScheduledExecutorService} are wrapped, as the wrapper implements that interface only. Beans declared with a
+ * concrete type, such as a {@code ThreadPoolExecutor}, are left untouched, as wrapping them would break injection by
+ * that type.
+ *
+ * @since 4.2
+ */
+public class TracingExecutorBeanPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    private final ObjectProvider<TracingBackend> tracingBackend;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    /**
+     * Initialize a {@link BeanPostProcessor} wrapping {@link Executor} beans to propagate the trace context of the
+     * given {@code tracingBackend}. The backend is resolved lazily, when the first executor bean is encountered.
+     *
+     * @param tracingBackend the provider of the {@link TracingBackend} of which the trace context is propagated
+     */
+    public TracingExecutorBeanPostProcessor(ObjectProvider<TracingBackend> tracingBackend) {
+        this.tracingBackend = tracingBackend;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        if (beanFactory instanceof ConfigurableListableBeanFactory) {
+            this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof Executor) || !declaredAsExecutorInterface(beanName)) {
+            return bean;
+        }
+        TracingBackend backend = tracingBackend.getIfAvailable();
+        return backend == null ? bean : TracingExecutors.wrap((Executor) bean, backend);
+    }
+
+    private boolean declaredAsExecutorInterface(String beanName) {
+        Class<?> declaredType = BeanDeclarations.declaredType(beanFactory, beanName);
+        return declaredType == Executor.class
+                || declaredType == ExecutorService.class
+                || declaredType == ScheduledExecutorService.class;
+    }
+}
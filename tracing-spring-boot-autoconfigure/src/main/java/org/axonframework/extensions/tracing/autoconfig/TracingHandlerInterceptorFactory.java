@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.extensions.tracing.OpenTraceHandlerInterceptor;
+import org.axonframework.extensions.tracing.ReplayListener;
+import org.axonframework.extensions.tracing.SlowHandlerWatchdog;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.UnitOfWorkPhaseListener;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+/**
+ * Creates the {@link MessageHandlerInterceptor MessageHandlerInterceptors} tracing the command bus, the query bus and
+ * the event processors, as configured through the {@link TracingProperties}.
+ * <p>
+ * For a disabled bus or processor no interceptor is created, so that its handlers do not pay for tracing at all. The
+ * same holds for all buses and processors when the backend is the
+ * {@link org.axonframework.extensions.tracing.NoopTracingBackend}. When
+ * settings are configured per payload package, the created interceptor selects the settings matching the payload type
+ * of each handled message, caching the selection per payload type.
+ * <p>
+ * When a custom {@link OpenTraceHandlerInterceptor} is provided, it is registered instead of the interceptors this
+ * factory would create. Buses, processors and payload packages which are disabled still get no interceptor, but the
+ * other settings, such as the sample rate and span mode, are left to the custom interceptor.
+ *
+ * @since 4.2
+ */
+public class TracingHandlerInterceptorFactory {
+
+    private final TracingBackend backend;
+    private final TracingProperties properties;
+    private final UnitOfWorkPhaseListener phaseListener;
+    private final SlowHandlerWatchdog watchdog;
+    private final ReplayListener replayListener;
+    private final OpenTraceHandlerInterceptor customInterceptor;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingHandlerInterceptorFactory}.
+     * <p>
+     * The {@link UnitOfWorkPhaseListener} and {@link ReplayListener} default to their no-op implementations. By
+     * default the traced handlers are not watched by a {@link SlowHandlerWatchdog} and the interceptors are created
+     * by this factory rather than replaced by a custom {@link OpenTraceHandlerInterceptor}.
+     * <p>
+     * The {@link TracingBackend} and {@link TracingProperties} are <b>hard requirements</b> and as such should be
+     * provided.
+     *
+     * @return a Builder to be able to create a {@link TracingHandlerInterceptorFactory}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingHandlerInterceptorFactory} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link TracingBackend} and {@link TracingProperties} are not {@code null}, and will throw
+     * an {@link AxonConfigurationException} if either of them is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingHandlerInterceptorFactory} instance
+     */
+    protected TracingHandlerInterceptorFactory(Builder builder) {
+        builder.validate();
+        this.backend = builder.backend;
+        this.properties = builder.properties;
+        this.phaseListener = builder.phaseListener;
+        this.watchdog = builder.watchdog;
+        this.replayListener = builder.replayListener;
+        this.customInterceptor = builder.customInterceptor;
+    }
+
+    /**
+     * Creates an interceptor configured through the top-level settings only, regardless of whether any handlers are
+     * disabled.
+     *
+     * @return an interceptor configured through the top-level settings
+     */
+    public OpenTraceHandlerInterceptor defaultInterceptor() {
+        return createInterceptor(properties.defaults(), null);
+    }
+
+    /**
+     * Creates the interceptor to register on the command bus.
+     *
+     * @return the interceptor to register on the command bus, or {@code null} if command handlers are not traced
+     */
+    public MessageHandlerInterceptor<Message<?>> commandBusInterceptor() {
+        return createScopeInterceptor(properties.defaults().overriddenBy(properties.getCommands()), null);
+    }
+
+    /**
+     * Creates the interceptor to register on the query bus.
+     *
+     * @return the interceptor to register on the query bus, or {@code null} if query handlers are not traced
+     */
+    public MessageHandlerInterceptor<Message<?>> queryBusInterceptor() {
+        return createScopeInterceptor(properties.defaults().overriddenBy(properties.getQueries()), null);
+    }
+
+    /**
+     * Creates the interceptor to register on the event processor with the given {@code processorName}.
+     *
+     * @param processorName the name of the event processor to create the interceptor for
+     * @return the interceptor to register on the event processor, or {@code null} if its handlers are not traced
+     */
+    public MessageHandlerInterceptor<Message<?>> eventProcessorInterceptor(String processorName) {
+        return createScopeInterceptor(properties.processorSettings(processorName), processorName);
+    }
+
+    private MessageHandlerInterceptor<Message<?>> createScopeInterceptor(TracingProperties.HandlerSettings settings,
+                                                                         String processorName) {
+        if (!settings.traced() || !TracingBackend.isTracing(backend)) {
+            return null;
+        }
+        OpenTraceHandlerInterceptor scopeInterceptor = createInterceptor(settings, processorName);
+        if (properties.getPayloadPackages().isEmpty()) {
+            return scopeInterceptor;
+        }
+        Map<String, MessageHandlerInterceptor<Message<?>>> packageInterceptors = new LinkedHashMap<>();
+        properties.getPayloadPackages()
+                  .entrySet()
+                  .stream()
+                  .sorted(Comparator.comparing((Map.Entry<String, ?> entry) -> entry.getKey().length()).reversed())
+                  .forEach(entry -> {
+                      TracingProperties.HandlerSettings packageSettings = settings.overriddenBy(entry.getValue());
+                      packageInterceptors.put(entry.getKey(), packageSettings.traced()
+                              ? createInterceptor(packageSettings, processorName)
+                              : PayloadPackageInterceptor.NO_TRACING);
+                  });
+        return new PayloadPackageInterceptor(scopeInterceptor, packageInterceptors);
+    }
+
+    private OpenTraceHandlerInterceptor createInterceptor(TracingProperties.HandlerSettings settings,
+                                                          String processorName) {
+        if (customInterceptor != null) {
+            return customInterceptor;
+        }
+        OpenTraceHandlerInterceptor.Builder builder =
+                OpenTraceHandlerInterceptor.builder()
+                                           .backend(backend)
+                                           .unitOfWorkPhases(properties.isUnitOfWorkPhases())
+                                           .phaseListener(phaseListener)
+                                           .replayListener(replayListener);
+        if (settings.getSampleRate() != null) {
+            builder.sampleRate(settings.getSampleRate());
+        }
+        if (settings.getSpanMode() != null) {
+            builder.spanMode(settings.getSpanMode());
+        }
+        if (settings.getReplayMode() != null) {
+            builder.replayMode(settings.getReplayMode());
+        }
+        if (settings.getReplaySampleRate() != null) {
+            builder.replaySampleRate(settings.getReplaySampleRate());
+        }
+        if (processorName != null) {
+            builder.processorName(processorName);
+        }
+        if (watchdog != null) {
+            builder.watchdog(watchdog);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Interceptor delegating to the interceptor configured for the most specific package of the payload type of the
+     * handled message.
+     */
+    private static class PayloadPackageInterceptor implements MessageHandlerInterceptor<Message<?>> {
+
+        private static final MessageHandlerInterceptor<Message<?>> NO_TRACING =
+                (unitOfWork, interceptorChain) -> interceptorChain.proceed();
+
+        private final MessageHandlerInterceptor<Message<?>> defaultInterceptor;
+        private final Map<String, MessageHandlerInterceptor<Message<?>>> packageInterceptors;
+        private final ConcurrentMap<Class<?>, MessageHandlerInterceptor<Message<?>>> interceptorsPerPayloadType =
+                new ConcurrentHashMap<>();
+
+        /**
+         * @param defaultInterceptor  the interceptor for payload types not matching any package
+         * @param packageInterceptors the interceptors per package, ordered from the most to the least specific
+         */
+        private PayloadPackageInterceptor(MessageHandlerInterceptor<Message<?>> defaultInterceptor,
+                                          Map<String, MessageHandlerInterceptor<Message<?>>> packageInterceptors) {
+            this.defaultInterceptor = defaultInterceptor;
+            this.packageInterceptors = packageInterceptors;
+        }
+
+        @Override
+        public Object handle(UnitOfWork<? extends Message<?>> unitOfWork,
+                             InterceptorChain interceptorChain) throws Exception {
+            return interceptorsPerPayloadType.computeIfAbsent(unitOfWork.getMessage().getPayloadType(),
+                                                              this::resolveInterceptor)
+                                             .handle(unitOfWork, interceptorChain);
+        }
+
+        private MessageHandlerInterceptor<Message<?>> resolveInterceptor(Class<?> payloadType) {
+            String typeName = payloadType.getName();
+            return packageInterceptors.entrySet()
+                                      .stream()
+                                      .filter(entry -> typeName.startsWith(entry.getKey() + "."))
+                                      .map(Map.Entry::getValue)
+                                      .findFirst()
+                                      .orElse(defaultInterceptor);
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingHandlerInterceptorFactory}.
+     * <p>
+     * The {@link UnitOfWorkPhaseListener} and {@link ReplayListener} default to their no-op implementations. By
+     * default the traced handlers are not watched by a {@link SlowHandlerWatchdog} and the interceptors are created
+     * by the factory rather than replaced by a custom {@link OpenTraceHandlerInterceptor}.
+     * <p>
+     * The {@link TracingBackend} and {@link TracingProperties} are <b>hard requirements</b> and as such should be
+     * provided.
+     */
+    public static class Builder {
+
+        private TracingBackend backend;
+        private TracingProperties properties;
+        private UnitOfWorkPhaseListener phaseListener = UnitOfWorkPhaseListener.NO_OP;
+        private SlowHandlerWatchdog watchdog;
+        private ReplayListener replayListener = ReplayListener.NO_OP;
+        private OpenTraceHandlerInterceptor customInterceptor;
+
+        /**
+         * Sets the {@link TracingBackend} used by the created interceptors.
+         *
+         * @param backend the {@link TracingBackend} used by the created interceptors
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingProperties} describing where and how to trace.
+         *
+         * @param properties the {@link TracingProperties} describing where and how to trace
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracingProperties(TracingProperties properties) {
+            assertNonNull(properties, "TracingProperties may not be null");
+            this.properties = properties;
+            return this;
+        }
+
+        /**
+         * Sets the {@link UnitOfWorkPhaseListener} notified of the timed unit of work phases. Defaults to
+         * {@link UnitOfWorkPhaseListener#NO_OP}.
+         *
+         * @param phaseListener the {@link UnitOfWorkPhaseListener} notified of the timed unit of work phases
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder unitOfWorkPhaseListener(UnitOfWorkPhaseListener phaseListener) {
+            assertNonNull(phaseListener, "UnitOfWorkPhaseListener may not be null");
+            this.phaseListener = phaseListener;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SlowHandlerWatchdog} watching the traced handlers. By default the handlers are not watched.
+         *
+         * @param watchdog the {@link SlowHandlerWatchdog} watching the traced handlers
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder slowHandlerWatchdog(SlowHandlerWatchdog watchdog) {
+            assertNonNull(watchdog, "SlowHandlerWatchdog may not be null");
+            this.watchdog = watchdog;
+            return this;
+        }
+
+        /**
+         * Sets the {@link ReplayListener} notified of the progress of replays. Defaults to
+         * {@link ReplayListener#NO_OP}.
+         *
+         * @param replayListener the {@link ReplayListener} notified of the progress of replays
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder replayListener(ReplayListener replayListener) {
+            assertNonNull(replayListener, "ReplayListener may not be null");
+            this.replayListener = replayListener;
+            return this;
+        }
+
+        /**
+         * Sets the {@link OpenTraceHandlerInterceptor} used instead of the interceptors the factory would create for
+         * all buses and processors which are traced. By default the factory creates the interceptors.
+         *
+         * @param customInterceptor the {@link OpenTraceHandlerInterceptor} used instead of the created interceptors
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder customInterceptor(OpenTraceHandlerInterceptor customInterceptor) {
+            assertNonNull(customInterceptor, "OpenTraceHandlerInterceptor may not be null");
+            this.customInterceptor = customInterceptor;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingHandlerInterceptorFactory} as specified through this Builder.
+         *
+         * @return a {@link TracingHandlerInterceptorFactory} as specified through this Builder
+         */
+        public TracingHandlerInterceptorFactory build() {
+            return new TracingHandlerInterceptorFactory(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
+            assertNonNull(properties, "The TracingProperties are a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,1163 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.axonframework.extensions.tracing.BatchingSpanReporter;
+import org.axonframework.extensions.tracing.ReplayMode;
+import org.axonframework.extensions.tracing.SpanMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties describing where the {@link org.axonframework.extensions.tracing.OpenTraceHandlerInterceptor} is
+ * registered and how it traces the messages it handles.
+ * <p>
+ * Settings are resolved from the generic to the specific: the top-level settings apply to all handlers, which may be
+ * overridden per message type ({@code commands}, {@code events} and {@code queries}), then per event processor and
+ * finally per payload package. Processor names and packages contain dots, so they should be written between brackets,
+ * for example {@code axon.extension.tracing.processors[com.example.projections].enabled=false}.
+ * <p>
+ * A message type or processor which is disabled gets no handler interceptor at all. A disabled payload package is
+ * handled without starting a span.
+ *
+ * @since 4.2
+ */
+@ConfigurationProperties("axon.extension.tracing")
+public class TracingProperties {
+
+    /**
+     * Whether messages are traced at all. When disabled, the
+     * {@link org.axonframework.extensions.tracing.NoopTracingBackend} is used and no handler interceptors are
+     * registered. Defaults to {@code true}.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The tracing library to trace through. Defaults to {@link Backend#BRAVE}.
+     */
+    private Backend backend = Backend.BRAVE;
+
+    /**
+     * The rate, between {@code 0.0} and {@code 1.0}, at which traces started by handlers are sampled. Messages
+     * carrying the sampling decision of an upstream span always follow that decision. Defaults to the sampler of the
+     * {@link brave.Tracing} instance.
+     */
+    private Float sampleRate;
+
+    /**
+     * Whether handlers start a span per message or per batch of messages. Defaults to {@link SpanMode#PER_MESSAGE}.
+     */
+    private SpanMode spanMode = SpanMode.PER_MESSAGE;
+
+    /**
+     * How events replayed after a reset of a tracking event processor are traced. Defaults to
+     * {@link ReplayMode#TRACE}, tracing them like any other event.
+     */
+    private ReplayMode replayMode = ReplayMode.TRACE;
+
+    /**
+     * The rate, between {@code 0.0} and {@code 1.0}, at which the traces started for replayed events are sampled in
+     * {@link ReplayMode#SAMPLED}. Defaults to {@code 0.01}.
+     */
+    private Float replaySampleRate;
+
+    /**
+     * Whether the prepare commit, commit, after commit and rollback phases of the unit of work following the handling
+     * of a message are timed, annotating the handler span with their durations. Defaults to {@code false}.
+     */
+    private boolean unitOfWorkPhases = false;
+
+    /**
+     * Settings of the handler interceptor registered on the command bus.
+     */
+    private HandlerSettings commands = new HandlerSettings();
+
+    /**
+     * Settings of the handler interceptors registered on all event processors.
+     */
+    private HandlerSettings events = new HandlerSettings();
+
+    /**
+     * Settings of the handler interceptor registered on the query bus.
+     */
+    private HandlerSettings queries = new HandlerSettings();
+
+    /**
+     * Settings per event processor name, overriding the settings for events.
+     */
+    private Map<String, HandlerSettings> processors = new LinkedHashMap<>();
+
+    /**
+     * Settings per payload package, overriding the settings of the bus or processor handling the message. The most
+     * specific package matching the payload type of a message applies.
+     */
+    private Map<String, HandlerSettings> payloadPackages = new LinkedHashMap<>();
+
+    /**
+     * Settings of the {@link org.axonframework.extensions.tracing.BatchingSpanReporter} exporting finished spans.
+     */
+    private BatchingReporterSettings batchingReporter = new BatchingReporterSettings();
+
+    /**
+     * Settings of the {@link org.axonframework.extensions.tracing.RedMetricsAggregator} aggregating statistics from
+     * finished spans.
+     */
+    private RedMetricsSettings redMetrics = new RedMetricsSettings();
+
+    /**
+     * Settings of the {@link org.axonframework.extensions.tracing.RecentTraceStore} keeping recently finished spans.
+     */
+    private RecentTracesSettings recentTraces = new RecentTracesSettings();
+
+    /**
+     * Settings of the propagation of the trace context to {@link java.util.concurrent.Executor} beans.
+     */
+    private ExecutorSettings executors = new ExecutorSettings();
+
+    /**
+     * Settings of the tracing of deadline and scheduled event firings.
+     */
+    private SchedulingSettings scheduling = new SchedulingSettings();
+
+    /**
+     * Settings of the tracing of saga store operations.
+     */
+    private SagaSettings sagas = new SagaSettings();
+
+    /**
+     * Settings of the metrics and endpoint of {@link org.axonframework.extensions.tracing.TracingLockFactory} beans.
+     */
+    private LockSettings locks = new LockSettings();
+
+    /**
+     * Settings of the tracing of serialization.
+     */
+    private SerializationSettings serialization = new SerializationSettings();
+
+    /**
+     * Settings of the tracing of token store operations.
+     */
+    private TokenStoreSettings tokenStore = new TokenStoreSettings();
+
+    /**
+     * Settings of the tracing of distributed command routing.
+     */
+    private CommandRoutingSettings commandRouting = new CommandRoutingSettings();
+
+    /**
+     * Settings of the {@link org.axonframework.extensions.tracing.TracingEventUpcaster}s wrapping the event upcaster
+     * beans.
+     */
+    private UpcasterSettings upcasters = new UpcasterSettings();
+
+    /**
+     * Settings of the {@link org.axonframework.extensions.tracing.MessageFlowTopology} recorded from finished spans.
+     */
+    private TopologySettings topology = new TopologySettings();
+
+    /**
+     * Settings of the {@link org.axonframework.extensions.tracing.SlowHandlerWatchdog} sampling the stacks of slow
+     * handlers.
+     */
+    private SlowHandlerSettings slowHandlers = new SlowHandlerSettings();
+
+    /**
+     * Settings of the metrics of event processor replays.
+     */
+    private ReplayMetricsSettings replayMetrics = new ReplayMetricsSettings();
+
+    /**
+     * Settings of the cache of query results consulted by the
+     * {@link org.axonframework.extensions.tracing.TracingQueryGateway}.
+     */
+    private QueryCacheSettings queryCache = new QueryCacheSettings();
+
+    /**
+     * Settings of the tracing of query update fan out.
+     */
+    private QueryUpdateSettings queryUpdates = new QueryUpdateSettings();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(Backend backend) {
+        this.backend = backend;
+    }
+
+    public Float getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(Float sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public SpanMode getSpanMode() {
+        return spanMode;
+    }
+
+    public void setSpanMode(SpanMode spanMode) {
+        this.spanMode = spanMode;
+    }
+
+    public ReplayMode getReplayMode() {
+        return replayMode;
+    }
+
+    public void setReplayMode(ReplayMode replayMode) {
+        this.replayMode = replayMode;
+    }
+
+    public Float getReplaySampleRate() {
+        return replaySampleRate;
+    }
+
+    public void setReplaySampleRate(Float replaySampleRate) {
+        this.replaySampleRate = replaySampleRate;
+    }
+
+    public boolean isUnitOfWorkPhases() {
+        return unitOfWorkPhases;
+    }
+
+    public void setUnitOfWorkPhases(boolean unitOfWorkPhases) {
+        this.unitOfWorkPhases = unitOfWorkPhases;
+    }
+
+    public HandlerSettings getCommands() {
+        return commands;
+    }
+
+    public void setCommands(HandlerSettings commands) {
+        this.commands = commands;
+    }
+
+    public HandlerSettings getEvents() {
+        return events;
+    }
+
+    public void setEvents(HandlerSettings events) {
+        this.events = events;
+    }
+
+    public HandlerSettings getQueries() {
+        return queries;
+    }
+
+    public void setQueries(HandlerSettings queries) {
+        this.queries = queries;
+    }
+
+    public Map<String, HandlerSettings> getProcessors() {
+        return processors;
+    }
+
+    public void setProcessors(Map<String, HandlerSettings> processors) {
+        this.processors = processors;
+    }
+
+    public Map<String, HandlerSettings> getPayloadPackages() {
+        return payloadPackages;
+    }
+
+    public void setPayloadPackages(Map<String, HandlerSettings> payloadPackages) {
+        this.payloadPackages = payloadPackages;
+    }
+
+    public BatchingReporterSettings getBatchingReporter() {
+        return batchingReporter;
+    }
+
+    public void setBatchingReporter(BatchingReporterSettings batchingReporter) {
+        this.batchingReporter = batchingReporter;
+    }
+
+    public RedMetricsSettings getRedMetrics() {
+        return redMetrics;
+    }
+
+    public void setRedMetrics(RedMetricsSettings redMetrics) {
+        this.redMetrics = redMetrics;
+    }
+
+    public RecentTracesSettings getRecentTraces() {
+        return recentTraces;
+    }
+
+    public void setRecentTraces(RecentTracesSettings recentTraces) {
+        this.recentTraces = recentTraces;
+    }
+
+    public ExecutorSettings getExecutors() {
+        return executors;
+    }
+
+    public void setExecutors(ExecutorSettings executors) {
+        this.executors = executors;
+    }
+
+    public SchedulingSettings getScheduling() {
+        return scheduling;
+    }
+
+    public void setScheduling(SchedulingSettings scheduling) {
+        this.scheduling = scheduling;
+    }
+
+    public SagaSettings getSagas() {
+        return sagas;
+    }
+
+    public void setSagas(SagaSettings sagas) {
+        this.sagas = sagas;
+    }
+
+    public LockSettings getLocks() {
+        return locks;
+    }
+
+    public void setLocks(LockSettings locks) {
+        this.locks = locks;
+    }
+
+    public SerializationSettings getSerialization() {
+        return serialization;
+    }
+
+    public void setSerialization(SerializationSettings serialization) {
+        this.serialization = serialization;
+    }
+
+    public TokenStoreSettings getTokenStore() {
+        return tokenStore;
+    }
+
+    public void setTokenStore(TokenStoreSettings tokenStore) {
+        this.tokenStore = tokenStore;
+    }
+
+    public CommandRoutingSettings getCommandRouting() {
+        return commandRouting;
+    }
+
+    public void setCommandRouting(CommandRoutingSettings commandRouting) {
+        this.commandRouting = commandRouting;
+    }
+
+    public UpcasterSettings getUpcasters() {
+        return upcasters;
+    }
+
+    public void setUpcasters(UpcasterSettings upcasters) {
+        this.upcasters = upcasters;
+    }
+
+    public TopologySettings getTopology() {
+        return topology;
+    }
+
+    public void setTopology(TopologySettings topology) {
+        this.topology = topology;
+    }
+
+    public SlowHandlerSettings getSlowHandlers() {
+        return slowHandlers;
+    }
+
+    public void setSlowHandlers(SlowHandlerSettings slowHandlers) {
+        this.slowHandlers = slowHandlers;
+    }
+
+    public ReplayMetricsSettings getReplayMetrics() {
+        return replayMetrics;
+    }
+
+    public void setReplayMetrics(ReplayMetricsSettings replayMetrics) {
+        this.replayMetrics = replayMetrics;
+    }
+
+    public QueryCacheSettings getQueryCache() {
+        return queryCache;
+    }
+
+    public void setQueryCache(QueryCacheSettings queryCache) {
+        this.queryCache = queryCache;
+    }
+
+    public QueryUpdateSettings getQueryUpdates() {
+        return queryUpdates;
+    }
+
+    public void setQueryUpdates(QueryUpdateSettings queryUpdates) {
+        this.queryUpdates = queryUpdates;
+    }
+
+    /**
+     * Returns the top-level settings, which apply to all handlers unless overridden.
+     *
+     * @return the top-level settings
+     */
+    HandlerSettings defaults() {
+        HandlerSettings defaults = new HandlerSettings();
+        defaults.setEnabled(true);
+        defaults.setSampleRate(sampleRate);
+        defaults.setSpanMode(spanMode);
+        defaults.setReplayMode(replayMode);
+        defaults.setReplaySampleRate(replaySampleRate);
+        return defaults;
+    }
+
+    /**
+     * Returns the settings of the event processor with the given {@code processorName}, being the top-level settings
+     * overridden by the settings for events and by the settings of that processor.
+     *
+     * @param processorName the name of the event processor to return the settings of
+     * @return the settings of the event processor with the given name
+     */
+    HandlerSettings processorSettings(String processorName) {
+        return defaults().overriddenBy(events).overriddenBy(processors.get(processorName));
+    }
+
+    /**
+     * The tracing libraries messages can be traced through.
+     */
+    public enum Backend {
+
+        /**
+         * Trace through the Brave {@link brave.Tracing} bean.
+         */
+        BRAVE,
+
+        /**
+         * Trace through the OpenTelemetry API, using the {@code io.opentelemetry.api.OpenTelemetry} bean or, if there
+         * is none, the globally registered instance.
+         */
+        OPENTELEMETRY
+    }
+
+    /**
+     * Tracing settings of a group of handlers. Settings which are not set are inherited from the enclosing group.
+     */
+    public static class HandlerSettings {
+
+        /**
+         * Whether the handlers are traced.
+         */
+        private Boolean enabled;
+
+        /**
+         * The rate, between {@code 0.0} and {@code 1.0}, at which traces started by the handlers are sampled.
+         */
+        private Float sampleRate;
+
+        /**
+         * Whether the handlers start a span per message or per batch of messages. Only applies to event processors.
+         */
+        private SpanMode spanMode;
+
+        /**
+         * How events replayed after a reset of a tracking event processor are traced. Only applies to event
+         * processors.
+         */
+        private ReplayMode replayMode;
+
+        /**
+         * The rate, between {@code 0.0} and {@code 1.0}, at which the traces started for replayed events are sampled
+         * in {@link ReplayMode#SAMPLED}.
+         */
+        private Float replaySampleRate;
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Float getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(Float sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public SpanMode getSpanMode() {
+            return spanMode;
+        }
+
+        public void setSpanMode(SpanMode spanMode) {
+            this.spanMode = spanMode;
+        }
+
+        public ReplayMode getReplayMode() {
+            return replayMode;
+        }
+
+        public void setReplayMode(ReplayMode replayMode) {
+            this.replayMode = replayMode;
+        }
+
+        public Float getReplaySampleRate() {
+            return replaySampleRate;
+        }
+
+        public void setReplaySampleRate(Float replaySampleRate) {
+            this.replaySampleRate = replaySampleRate;
+        }
+
+        /**
+         * Returns new settings combining these settings with the given {@code overrides}, of which the settings which
+         * are set take precedence.
+         *
+         * @param overrides the settings overriding these settings, may be {@code null}
+         * @return new settings combining these settings with the given overrides
+         */
+        HandlerSettings overriddenBy(HandlerSettings overrides) {
+            HandlerSettings combined = new HandlerSettings();
+            combined.enabled = overrides != null && overrides.enabled != null ? overrides.enabled : enabled;
+            combined.sampleRate = overrides != null && overrides.sampleRate != null ? overrides.sampleRate : sampleRate;
+            combined.spanMode = overrides != null && overrides.spanMode != null ? overrides.spanMode : spanMode;
+            combined.replayMode =
+                    overrides != null && overrides.replayMode != null ? overrides.replayMode : replayMode;
+            combined.replaySampleRate = overrides != null && overrides.replaySampleRate != null
+                    ? overrides.replaySampleRate
+                    : replaySampleRate;
+            return combined;
+        }
+
+        boolean traced() {
+            return enabled == null || enabled;
+        }
+    }
+
+    /**
+     * Settings of the {@link org.axonframework.extensions.tracing.BatchingSpanReporter}. The reporter is added to the
+     * span reporters of the Brave {@link brave.Tracing} built by Spring Cloud Sleuth, and exports the spans through the
+     * {@link org.axonframework.extensions.tracing.SpanBatchExporter} bean.
+     */
+    public static class BatchingReporterSettings {
+
+        /**
+         * Whether finished spans are exported in batches through the
+         * {@link org.axonframework.extensions.tracing.SpanBatchExporter} bean. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The number of spans which may wait to be exported before the overflow policy kicks in, rounded up to the next
+         * power of two. Defaults to {@code 8192}.
+         */
+        private int queueCapacity = 8192;
+
+        /**
+         * The maximum number of spans exported in a single batch. Defaults to {@code 512}.
+         */
+        private int maxBatchSize = 512;
+
+        /**
+         * The maximum time in milliseconds a span waits for its batch to fill up. Defaults to {@code 1000}.
+         */
+        private long maxBatchDelayMs = 1000;
+
+        /**
+         * The time in milliseconds to wait for the remaining spans to be exported on shutdown. Defaults to
+         * {@code 5000}.
+         */
+        private long closeTimeoutMs = 5000;
+
+        /**
+         * Which span is dropped when a span is reported while the queue is full. Defaults to
+         * {@link BatchingSpanReporter.OverflowPolicy#DROP_NEWEST}.
+         */
+        private BatchingSpanReporter.OverflowPolicy overflowPolicy = BatchingSpanReporter.OverflowPolicy.DROP_NEWEST;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public long getMaxBatchDelayMs() {
+            return maxBatchDelayMs;
+        }
+
+        public void setMaxBatchDelayMs(long maxBatchDelayMs) {
+            this.maxBatchDelayMs = maxBatchDelayMs;
+        }
+
+        public long getCloseTimeoutMs() {
+            return closeTimeoutMs;
+        }
+
+        public void setCloseTimeoutMs(long closeTimeoutMs) {
+            this.closeTimeoutMs = closeTimeoutMs;
+        }
+
+        public BatchingSpanReporter.OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(BatchingSpanReporter.OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+    }
+
+    /**
+     * Settings of the {@link org.axonframework.extensions.tracing.RedMetricsAggregator}. Only applies when the Brave {@link brave.Tracing} is built by Spring Cloud Sleuth.
+     */
+    public static class RedMetricsSettings {
+
+        /**
+         * Whether the rate, errors and duration of the traced operations are aggregated from finished spans, and
+         * exposed through Micrometer and the OpenMetrics endpoint. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Settings of the {@link org.axonframework.extensions.tracing.RecentTraceStore}. Only applies when the Brave {@link brave.Tracing} is built by Spring Cloud Sleuth.
+     */
+    public static class RecentTracesSettings {
+
+        /**
+         * Whether recently finished spans are kept, and exposed through an actuator endpoint. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The number of most recently finished spans to keep. Defaults to {@code 10000}.
+         */
+        private int maxSpans = 10000;
+
+        /**
+         * The number of slowest spans to keep per operation. Defaults to {@code 10}.
+         */
+        private int slowestPerOperation = 10;
+
+        /**
+         * The maximum number of operations to keep the slowest spans for. Defaults to {@code 500}.
+         */
+        private int maxOperations = 500;
+
+        /**
+         * Whether all spans are kept, regardless of whether they are sampled for reporting to the tracing backend.
+         * Defaults to {@code false}.
+         */
+        private boolean alwaysSampleLocal = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxSpans() {
+            return maxSpans;
+        }
+
+        public void setMaxSpans(int maxSpans) {
+            this.maxSpans = maxSpans;
+        }
+
+        public int getSlowestPerOperation() {
+            return slowestPerOperation;
+        }
+
+        public void setSlowestPerOperation(int slowestPerOperation) {
+            this.slowestPerOperation = slowestPerOperation;
+        }
+
+        public int getMaxOperations() {
+            return maxOperations;
+        }
+
+        public void setMaxOperations(int maxOperations) {
+            this.maxOperations = maxOperations;
+        }
+
+        public boolean isAlwaysSampleLocal() {
+            return alwaysSampleLocal;
+        }
+
+        public void setAlwaysSampleLocal(boolean alwaysSampleLocal) {
+            this.alwaysSampleLocal = alwaysSampleLocal;
+        }
+    }
+
+    /**
+     * Settings of the propagation of the trace context to {@link java.util.concurrent.Executor} beans.
+     */
+    public static class ExecutorSettings {
+
+        /**
+         * Whether {@link java.util.concurrent.Executor} beans declared by interface are wrapped to run their tasks in
+         * the trace context of the submitting thread. Defaults to {@code false}.
+         */
+        private boolean propagateContext = false;
+
+        public boolean isPropagateContext() {
+            return propagateContext;
+        }
+
+        public void setPropagateContext(boolean propagateContext) {
+            this.propagateContext = propagateContext;
+        }
+    }
+
+    /**
+     * Settings of the tracing of deadline and scheduled event firings.
+     */
+    public static class SchedulingSettings {
+
+        /**
+         * Whether {@link org.axonframework.deadline.DeadlineManager} and
+         * {@link org.axonframework.eventhandling.scheduling.EventScheduler} beans are wrapped to trace firings in the
+         * trace that scheduled them, and to record their scheduling lag. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Settings of the tracing of saga store operations.
+     */
+    public static class SagaSettings {
+
+        /**
+         * Whether {@link org.axonframework.modelling.saga.repository.SagaStore} beans are wrapped to trace the saga
+         * store operations performed while handling events. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Settings of the metrics and endpoint of {@link org.axonframework.extensions.tracing.TracingLockFactory} beans.
+     */
+    public static class LockSettings {
+
+        /**
+         * Whether the time spent waiting for aggregate locks is recorded through Micrometer, and the most contended
+         * aggregates are exposed through an actuator endpoint. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Settings of the tracing of serialization.
+     */
+    public static class SerializationSettings {
+
+        /**
+         * Whether {@link org.axonframework.serialization.Serializer} beans declared by interface are wrapped to
+         * measure serialization duration and size per serialized type. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Settings of the tracing of token store operations.
+     */
+    public static class TokenStoreSettings {
+
+        /**
+         * Whether {@link org.axonframework.eventhandling.tokenstore.TokenStore} beans are wrapped to trace token
+         * store operations and claim contention per processor and segment. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Settings of the tracing of distributed command routing.
+     */
+    public static class CommandRoutingSettings {
+
+        /**
+         * Whether the routing of commands through a distributed command bus and the remote hop are traced. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Settings of the {@link org.axonframework.extensions.tracing.TracingEventUpcaster}s.
+     */
+    public static class UpcasterSettings {
+
+        /**
+         * Whether event upcaster beans are wrapped to trace the upcasting they perform. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The fraction, between {@code 0.0} and {@code 1.0}, of the conversions within a trace which are traced in a
+         * span. Defaults to {@code 0.0}, tracing no conversions.
+         */
+        private float spanSampleRate = 0.0f;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public float getSpanSampleRate() {
+            return spanSampleRate;
+        }
+
+        public void setSpanSampleRate(float spanSampleRate) {
+            this.spanSampleRate = spanSampleRate;
+        }
+    }
+
+    /**
+     * Settings of the {@link org.axonframework.extensions.tracing.MessageFlowTopology}. Only applies when the Brave
+     * {@link brave.Tracing} is built by Spring Cloud Sleuth.
+     */
+    public static class TopologySettings {
+
+        /**
+         * Whether the topology of the message flow is recorded from finished spans. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The maximum number of nodes in the topology. Defaults to {@code 500}.
+         */
+        private int maxNodes = 500;
+
+        /**
+         * The maximum number of edges in the topology. Defaults to {@code 2000}.
+         */
+        private int maxEdges = 2000;
+
+        /**
+         * The number of slots of the caches holding recently finished spans and the children which finished before
+         * their parent, rounded up to a power of two. Defaults to {@code 4096}.
+         */
+        private int cachedSpans = 4096;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxNodes() {
+            return maxNodes;
+        }
+
+        public void setMaxNodes(int maxNodes) {
+            this.maxNodes = maxNodes;
+        }
+
+        public int getMaxEdges() {
+            return maxEdges;
+        }
+
+        public void setMaxEdges(int maxEdges) {
+            this.maxEdges = maxEdges;
+        }
+
+        public int getCachedSpans() {
+            return cachedSpans;
+        }
+
+        public void setCachedSpans(int cachedSpans) {
+            this.cachedSpans = cachedSpans;
+        }
+    }
+
+    /**
+     * Settings of the {@link org.axonframework.extensions.tracing.SlowHandlerWatchdog}.
+     */
+    public static class SlowHandlerSettings {
+
+        /**
+         * Whether the stacks of handlers running longer than the threshold are sampled. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The time in milliseconds a handler may run before its stack is sampled. Defaults to {@code 1000}.
+         */
+        private long thresholdMs = 1000;
+
+        /**
+         * The interval in milliseconds at which the in-flight handlers are scanned, which is also the interval
+         * between the stack samples of a slow handler. Defaults to {@code 100}.
+         */
+        private long sampleIntervalMs = 100;
+
+        /**
+         * The number of stack samples taken of a slow handler. Defaults to {@code 3}.
+         */
+        private int samples = 3;
+
+        /**
+         * The number of frames from the top of the stack kept per sample. Defaults to {@code 20}.
+         */
+        private int maxFrames = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getThresholdMs() {
+            return thresholdMs;
+        }
+
+        public void setThresholdMs(long thresholdMs) {
+            this.thresholdMs = thresholdMs;
+        }
+
+        public long getSampleIntervalMs() {
+            return sampleIntervalMs;
+        }
+
+        public void setSampleIntervalMs(long sampleIntervalMs) {
+            this.sampleIntervalMs = sampleIntervalMs;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public void setSamples(int samples) {
+            this.samples = samples;
+        }
+
+        public int getMaxFrames() {
+            return maxFrames;
+        }
+
+        public void setMaxFrames(int maxFrames) {
+            this.maxFrames = maxFrames;
+        }
+    }
+
+    /**
+     * Settings of the metrics of event processor replays.
+     */
+    public static class ReplayMetricsSettings {
+
+        /**
+         * Whether the progress of replays is recorded through Micrometer. Replay progress is only reported by
+         * processors tracing replayed events in another {@link ReplayMode} than {@code TRACE}. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Settings of the {@link org.axonframework.extensions.tracing.QueryResultCache}. Event payload types contain dots,
+     * so they should be written between brackets, for example
+     * {@code axon.extension.tracing.query-cache.invalidate-on[com.example.OrderPlaced]=findOrder,listOrders}.
+     */
+    public static class QueryCacheSettings {
+
+        /**
+         * Whether the results of the configured point queries are cached. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The names of the queries of which the results are cached. The results of other queries are not cached.
+         */
+        private List<String> queries = new ArrayList<>();
+
+        /**
+         * The maximum number of results kept per query name, evicting the least recently used result beyond it.
+         * Defaults to {@code 1000}.
+         */
+        private int maxEntries = 1000;
+
+        /**
+         * The time in milliseconds a result is served from the cache. As results are invalidated when events are
+         * published rather than when the query models handled them, this bounds how long outdated results are
+         * served. Defaults to {@code 1000}.
+         */
+        private long ttlMs = 1000;
+
+        /**
+         * The names of the queries of which the results are invalidated per event payload type. An event payload
+         * type without query names invalidates all results.
+         */
+        private Map<String, List<String>> invalidateOn = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getQueries() {
+            return queries;
+        }
+
+        public void setQueries(List<String> queries) {
+            this.queries = queries;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getTtlMs() {
+            return ttlMs;
+        }
+
+        public void setTtlMs(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+
+        public Map<String, List<String>> getInvalidateOn() {
+            return invalidateOn;
+        }
+
+        public void setInvalidateOn(Map<String, List<String>> invalidateOn) {
+            this.invalidateOn = invalidateOn;
+        }
+    }
+
+    /**
+     * Settings of the tracing of query update fan out.
+     */
+    public static class QueryUpdateSettings {
+
+        /**
+         * Whether the {@link org.axonframework.queryhandling.QueryUpdateEmitter} is wrapped to trace the fan out of
+         * query updates to subscription queries. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import brave.Tracing;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.axonframework.queryhandling.SimpleQueryUpdateEmitter;
+import org.axonframework.springboot.autoconfig.AxonAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Declares the {@link QueryUpdateEmitter} used by Axon as bean when the fan out of query updates is traced, so that
+ * the {@link TracingQueryUpdateEmitterBeanPostProcessor} can wrap it. Axon only picks up a QueryUpdateEmitter bean
+ * declared before its own auto-configuration is processed, hence this separate auto-configuration.
+ * <p>
+ * The declared {@link SimpleQueryUpdateEmitter} has no update message monitor. Declare a QueryUpdateEmitter bean to
+ * configure one; that bean is wrapped all the same.
+ *
+ * @since 4.2
+ */
+@Configuration
+@AutoConfigureBefore(AxonAutoConfiguration.class)
+@ConditionalOnClass(value = Tracing.class, name = "reactor.core.publisher.Flux")
+@ConditionalOnProperty(value = "axon.extension.tracing.query-updates.enabled", havingValue = "true")
+public class TracingQueryUpdateEmitterAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public QueryUpdateEmitter queryUpdateEmitter() {
+        return SimpleQueryUpdateEmitter.builder().build();
+    }
+}
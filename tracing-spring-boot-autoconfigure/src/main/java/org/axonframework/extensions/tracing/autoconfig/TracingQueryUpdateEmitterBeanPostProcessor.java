@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import org.axonframework.extensions.tracing.QueryUpdateListener;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingQueryUpdateEmitter;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * A {@link BeanPostProcessor} wrapping {@link QueryUpdateEmitter} beans in a {@link TracingQueryUpdateEmitter}, tracing
+ * the fan out of the query updates emitted while handling events and reporting it to the {@link QueryUpdateListener}
+ * bean, if any.
+ * <p>
+ * Axon only uses a QueryUpdateEmitter bean if it is declared before the Axon auto-configuration is processed, such as
+ * in an application configuration or through the {@link TracingQueryUpdateEmitterAutoConfiguration}.
+ *
+ * @since 4.2
+ */
+public class TracingQueryUpdateEmitterBeanPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<TracingBackend> tracingBackend;
+    private final ObjectProvider<QueryUpdateListener> queryUpdateListener;
+
+    /**
+     * Initialize a {@link BeanPostProcessor} wrapping {@link QueryUpdateEmitter} beans. All dependencies are resolved
+     * lazily, when the first query update emitter is encountered.
+     *
+     * @param tracingBackend      the provider of the {@link TracingBackend} used to trace the emission of updates
+     * @param queryUpdateListener the provider of the {@link QueryUpdateListener} notified of the emitted updates
+     */
+    public TracingQueryUpdateEmitterBeanPostProcessor(ObjectProvider<TracingBackend> tracingBackend,
+                                                      ObjectProvider<QueryUpdateListener> queryUpdateListener) {
+        this.tracingBackend = tracingBackend;
+        this.queryUpdateListener = queryUpdateListener;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof QueryUpdateEmitter) || bean instanceof TracingQueryUpdateEmitter) {
+            return bean;
+        }
+        TracingBackend backend = tracingBackend.getIfAvailable();
+        if (backend == null) {
+            return bean;
+        }
+        return TracingQueryUpdateEmitter.builder()
+                                        .delegate((QueryUpdateEmitter) bean)
+                                        .backend(backend)
+                                        .listener(queryUpdateListener.getIfAvailable(() -> QueryUpdateListener.NO_OP))
+                                        .build();
+    }
+}
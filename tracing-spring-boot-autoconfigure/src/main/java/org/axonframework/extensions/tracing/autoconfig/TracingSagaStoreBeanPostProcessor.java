@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import org.axonframework.extensions.tracing.SagaStoreListener;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingSagaStore;
+import org.axonframework.modelling.saga.repository.SagaStore;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * A {@link BeanPostProcessor} wrapping {@link SagaStore} beans in a {@link TracingSagaStore}, tracing the saga store
+ * operations performed while handling events and reporting them to the {@link SagaStoreListener} bean, if any.
+ * <p>
+ * Contrary to the {@link TracingExecutorBeanPostProcessor}, SagaStore beans are wrapped regardless of the type they
+ * are declared with, as the Axon auto-configuration declares its saga stores with their concrete type while Axon
+ * only ever uses them through the {@code SagaStore} interface. Only enable {@code axon.extension.tracing.sagas} if no
+ * saga store is injected by its concrete type elsewhere.
+ *
+ * @since 4.2
+ */
+public class TracingSagaStoreBeanPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<TracingBackend> tracingBackend;
+    private final ObjectProvider<SagaStoreListener> sagaStoreListener;
+
+    /**
+     * Initialize a {@link BeanPostProcessor} wrapping {@link SagaStore} beans. All dependencies are resolved lazily,
+     * when the first saga store is encountered.
+     *
+     * @param tracingBackend    the provider of the {@link TracingBackend} used to trace saga store operations
+     * @param sagaStoreListener the provider of the {@link SagaStoreListener} notified of saga store operations
+     */
+    public TracingSagaStoreBeanPostProcessor(ObjectProvider<TracingBackend> tracingBackend,
+                                             ObjectProvider<SagaStoreListener> sagaStoreListener) {
+        this.tracingBackend = tracingBackend;
+        this.sagaStoreListener = sagaStoreListener;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof SagaStore) || bean instanceof TracingSagaStore) {
+            return bean;
+        }
+        TracingBackend backend = tracingBackend.getIfAvailable();
+        if (backend == null) {
+            return bean;
+        }
+        return TracingSagaStore.builder()
+                               .delegate((SagaStore<Object>) bean)
+                               .backend(backend)
+                               .listener(sagaStoreListener.getIfAvailable(() -> SagaStoreListener.NO_OP))
+                               .build();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import org.axonframework.deadline.DeadlineManager;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.eventhandling.scheduling.EventScheduler;
+import org.axonframework.extensions.tracing.SchedulingLagListener;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingDeadlineManager;
+import org.axonframework.extensions.tracing.TracingEventScheduler;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+/**
+ * A {@link BeanPostProcessor} wrapping {@link DeadlineManager} beans in a {@link TracingDeadlineManager} and
+ * {@link EventScheduler} beans in a {@link TracingEventScheduler}, tracing the firing of deadlines and scheduled events
+ * and reporting their lag to the {@link SchedulingLagListener} bean, if any.
+ * <p>
+ * As with the {@link TracingExecutorBeanPostProcessor}, only beans declared through a factory method returning the
+ * {@code DeadlineManager} or {@code EventScheduler} interface are wrapped. Scheduled events are assumed to be published
+ * on the {@link EventBus} bean of the application context.
+ *
+ * @since 4.2
+ */
+public class TracingSchedulingBeanPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    private final ObjectProvider<TracingBackend> tracingBackend;
+    private final ObjectProvider<SchedulingLagListener> lagListener;
+    private final ObjectProvider<EventBus> eventBus;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    /**
+     * Initialize a {@link BeanPostProcessor} wrapping {@link DeadlineManager} and {@link EventScheduler} beans. All
+     * dependencies are resolved lazily, when the first bean to wrap is encountered.
+     *
+     * @param tracingBackend the provider of the {@link TracingBackend} used to trace fired messages
+     * @param lagListener    the provider of the {@link SchedulingLagListener} to report the lag of fired messages to
+     * @param eventBus       the provider of the {@link EventBus} scheduled events are published on
+     */
+    public TracingSchedulingBeanPostProcessor(ObjectProvider<TracingBackend> tracingBackend,
+                                              ObjectProvider<SchedulingLagListener> lagListener,
+                                              ObjectProvider<EventBus> eventBus) {
+        this.tracingBackend = tracingBackend;
+        this.lagListener = lagListener;
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        if (beanFactory instanceof ConfigurableListableBeanFactory) {
+            this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof TracingDeadlineManager || bean instanceof TracingEventScheduler) {
+            return bean;
+        }
+        Class<?> declaredType = BeanDeclarations.declaredType(beanFactory, beanName);
+        if (declaredType == DeadlineManager.class && bean instanceof DeadlineManager) {
+            return wrapDeadlineManager((DeadlineManager) bean);
+        }
+        if (declaredType == EventScheduler.class && bean instanceof EventScheduler) {
+            return wrapEventScheduler((EventScheduler) bean);
+        }
+        return bean;
+    }
+
+    private Object wrapDeadlineManager(DeadlineManager deadlineManager) {
+        TracingBackend backend = tracingBackend.getIfAvailable();
+        if (backend == null) {
+            return deadlineManager;
+        }
+        return TracingDeadlineManager.builder()
+                                     .delegate(deadlineManager)
+                                     .backend(backend)
+                                     .lagListener(lagListener.getIfAvailable(() -> SchedulingLagListener.NO_OP))
+                                     .build();
+    }
+
+    private Object wrapEventScheduler(EventScheduler eventScheduler) {
+        TracingBackend backend = tracingBackend.getIfAvailable();
+        EventBus bus = eventBus.getIfUnique();
+        if (backend == null || bus == null) {
+            return eventScheduler;
+        }
+        return TracingEventScheduler.builder()
+                                    .delegate(eventScheduler)
+                                    .eventBus(bus)
+                                    .backend(backend)
+                                    .lagListener(lagListener.getIfAvailable(() -> SchedulingLagListener.NO_OP))
+                                    .build();
+    }
+}
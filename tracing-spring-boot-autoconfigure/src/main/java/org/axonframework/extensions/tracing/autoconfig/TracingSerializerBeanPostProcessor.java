@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import org.axonframework.extensions.tracing.SerializationListener;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingSerializer;
+import org.axonframework.serialization.Serializer;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+/**
+ * A {@link BeanPostProcessor} wrapping {@link Serializer} beans in a {@link TracingSerializer}, measuring the
+ * serialization of messages and reporting it to the {@link SerializationListener} bean, if any.
+ * <p>
+ * As with the {@link TracingExecutorBeanPostProcessor}, only beans declared through a factory method returning the
+ * {@code Serializer} interface are wrapped, which includes the serializers declared by the Axon auto-configuration.
+ * Serializers declared with their concrete type are left untouched, as they may be injected by that type.
+ *
+ * @since 4.2
+ */
+public class TracingSerializerBeanPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    private final ObjectProvider<TracingBackend> tracingBackend;
+    private final ObjectProvider<SerializationListener> serializationListener;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    /**
+     * Initialize a {@link BeanPostProcessor} wrapping {@link Serializer} beans. All dependencies are resolved lazily,
+     * when the first serializer is encountered.
+     *
+     * @param tracingBackend        the provider of the {@link TracingBackend} of which the current span is annotated
+     * @param serializationListener the provider of the {@link SerializationListener} notified of serialization
+     */
+    public TracingSerializerBeanPostProcessor(ObjectProvider<TracingBackend> tracingBackend,
+                                              ObjectProvider<SerializationListener> serializationListener) {
+        this.tracingBackend = tracingBackend;
+        this.serializationListener = serializationListener;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        if (beanFactory instanceof ConfigurableListableBeanFactory) {
+            this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        // the message and event serializers default to the same instance as the general serializer
+        if (!(bean instanceof Serializer) || bean instanceof TracingSerializer
+                || BeanDeclarations.declaredType(beanFactory, beanName) != Serializer.class) {
+            return bean;
+        }
+        TracingBackend backend = tracingBackend.getIfAvailable();
+        if (backend == null) {
+            return bean;
+        }
+        return TracingSerializer.builder()
+                                .delegate((Serializer) bean)
+                                .backend(backend)
+                                .listener(serializationListener.getIfAvailable(() -> SerializationListener.NO_OP))
+                                .build();
+    }
+}
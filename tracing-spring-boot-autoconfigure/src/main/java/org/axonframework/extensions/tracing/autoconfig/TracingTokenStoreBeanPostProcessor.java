@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing.autoconfig;
+
+import org.axonframework.eventhandling.tokenstore.TokenStore;
+import org.axonframework.extensions.tracing.TokenStoreListener;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingTokenStore;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+/**
+ * A {@link BeanPostProcessor} wrapping {@link TokenStore} beans in a {@link TracingTokenStore}, tracing the token
+ * store operations of the event processors and reporting them to the {@link TokenStoreListener} bean, if any.
+ * <p>
+ * The operations of a processor are traced if its handlers are, as configured through the {@link TracingProperties}
+ * for events and per processor. Traces started by token store operations are sampled at the sample rate configured
+ * for events. As with the {@link TracingExecutorBeanPostProcessor}, only beans declared through a factory method
+ * returning the {@code TokenStore} interface are wrapped, which includes the token stores declared by the Axon
+ * auto-configuration.
+ *
+ * @since 4.2
+ */
+public class TracingTokenStoreBeanPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    private final ObjectProvider<TracingBackend> tracingBackend;
+    private final ObjectProvider<TracingProperties> tracingProperties;
+    private final ObjectProvider<TokenStoreListener> tokenStoreListener;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    /**
+     * Initialize a {@link BeanPostProcessor} wrapping {@link TokenStore} beans. All dependencies are resolved lazily,
+     * when the first token store is encountered.
+     *
+     * @param tracingBackend     the provider of the {@link TracingBackend} used to trace token store operations
+     * @param tracingProperties  the provider of the {@link TracingProperties} describing which processors are traced
+     * @param tokenStoreListener the provider of the {@link TokenStoreListener} notified of token store operations
+     */
+    public TracingTokenStoreBeanPostProcessor(ObjectProvider<TracingBackend> tracingBackend,
+                                              ObjectProvider<TracingProperties> tracingProperties,
+                                              ObjectProvider<TokenStoreListener> tokenStoreListener) {
+        this.tracingBackend = tracingBackend;
+        this.tracingProperties = tracingProperties;
+        this.tokenStoreListener = tokenStoreListener;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        if (beanFactory instanceof ConfigurableListableBeanFactory) {
+            this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof TokenStore) || bean instanceof TracingTokenStore
+                || BeanDeclarations.declaredType(beanFactory, beanName) != TokenStore.class) {
+            return bean;
+        }
+        TracingBackend backend = tracingBackend.getIfAvailable();
+        if (backend == null) {
+            return bean;
+        }
+        TracingProperties properties = tracingProperties.getIfAvailable(TracingProperties::new);
+        TracingTokenStore.Builder builder =
+                TracingTokenStore.builder()
+                                 .delegate((TokenStore) bean)
+                                 .backend(backend)
+                                 .tracedProcessors(name -> properties.processorSettings(name).traced())
+                                 .listener(tokenStoreListener.getIfAvailable(() -> TokenStoreListener.NO_OP));
+        Float sampleRate = properties.defaults().overriddenBy(properties.getEvents()).getSampleRate();
+        if (sampleRate != null) {
+            builder.sampleRate(sampleRate);
+        }
+        return builder.build();
+    }
+}
@@ -7,7 +7,6 @@ import static org.junit.Assert.assertThat;
 
 import org.axonframework.commandhandling.gateway.CommandGateway;
 import org.axonframework.extensions.tracing.OpenTraceDispatchInterceptor;
-import org.axonframework.extensions.tracing.OpenTraceHandlerInterceptor;
 import org.axonframework.extensions.tracing.TracingCommandGateway;
 import org.axonframework.extensions.tracing.TracingQueryGateway;
 import org.axonframework.queryhandling.QueryGateway;
@@ -42,7 +41,7 @@ public class AxonAutoConfigurationWithTracingTest {
     private QueryGateway queryGateway;
 
     @Autowired
-    private OpenTraceHandlerInterceptor openTraceHandlerInterceptor;
+    private TracingHandlerInterceptorFactory tracingHandlerInterceptorFactory;
 
     @Autowired
     private OpenTraceDispatchInterceptor openTraceDispatchInterceptor;
@@ -54,7 +53,7 @@ public class AxonAutoConfigurationWithTracingTest {
     public void testContextInitialization() {
         assertNotNull(applicationContext);
         assertThat(openTraceDispatchInterceptor, notNullValue());
-        assertThat(openTraceHandlerInterceptor, notNullValue());
+        assertThat(tracingHandlerInterceptorFactory, notNullValue());
         assertThat(queryGateway, instanceOf(TracingQueryGateway.class));
         assertThat(commandGateway, instanceOf(TracingCommandGateway.class));
     }
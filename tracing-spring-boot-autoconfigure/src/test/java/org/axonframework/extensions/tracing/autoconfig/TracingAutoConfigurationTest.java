@@ -0,0 +1,123 @@
+package org.axonframework.extensions.tracing.autoconfig;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import brave.Tracing;
+import brave.sampler.Sampler;
+import org.axonframework.eventsourcing.eventstore.EventStorageEngine;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.extensions.tracing.BatchingSpanReporter;
+import org.axonframework.extensions.tracing.RedMetricsAggregator;
+import org.axonframework.extensions.tracing.SpanBatchExporter;
+import org.axonframework.springboot.autoconfig.AxonAutoConfiguration;
+import org.axonframework.springboot.autoconfig.EventProcessingAutoConfiguration;
+import org.axonframework.springboot.autoconfig.InfraConfiguration;
+import org.axonframework.springboot.autoconfig.NoOpTransactionAutoConfiguration;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.sleuth.autoconfig.TraceAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Test class verifying that the span handlers and reporter of the {@link TracingAutoConfiguration} are only declared
+ * when Spring Cloud Sleuth builds the Brave {@link Tracing}, as nothing would add them to a tracer otherwise.
+ */
+public class TracingAutoConfigurationTest {
+
+    private ConfigurableApplicationContext context;
+
+    @After
+    public void after() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    public void testSpanHandlersAreAddedToTracingBuiltBySleuth() {
+        context = run(SleuthContext.class);
+
+        RedMetricsAggregator aggregator = context.getBean(RedMetricsAggregator.class);
+        context.getBean(Tracing.class)
+               .tracer()
+               .newTrace()
+               .name("handle")
+               .tag("axon.message.type", "CommandMessage")
+               .start()
+               .finish();
+
+        assertThat(aggregator.operations().size(), is(1));
+        assertThat(context.getBeanNamesForType(BatchingSpanReporter.class).length, is(1));
+    }
+
+    @Test
+    public void testSpanHandlersAreNotDeclaredForTracingDefinedByApplication() {
+        context = run(ApplicationTracingContext.class);
+
+        assertThat(context.getBeanNamesForType(RedMetricsAggregator.class).length, is(0));
+        assertThat(context.getBeanNamesForType(BatchingSpanReporter.class).length, is(0));
+    }
+
+    private static ConfigurableApplicationContext run(Class<?> contextClass) {
+        return new SpringApplicationBuilder(contextClass)
+                .web(WebApplicationType.NONE)
+                .properties("axon.extension.tracing.red-metrics.enabled=true",
+                            "axon.extension.tracing.batching-reporter.enabled=true")
+                .run();
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({
+            AxonAutoConfiguration.class,
+            EventProcessingAutoConfiguration.class,
+            InfraConfiguration.class,
+            NoOpTransactionAutoConfiguration.class,
+            TracingAutoConfiguration.class,
+            TraceAutoConfiguration.class
+    })
+    public static class SleuthContext {
+
+        @Bean
+        public Sampler sampler() {
+            return Sampler.ALWAYS_SAMPLE;
+        }
+
+        @Bean
+        public SpanBatchExporter spanBatchExporter() {
+            return spans -> {
+            };
+        }
+
+        @Bean
+        public EventStorageEngine eventStorageEngine() {
+            return new InMemoryEventStorageEngine();
+        }
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({
+            AxonAutoConfiguration.class,
+            EventProcessingAutoConfiguration.class,
+            InfraConfiguration.class,
+            NoOpTransactionAutoConfiguration.class,
+            TracingAutoConfiguration.class
+    })
+    public static class ApplicationTracingContext {
+
+        @Bean
+        public Tracing tracing() {
+            return Tracing.newBuilder().localServiceName("axon-tracing").build();
+        }
+
+        @Bean
+        public EventStorageEngine eventStorageEngine() {
+            return new InMemoryEventStorageEngine();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.axonframework.extensions.tracing.autoconfig;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import brave.Tracing;
+import java.lang.reflect.Method;
+import org.axonframework.commandhandling.distributed.CommandBusConnector;
+import org.axonframework.commandhandling.distributed.CommandRouter;
+import org.axonframework.commandhandling.distributed.RoutingStrategy;
+import org.axonframework.extensions.tracing.BraveTracingBackend;
+import org.axonframework.extensions.tracing.CommandRoutingListener;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingCommandBusConnector;
+import org.axonframework.extensions.tracing.TracingCommandRouter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Test class for the {@link TracingCommandRoutingBeanPostProcessor}.
+ */
+public class TracingCommandRoutingBeanPostProcessorTest {
+
+    private Tracing tracing;
+    private ConfigurableListableBeanFactory beanFactory;
+    private TracingCommandRoutingBeanPostProcessor testSubject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() throws Exception {
+        tracing = Tracing.newBuilder().build();
+        ObjectProvider<TracingBackend> backendProvider = mock(ObjectProvider.class);
+        when(backendProvider.getIfAvailable()).thenReturn(new BraveTracingBackend(tracing));
+        ObjectProvider<RoutingStrategy> routingStrategyProvider = mock(ObjectProvider.class);
+        when(routingStrategyProvider.getIfAvailable()).thenReturn(command -> command.getIdentifier());
+        ObjectProvider<CommandRoutingListener> listenerProvider = mock(ObjectProvider.class);
+        when(listenerProvider.getIfAvailable(any())).thenReturn(CommandRoutingListener.NO_OP);
+        beanFactory = mock(ConfigurableListableBeanFactory.class);
+        declareBean("commandRouter", Declarations.class.getMethod("commandRouter"));
+        declareBean("connector", Declarations.class.getMethod("connector"));
+        declareBean("routerAndConnector", Declarations.class.getMethod("routerAndConnector"));
+        testSubject = new TracingCommandRoutingBeanPostProcessor(backendProvider, routingStrategyProvider,
+                                                                 listenerProvider);
+        testSubject.setBeanFactory(beanFactory);
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    private void declareBean(String beanName, Method factoryMethod) {
+        RootBeanDefinition beanDefinition = mock(RootBeanDefinition.class);
+        when(beanDefinition.getResolvedFactoryMethod()).thenReturn(factoryMethod);
+        when(beanFactory.getMergedBeanDefinition(beanName)).thenReturn(beanDefinition);
+    }
+
+    @Test
+    public void testWrapsCommandRoutersDeclaredByInterface() {
+        Object result = testSubject.postProcessAfterInitialization(mock(CommandRouter.class), "commandRouter");
+
+        assertThat(result, instanceOf(TracingCommandRouter.class));
+    }
+
+    @Test
+    public void testWrapsConnectorsDeclaredByInterface() {
+        Object result = testSubject.postProcessAfterInitialization(mock(CommandBusConnector.class), "connector");
+
+        assertThat(result, instanceOf(TracingCommandBusConnector.class));
+    }
+
+    @Test
+    public void testLeavesCombinedRouterAndConnectorUntouched() {
+        RouterAndConnector routerAndConnector = mock(RouterAndConnector.class);
+
+        assertThat(testSubject.postProcessAfterInitialization(routerAndConnector, "routerAndConnector"),
+                   sameInstance(routerAndConnector));
+    }
+
+    private interface RouterAndConnector extends CommandRouter, CommandBusConnector {
+
+    }
+
+    @SuppressWarnings("unused")
+    private interface Declarations {
+
+        CommandRouter commandRouter();
+
+        CommandBusConnector connector();
+
+        RouterAndConnector routerAndConnector();
+    }
+}
@@ -0,0 +1,53 @@
+package org.axonframework.extensions.tracing.autoconfig;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.axonframework.extensions.tracing.NoopTracingBackend;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingEventUpcaster;
+import org.axonframework.extensions.tracing.UpcasterListener;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Test class for the {@link TracingEventUpcasterBeanPostProcessor}.
+ */
+public class TracingEventUpcasterBeanPostProcessorTest {
+
+    private TracingEventUpcasterBeanPostProcessor testSubject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() {
+        ObjectProvider<TracingBackend> backendProvider = mock(ObjectProvider.class);
+        when(backendProvider.getIfAvailable()).thenReturn(NoopTracingBackend.INSTANCE);
+        ObjectProvider<UpcasterListener> listenerProvider = mock(ObjectProvider.class);
+        when(listenerProvider.getIfAvailable(any())).thenReturn(UpcasterListener.NO_OP);
+        ObjectProvider<TracingProperties> propertiesProvider = mock(ObjectProvider.class);
+        when(propertiesProvider.getIfAvailable(any())).thenReturn(new TracingProperties());
+        testSubject = new TracingEventUpcasterBeanPostProcessor(backendProvider, listenerProvider, propertiesProvider);
+    }
+
+    @Test
+    public void testWrapsUpcastersNamedAfterTheBean() {
+        Object result = testSubject.postProcessAfterInitialization(mock(EventUpcaster.class), "orderPlacedUpcaster");
+
+        assertThat(result, instanceOf(TracingEventUpcaster.class));
+        assertThat(((TracingEventUpcaster) result).name(), is("orderPlacedUpcaster"));
+    }
+
+    @Test
+    public void testDoesNotWrapUpcastersTwice() {
+        Object wrapped = testSubject.postProcessAfterInitialization(mock(EventUpcaster.class), "orderPlacedUpcaster");
+
+        assertThat(testSubject.postProcessAfterInitialization(wrapped, "orderPlacedUpcaster"), sameInstance(wrapped));
+    }
+}
@@ -0,0 +1,92 @@
+package org.axonframework.extensions.tracing.autoconfig;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import brave.Tracing;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.axonframework.extensions.tracing.BraveTracingBackend;
+import org.axonframework.extensions.tracing.NoopTracingBackend;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingExecutorService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Test class for the {@link TracingExecutorBeanPostProcessor}.
+ */
+public class TracingExecutorBeanPostProcessorTest {
+
+    private Tracing tracing;
+    private ExecutorService executor;
+    private ObjectProvider<TracingBackend> backendProvider;
+    private ConfigurableListableBeanFactory beanFactory;
+    private TracingExecutorBeanPostProcessor testSubject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() throws Exception {
+        tracing = Tracing.newBuilder().build();
+        executor = Executors.newSingleThreadExecutor();
+        backendProvider = mock(ObjectProvider.class);
+        when(backendProvider.getIfAvailable()).thenReturn(new BraveTracingBackend(tracing));
+        beanFactory = mock(ConfigurableListableBeanFactory.class);
+        declareBean("executorService", Declarations.class.getMethod("executorService"));
+        declareBean("threadPoolExecutor", Declarations.class.getMethod("threadPoolExecutor"));
+        testSubject = new TracingExecutorBeanPostProcessor(backendProvider);
+        testSubject.setBeanFactory(beanFactory);
+    }
+
+    private void declareBean(String beanName, Method factoryMethod) {
+        RootBeanDefinition beanDefinition = mock(RootBeanDefinition.class);
+        when(beanDefinition.getResolvedFactoryMethod()).thenReturn(factoryMethod);
+        when(beanFactory.getMergedBeanDefinition(beanName)).thenReturn(beanDefinition);
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+        tracing.close();
+    }
+
+    @Test
+    public void testWrapsExecutorsDeclaredByInterface() {
+        Object result = testSubject.postProcessAfterInitialization(executor, "executorService");
+
+        assertThat(result, instanceOf(TracingExecutorService.class));
+    }
+
+    @Test
+    public void testLeavesExecutorsDeclaredByConcreteTypeUntouched() {
+        Object result = testSubject.postProcessAfterInitialization(executor, "threadPoolExecutor");
+
+        assertThat(result, sameInstance(executor));
+    }
+
+    @Test
+    public void testLeavesExecutorsUntouchedWhenTracingIsDisabled() {
+        when(backendProvider.getIfAvailable()).thenReturn(NoopTracingBackend.INSTANCE);
+
+        Object result = testSubject.postProcessAfterInitialization(executor, "executorService");
+
+        assertThat(result, sameInstance(executor));
+    }
+
+    @SuppressWarnings("unused")
+    private interface Declarations {
+
+        ExecutorService executorService();
+
+        ThreadPoolExecutor threadPoolExecutor();
+    }
+}
@@ -0,0 +1,147 @@
+package org.axonframework.extensions.tracing.autoconfig;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import brave.Tracing;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.axonframework.extensions.tracing.BraveTracingBackend;
+import org.axonframework.extensions.tracing.OpenTraceHandlerInterceptor;
+import org.axonframework.extensions.tracing.UnitOfWorkPhaseListener;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link TracingHandlerInterceptorFactory}.
+ */
+public class TracingHandlerInterceptorFactoryTest {
+
+    private final List<Span> spans = new ArrayList<>();
+    private Tracing tracing;
+    private TracingProperties properties;
+    private TracingHandlerInterceptorFactory testSubject;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder().spanReporter(spans::add).build();
+        properties = new TracingProperties();
+        testSubject = TracingHandlerInterceptorFactory.builder()
+                                                      .backend(new BraveTracingBackend(tracing))
+                                                      .tracingProperties(properties)
+                                                      .build();
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    @Test
+    public void testDisabledProcessorGetsNoInterceptor() {
+        properties.getProcessors().put("hot-projection", settings(false, null));
+
+        assertThat(testSubject.eventProcessorInterceptor("hot-projection"), is(nullValue()));
+        assertThat(testSubject.eventProcessorInterceptor("other-projection"), is(notNullValue()));
+        assertThat(testSubject.commandBusInterceptor(), is(notNullValue()));
+    }
+
+    @Test
+    public void testProcessorSettingsOverrideMessageTypeSettings() {
+        properties.getEvents().setEnabled(false);
+        properties.getProcessors().put("traced-projection", settings(true, null));
+
+        assertThat(testSubject.eventProcessorInterceptor("other-projection"), is(nullValue()));
+        assertThat(testSubject.eventProcessorInterceptor("traced-projection"), is(notNullValue()));
+    }
+
+    @Test
+    public void testDisabledMessageTypeGetsNoInterceptor() {
+        properties.getQueries().setEnabled(false);
+
+        assertThat(testSubject.queryBusInterceptor(), is(nullValue()));
+        assertThat(testSubject.commandBusInterceptor(), is(notNullValue()));
+    }
+
+    @Test
+    public void testCustomInterceptorIsUsedForTracedBusesAndProcessors() {
+        OpenTraceHandlerInterceptor customInterceptor = OpenTraceHandlerInterceptor.builder().tracer(tracing).build();
+        testSubject = TracingHandlerInterceptorFactory.builder()
+                                                      .backend(new BraveTracingBackend(tracing))
+                                                      .tracingProperties(properties)
+                                                      .customInterceptor(customInterceptor)
+                                                      .build();
+        properties.getQueries().setEnabled(false);
+
+        assertThat(testSubject.commandBusInterceptor(), sameInstance(customInterceptor));
+        assertThat(testSubject.eventProcessorInterceptor("projection"), sameInstance(customInterceptor));
+        assertThat(testSubject.queryBusInterceptor(), is(nullValue()));
+    }
+
+    @Test
+    public void testSampleRateOfProcessorAppliesToNewTraces() throws Exception {
+        properties.getProcessors().put("sampled-projection", settings(null, 0.0f));
+
+        handle(testSubject.eventProcessorInterceptor("sampled-projection"), new GenericMessage<>("payload"));
+        handle(testSubject.eventProcessorInterceptor("other-projection"), new GenericMessage<>("payload"));
+
+        assertThat(spans.size(), is(1));
+    }
+
+    @Test
+    public void testMostSpecificPayloadPackageSettingsApply() throws Exception {
+        properties.getPayloadPackages().put("java", settings(false, null));
+        properties.getPayloadPackages().put("java.lang", settings(true, null));
+        MessageHandlerInterceptor<Message<?>> interceptor = testSubject.commandBusInterceptor();
+
+        handle(interceptor, new GenericMessage<>("payload"));
+        handle(interceptor, new GenericMessage<>(new ArrayList<>()));
+        handle(interceptor, new GenericMessage<>(this));
+
+        assertThat(spans.size(), is(2));
+        assertThat(spans.get(0).tags().get("axon.message.payloadtype"), is("java.lang.String"));
+        assertThat(spans.get(1).tags().get("axon.message.payloadtype"), is(getClass().getName()));
+    }
+
+    @Test
+    public void testUnitOfWorkPhasesAreReportedToListenerWhenEnabled() throws Exception {
+        List<UnitOfWork.Phase> phases = new ArrayList<>();
+        properties.setUnitOfWorkPhases(true);
+        UnitOfWorkPhaseListener phaseListener = (type, phase, duration) -> phases.add(phase);
+        testSubject = TracingHandlerInterceptorFactory.builder()
+                                                      .backend(new BraveTracingBackend(tracing))
+                                                      .tracingProperties(properties)
+                                                      .unitOfWorkPhaseListener(phaseListener)
+                                                      .build();
+
+        handle(testSubject.commandBusInterceptor(), new GenericMessage<>("payload"));
+
+        assertThat(phases, is(Arrays.asList(UnitOfWork.Phase.PREPARE_COMMIT,
+                                             UnitOfWork.Phase.COMMIT,
+                                             UnitOfWork.Phase.AFTER_COMMIT)));
+    }
+
+    private static TracingProperties.HandlerSettings settings(Boolean enabled, Float sampleRate) {
+        TracingProperties.HandlerSettings settings = new TracingProperties.HandlerSettings();
+        settings.setEnabled(enabled);
+        settings.setSampleRate(sampleRate);
+        return settings;
+    }
+
+    private static void handle(MessageHandlerInterceptor<Message<?>> interceptor, Message<?> message)
+            throws Exception {
+        DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(message);
+        unitOfWork.executeWithResult(() -> interceptor.handle(unitOfWork, () -> "result"));
+    }
+}
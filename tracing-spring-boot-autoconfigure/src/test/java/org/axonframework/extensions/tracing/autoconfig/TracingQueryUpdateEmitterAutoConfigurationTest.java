@@ -0,0 +1,101 @@
+package org.axonframework.extensions.tracing.autoconfig;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import brave.Tracing;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import org.axonframework.eventsourcing.eventstore.EventStorageEngine;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.extensions.tracing.TracingQueryUpdateEmitter;
+import org.axonframework.queryhandling.QueryBus;
+import org.axonframework.queryhandling.QueryGateway;
+import org.axonframework.queryhandling.SubscriptionQueryResult;
+import org.axonframework.springboot.autoconfig.AxonAutoConfiguration;
+import org.axonframework.springboot.autoconfig.EventProcessingAutoConfiguration;
+import org.axonframework.springboot.autoconfig.InfraConfiguration;
+import org.axonframework.springboot.autoconfig.NoOpTransactionAutoConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import zipkin2.Span;
+
+/**
+ * Test class verifying that the query bus configured by Axon emits its updates through the
+ * {@link TracingQueryUpdateEmitter} when the {@link TracingQueryUpdateEmitterAutoConfiguration} is active.
+ */
+public class TracingQueryUpdateEmitterAutoConfigurationTest {
+
+    private static final List<Span> spans = new CopyOnWriteArrayList<>();
+
+    private ConfigurableApplicationContext context;
+
+    @Before
+    public void before() {
+        spans.clear();
+        context = new SpringApplicationBuilder(Context.class)
+                .web(WebApplicationType.NONE)
+                .properties("axon.extension.tracing.query-updates.enabled=true")
+                .run();
+    }
+
+    @After
+    public void after() {
+        context.close();
+    }
+
+    @Test
+    public void testQueryBusEmitsUpdatesThroughTracingQueryUpdateEmitter() {
+        QueryBus queryBus = context.getBean(QueryBus.class);
+        assertThat(queryBus.queryUpdateEmitter(), instanceOf(TracingQueryUpdateEmitter.class));
+        queryBus.subscribe("findOrders", String.class, query -> "initial");
+        List<String> updates = new ArrayList<>();
+        SubscriptionQueryResult<String, String> result = context.getBean(QueryGateway.class)
+                                                                .subscriptionQuery("findOrders", "order-1",
+                                                                                   String.class, String.class);
+        result.updates().subscribe(updates::add);
+
+        queryBus.queryUpdateEmitter().emit(String.class, "order-1"::equals, "shipped");
+        result.close();
+
+        assertThat(updates, is(Collections.singletonList("shipped")));
+        List<Span> emitSpans = spans.stream()
+                                    .filter(span -> "emitqueryupdate".equals(span.name()))
+                                    .collect(Collectors.toList());
+        assertThat(emitSpans.size(), is(1));
+        assertThat(emitSpans.get(0).tags().get("axon.query.update.matched"), is("1"));
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({
+            AxonAutoConfiguration.class,
+            EventProcessingAutoConfiguration.class,
+            InfraConfiguration.class,
+            NoOpTransactionAutoConfiguration.class,
+            TracingAutoConfiguration.class,
+            TracingQueryUpdateEmitterAutoConfiguration.class
+    })
+    public static class Context {
+
+        @Bean
+        public Tracing tracing() {
+            return Tracing.newBuilder().localServiceName("axon-tracing").spanReporter(spans::add).build();
+        }
+
+        @Bean
+        public EventStorageEngine eventStorageEngine() {
+            return new InMemoryEventStorageEngine();
+        }
+    }
+}
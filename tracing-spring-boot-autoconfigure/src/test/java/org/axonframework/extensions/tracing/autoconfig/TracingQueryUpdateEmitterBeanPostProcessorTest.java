@@ -0,0 +1,58 @@
+package org.axonframework.extensions.tracing.autoconfig;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.axonframework.extensions.tracing.NoopTracingBackend;
+import org.axonframework.extensions.tracing.QueryUpdateListener;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingQueryUpdateEmitter;
+import org.axonframework.queryhandling.SimpleQueryUpdateEmitter;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Test class for the {@link TracingQueryUpdateEmitterBeanPostProcessor}.
+ */
+public class TracingQueryUpdateEmitterBeanPostProcessorTest {
+
+    private TracingQueryUpdateEmitterBeanPostProcessor testSubject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() {
+        ObjectProvider<TracingBackend> backendProvider = mock(ObjectProvider.class);
+        when(backendProvider.getIfAvailable()).thenReturn(NoopTracingBackend.INSTANCE);
+        ObjectProvider<QueryUpdateListener> listenerProvider = mock(ObjectProvider.class);
+        when(listenerProvider.getIfAvailable(any())).thenReturn(QueryUpdateListener.NO_OP);
+        testSubject = new TracingQueryUpdateEmitterBeanPostProcessor(backendProvider, listenerProvider);
+    }
+
+    @Test
+    public void testWrapsQueryUpdateEmitters() {
+        Object result = testSubject.postProcessAfterInitialization(SimpleQueryUpdateEmitter.builder().build(),
+                                                                   "queryUpdateEmitter");
+
+        assertThat(result, instanceOf(TracingQueryUpdateEmitter.class));
+    }
+
+    @Test
+    public void testDoesNotWrapTwice() {
+        Object wrapped = testSubject.postProcessAfterInitialization(SimpleQueryUpdateEmitter.builder().build(),
+                                                                    "queryUpdateEmitter");
+
+        assertThat(testSubject.postProcessAfterInitialization(wrapped, "queryUpdateEmitter"), sameInstance(wrapped));
+    }
+
+    @Test
+    public void testLeavesOtherBeansUntouched() {
+        Object bean = new Object();
+
+        assertThat(testSubject.postProcessAfterInitialization(bean, "other"), sameInstance(bean));
+    }
+}
@@ -0,0 +1,56 @@
+package org.axonframework.extensions.tracing.autoconfig;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.axonframework.extensions.tracing.NoopTracingBackend;
+import org.axonframework.extensions.tracing.SagaStoreListener;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingSagaStore;
+import org.axonframework.modelling.saga.repository.inmemory.InMemorySagaStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Test class for the {@link TracingSagaStoreBeanPostProcessor}.
+ */
+public class TracingSagaStoreBeanPostProcessorTest {
+
+    private TracingSagaStoreBeanPostProcessor testSubject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() {
+        ObjectProvider<TracingBackend> backendProvider = mock(ObjectProvider.class);
+        when(backendProvider.getIfAvailable()).thenReturn(NoopTracingBackend.INSTANCE);
+        ObjectProvider<SagaStoreListener> listenerProvider = mock(ObjectProvider.class);
+        when(listenerProvider.getIfAvailable(any())).thenReturn(SagaStoreListener.NO_OP);
+        testSubject = new TracingSagaStoreBeanPostProcessor(backendProvider, listenerProvider);
+    }
+
+    @Test
+    public void testWrapsSagaStores() {
+        Object result = testSubject.postProcessAfterInitialization(new InMemorySagaStore(), "sagaStore");
+
+        assertThat(result, instanceOf(TracingSagaStore.class));
+    }
+
+    @Test
+    public void testDoesNotWrapTwice() {
+        Object wrapped = testSubject.postProcessAfterInitialization(new InMemorySagaStore(), "sagaStore");
+
+        assertThat(testSubject.postProcessAfterInitialization(wrapped, "sagaStore"), sameInstance(wrapped));
+    }
+
+    @Test
+    public void testLeavesOtherBeansUntouched() {
+        Object bean = new Object();
+
+        assertThat(testSubject.postProcessAfterInitialization(bean, "other"), sameInstance(bean));
+    }
+}
@@ -0,0 +1,89 @@
+package org.axonframework.extensions.tracing.autoconfig;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import org.axonframework.deadline.DeadlineManager;
+import org.axonframework.deadline.SimpleDeadlineManager;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.eventhandling.scheduling.EventScheduler;
+import org.axonframework.extensions.tracing.NoopTracingBackend;
+import org.axonframework.extensions.tracing.SchedulingLagListener;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingDeadlineManager;
+import org.axonframework.extensions.tracing.TracingEventScheduler;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Test class for the {@link TracingSchedulingBeanPostProcessor}.
+ */
+public class TracingSchedulingBeanPostProcessorTest {
+
+    private ConfigurableListableBeanFactory beanFactory;
+    private TracingSchedulingBeanPostProcessor testSubject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() throws Exception {
+        ObjectProvider<TracingBackend> backendProvider = mock(ObjectProvider.class);
+        when(backendProvider.getIfAvailable()).thenReturn(NoopTracingBackend.INSTANCE);
+        ObjectProvider<SchedulingLagListener> lagListenerProvider = mock(ObjectProvider.class);
+        when(lagListenerProvider.getIfAvailable(any())).thenReturn(SchedulingLagListener.NO_OP);
+        ObjectProvider<EventBus> eventBusProvider = mock(ObjectProvider.class);
+        when(eventBusProvider.getIfUnique()).thenReturn(mock(EventBus.class));
+        beanFactory = mock(ConfigurableListableBeanFactory.class);
+        declareBean("deadlineManager", Declarations.class.getMethod("deadlineManager"));
+        declareBean("simpleDeadlineManager", Declarations.class.getMethod("simpleDeadlineManager"));
+        declareBean("eventScheduler", Declarations.class.getMethod("eventScheduler"));
+        testSubject = new TracingSchedulingBeanPostProcessor(backendProvider, lagListenerProvider, eventBusProvider);
+        testSubject.setBeanFactory(beanFactory);
+    }
+
+    private void declareBean(String beanName, Method factoryMethod) {
+        RootBeanDefinition beanDefinition = mock(RootBeanDefinition.class);
+        when(beanDefinition.getResolvedFactoryMethod()).thenReturn(factoryMethod);
+        when(beanFactory.getMergedBeanDefinition(beanName)).thenReturn(beanDefinition);
+    }
+
+    @Test
+    public void testWrapsDeadlineManagersDeclaredByInterface() {
+        Object result = testSubject.postProcessAfterInitialization(mock(DeadlineManager.class), "deadlineManager");
+
+        assertThat(result, instanceOf(TracingDeadlineManager.class));
+    }
+
+    @Test
+    public void testLeavesDeadlineManagersDeclaredByConcreteTypeUntouched() {
+        SimpleDeadlineManager deadlineManager = mock(SimpleDeadlineManager.class);
+
+        Object result = testSubject.postProcessAfterInitialization(deadlineManager, "simpleDeadlineManager");
+
+        assertThat(result, sameInstance(deadlineManager));
+    }
+
+    @Test
+    public void testWrapsEventSchedulersDeclaredByInterface() {
+        Object result = testSubject.postProcessAfterInitialization(mock(EventScheduler.class), "eventScheduler");
+
+        assertThat(result, instanceOf(TracingEventScheduler.class));
+    }
+
+    @SuppressWarnings("unused")
+    private interface Declarations {
+
+        DeadlineManager deadlineManager();
+
+        SimpleDeadlineManager simpleDeadlineManager();
+
+        EventScheduler eventScheduler();
+    }
+}
@@ -0,0 +1,79 @@
+package org.axonframework.extensions.tracing.autoconfig;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import org.axonframework.extensions.tracing.NoopTracingBackend;
+import org.axonframework.extensions.tracing.SerializationListener;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingSerializer;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Test class for the {@link TracingSerializerBeanPostProcessor}.
+ */
+public class TracingSerializerBeanPostProcessorTest {
+
+    private ConfigurableListableBeanFactory beanFactory;
+    private TracingSerializerBeanPostProcessor testSubject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() throws Exception {
+        ObjectProvider<TracingBackend> backendProvider = mock(ObjectProvider.class);
+        when(backendProvider.getIfAvailable()).thenReturn(NoopTracingBackend.INSTANCE);
+        ObjectProvider<SerializationListener> listenerProvider = mock(ObjectProvider.class);
+        when(listenerProvider.getIfAvailable(any())).thenReturn(SerializationListener.NO_OP);
+        beanFactory = mock(ConfigurableListableBeanFactory.class);
+        declareBean("serializer", Declarations.class.getMethod("serializer"));
+        declareBean("xStreamSerializer", Declarations.class.getMethod("xStreamSerializer"));
+        testSubject = new TracingSerializerBeanPostProcessor(backendProvider, listenerProvider);
+        testSubject.setBeanFactory(beanFactory);
+    }
+
+    private void declareBean(String beanName, Method factoryMethod) {
+        RootBeanDefinition beanDefinition = mock(RootBeanDefinition.class);
+        when(beanDefinition.getResolvedFactoryMethod()).thenReturn(factoryMethod);
+        when(beanFactory.getMergedBeanDefinition(beanName)).thenReturn(beanDefinition);
+    }
+
+    @Test
+    public void testWrapsSerializersDeclaredByInterface() {
+        Object result = testSubject.postProcessAfterInitialization(XStreamSerializer.builder().build(), "serializer");
+
+        assertThat(result, instanceOf(TracingSerializer.class));
+    }
+
+    @Test
+    public void testDoesNotWrapTwice() {
+        Object wrapped = testSubject.postProcessAfterInitialization(XStreamSerializer.builder().build(), "serializer");
+
+        assertThat(testSubject.postProcessAfterInitialization(wrapped, "serializer"), sameInstance(wrapped));
+    }
+
+    @Test
+    public void testLeavesSerializersDeclaredByConcreteTypeUntouched() {
+        XStreamSerializer serializer = XStreamSerializer.builder().build();
+
+        assertThat(testSubject.postProcessAfterInitialization(serializer, "xStreamSerializer"), sameInstance(serializer));
+    }
+
+    @SuppressWarnings("unused")
+    private interface Declarations {
+
+        Serializer serializer();
+
+        XStreamSerializer xStreamSerializer();
+    }
+}
@@ -0,0 +1,106 @@
+package org.axonframework.extensions.tracing.autoconfig;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import brave.Tracing;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import org.axonframework.eventhandling.tokenstore.TokenStore;
+import org.axonframework.eventhandling.tokenstore.inmemory.InMemoryTokenStore;
+import org.axonframework.extensions.tracing.BraveTracingBackend;
+import org.axonframework.extensions.tracing.TokenStoreListener;
+import org.axonframework.extensions.tracing.TracingBackend;
+import org.axonframework.extensions.tracing.TracingTokenStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link TracingTokenStoreBeanPostProcessor}.
+ */
+public class TracingTokenStoreBeanPostProcessorTest {
+
+    private final List<Span> spans = new ArrayList<>();
+    private Tracing tracing;
+    private TracingProperties properties;
+    private ConfigurableListableBeanFactory beanFactory;
+    private TracingTokenStoreBeanPostProcessor testSubject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() throws Exception {
+        tracing = Tracing.newBuilder().spanReporter(spans::add).build();
+        properties = new TracingProperties();
+        ObjectProvider<TracingBackend> backendProvider = mock(ObjectProvider.class);
+        when(backendProvider.getIfAvailable()).thenReturn(new BraveTracingBackend(tracing));
+        ObjectProvider<TracingProperties> propertiesProvider = mock(ObjectProvider.class);
+        when(propertiesProvider.getIfAvailable(any())).thenReturn(properties);
+        ObjectProvider<TokenStoreListener> listenerProvider = mock(ObjectProvider.class);
+        when(listenerProvider.getIfAvailable(any())).thenReturn(TokenStoreListener.NO_OP);
+        beanFactory = mock(ConfigurableListableBeanFactory.class);
+        declareBean("tokenStore", Declarations.class.getMethod("tokenStore"));
+        declareBean("inMemoryTokenStore", Declarations.class.getMethod("inMemoryTokenStore"));
+        testSubject = new TracingTokenStoreBeanPostProcessor(backendProvider, propertiesProvider, listenerProvider);
+        testSubject.setBeanFactory(beanFactory);
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    private void declareBean(String beanName, Method factoryMethod) {
+        RootBeanDefinition beanDefinition = mock(RootBeanDefinition.class);
+        when(beanDefinition.getResolvedFactoryMethod()).thenReturn(factoryMethod);
+        when(beanFactory.getMergedBeanDefinition(beanName)).thenReturn(beanDefinition);
+    }
+
+    @Test
+    public void testWrapsTokenStoresDeclaredByInterface() {
+        Object result = testSubject.postProcessAfterInitialization(new InMemoryTokenStore(), "tokenStore");
+
+        assertThat(result, instanceOf(TracingTokenStore.class));
+    }
+
+    @Test
+    public void testLeavesTokenStoresDeclaredByConcreteTypeUntouched() {
+        InMemoryTokenStore tokenStore = new InMemoryTokenStore();
+
+        assertThat(testSubject.postProcessAfterInitialization(tokenStore, "inMemoryTokenStore"),
+                   sameInstance(tokenStore));
+    }
+
+    @Test
+    public void testOnlyTracesOperationsOfTracedProcessors() {
+        TracingProperties.HandlerSettings disabled = new TracingProperties.HandlerSettings();
+        disabled.setEnabled(false);
+        properties.getProcessors().put("untraced-projection", disabled);
+        TokenStore tokenStore =
+                (TokenStore) testSubject.postProcessAfterInitialization(new InMemoryTokenStore(), "tokenStore");
+
+        tokenStore.fetchSegments("untraced-projection");
+        tokenStore.fetchSegments("traced-projection");
+
+        assertThat(spans.size(), is(1));
+        assertThat(spans.get(0).tags().get("axon.processor.name"), is("traced-projection"));
+    }
+
+    @SuppressWarnings("unused")
+    private interface Declarations {
+
+        TokenStore tokenStore();
+
+        InMemoryTokenStore inMemoryTokenStore();
+    }
+}
@@ -0,0 +1,503 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+import static org.axonframework.common.BuilderUtils.assertStrictPositive;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.AxonThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import zipkin2.Span;
+import zipkin2.reporter.Reporter;
+
+/**
+ * A {@link Reporter} which hands finished {@link Span}s over to a dedicated exporting thread, which exports them in
+ * batches through a {@link SpanBatchExporter}.
+ * <p>
+ * Reporting a span never blocks the reporting thread. Spans are placed in a bounded, lock-free ring buffer. When the
+ * buffer is full, the configured {@link OverflowPolicy} decides whether the oldest buffered span or the newly
+ * reported span is dropped. A batch is exported as soon as it reaches the maximum batch size, or when the oldest span
+ * in it waited for the maximum batch delay.
+ * <p>
+ * The queue depth, the number of dropped spans and the batch latency (the time between the first span of a batch
+ * being reported and the batch being exported) can be retrieved from this reporter, to be exposed as metrics.
+ *
+ * @since 4.2
+ */
+public class BatchingSpanReporter implements Reporter<Span>, Flushable, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final SpanBatchExporter exporter;
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+    private final long closeTimeoutMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final SpanRingBuffer<Span> buffer;
+    private final Object exportLock = new Object();
+    private final Thread exportThread;
+    private final AtomicBoolean exportSignalled = new AtomicBoolean();
+
+    private final LongAdder reportedSpans = new LongAdder();
+    private final LongAdder droppedSpans = new LongAdder();
+    private final LongAdder exportedSpans = new LongAdder();
+    private final LongAdder exportedBatches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder totalBatchLatencyNanos = new LongAdder();
+    private final LongAccumulator maxBatchLatencyNanos = new LongAccumulator(Math::max, 0);
+    private volatile long lastBatchLatencyNanos;
+    private volatile boolean closed;
+    private volatile boolean exporterStopped;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link BatchingSpanReporter}.
+     * <p>
+     * The queue capacity defaults to {@code 8192} spans, the maximum batch size to {@code 512} spans, the maximum
+     * batch delay to one second, the close timeout to five seconds and the {@link OverflowPolicy} to
+     * {@link OverflowPolicy#DROP_NEWEST}. The exporting thread is created by an {@link AxonThreadFactory}, and is
+     * always marked as a daemon thread.
+     * <p>
+     * The {@link SpanBatchExporter} is a <b>hard requirement</b> and as such should be provided.
+     *
+     * @return a Builder to be able to create a {@link BatchingSpanReporter}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link BatchingSpanReporter} based on the fields contained in the {@link Builder}, and start its
+     * exporting thread.
+     * <p>
+     * Will assert that the {@link SpanBatchExporter} is not {@code null}, and will throw an
+     * {@link AxonConfigurationException} if it is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link BatchingSpanReporter} instance
+     */
+    protected BatchingSpanReporter(Builder builder) {
+        builder.validate();
+        this.exporter = builder.exporter;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.maxBatchDelayNanos = builder.maxBatchDelay.toNanos();
+        this.closeTimeoutMillis = builder.closeTimeout.toMillis();
+        this.overflowPolicy = builder.overflowPolicy;
+        this.buffer = new SpanRingBuffer<>(builder.queueCapacity);
+        this.exportThread = builder.threadFactory.newThread(this::exportLoop);
+        this.exportThread.setDaemon(true);
+        this.exportThread.start();
+    }
+
+    @Override
+    public void report(Span span) {
+        reportedSpans.increment();
+        if (closed) {
+            droppedSpans.increment();
+            return;
+        }
+        long now = System.nanoTime();
+        if (!buffer.offer(span, now)) {
+            if (overflowPolicy == OverflowPolicy.DROP_OLDEST && buffer.poll(null) != null) {
+                droppedSpans.increment();
+                if (buffer.offer(span, now)) {
+                    signalExporter();
+                    return;
+                }
+            }
+            droppedSpans.increment();
+            return;
+        }
+        signalExporter();
+    }
+
+    private void signalExporter() {
+        if (closed) {
+            // the exporting thread may have stopped between the check in report and the offer
+            if (exporterStopped) {
+                discardBuffered();
+            }
+            return;
+        }
+        // concurrent producers may push the size past the batch size without any of them seeing it equal to it
+        if (buffer.size() >= maxBatchSize && !exportSignalled.get() && exportSignalled.compareAndSet(false, true)) {
+            LockSupport.unpark(exportThread);
+        }
+    }
+
+    /**
+     * Export the spans which are currently buffered on the calling thread. Intended for tests and for shutdown
+     * procedures, as this method blocks until the exporter has processed the buffered spans.
+     */
+    @Override
+    public void flush() {
+        synchronized (exportLock) {
+            int remaining = buffer.size();
+            while (remaining > 0) {
+                int exported = exportBatch();
+                if (exported == 0) {
+                    return;
+                }
+                remaining -= exported;
+            }
+        }
+    }
+
+    /**
+     * Stop accepting spans and wait, up to the configured close timeout, for the exporting thread to export the
+     * remaining buffered spans. Spans reported after closing, and spans which could not be exported within the close
+     * timeout, are dropped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(exportThread);
+        try {
+            exportThread.join(closeTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (exportThread.isAlive()) {
+            logger.warn("The span exporting thread did not terminate within {}ms. "
+                                + "Dropping {} buffered spans.", closeTimeoutMillis, buffer.size());
+            exportThread.interrupt();
+            discardBuffered();
+        }
+    }
+
+    private void exportLoop() {
+        long[] oldestTimestamp = new long[1];
+        try {
+            while (!closed || buffer.size() > 0) {
+                exportSignalled.set(false);
+                int queued = buffer.size();
+                if (queued == 0) {
+                    LockSupport.parkNanos(this, maxBatchDelayNanos);
+                } else if (!buffer.peekTimestamp(oldestTimestamp)) {
+                    // the oldest span is claimed by a producer which is still offering it
+                    Thread.yield();
+                } else {
+                    long remainingDelay = maxBatchDelayNanos - (System.nanoTime() - oldestTimestamp[0]);
+                    if (queued < maxBatchSize && remainingDelay > 0 && !closed) {
+                        LockSupport.parkNanos(this, remainingDelay);
+                    } else {
+                        synchronized (exportLock) {
+                            exportBatch();
+                        }
+                    }
+                }
+                if (Thread.interrupted()) {
+                    return;
+                }
+            }
+        } finally {
+            exporterStopped = true;
+            discardBuffered();
+        }
+    }
+
+    private void discardBuffered() {
+        int discarded = 0;
+        while (buffer.poll(null) != null) {
+            discarded++;
+        }
+        droppedSpans.add(discarded);
+    }
+
+    private int exportBatch() {
+        long[] timestamp = new long[1];
+        long oldest = 0;
+        List<Span> batch = new ArrayList<>(Math.min(maxBatchSize, buffer.size() + 1));
+        Span span;
+        while (batch.size() < maxBatchSize && (span = buffer.poll(timestamp)) != null) {
+            if (batch.isEmpty()) {
+                oldest = timestamp[0];
+            }
+            batch.add(span);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            exporter.export(batch);
+            long latency = System.nanoTime() - oldest;
+            lastBatchLatencyNanos = latency;
+            maxBatchLatencyNanos.accumulate(latency);
+            totalBatchLatencyNanos.add(latency);
+            exportedBatches.increment();
+            exportedSpans.add(batch.size());
+        } catch (Exception e) {
+            failedBatches.increment();
+            droppedSpans.add(batch.size());
+            logger.warn("Failed to export a batch of {} spans. The spans are dropped.", batch.size(), e);
+        }
+        return batch.size();
+    }
+
+    /**
+     * Returns an estimate of the number of spans currently waiting to be exported.
+     *
+     * @return an estimate of the number of spans currently waiting to be exported
+     */
+    public int queueDepth() {
+        return buffer.size();
+    }
+
+    /**
+     * Returns the maximum number of spans which can wait to be exported before spans are dropped.
+     *
+     * @return the maximum number of spans which can wait to be exported
+     */
+    public int queueCapacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Returns the total number of spans reported to this reporter, including the spans which have been dropped.
+     *
+     * @return the total number of spans reported to this reporter
+     */
+    public long reportedSpans() {
+        return reportedSpans.sum();
+    }
+
+    /**
+     * Returns the total number of spans dropped because the queue was full, the exporter failed or this reporter was
+     * closed.
+     *
+     * @return the total number of dropped spans
+     */
+    public long droppedSpans() {
+        return droppedSpans.sum();
+    }
+
+    /**
+     * Returns the total number of spans successfully exported.
+     *
+     * @return the total number of spans successfully exported
+     */
+    public long exportedSpans() {
+        return exportedSpans.sum();
+    }
+
+    /**
+     * Returns the total number of batches successfully exported.
+     *
+     * @return the total number of batches successfully exported
+     */
+    public long exportedBatches() {
+        return exportedBatches.sum();
+    }
+
+    /**
+     * Returns the total number of batches for which the {@link SpanBatchExporter} failed.
+     *
+     * @return the total number of batches for which the {@link SpanBatchExporter} failed
+     */
+    public long failedBatches() {
+        return failedBatches.sum();
+    }
+
+    /**
+     * Returns the latency of the most recently exported batch, being the time between its oldest span being reported
+     * and the batch being exported.
+     *
+     * @param unit the {@link TimeUnit} to express the latency in
+     * @return the latency of the most recently exported batch
+     */
+    public long lastBatchLatency(TimeUnit unit) {
+        return unit.convert(lastBatchLatencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the highest latency of any batch exported by this reporter.
+     *
+     * @param unit the {@link TimeUnit} to express the latency in
+     * @return the highest latency of any batch exported by this reporter
+     */
+    public long maxBatchLatency(TimeUnit unit) {
+        return unit.convert(maxBatchLatencyNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the sum of the latencies of all batches exported by this reporter. Combined with
+     * {@link #exportedBatches()} this provides the average batch latency.
+     *
+     * @param unit the {@link TimeUnit} to express the latency in
+     * @return the sum of the latencies of all batches exported by this reporter
+     */
+    public long totalBatchLatency(TimeUnit unit) {
+        return unit.convert(totalBatchLatencyNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Describes which span is dropped when a span is reported while the queue of the {@link BatchingSpanReporter} is
+     * full.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * Evict the oldest span waiting in the queue to make room for the newly reported span.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Drop the newly reported span, keeping the spans already waiting in the queue.
+         */
+        DROP_NEWEST
+    }
+
+    /**
+     * Builder class to instantiate a {@link BatchingSpanReporter}.
+     * <p>
+     * The queue capacity defaults to {@code 8192} spans, the maximum batch size to {@code 512} spans, the maximum
+     * batch delay to one second, the close timeout to five seconds and the {@link OverflowPolicy} to
+     * {@link OverflowPolicy#DROP_NEWEST}. The exporting thread is created by an {@link AxonThreadFactory}.
+     * <p>
+     * The {@link SpanBatchExporter} is a <b>hard requirement</b> and as such should be provided.
+     */
+    public static class Builder {
+
+        private SpanBatchExporter exporter;
+        private int queueCapacity = 8192;
+        private int maxBatchSize = 512;
+        private Duration maxBatchDelay = Duration.ofSeconds(1);
+        private Duration closeTimeout = Duration.ofSeconds(5);
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+        private ThreadFactory threadFactory = new AxonThreadFactory("BatchingSpanReporter");
+
+        /**
+         * Sets the {@link SpanBatchExporter} used to export batches of finished spans.
+         *
+         * @param exporter the {@link SpanBatchExporter} used to export batches of finished spans
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder exporter(SpanBatchExporter exporter) {
+            assertNonNull(exporter, "SpanBatchExporter may not be null");
+            this.exporter = exporter;
+            return this;
+        }
+
+        /**
+         * Sets the number of spans which may wait to be exported before the {@link OverflowPolicy} kicks in. The
+         * capacity is rounded up to the next power of two. Defaults to {@code 8192}.
+         *
+         * @param queueCapacity the number of spans which may wait to be exported
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            assertStrictPositive(queueCapacity, "The queue capacity should be a positive number");
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of spans exported in a single batch. Defaults to {@code 512}.
+         *
+         * @param maxBatchSize the maximum number of spans exported in a single batch
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder maxBatchSize(int maxBatchSize) {
+            assertStrictPositive(maxBatchSize, "The maximum batch size should be a positive number");
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time a span waits for its batch to fill up before the batch is exported regardless of its
+         * size. Defaults to one second.
+         *
+         * @param maxBatchDelay the maximum time a span waits for its batch to fill up
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder maxBatchDelay(Duration maxBatchDelay) {
+            assertNonNull(maxBatchDelay, "The maximum batch delay may not be null");
+            assertStrictPositive(maxBatchDelay.toNanos(), "The maximum batch delay should be a positive duration");
+            this.maxBatchDelay = maxBatchDelay;
+            return this;
+        }
+
+        /**
+         * Sets the time {@link BatchingSpanReporter#close()} waits for the remaining spans to be exported. Defaults to
+         * five seconds.
+         *
+         * @param closeTimeout the time to wait for the remaining spans to be exported on close
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder closeTimeout(Duration closeTimeout) {
+            assertNonNull(closeTimeout, "The close timeout may not be null");
+            this.closeTimeout = closeTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the {@link OverflowPolicy} deciding which span to drop when the queue is full. Defaults to
+         * {@link OverflowPolicy#DROP_NEWEST}.
+         *
+         * @param overflowPolicy the {@link OverflowPolicy} deciding which span to drop when the queue is full
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            assertNonNull(overflowPolicy, "The OverflowPolicy may not be null");
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the {@link ThreadFactory} used to create the exporting thread. Defaults to an
+         * {@link AxonThreadFactory}.
+         *
+         * @param threadFactory the {@link ThreadFactory} used to create the exporting thread
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            assertNonNull(threadFactory, "ThreadFactory may not be null");
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link BatchingSpanReporter} as specified through this Builder.
+         *
+         * @return a {@link BatchingSpanReporter} as specified through this Builder
+         */
+        public BatchingSpanReporter build() {
+            return new BatchingSpanReporter(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(exporter, "The SpanBatchExporter is a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link MeterBinder} exposing the queue and export statistics of a {@link BatchingSpanReporter} to a
+ * {@link MeterRegistry}. The following meters are registered:
+ * <ul>
+ * <li>{@code axon.tracing.reporter.queue.depth}, the number of spans waiting to be exported,</li>
+ * <li>{@code axon.tracing.reporter.queue.capacity}, the number of spans which can wait before spans are dropped,</li>
+ * <li>{@code axon.tracing.reporter.spans.reported}, counting the spans reported to the reporter,</li>
+ * <li>{@code axon.tracing.reporter.spans.dropped}, counting the spans which have not been exported,</li>
+ * <li>{@code axon.tracing.reporter.spans.exported}, counting the spans which have been exported,</li>
+ * <li>{@code axon.tracing.reporter.batches.exported}, counting the batches which have been exported,</li>
+ * <li>{@code axon.tracing.reporter.batches.failed}, counting the batches for which the exporter failed,</li>
+ * <li>{@code axon.tracing.reporter.batch.latency}, the latency of the most recently exported batch,</li>
+ * <li>{@code axon.tracing.reporter.batch.latency.max}, the highest latency of any exported batch.</li>
+ * </ul>
+ *
+ * @since 4.2
+ */
+public class BatchingSpanReporterMeterBinder implements MeterBinder {
+
+    private final BatchingSpanReporter spanReporter;
+
+    /**
+     * Initialize a {@link MeterBinder} exposing the statistics of the given {@code spanReporter}.
+     *
+     * @param spanReporter the {@link BatchingSpanReporter} of which the statistics are exposed
+     */
+    public BatchingSpanReporterMeterBinder(BatchingSpanReporter spanReporter) {
+        this.spanReporter = spanReporter;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("axon.tracing.reporter.queue.depth", spanReporter, BatchingSpanReporter::queueDepth)
+             .description("The number of spans waiting to be exported")
+             .register(registry);
+        Gauge.builder("axon.tracing.reporter.queue.capacity", spanReporter, BatchingSpanReporter::queueCapacity)
+             .description("The number of spans which can wait to be exported before spans are dropped")
+             .register(registry);
+        FunctionCounter.builder("axon.tracing.reporter.spans.reported",
+                                spanReporter,
+                                BatchingSpanReporter::reportedSpans)
+                       .description("The number of spans reported to the reporter")
+                       .register(registry);
+        FunctionCounter.builder("axon.tracing.reporter.spans.dropped", spanReporter, BatchingSpanReporter::droppedSpans)
+                       .description("The number of spans which have been dropped instead of exported")
+                       .register(registry);
+        FunctionCounter.builder("axon.tracing.reporter.spans.exported",
+                                spanReporter,
+                                BatchingSpanReporter::exportedSpans)
+                       .description("The number of spans which have been exported")
+                       .register(registry);
+        FunctionCounter.builder("axon.tracing.reporter.batches.exported",
+                                spanReporter,
+                                BatchingSpanReporter::exportedBatches)
+                       .description("The number of batches which have been exported")
+                       .register(registry);
+        FunctionCounter.builder("axon.tracing.reporter.batches.failed",
+                                spanReporter,
+                                BatchingSpanReporter::failedBatches)
+                       .description("The number of batches for which the exporter failed")
+                       .register(registry);
+        TimeGauge.builder("axon.tracing.reporter.batch.latency",
+                          spanReporter,
+                          TimeUnit.MICROSECONDS,
+                          r -> r.lastBatchLatency(TimeUnit.MICROSECONDS))
+                 .description("The time between the oldest span of the last exported batch being reported and the "
+                                      + "batch being exported")
+                 .register(registry);
+        TimeGauge.builder("axon.tracing.reporter.batch.latency.max",
+                          spanReporter,
+                          TimeUnit.MICROSECONDS,
+                          r -> r.maxBatchLatency(TimeUnit.MICROSECONDS))
+                 .description("The highest latency of any exported batch")
+                 .register(registry);
+    }
+}
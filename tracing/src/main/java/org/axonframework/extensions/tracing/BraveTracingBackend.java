@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.propagation.TraceContext;
+import brave.sampler.Sampler;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A {@link TracingBackend} tracing through Brave.
+ *
+ * @since 4.2
+ */
+public class BraveTracingBackend implements TracingBackend {
+
+    private final Tracing tracing;
+    private final Tracer tracer;
+    private final TraceContext.Extractor<Map<String, ?>> extractor;
+    private final TraceContext.Injector<Map<String, String>> injector;
+
+    /**
+     * Initialize a {@link TracingBackend} tracing through the given {@code tracing}.
+     *
+     * @param tracing the {@link Tracing} to trace through
+     */
+    public BraveTracingBackend(Tracing tracing) {
+        this(tracing, tracing.tracer());
+    }
+
+    private BraveTracingBackend(Tracing tracing, Tracer tracer) {
+        this.tracing = tracing;
+        this.tracer = tracer;
+        this.extractor = tracing.propagation().extractor((carrier, key) -> {
+            Object value = carrier.get(key);
+            return value == null ? null : value.toString();
+        });
+        this.injector = tracing.propagation().injector(Map::put);
+    }
+
+    /**
+     * Returns the {@link Tracing} this backend traces through.
+     *
+     * @return the {@link Tracing} this backend traces through
+     */
+    public Tracing tracing() {
+        return tracing;
+    }
+
+    @Override
+    public TracedSpan startSpan(String name, TracedSpan.Kind kind) {
+        return start(tracer.nextSpan(), name, kind);
+    }
+
+    @Override
+    public TracedSpan startSpan(String name, TracedSpan.Kind kind, Map<String, ?> carrier) {
+        return start(tracer.nextSpan(extractor.extract(carrier)), name, kind);
+    }
+
+    private static TracedSpan start(Span span, String name, TracedSpan.Kind kind) {
+        span.name(name);
+        Span.Kind braveKind = toBraveKind(kind);
+        if (braveKind != null) {
+            span.kind(braveKind);
+        }
+        return new BraveSpan(span.start());
+    }
+
+    private static Span.Kind toBraveKind(TracedSpan.Kind kind) {
+        switch (kind) {
+            case CLIENT:
+                return Span.Kind.CLIENT;
+            case SERVER:
+                return Span.Kind.SERVER;
+            case PRODUCER:
+                return Span.Kind.PRODUCER;
+            case CONSUMER:
+                return Span.Kind.CONSUMER;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public TracedSpan currentSpan() {
+        Span current = tracer.currentSpan();
+        return current == null ? null : new BraveSpan(current);
+    }
+
+    @Override
+    public SpanScope makeCurrent(TracedSpan span) {
+        Tracer.SpanInScope scope = tracer.withSpanInScope(span == null ? null : ((BraveSpan) span).delegate);
+        return scope::close;
+    }
+
+    @Override
+    public void injectCurrentContext(Map<String, String> carrier) {
+        TraceContext context = tracing.currentTraceContext().get();
+        if (context != null) {
+            injector.inject(context, carrier);
+        }
+    }
+
+    @Override
+    public TracingBackend withSampleRate(float rate) {
+        return new BraveTracingBackend(tracing, tracing.tracer().withSampler(Sampler.create(rate)));
+    }
+
+    @Override
+    public Collection<String> propagationKeys() {
+        return tracing.propagation().keys();
+    }
+
+    private static class BraveSpan implements TracedSpan {
+
+        private final Span delegate;
+
+        private BraveSpan(Span delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public TracedSpan tag(String key, String value) {
+            delegate.tag(key, value);
+            return this;
+        }
+
+        @Override
+        public TracedSpan annotate(String name) {
+            delegate.annotate(name);
+            return this;
+        }
+
+        @Override
+        public TracedSpan error(Throwable error) {
+            delegate.error(error);
+            return this;
+        }
+
+        @Override
+        public void finish() {
+            delegate.finish();
+        }
+
+        @Override
+        public boolean isRecording() {
+            return !delegate.isNoop();
+        }
+
+        @Override
+        public String traceId() {
+            return delegate.context().traceIdString();
+        }
+
+        @Override
+        public String spanId() {
+            return delegate.context().spanIdString();
+        }
+    }
+}
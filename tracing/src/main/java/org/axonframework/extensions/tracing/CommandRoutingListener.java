@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+
+/**
+ * Listener notified of the routing and transport of commands through a
+ * {@link org.axonframework.commandhandling.distributed.DistributedCommandBus}, as instrumented by the
+ * {@link TracingCommandRouter} and {@link TracingCommandBusConnector}. All methods do nothing by default, so that
+ * implementations only need to override the notifications they are interested in.
+ *
+ * @since 4.2
+ */
+public interface CommandRoutingListener {
+
+    /**
+     * A {@link CommandRoutingListener} ignoring all routing and transport.
+     */
+    CommandRoutingListener NO_OP = new CommandRoutingListener() {
+    };
+
+    /**
+     * Invoked when the destination of a command has been looked up.
+     *
+     * @param commandName the name of the routed command
+     * @param member      the name of the member the command is routed to, or {@code null} if no member was found
+     * @param local       whether the command is routed to the local member
+     * @param lookup      the time the lookup of the destination took
+     */
+    default void onRouted(String commandName, String member, boolean local, Duration lookup) {
+    }
+
+    /**
+     * Invoked when a command sent to a member completed. For commands sent with a callback, this is when the result
+     * has been received, otherwise when the command has been handed to the transport.
+     *
+     * @param commandName the name of the sent command
+     * @param member      the name of the member the command was sent to
+     * @param duration    the time between sending the command and its completion
+     * @param failed      whether sending or handling the command failed
+     */
+    default void onSent(String commandName, String member, Duration duration, boolean failed) {
+    }
+
+    /**
+     * Invoked when a command sent through a {@link TracingCommandBusConnector} is about to be handled.
+     *
+     * @param commandName the name of the received command
+     * @param transit     the time between sending the command and the start of its handling, as measured by the
+     *                    clocks of the sending and receiving member
+     */
+    default void onReceived(String commandName, Duration transit) {
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link CommandRoutingListener} recording the routing and transport of commands through Micrometer. Registers:
+ * <ul>
+ * <li>{@code axon.command.routing}, a timer of the destination lookups, tagged with the selected {@code member}
+ * ({@code none} if no member was found) and whether it is {@code local}; its count per member shows how evenly
+ * commands are routed,</li>
+ * <li>{@code axon.command.remote.duration}, a timer of the commands sent to a member, tagged with the {@code member}
+ * and the {@code outcome} ({@code success} or {@code failure}),</li>
+ * <li>{@code axon.command.transit}, a timer of the time between sending and handling a command, tagged with the
+ * {@code commandName}.</li>
+ * </ul>
+ * All publish a percentile histogram.
+ *
+ * @since 4.2
+ */
+public class CommandRoutingMeterRecorder implements CommandRoutingListener {
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Timer> routings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> sends = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> transits = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize a {@link CommandRoutingListener} recording command routing in the given {@code registry}.
+     *
+     * @param registry the {@link MeterRegistry} to register the command routing meters in
+     */
+    public CommandRoutingMeterRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onRouted(String commandName, String member, boolean local, Duration lookup) {
+        String memberName = member == null ? NONE : member;
+        routings.computeIfAbsent(memberName + ':' + local,
+                                 key -> Timer.builder("axon.command.routing")
+                                             .description("The time spent looking up the destination of commands")
+                                             .tag("member", memberName)
+                                             .tag("local", Boolean.toString(local))
+                                             .publishPercentileHistogram()
+                                             .register(registry))
+                .record(lookup);
+    }
+
+    @Override
+    public void onSent(String commandName, String member, Duration duration, boolean failed) {
+        String outcome = failed ? "failure" : "success";
+        sends.computeIfAbsent(member + ':' + outcome,
+                              key -> Timer.builder("axon.command.remote.duration")
+                                          .description("The time between sending a command to a member and its "
+                                                               + "completion")
+                                          .tag("member", member)
+                                          .tag("outcome", outcome)
+                                          .publishPercentileHistogram()
+                                          .register(registry))
+             .record(duration);
+    }
+
+    @Override
+    public void onReceived(String commandName, Duration transit) {
+        transits.computeIfAbsent(commandName,
+                                 key -> Timer.builder("axon.command.transit")
+                                             .description("The time between sending and handling a command")
+                                             .tag("commandName", commandName)
+                                             .publishPercentileHistogram()
+                                             .register(registry))
+                .record(transit.isNegative() ? Duration.ZERO : transit);
+    }
+}
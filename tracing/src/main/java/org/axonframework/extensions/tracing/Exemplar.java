@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An example invocation of an operation, linking a latency bucket of its {@link OperationStatistics} to the trace the
+ * invocation was part of. Exemplars are only kept for invocations of which the trace is sampled, so that the trace
+ * they refer to can be found in the tracing backend.
+ *
+ * @since 4.2
+ */
+public final class Exemplar {
+
+    private final String traceId;
+    private final String spanId;
+    private final long durationMicros;
+    private final long timestampMicros;
+
+    /**
+     * Initialize an exemplar of an invocation with the given parameters.
+     *
+     * @param traceId         the identifier of the trace the invocation was part of
+     * @param spanId          the identifier of the span of the invocation
+     * @param durationMicros  the duration of the invocation, in microseconds
+     * @param timestampMicros the time the invocation finished, in microseconds since the epoch
+     */
+    Exemplar(String traceId, String spanId, long durationMicros, long timestampMicros) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.durationMicros = durationMicros;
+        this.timestampMicros = timestampMicros;
+    }
+
+    /**
+     * Returns the identifier of the trace the invocation was part of.
+     *
+     * @return the identifier of the trace the invocation was part of
+     */
+    public String traceId() {
+        return traceId;
+    }
+
+    /**
+     * Returns the identifier of the span of the invocation.
+     *
+     * @return the identifier of the span of the invocation
+     */
+    public String spanId() {
+        return spanId;
+    }
+
+    /**
+     * Returns the duration of the invocation.
+     *
+     * @param unit the {@link TimeUnit} to express the duration in
+     * @return the duration of the invocation
+     */
+    public double duration(TimeUnit unit) {
+        return durationMicros / (unit.toNanos(1) / 1000d);
+    }
+
+    /**
+     * Returns the time the invocation finished, in microseconds since the epoch.
+     *
+     * @return the time the invocation finished, in microseconds since the epoch
+     */
+    public long timestampMicros() {
+        return timestampMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "Exemplar{" +
+                "traceId='" + traceId + '\'' +
+                ", spanId='" + spanId + '\'' +
+                ", durationMicros=" + durationMicros +
+                '}';
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+/**
+ * Entry point to the Java Flight Recorder events emitted by the tracing gateways and the
+ * {@link OpenTraceHandlerInterceptor}, correlating JFR samples of CPU, allocation and lock events with the traced
+ * messages through the trace and span identifiers they carry.
+ * <p>
+ * The events are named {@code org.axonframework.Dispatch}, {@code org.axonframework.Handle} and
+ * {@code org.axonframework.Batch}, and are disabled by default. They are enabled through the {@code enabled} setting
+ * of a recording, for example with a custom {@code .jfc} settings file or
+ * {@code jcmd <pid> JFR.start settings=default +org.axonframework.Handle#enabled=true}. While they are disabled, or
+ * on JVMs without Flight Recorder, {@link #begin(Kind)} returns {@code null} without allocating, so that the call
+ * sites do not pay for the events.
+ *
+ * @since 4.2
+ */
+final class FlightEvents {
+
+    private static final Factory FACTORY = createFactory();
+
+    private FlightEvents() {
+        // utility class
+    }
+
+    /**
+     * Begin an event of the given {@code kind}, if events of that kind are enabled.
+     *
+     * @param kind the kind of event to begin
+     * @return the begun event, to {@link Recording#complete complete} once the traced operation ended, or
+     * {@code null} if events of the given kind are disabled
+     */
+    static Recording begin(Kind kind) {
+        return FACTORY.begin(kind);
+    }
+
+    private static Factory createFactory() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightEvents.class.getClassLoader());
+            return (Factory) Class.forName(FlightEvents.class.getPackage().getName() + ".JfrFlightEvents")
+                                  .getDeclaredConstructor()
+                                  .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Flight Recorder is not available on this JVM
+            return kind -> null;
+        }
+    }
+
+    /**
+     * The kinds of events emitted.
+     */
+    enum Kind {
+
+        /**
+         * The dispatching of a message through a tracing gateway, on the dispatching thread.
+         */
+        DISPATCH,
+
+        /**
+         * The handling of a single message by a handler invoked through the {@link OpenTraceHandlerInterceptor}.
+         */
+        HANDLE,
+
+        /**
+         * The handling of a batch of messages traced in a single span.
+         */
+        BATCH
+    }
+
+    /**
+     * An event which has begun.
+     */
+    interface Recording {
+
+        /**
+         * Sets the number of messages in the batch this event describes. Ignored by other than batch events.
+         *
+         * @param batchSize the number of messages in the batch
+         * @return this event, for fluent interfacing
+         */
+        default Recording batchSize(int batchSize) {
+            return this;
+        }
+
+        /**
+         * End this event and commit it, describing the operation traced in the given {@code span}.
+         *
+         * @param span        the span tracing the operation
+         * @param operation   the name of the operation
+         * @param messageType the type of message, such as {@code CommandMessage}
+         * @param payloadType the payload type of the message
+         */
+        void complete(TracedSpan span, String operation, String messageType, String payloadType);
+    }
+
+    /**
+     * Begins events of a given kind if they are enabled.
+     */
+    @FunctionalInterface
+    interface Factory {
+
+        /**
+         * Begin an event of the given {@code kind}, if events of that kind are enabled.
+         *
+         * @param kind the kind of event to begin
+         * @return the begun event, or {@code null} if events of the given kind are disabled
+         */
+        Recording begin(Kind kind);
+    }
+}
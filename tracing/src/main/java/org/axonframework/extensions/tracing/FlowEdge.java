@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A directed edge in the {@link MessageFlowTopology}, from the {@link FlowNode} of a parent span to the node of its
+ * child span, such as from handling a command to handling an event it produced. Per edge the number of child spans
+ * is counted, with their errors, their durations in the latency buckets of {@link OperationStatistics} and the lag
+ * between the start of the parent and the start of the child.
+ *
+ * @since 4.2
+ */
+public final class FlowEdge {
+
+    private final FlowNode from;
+    private final FlowNode to;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalDurationMicros = new LongAdder();
+    private final LongAccumulator maxDurationMicros = new LongAccumulator(Math::max, 0);
+    private final LongAdder totalLagMicros = new LongAdder();
+    private final LongAccumulator maxLagMicros = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets;
+
+    FlowEdge(FlowNode from, FlowNode to) {
+        this.from = from;
+        this.to = to;
+        this.buckets = new LongAdder[OperationStatistics.bucketCount()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a single child span along this edge.
+     *
+     * @param durationMicros the duration of the child span, in microseconds
+     * @param lagMicros      the time between the start of the parent and the start of the child, in microseconds
+     * @param error          whether the child span resulted in an error
+     */
+    void record(long durationMicros, long lagMicros, boolean error) {
+        count.increment();
+        if (error) {
+            errors.increment();
+        }
+        totalDurationMicros.add(durationMicros);
+        maxDurationMicros.accumulate(durationMicros);
+        long lag = Math.max(0, lagMicros);
+        totalLagMicros.add(lag);
+        maxLagMicros.accumulate(lag);
+        buckets[OperationStatistics.bucketIndex(durationMicros)].increment();
+    }
+
+    /**
+     * Returns the node of the parent spans of this edge.
+     *
+     * @return the node of the parent spans of this edge
+     */
+    public FlowNode from() {
+        return from;
+    }
+
+    /**
+     * Returns the node of the child spans of this edge.
+     *
+     * @return the node of the child spans of this edge
+     */
+    public FlowNode to() {
+        return to;
+    }
+
+    /**
+     * Returns the number of child spans recorded along this edge.
+     *
+     * @return the number of child spans recorded along this edge
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the number of child spans along this edge which resulted in an error.
+     *
+     * @return the number of child spans along this edge which resulted in an error
+     */
+    public long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * Returns the average number of child spans along this edge per span of the {@link #from() parent node}. A fan
+     * out well above {@code 1} marks an amplification of work.
+     *
+     * @return the average number of child spans along this edge per parent span
+     */
+    public double fanOut() {
+        long parents = from.count();
+        return parents == 0 ? 0 : (double) count() / parents;
+    }
+
+    /**
+     * Returns the average duration of the child spans along this edge.
+     *
+     * @param unit the {@link TimeUnit} to express the duration in
+     * @return the average duration of the child spans along this edge
+     */
+    public double meanDuration(TimeUnit unit) {
+        long count = count();
+        return count == 0 ? 0 : totalDurationMicros.sum() / microsPer(unit) / count;
+    }
+
+    /**
+     * Returns the longest duration of any child span along this edge.
+     *
+     * @param unit the {@link TimeUnit} to express the duration in
+     * @return the longest duration of any child span along this edge
+     */
+    public double maxDuration(TimeUnit unit) {
+        return maxDurationMicros.get() / microsPer(unit);
+    }
+
+    /**
+     * Returns an upper bound of the given {@code percentile} of the durations of the child spans along this edge,
+     * being the upper boundary of the latency bucket holding that percentile, or the longest duration if it falls in
+     * the unbounded bucket.
+     *
+     * @param percentile the percentile to return, between {@code 0.0} and {@code 1.0}
+     * @param unit       the {@link TimeUnit} to express the duration in
+     * @return an upper bound of the given percentile of the durations along this edge
+     */
+    public double durationPercentile(double percentile, TimeUnit unit) {
+        long count = count();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * count);
+        double[] boundaries = OperationStatistics.bucketBoundaries(unit);
+        long cumulative = 0;
+        for (int i = 0; i < boundaries.length; i++) {
+            cumulative += buckets[i].sum();
+            if (cumulative >= rank) {
+                return Math.min(boundaries[i], maxDuration(unit));
+            }
+        }
+        return maxDuration(unit);
+    }
+
+    /**
+     * Returns the average time between the start of a parent span and the start of its child span along this edge.
+     *
+     * @param unit the {@link TimeUnit} to express the lag in
+     * @return the average lag between parent and child spans along this edge
+     */
+    public double meanLag(TimeUnit unit) {
+        long count = count();
+        return count == 0 ? 0 : totalLagMicros.sum() / microsPer(unit) / count;
+    }
+
+    /**
+     * Returns the longest time between the start of a parent span and the start of its child span along this edge.
+     *
+     * @param unit the {@link TimeUnit} to express the lag in
+     * @return the longest lag between parent and child spans along this edge
+     */
+    public double maxLag(TimeUnit unit) {
+        return maxLagMicros.get() / microsPer(unit);
+    }
+
+    private static double microsPer(TimeUnit unit) {
+        return unit.toNanos(1) / 1000d;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowEdge{" + from.describe() + " -> " + to.describe() + ", count=" + count() + '}';
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import brave.handler.MutableSpan;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A node in the {@link MessageFlowTopology}, being a step in the flow of messages such as dispatching a command or
+ * handling an event in a specific event processor. A node is identified by the span name, the
+ * {@code axon.message.type} tag, the command name or payload type and, for event handlers, the processor name of the
+ * spans it aggregates.
+ *
+ * @since 4.2
+ */
+public final class FlowNode {
+
+    private final String spanName;
+    private final String messageType;
+    private final String messageName;
+    private final String processorName;
+    private final int hashCode;
+    private final LongAdder count = new LongAdder();
+
+    FlowNode(String spanName, String messageType, String messageName, String processorName) {
+        this.spanName = spanName;
+        this.messageType = messageType;
+        this.messageName = messageName;
+        this.processorName = processorName;
+        this.hashCode = Objects.hash(spanName, messageType, messageName, processorName);
+    }
+
+    /**
+     * Returns the node the given {@code span} belongs to, or {@code null} if the span carries no
+     * {@code axon.message.type} tag and hence represents no step in the flow of messages.
+     *
+     * @param span the finished span to return the node for
+     * @return the node the given span belongs to, or {@code null}
+     */
+    static FlowNode of(MutableSpan span) {
+        String messageType = span.tag(SpanUtils.TAG_AXON_MSG_TYPE);
+        if (messageType == null) {
+            return null;
+        }
+        String commandName = span.tag(SpanUtils.TAG_AXON_COMMAND_NAME);
+        return new FlowNode(span.name(),
+                            messageType,
+                            commandName != null ? commandName : span.tag(SpanUtils.TAG_AXON_PAYLOAD_TYPE),
+                            span.tag(SpanUtils.TAG_PROCESSOR_NAME));
+    }
+
+    void record() {
+        count.increment();
+    }
+
+    /**
+     * Returns the name of the spans of this node.
+     *
+     * @return the name of the spans of this node
+     */
+    public String spanName() {
+        return spanName;
+    }
+
+    /**
+     * Returns the {@code axon.message.type} of the spans of this node.
+     *
+     * @return the {@code axon.message.type} of the spans of this node
+     */
+    public String messageType() {
+        return messageType;
+    }
+
+    /**
+     * Returns the command name or, for other messages, the payload type of the spans of this node, or {@code null}
+     * if the spans carry neither, such as batch spans.
+     *
+     * @return the command name or payload type of the spans of this node, or {@code null}
+     */
+    public String messageName() {
+        return messageName;
+    }
+
+    /**
+     * Returns the name of the event processor of the spans of this node, or {@code null} if they were not handled by
+     * an event processor.
+     *
+     * @return the name of the event processor of the spans of this node, or {@code null}
+     */
+    public String processorName() {
+        return processorName;
+    }
+
+    /**
+     * Returns the number of spans of this node.
+     *
+     * @return the number of spans of this node
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns a readable description of this node, being the span name followed by the message name and, if
+     * present, the processor name between brackets.
+     *
+     * @return a readable description of this node
+     */
+    public String describe() {
+        StringBuilder description = new StringBuilder(String.valueOf(spanName));
+        if (messageName != null) {
+            description.append(' ').append(messageName);
+        }
+        if (processorName != null) {
+            description.append(" [").append(processorName).append(']');
+        }
+        return description.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FlowNode that = (FlowNode) o;
+        return Objects.equals(spanName, that.spanName)
+                && Objects.equals(messageType, that.messageType)
+                && Objects.equals(messageName, that.messageName)
+                && Objects.equals(processorName, that.processorName);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowNode{" + describe() + ", count=" + count() + '}';
+    }
+}
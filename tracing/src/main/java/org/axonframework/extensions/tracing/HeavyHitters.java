@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertStrictPositive;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded sketch of the keys with the highest accumulated weight, based on the Space-Saving algorithm. At most
+ * {@code capacity} keys are tracked. When an untracked key is recorded while the sketch is full, it replaces the key
+ * with the lowest weight and inherits that weight as its possible overestimation. Any key of which the true weight
+ * exceeds the total recorded weight divided by the capacity is guaranteed to be tracked.
+ * <p>
+ * This sketch is intended for infrequent events, such as contended lock acquisitions, and synchronizes all access.
+ *
+ * @since 4.2
+ */
+public class HeavyHitters {
+
+    private final int capacity;
+    private final Map<String, HeavyHitter> tracked;
+
+    /**
+     * Initialize a sketch tracking at most {@code capacity} keys.
+     *
+     * @param capacity the maximum number of keys to track
+     */
+    public HeavyHitters(int capacity) {
+        assertStrictPositive(capacity, "The capacity should be a positive number");
+        this.capacity = capacity;
+        this.tracked = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Record the given {@code weight} for the given {@code key}.
+     *
+     * @param key    the key to record the weight for
+     * @param weight the weight to add to the key
+     */
+    public synchronized void record(String key, long weight) {
+        HeavyHitter hitter = tracked.get(key);
+        if (hitter != null) {
+            hitter.weight += weight;
+            return;
+        }
+        if (tracked.size() < capacity) {
+            tracked.put(key, new HeavyHitter(key, weight, 0));
+            return;
+        }
+        HeavyHitter lightest = null;
+        for (HeavyHitter candidate : tracked.values()) {
+            if (lightest == null || candidate.weight < lightest.weight) {
+                lightest = candidate;
+            }
+        }
+        tracked.remove(lightest.key);
+        tracked.put(key, new HeavyHitter(key, lightest.weight + weight, lightest.weight));
+    }
+
+    /**
+     * Returns whether the given {@code key} is currently tracked by this sketch.
+     *
+     * @param key the key to verify
+     * @return {@code true} if the key is tracked, {@code false} otherwise
+     */
+    public synchronized boolean isTracked(String key) {
+        return tracked.containsKey(key);
+    }
+
+    /**
+     * Returns at most {@code limit} of the tracked keys, ordered by descending weight.
+     *
+     * @param limit the maximum number of keys to return
+     * @return at most {@code limit} of the heaviest tracked keys, heaviest first
+     */
+    public synchronized List<HeavyHitter> top(int limit) {
+        List<HeavyHitter> result = new ArrayList<>(tracked.size());
+        for (HeavyHitter hitter : tracked.values()) {
+            result.add(new HeavyHitter(hitter.key, hitter.weight, hitter.error));
+        }
+        result.sort(Comparator.comparingLong(HeavyHitter::weight).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * A key tracked by a {@link HeavyHitters} sketch, with its estimated weight.
+     */
+    public static final class HeavyHitter {
+
+        private final String key;
+        private final long error;
+        private long weight;
+
+        private HeavyHitter(String key, long weight, long error) {
+            this.key = key;
+            this.weight = weight;
+            this.error = error;
+        }
+
+        /**
+         * Returns the tracked key.
+         *
+         * @return the tracked key
+         */
+        public String key() {
+            return key;
+        }
+
+        /**
+         * Returns the estimated weight of the key, which may overestimate the true weight by at most
+         * {@link #error()}.
+         *
+         * @return the estimated weight of the key
+         */
+        public long weight() {
+            return weight;
+        }
+
+        /**
+         * Returns the maximum overestimation of the {@link #weight()} of the key.
+         *
+         * @return the maximum overestimation of the weight of the key
+         */
+        public long error() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "HeavyHitter{key='" + key + "', weight=" + weight + ", error=" + error + '}';
+        }
+    }
+}
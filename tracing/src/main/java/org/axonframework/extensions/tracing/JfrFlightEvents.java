@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@link FlightEvents.Factory} emitting the events through the Java Flight Recorder. Only loaded reflectively by
+ * {@link FlightEvents} on JVMs providing the {@code jdk.jfr} module.
+ *
+ * @since 4.2
+ */
+final class JfrFlightEvents implements FlightEvents.Factory {
+
+    private final EventType dispatchType = EventType.getEventType(DispatchEvent.class);
+    private final EventType handleType = EventType.getEventType(HandleEvent.class);
+    private final EventType batchType = EventType.getEventType(BatchEvent.class);
+
+    @Override
+    public FlightEvents.Recording begin(FlightEvents.Kind kind) {
+        MessageEvent event;
+        switch (kind) {
+            case DISPATCH:
+                event = dispatchType.isEnabled() ? new DispatchEvent() : null;
+                break;
+            case HANDLE:
+                event = handleType.isEnabled() ? new HandleEvent() : null;
+                break;
+            default:
+                event = batchType.isEnabled() ? new BatchEvent() : null;
+        }
+        if (event != null) {
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Base of the events describing the dispatching or handling of a traced message.
+     */
+    @Category({"Axon", "Messaging"})
+    @StackTrace(false)
+    @Enabled(false)
+    abstract static class MessageEvent extends Event implements FlightEvents.Recording {
+
+        @Label("Trace Id")
+        String traceId;
+
+        @Label("Span Id")
+        String spanId;
+
+        @Label("Operation")
+        String operation;
+
+        @Label("Message Type")
+        String messageType;
+
+        @Label("Payload Type")
+        String payloadType;
+
+        @Override
+        public void complete(TracedSpan span, String operation, String messageType, String payloadType) {
+            end();
+            if (shouldCommit()) {
+                this.traceId = span.traceId();
+                this.spanId = span.spanId();
+                this.operation = operation;
+                this.messageType = messageType;
+                this.payloadType = payloadType;
+                commit();
+            }
+        }
+    }
+
+    @Name("org.axonframework.Dispatch")
+    @Label("Message Dispatch")
+    @Description("Dispatching of a message through a tracing gateway")
+    static class DispatchEvent extends MessageEvent {
+
+    }
+
+    @Name("org.axonframework.Handle")
+    @Label("Message Handling")
+    @Description("Handling of a message by a traced handler")
+    static class HandleEvent extends MessageEvent {
+
+    }
+
+    @Name("org.axonframework.Batch")
+    @Label("Batch Handling")
+    @Description("Handling of a batch of messages traced in a single span")
+    static class BatchEvent extends MessageEvent {
+
+        @Label("Batch Size")
+        int batchSize;
+
+        @Override
+        public FlightEvents.Recording batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+
+/**
+ * Listener notified of every lock obtained through a {@link TracingLockFactory}, with the time spent waiting for it.
+ *
+ * @since 4.2
+ */
+@FunctionalInterface
+public interface LockWaitListener {
+
+    /**
+     * A {@link LockWaitListener} ignoring all lock acquisitions.
+     */
+    LockWaitListener NO_OP = (aggregateType, aggregateIdentifier, wait) -> {
+    };
+
+    /**
+     * Invoked when a lock on an aggregate has been obtained.
+     *
+     * @param aggregateType       the type of aggregate the lock was obtained for
+     * @param aggregateIdentifier the identifier of the aggregate the lock was obtained for
+     * @param wait                the time spent waiting for the lock
+     */
+    void onLockObtained(String aggregateType, String aggregateIdentifier, Duration wait);
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link LockWaitListener} recording the time spent waiting for aggregate locks in a Micrometer {@link Timer} named
+ * {@code axon.aggregate.lock.wait}, tagged with the {@code aggregateType}. The timer publishes a percentile histogram.
+ * Aggregate identifiers are deliberately not used as tag; the {@link TracingLockFactory} tracks the most contended
+ * identifiers in a bounded {@link HeavyHitters} sketch instead.
+ *
+ * @since 4.2
+ */
+public class LockWaitMeterRecorder implements LockWaitListener {
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize a {@link LockWaitListener} recording lock wait times in the given {@code registry}.
+     *
+     * @param registry the {@link MeterRegistry} to register the lock wait timers in
+     */
+    public LockWaitMeterRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onLockObtained(String aggregateType, String aggregateIdentifier, Duration wait) {
+        timers.computeIfAbsent(aggregateType, type -> Timer.builder("axon.aggregate.lock.wait")
+                                                           .description("The time spent waiting for aggregate locks")
+                                                           .tag("aggregateType", type)
+                                                           .publishPercentileHistogram()
+                                                           .register(registry))
+              .record(wait);
+    }
+}
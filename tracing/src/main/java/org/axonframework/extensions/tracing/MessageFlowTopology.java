@@ -0,0 +1,407 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertStrictPositive;
+
+import brave.handler.FinishedSpanHandler;
+import brave.handler.MutableSpan;
+import brave.propagation.TraceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.axonframework.common.AxonConfigurationException;
+
+/**
+ * A {@link FinishedSpanHandler} deriving the live topology of the message flow from the parent/child relationships
+ * between the spans of the tracing gateways and interceptors. Every span tagged with an {@code axon.message.type}
+ * through {@link SpanUtils} is aggregated in a {@link FlowNode}, such as dispatching a command or handling an event
+ * in a processor. Every such span with a parent which is a node as well is aggregated in a directed {@link FlowEdge},
+ * for example from handling a command to handling the events it produced, and from there to the queries sent by an
+ * event handler. The {@link FlowEdge#fanOut() fan out} and counts of the edges reveal amplification hotspots which no
+ * single span shows.
+ * <p>
+ * Spans finish in either order: handlers of events published by a command handler finish before it when handled
+ * synchronously, and after it when handled by a tracking processor. Hence the nodes of recently finished spans and the
+ * children which finished before their parent are both kept in fixed size, direct-mapped caches, and an edge is
+ * recorded by whichever of the two spans finishes last. Children of which the parent finished too long ago to still be
+ * cached, or in another process, are not recorded along an edge. The numbers of nodes and edges are bounded; spans
+ * exceeding these bounds are only counted as {@link #rejectedSpans() rejected}.
+ * <p>
+ * By default this handler {@link #alwaysSampleLocal() samples all spans locally}, so that the topology reflects all
+ * messages regardless of the sampling rate of spans which are reported to the tracing backend.
+ *
+ * @since 4.2
+ */
+public class MessageFlowTopology extends FinishedSpanHandler {
+
+    private static final int MAX_PENDING_PER_SLOT = 64;
+
+    private final boolean alwaysSampleLocal;
+    private final int maxNodes;
+    private final int maxEdges;
+    private final ConcurrentMap<FlowNode, FlowNode> nodes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<FlowNode, ConcurrentMap<FlowNode, FlowEdge>> edges = new ConcurrentHashMap<>();
+    private final AtomicInteger edgeCount = new AtomicInteger();
+    private final AtomicReferenceArray<FinishedNode> finishedNodes;
+    private final AtomicReferenceArray<PendingChild> pendingChildren;
+    private final int slotMask;
+    private final LongAdder rejectedSpans = new LongAdder();
+    private final LongAdder droppedChildren = new LongAdder();
+
+    /**
+     * Instantiate a Builder to be able to create a {@link MessageFlowTopology}.
+     * <p>
+     * Local sampling of all spans defaults to {@code true}, the maximum number of nodes to {@code 500}, the maximum
+     * number of edges to {@code 2000} and the number of cached spans to {@code 4096}.
+     *
+     * @return a Builder to be able to create a {@link MessageFlowTopology}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link MessageFlowTopology} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link MessageFlowTopology} instance
+     */
+    protected MessageFlowTopology(Builder builder) {
+        builder.validate();
+        this.alwaysSampleLocal = builder.alwaysSampleLocal;
+        this.maxNodes = builder.maxNodes;
+        this.maxEdges = builder.maxEdges;
+        int slots = builder.cachedSpans == 1 ? 1 : Integer.highestOneBit(builder.cachedSpans - 1) << 1;
+        this.finishedNodes = new AtomicReferenceArray<>(slots);
+        this.pendingChildren = new AtomicReferenceArray<>(slots);
+        this.slotMask = slots - 1;
+    }
+
+    @Override
+    public boolean handle(TraceContext context, MutableSpan span) {
+        if (span.startTimestamp() == 0 || span.finishTimestamp() == 0) {
+            return true;
+        }
+        FlowNode candidate = FlowNode.of(span);
+        FlowNode node = candidate == null ? null : registerNode(candidate);
+        if (node == null) {
+            return true;
+        }
+        node.record();
+        long spanId = context.spanId();
+        long start = span.startTimestamp();
+        long duration = span.finishTimestamp() - start;
+        boolean error = span.error() != null || span.tag("error") != null;
+
+        // The node is published before scanning for pending children, while a child is queued before checking for
+        // its parent once more. Hence either the parent finds the queued child, or the child finds the parent and
+        // connects itself; removing the pending child from its slot guarantees the edge is recorded only once.
+        finishedNodes.set(slot(spanId), new FinishedNode(spanId, node, start));
+        connectPendingChildren(spanId, node, start);
+        long parentId = context.parentIdAsLong();
+        if (parentId != 0) {
+            FinishedNode parent = finishedNode(parentId);
+            if (parent != null) {
+                recordEdge(parent.node, node, duration, start - parent.start, error);
+            } else {
+                addPendingChild(new PendingChild(parentId, node, start, duration, error));
+                parent = finishedNode(parentId);
+                if (parent != null) {
+                    connectPendingChildren(parentId, parent.node, parent.start);
+                }
+            }
+        }
+        return true;
+    }
+
+    private FlowNode registerNode(FlowNode candidate) {
+        FlowNode node = nodes.get(candidate);
+        if (node != null) {
+            return node;
+        }
+        if (nodes.size() >= maxNodes) {
+            rejectedSpans.increment();
+            return null;
+        }
+        FlowNode existing = nodes.putIfAbsent(candidate, candidate);
+        return existing == null ? candidate : existing;
+    }
+
+    private void recordEdge(FlowNode from, FlowNode to, long durationMicros, long lagMicros, boolean error) {
+        ConcurrentMap<FlowNode, FlowEdge> outgoing = edges.computeIfAbsent(from, k -> new ConcurrentHashMap<>());
+        FlowEdge edge = outgoing.get(to);
+        if (edge == null) {
+            if (edgeCount.get() >= maxEdges) {
+                rejectedSpans.increment();
+                return;
+            }
+            FlowEdge created = new FlowEdge(from, to);
+            edge = outgoing.putIfAbsent(to, created);
+            if (edge == null) {
+                edgeCount.incrementAndGet();
+                edge = created;
+            }
+        }
+        edge.record(durationMicros, lagMicros, error);
+    }
+
+    private void addPendingChild(PendingChild child) {
+        int slot = slot(child.parentId);
+        while (true) {
+            PendingChild head = pendingChildren.get(slot);
+            PendingChild next = head;
+            int dropped = 0;
+            if (head != null && head.depth >= MAX_PENDING_PER_SLOT) {
+                next = head.truncate(MAX_PENDING_PER_SLOT - 1);
+                dropped = head.depth - next.depth;
+            }
+            if (pendingChildren.compareAndSet(slot, head, child.withNext(next))) {
+                if (dropped > 0) {
+                    droppedChildren.add(dropped);
+                }
+                return;
+            }
+        }
+    }
+
+    private void connectPendingChildren(long spanId, FlowNode node, long start) {
+        int slot = slot(spanId);
+        while (true) {
+            PendingChild head = pendingChildren.get(slot);
+            List<PendingChild> children = null;
+            PendingChild remaining = null;
+            for (PendingChild current = head; current != null; current = current.next) {
+                if (current.parentId == spanId) {
+                    if (children == null) {
+                        children = new ArrayList<>();
+                    }
+                    children.add(current);
+                } else {
+                    remaining = current.withNext(remaining);
+                }
+            }
+            if (children == null) {
+                return;
+            }
+            if (pendingChildren.compareAndSet(slot, head, remaining)) {
+                for (PendingChild child : children) {
+                    recordEdge(node, child.node, child.duration, child.start - start, child.error);
+                }
+                return;
+            }
+        }
+    }
+
+    private FinishedNode finishedNode(long spanId) {
+        FinishedNode finished = finishedNodes.get(slot(spanId));
+        return finished != null && finished.spanId == spanId ? finished : null;
+    }
+
+    private int slot(long spanId) {
+        return (int) (spanId ^ (spanId >>> 32)) & slotMask;
+    }
+
+    @Override
+    public boolean alwaysSampleLocal() {
+        return alwaysSampleLocal;
+    }
+
+    /**
+     * Returns all nodes of the topology aggregated so far.
+     *
+     * @return all nodes of the topology aggregated so far
+     */
+    public Collection<FlowNode> nodes() {
+        return Collections.unmodifiableCollection(new ArrayList<>(nodes.values()));
+    }
+
+    /**
+     * Returns all edges of the topology aggregated so far.
+     *
+     * @return all edges of the topology aggregated so far
+     */
+    public Collection<FlowEdge> edges() {
+        List<FlowEdge> result = new ArrayList<>(edgeCount.get());
+        edges.values().forEach(outgoing -> result.addAll(outgoing.values()));
+        return Collections.unmodifiableCollection(result);
+    }
+
+    /**
+     * Returns the number of spans which were not aggregated, because the maximum number of nodes or edges was
+     * reached.
+     *
+     * @return the number of spans which were not aggregated
+     */
+    public long rejectedSpans() {
+        return rejectedSpans.sum();
+    }
+
+    /**
+     * Returns the number of child spans which finished before their parent and were evicted from the cache before
+     * their parent finished, hence not recorded along an edge.
+     *
+     * @return the number of child spans dropped before their parent finished
+     */
+    public long droppedChildren() {
+        return droppedChildren.sum();
+    }
+
+    /**
+     * The node of a recently finished span, kept to record the edges of children finishing after it.
+     */
+    private static final class FinishedNode {
+
+        private final long spanId;
+        private final FlowNode node;
+        private final long start;
+
+        private FinishedNode(long spanId, FlowNode node, long start) {
+            this.spanId = spanId;
+            this.node = node;
+            this.start = start;
+        }
+    }
+
+    /**
+     * A span which finished before its parent, kept in an immutable list per cache slot until its parent finishes.
+     */
+    private static final class PendingChild {
+
+        private final long parentId;
+        private final FlowNode node;
+        private final long start;
+        private final long duration;
+        private final boolean error;
+        private final PendingChild next;
+        private final int depth;
+
+        private PendingChild(long parentId, FlowNode node, long start, long duration, boolean error) {
+            this(parentId, node, start, duration, error, null);
+        }
+
+        private PendingChild(long parentId, FlowNode node, long start, long duration, boolean error,
+                             PendingChild next) {
+            this.parentId = parentId;
+            this.node = node;
+            this.start = start;
+            this.duration = duration;
+            this.error = error;
+            this.next = next;
+            this.depth = next == null ? 1 : next.depth + 1;
+        }
+
+        private PendingChild withNext(PendingChild next) {
+            return new PendingChild(parentId, node, start, duration, error, next);
+        }
+
+        private PendingChild truncate(int length) {
+            if (length <= 0) {
+                return null;
+            }
+            return withNext(next == null ? null : next.truncate(length - 1));
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link MessageFlowTopology}.
+     * <p>
+     * Local sampling of all spans defaults to {@code true}, the maximum number of nodes to {@code 500}, the maximum
+     * number of edges to {@code 2000} and the number of cached spans to {@code 4096}.
+     */
+    public static class Builder {
+
+        private boolean alwaysSampleLocal = true;
+        private int maxNodes = 500;
+        private int maxEdges = 2000;
+        private int cachedSpans = 4096;
+
+        /**
+         * Sets whether all spans should be recorded locally, regardless of whether they are sampled for reporting to
+         * the tracing backend. Defaults to {@code true}.
+         *
+         * @param alwaysSampleLocal whether all spans should be recorded locally
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder alwaysSampleLocal(boolean alwaysSampleLocal) {
+            this.alwaysSampleLocal = alwaysSampleLocal;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of nodes in the topology. Defaults to {@code 500}.
+         *
+         * @param maxNodes the maximum number of nodes in the topology
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder maxNodes(int maxNodes) {
+            assertStrictPositive(maxNodes, "The maximum number of nodes should be a positive number");
+            this.maxNodes = maxNodes;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of edges in the topology. Defaults to {@code 2000}.
+         *
+         * @param maxEdges the maximum number of edges in the topology
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder maxEdges(int maxEdges) {
+            assertStrictPositive(maxEdges, "The maximum number of edges should be a positive number");
+            this.maxEdges = maxEdges;
+            return this;
+        }
+
+        /**
+         * Sets the number of slots of the caches holding recently finished spans and the children which finished
+         * before their parent, rounded up to a power of two. The higher the throughput and the longer the time
+         * between the finishing of a parent and its children, the more slots are needed to record all edges. Defaults
+         * to {@code 4096}.
+         *
+         * @param cachedSpans the number of slots of the span caches
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder cachedSpans(int cachedSpans) {
+            assertStrictPositive(cachedSpans, "The number of cached spans should be a positive number");
+            this.cachedSpans = cachedSpans;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link MessageFlowTopology} as specified through this Builder.
+         *
+         * @return a {@link MessageFlowTopology} as specified through this Builder
+         */
+        public MessageFlowTopology build() {
+            return new MessageFlowTopology(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            // Kept to be overridden
+        }
+    }
+}
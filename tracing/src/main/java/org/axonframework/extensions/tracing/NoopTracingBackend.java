@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A {@link TracingBackend} which does not trace at all, to be used when tracing is disabled.
+ * <p>
+ * The tracing gateways and interceptors recognize this backend when they are created and bypass tracing entirely, so
+ * that they cost no more than a single field check per message. Its operations are still implemented as no-ops, for
+ * components which do use it directly.
+ *
+ * @since 4.2
+ */
+public enum NoopTracingBackend implements TracingBackend {
+
+    /**
+     * The single instance of the {@link NoopTracingBackend}.
+     */
+    INSTANCE;
+
+    private static final SpanScope NOOP_SCOPE = () -> {
+    };
+
+    @Override
+    public TracedSpan startSpan(String name, TracedSpan.Kind kind) {
+        return NoopSpan.INSTANCE;
+    }
+
+    @Override
+    public TracedSpan startSpan(String name, TracedSpan.Kind kind, Map<String, ?> carrier) {
+        return NoopSpan.INSTANCE;
+    }
+
+    @Override
+    public TracedSpan currentSpan() {
+        return null;
+    }
+
+    @Override
+    public SpanScope makeCurrent(TracedSpan span) {
+        return NOOP_SCOPE;
+    }
+
+    @Override
+    public void injectCurrentContext(Map<String, String> carrier) {
+        // nothing to propagate
+    }
+
+    @Override
+    public Collection<String> propagationKeys() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public TracingBackend withSampleRate(float rate) {
+        return this;
+    }
+
+    private enum NoopSpan implements TracedSpan {
+
+        INSTANCE;
+
+        @Override
+        public TracedSpan tag(String key, String value) {
+            return this;
+        }
+
+        @Override
+        public TracedSpan annotate(String name) {
+            return this;
+        }
+
+        @Override
+        public TracedSpan error(Throwable error) {
+            return this;
+        }
+
+        @Override
+        public void finish() {
+            // nothing to report
+        }
+
+        @Override
+        public boolean isRecording() {
+            return false;
+        }
+
+        @Override
+        public String traceId() {
+            return null;
+        }
+
+        @Override
+        public String spanId() {
+            return null;
+        }
+    }
+}
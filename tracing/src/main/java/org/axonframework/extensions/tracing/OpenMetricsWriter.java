@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the {@link OperationStatistics} of a {@link RedMetricsAggregator} in the OpenMetrics text format, including
+ * the {@link Exemplar exemplars} of the latency buckets. This allows a metrics backend scraping the output to link a
+ * spike in a latency bucket to an example trace, without storing anything beyond the statistics themselves.
+ * <p>
+ * Per operation the following metrics are written, labeled with the {@code span}, {@code messageType},
+ * {@code payloadType} and {@code commandName} of the operation:
+ * <ul>
+ * <li>{@code axon_message_duration_seconds}, a histogram of the invocation durations, of which the buckets carry the
+ * trace and span id of their exemplar as {@code trace_id} and {@code span_id},</li>
+ * <li>{@code axon_message_requests}, counting all invocations,</li>
+ * <li>{@code axon_message_errors}, counting the invocations resulting in an error.</li>
+ * </ul>
+ *
+ * @since 4.2
+ */
+public class OpenMetricsWriter {
+
+    /**
+     * The content type of the OpenMetrics text format.
+     */
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private static final String NONE = "none";
+    private static final String DURATION = "axon_message_duration_seconds";
+    private static final String REQUESTS = "axon_message_requests";
+    private static final String ERRORS = "axon_message_errors";
+
+    private final RedMetricsAggregator aggregator;
+
+    /**
+     * Initialize a writer of the statistics of the given {@code aggregator}.
+     *
+     * @param aggregator the {@link RedMetricsAggregator} of which the statistics are written
+     */
+    public OpenMetricsWriter(RedMetricsAggregator aggregator) {
+        this.aggregator = aggregator;
+    }
+
+    /**
+     * Returns the statistics of all operations aggregated so far in the OpenMetrics text format.
+     *
+     * @return the statistics of all operations in the OpenMetrics text format
+     */
+    public String write() {
+        StringBuilder output = new StringBuilder();
+        try {
+            write(output);
+        } catch (IOException e) {
+            // a StringBuilder does not throw IOExceptions
+            throw new UncheckedIOException(e);
+        }
+        return output.toString();
+    }
+
+    /**
+     * Write the statistics of all operations aggregated so far in the OpenMetrics text format to the given
+     * {@code output}, terminated by the {@code # EOF} marker.
+     *
+     * @param output the {@link Appendable} to write the statistics to
+     * @throws IOException if writing to the given output fails
+     */
+    public void write(Appendable output) throws IOException {
+        Collection<OperationStatistics> operations = aggregator.operations();
+        double[] boundaries = OperationStatistics.bucketBoundaries(TimeUnit.SECONDS);
+
+        writeHeader(output, DURATION, "histogram", "The time spent handling or dispatching messages");
+        output.append("# UNIT ").append(DURATION).append(" seconds\n");
+        for (OperationStatistics operation : operations) {
+            String labels = labels(operation);
+            for (int i = 0; i < OperationStatistics.bucketCount(); i++) {
+                String upperBoundary = i < boundaries.length ? format(boundaries[i]) : "+Inf";
+                output.append(DURATION).append("_bucket{").append(labels).append(",le=\"").append(upperBoundary)
+                      .append("\"} ").append(Long.toString(operation.cumulativeBucket(i)));
+                Exemplar exemplar = operation.exemplar(i);
+                if (exemplar != null) {
+                    output.append(" # {trace_id=\"").append(escape(exemplar.traceId()))
+                          .append("\",span_id=\"").append(escape(exemplar.spanId())).append("\"} ")
+                          .append(format(exemplar.duration(TimeUnit.SECONDS))).append(' ')
+                          .append(format(exemplar.timestampMicros() / 1_000_000d));
+                }
+                output.append('\n');
+            }
+            output.append(DURATION).append("_count{").append(labels).append("} ")
+                  .append(Long.toString(operation.count())).append('\n');
+            output.append(DURATION).append("_sum{").append(labels).append("} ")
+                  .append(format(operation.totalDuration(TimeUnit.SECONDS))).append('\n');
+        }
+
+        writeHeader(output, REQUESTS, "counter", "The number of handled or dispatched messages");
+        for (OperationStatistics operation : operations) {
+            output.append(REQUESTS).append("_total{").append(labels(operation)).append("} ")
+                  .append(Long.toString(operation.count())).append('\n');
+        }
+
+        writeHeader(output, ERRORS, "counter",
+                    "The number of handled or dispatched messages which resulted in an error");
+        for (OperationStatistics operation : operations) {
+            output.append(ERRORS).append("_total{").append(labels(operation)).append("} ")
+                  .append(Long.toString(operation.errors())).append('\n');
+        }
+        output.append("# EOF\n");
+    }
+
+    private static void writeHeader(Appendable output, String name, String type, String help) throws IOException {
+        output.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        output.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+
+    private static String labels(OperationStatistics operation) {
+        return "span=\"" + escape(valueOrNone(operation.spanName())) + "\"," +
+                "messageType=\"" + escape(valueOrNone(operation.messageType())) + "\"," +
+                "payloadType=\"" + escape(valueOrNone(operation.payloadType())) + "\"," +
+                "commandName=\"" + escape(valueOrNone(operation.commandName())) + "\"";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Formats the given {@code value} as plain decimal number, which always contains a decimal point, such as
+     * {@code 0.0001} and {@code 10.0}.
+     */
+    private static String format(double value) {
+        String plain = BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        return plain.indexOf('.') < 0 ? plain + ".0" : plain;
+    }
+
+    private static String valueOrNone(String value) {
+        return value == null ? NONE : value;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A {@link TracingBackend} tracing through the OpenTelemetry API. Trace contexts are propagated through the
+ * {@link TextMapPropagator} configured on the given {@link OpenTelemetry} instance.
+ * <p>
+ * Sampling is the responsibility of the OpenTelemetry SDK. A {@link #withSampleRate(float) sample rate} is applied on
+ * top of it, to traces started by this backend only: traces which are not selected are started with an unsampled
+ * span context, which is propagated so that downstream handlers do not record them either.
+ *
+ * @since 4.2
+ */
+public class OpenTelemetryTracingBackend implements TracingBackend {
+
+    private static final String INSTRUMENTATION_NAME = "org.axonframework.extensions.tracing";
+
+    private static final TextMapGetter<Map<String, ?>> GETTER = new TextMapGetter<Map<String, ?>>() {
+        @Override
+        public Iterable<String> keys(Map<String, ?> carrier) {
+            return carrier.keySet();
+        }
+
+        @Override
+        public String get(Map<String, ?> carrier, String key) {
+            Object value = carrier == null ? null : carrier.get(key);
+            return value == null ? null : value.toString();
+        }
+    };
+
+    private final Tracer tracer;
+    private final TextMapPropagator propagator;
+    private final float sampleRate;
+
+    /**
+     * Initialize a {@link TracingBackend} tracing through the given {@code openTelemetry} instance.
+     *
+     * @param openTelemetry the {@link OpenTelemetry} instance to trace through
+     */
+    public OpenTelemetryTracingBackend(OpenTelemetry openTelemetry) {
+        this(openTelemetry.getTracer(INSTRUMENTATION_NAME),
+             openTelemetry.getPropagators().getTextMapPropagator(),
+             1.0f);
+    }
+
+    private OpenTelemetryTracingBackend(Tracer tracer, TextMapPropagator propagator, float sampleRate) {
+        this.tracer = tracer;
+        this.propagator = propagator;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public TracedSpan startSpan(String name, TracedSpan.Kind kind) {
+        return start(Context.current(), name, kind);
+    }
+
+    @Override
+    public TracedSpan startSpan(String name, TracedSpan.Kind kind, Map<String, ?> carrier) {
+        return start(propagator.extract(Context.current(), carrier, GETTER), name, kind);
+    }
+
+    private TracedSpan start(Context parent, String name, TracedSpan.Kind kind) {
+        if (!Span.fromContext(parent).getSpanContext().isValid() && !selectedForSampling()) {
+            return new OpenTelemetrySpan(Span.wrap(unsampledRootContext()));
+        }
+        return new OpenTelemetrySpan(tracer.spanBuilder(name)
+                                           .setParent(parent)
+                                           .setSpanKind(toSpanKind(kind))
+                                           .startSpan());
+    }
+
+    private boolean selectedForSampling() {
+        return sampleRate >= 1.0f || ThreadLocalRandom.current().nextFloat() < sampleRate;
+    }
+
+    private static SpanContext unsampledRootContext() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return SpanContext.create(TraceId.fromLongs(random.nextLong(), random.nextLong() | 1L),
+                                  SpanId.fromLong(random.nextLong() | 1L),
+                                  TraceFlags.getDefault(),
+                                  TraceState.getDefault());
+    }
+
+    private static SpanKind toSpanKind(TracedSpan.Kind kind) {
+        switch (kind) {
+            case CLIENT:
+                return SpanKind.CLIENT;
+            case SERVER:
+                return SpanKind.SERVER;
+            case PRODUCER:
+                return SpanKind.PRODUCER;
+            case CONSUMER:
+                return SpanKind.CONSUMER;
+            default:
+                return SpanKind.INTERNAL;
+        }
+    }
+
+    @Override
+    public TracedSpan currentSpan() {
+        Span current = Span.current();
+        return current.getSpanContext().isValid() ? new OpenTelemetrySpan(current) : null;
+    }
+
+    @Override
+    public SpanScope makeCurrent(TracedSpan span) {
+        Scope scope = span == null
+                ? Context.root().makeCurrent()
+                : Context.current().with(((OpenTelemetrySpan) span).delegate).makeCurrent();
+        return scope::close;
+    }
+
+    @Override
+    public void injectCurrentContext(Map<String, String> carrier) {
+        Context current = Context.current();
+        if (Span.fromContext(current).getSpanContext().isValid()) {
+            propagator.inject(current, carrier, Map::put);
+        }
+    }
+
+    @Override
+    public TracingBackend withSampleRate(float rate) {
+        return new OpenTelemetryTracingBackend(tracer, propagator, rate);
+    }
+
+    @Override
+    public Collection<String> propagationKeys() {
+        return propagator.fields();
+    }
+
+    private static class OpenTelemetrySpan implements TracedSpan {
+
+        private final Span delegate;
+
+        private OpenTelemetrySpan(Span delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public TracedSpan tag(String key, String value) {
+            delegate.setAttribute(AttributeKey.stringKey(key), value);
+            return this;
+        }
+
+        @Override
+        public TracedSpan annotate(String name) {
+            delegate.addEvent(name);
+            return this;
+        }
+
+        @Override
+        public TracedSpan error(Throwable error) {
+            delegate.recordException(error);
+            delegate.setStatus(StatusCode.ERROR);
+            return this;
+        }
+
+        @Override
+        public void finish() {
+            delegate.end();
+        }
+
+        @Override
+        public boolean isRecording() {
+            return delegate.isRecording();
+        }
+
+        @Override
+        public String traceId() {
+            return delegate.getSpanContext().getTraceId();
+        }
+
+        @Override
+        public String spanId() {
+            return delegate.getSpanContext().getSpanId();
+        }
+    }
+}
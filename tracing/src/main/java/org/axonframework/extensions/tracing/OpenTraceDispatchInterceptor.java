@@ -16,7 +16,6 @@
 package org.axonframework.extensions.tracing;
 
 import brave.Tracing;
-import brave.propagation.TraceContext.Injector;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,14 +25,17 @@ import org.axonframework.messaging.MessageDispatchInterceptor;
 
 /**
  * A {@link MessageDispatchInterceptor} which maps the {@link brave.propagation.TraceContext} to
- * {@link org.axonframework.messaging.MetaData}.
+ * {@link org.axonframework.messaging.MetaData}. Messages dispatched outside of a trace are left untouched.
  *
  * @author Christophe Bouhier
  * @since 4.0
  */
 public class OpenTraceDispatchInterceptor implements MessageDispatchInterceptor<Message<?>> {
 
-    private final Tracing tracing;
+    private static final BiFunction<Integer, Message<?>, Message<?>> UNTOUCHED = (index, message) -> message;
+
+    private final TracingBackend backend;
+    private final boolean tracing;
 
     /**
      * Initialize a {@link MessageDispatchInterceptor} implementation which uses the provided {@link Tracing} to map a
@@ -42,16 +44,30 @@ public class OpenTraceDispatchInterceptor implements MessageDispatchInterceptor<
      * @param tracing the {@link Tracing} used to set a {@link brave.propagation.TraceContext} on {@link Message}s
      */
     public OpenTraceDispatchInterceptor(Tracing tracing) {
-        this.tracing = tracing;
+        this(new BraveTracingBackend(tracing));
+    }
+
+    /**
+     * Initialize a {@link MessageDispatchInterceptor} implementation which uses the provided {@link TracingBackend} to
+     * map the current trace context on an ingested {@link Message}. With the {@link NoopTracingBackend}, messages are
+     * left untouched.
+     *
+     * @param backend the {@link TracingBackend} used to set the current trace context on {@link Message}s
+     */
+    public OpenTraceDispatchInterceptor(TracingBackend backend) {
+        this.backend = backend;
+        this.tracing = TracingBackend.isTracing(backend);
     }
 
     @Override
     public BiFunction<Integer, Message<?>, Message<?>> handle(List<? extends Message<?>> messages) {
+        if (!tracing) {
+            return UNTOUCHED;
+        }
         return (integer, message) -> {
-            Injector<Map> mapInjector = tracing.propagation().injector(Map::put);
-            Map<String, String> headers = new LinkedHashMap();
-            mapInjector.inject(tracing.currentTraceContext().get(), headers);
-            return message.andMetaData(headers);
+            Map<String, String> headers = new LinkedHashMap<>();
+            backend.injectCurrentContext(headers);
+            return headers.isEmpty() ? message : message.andMetaData(headers);
         };
     }
 }
@@ -15,28 +15,81 @@
  */
 package org.axonframework.extensions.tracing;
 
-import brave.Span;
-import brave.Tracer;
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+import static org.axonframework.common.BuilderUtils.assertThat;
+
 import brave.Tracing;
-import brave.propagation.TraceContext;
-import brave.propagation.TraceContextOrSamplingFlags;
+import java.time.Duration;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.eventhandling.ReplayToken;
 import org.axonframework.messaging.InterceptorChain;
 import org.axonframework.messaging.Message;
 import org.axonframework.messaging.MessageHandlerInterceptor;
 import org.axonframework.messaging.MetaData;
+import org.axonframework.messaging.unitofwork.BatchingUnitOfWork;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
 import org.axonframework.messaging.unitofwork.UnitOfWork;
 
 
 /**
  *  * A {@link MessageHandlerInterceptor} which maps the {@link MetaData} to the {@link brave.propagation.TraceContext}.
+ * <p>
+ * Depending on the configured {@link SpanMode}, a span is started per handled message or per batch of messages handled
+ * in the same {@link BatchingUnitOfWork}. With the {@link NoopTracingBackend}, messages are handled without any
+ * tracing.
+ * <p>
+ * Optionally, the prepare commit, commit, after commit and rollback phases of the {@link UnitOfWork} following the
+ * handling are timed. Their durations are added as annotations to the span and reported to a
+ * {@link UnitOfWorkPhaseListener}, separating the time spent in, for example, event store appends and transaction
+ * commits from the time spent in the handler itself.
+ * <p>
+ * Optionally, the handlers are watched by a {@link SlowHandlerWatchdog}, which samples the stacks of handlers running
+ * longer than its threshold while they are still running.
+ * <p>
+ * When enabled in a Java Flight Recorder recording, {@code org.axonframework.Handle} and
+ * {@code org.axonframework.Batch} events carrying the trace and span identifiers are emitted, as described in
+ * {@link FlightEvents}.
+ * <p>
+ * Events replayed after a reset of a tracking event processor are traced as described by the configured
+ * {@link ReplayMode}. By default they are traced like any other event.
  *
  * @author Christophe Bouhier
  * @since 4.0
  */
 public class OpenTraceHandlerInterceptor implements MessageHandlerInterceptor<Message<?>> {
 
-    private final Tracing tracing;
-    private final TraceContext.Extractor<Message> commandMessageExtractor;
+    static final String TAG_AXON_BATCH_SIZE = "axon.batch.size";
+    static final String TAG_REPLAY = "axon.replay";
+    static final String TAG_REPLAY_THROUGHPUT = "axon.replay.throughput";
+
+    private static final String HANDLER_SPAN_RESOURCE = OpenTraceHandlerInterceptor.class.getName() + ".span";
+    private static final String BATCH_SPAN_RESOURCE = OpenTraceHandlerInterceptor.class.getName() + ".batchSpan";
+    private static final String REPLAY_BATCH_RESOURCE = OpenTraceHandlerInterceptor.class.getName() + ".replayBatch";
+
+    private final TracingBackend backend;
+    private final boolean tracing;
+    private final SpanMode spanMode;
+    private final boolean unitOfWorkPhases;
+    private final UnitOfWorkPhaseListener phaseListener;
+    private final String processorName;
+    private final SlowHandlerWatchdog watchdog;
+    private final ReplayMode replayMode;
+    private final TracingBackend replayBackend;
+    private final ReplayListener replayListener;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link OpenTraceHandlerInterceptor}.
+     * <p>
+     * The {@link SpanMode} defaults to {@link SpanMode#PER_MESSAGE}, new traces are sampled as configured on the
+     * tracing library, {@link UnitOfWork} phases are not timed and the {@link ReplayMode} defaults to
+     * {@link ReplayMode#TRACE}. The {@link TracingBackend} is a <b>hard requirement</b> and as such should be
+     * provided.
+     *
+     * @return a Builder to be able to create a {@link OpenTraceHandlerInterceptor}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
 
     /**
      * Initialize a {@link MessageHandlerInterceptor} implementation which uses the provided {@link Tracing} to map span
@@ -45,33 +98,399 @@ public class OpenTraceHandlerInterceptor implements MessageHandlerInterceptor<Me
      * @param tracing the {@link Tracing} used to set a {@link brave.propagation.TraceContext} on from a {@link Message}'s {@link MetaData}
      */
     public OpenTraceHandlerInterceptor(Tracing tracing) {
-        this.tracing = tracing;
-        commandMessageExtractor = tracing.propagation().extractor((carrier, key) -> {
-            if (carrier.getMetaData().containsKey(key)) {
-                return carrier.getMetaData().get(key).toString();
+        this(builder().tracer(tracing));
+    }
+
+    /**
+     * Instantiate a {@link OpenTraceHandlerInterceptor} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link TracingBackend} is not {@code null}, and will throw an
+     * {@link AxonConfigurationException} if it is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link OpenTraceHandlerInterceptor} instance
+     */
+    protected OpenTraceHandlerInterceptor(Builder builder) {
+        builder.validate();
+        this.backend = builder.sampleRate == null
+                ? builder.backend
+                : builder.backend.withSampleRate(builder.sampleRate);
+        this.tracing = TracingBackend.isTracing(builder.backend);
+        this.spanMode = builder.spanMode;
+        this.unitOfWorkPhases = builder.unitOfWorkPhases;
+        this.phaseListener = builder.phaseListener;
+        this.processorName = builder.processorName;
+        this.watchdog = builder.watchdog;
+        this.replayMode = builder.replayMode;
+        this.replayBackend = builder.replayMode == ReplayMode.SAMPLED
+                ? builder.backend.withSampleRate(builder.replaySampleRate)
+                : builder.backend;
+        this.replayListener = builder.replayListener;
+    }
+
+    @Override
+    public Object handle(UnitOfWork unitOfWork, InterceptorChain interceptorChain) throws Exception {
+        if (!tracing) {
+            return interceptorChain.proceed();
+        }
+        if (replayMode != ReplayMode.TRACE && ReplayToken.isReplay(unitOfWork.getMessage())) {
+            return handleReplay(unitOfWork, interceptorChain);
+        }
+        if (spanMode == SpanMode.PER_BATCH && unitOfWork instanceof BatchingUnitOfWork) {
+            TracedSpan batchSpan = (TracedSpan) unitOfWork.getOrComputeResource(
+                    BATCH_SPAN_RESOURCE, key -> startBatchSpan((BatchingUnitOfWork<?>) unitOfWork)
+            );
+            // the phases are timed once per batch, from the handling of its last message onwards
+            boolean timePhases = unitOfWorkPhases && ((BatchingUnitOfWork<?>) unitOfWork).isLastMessage();
+            UnitOfWorkPhaseTimer phaseTimer = timePhases ? startPhaseTimer(unitOfWork, batchSpan) : null;
+            return proceedInSpan(batchSpan, interceptorChain, phaseTimer, unitOfWork.getMessage());
+        }
+
+        Message<?> message = unitOfWork.getMessage();
+        TracedSpan span = backend.startSpan("handle" + SpanUtils.resolveType(message),
+                                            TracedSpan.Kind.SERVER,
+                                            message.getMetaData());
+        SpanUtils.withMessageTags(span, message);
+        if (processorName != null) {
+            span.tag(SpanUtils.TAG_PROCESSOR_NAME, processorName);
+        }
+        unitOfWork.resources().put(HANDLER_SPAN_RESOURCE, span);
+        unitOfWork.onCleanup(u -> span.finish());
+        return proceedInSpan(span,
+                             interceptorChain,
+                             unitOfWorkPhases ? startPhaseTimer(unitOfWork, span) : null,
+                             message);
+    }
+
+    private Object handleReplay(UnitOfWork<?> unitOfWork, InterceptorChain interceptorChain) throws Exception {
+        ReplayBatch batch = (ReplayBatch) unitOfWork.getOrComputeResource(
+                REPLAY_BATCH_RESOURCE, key -> startReplayBatch(unitOfWork)
+        );
+        batch.events++;
+        Message<?> message = unitOfWork.getMessage();
+        switch (replayMode) {
+            case BATCH_PROGRESS:
+                return proceedInSpan(batch.span, interceptorChain, null, message);
+            case SAMPLED:
+                // the replayed event starts a new trace, rather than continuing the trace of its original publication
+                TracedSpan span = replayBackend.startSpan("handle" + SpanUtils.resolveType(message),
+                                                          TracedSpan.Kind.SERVER);
+                SpanUtils.withMessageTags(span, message);
+                span.tag(TAG_REPLAY, "true");
+                if (processorName != null) {
+                    span.tag(SpanUtils.TAG_PROCESSOR_NAME, processorName);
+                }
+                unitOfWork.resources().put(HANDLER_SPAN_RESOURCE, span);
+                unitOfWork.onCleanup(u -> span.finish());
+                return proceedInSpan(span, interceptorChain, null, message);
+            default:
+                return interceptorChain.proceed();
+        }
+    }
+
+    /**
+     * Start tracking the progress of the replayed events handled in the given unit of work, starting a progress span
+     * in {@link ReplayMode#BATCH_PROGRESS}.
+     */
+    private ReplayBatch startReplayBatch(UnitOfWork<?> unitOfWork) {
+        TracedSpan span = null;
+        if (replayMode == ReplayMode.BATCH_PROGRESS) {
+            String messageType = SpanUtils.resolveType(unitOfWork.getMessage());
+            span = backend.startSpan("replay" + messageType + "Batch", TracedSpan.Kind.SERVER);
+            span.tag(SpanUtils.TAG_AXON_MSG_TYPE, messageType);
+            span.tag(TAG_REPLAY, "true");
+            if (processorName != null) {
+                span.tag(SpanUtils.TAG_PROCESSOR_NAME, processorName);
             }
+        }
+        ReplayBatch batch = new ReplayBatch(span);
+        unitOfWork.onCleanup(u -> completeReplayBatch(batch));
+        return batch;
+    }
+
+    private void completeReplayBatch(ReplayBatch batch) {
+        long durationNanos = Math.max(1, System.nanoTime() - batch.startNanos);
+        if (batch.span != null) {
+            batch.span.tag(TAG_AXON_BATCH_SIZE, Integer.toString(batch.events));
+            batch.span.tag(TAG_REPLAY_THROUGHPUT, Long.toString(Math.round(batch.events * 1e9 / durationNanos)));
+            batch.span.finish();
+        }
+        replayListener.onReplayBatch(processorName, batch.events, Duration.ofNanos(durationNanos));
+    }
+
+    private UnitOfWorkPhaseTimer startPhaseTimer(UnitOfWork<?> unitOfWork, TracedSpan span) {
+        return UnitOfWorkPhaseTimer.start(unitOfWork, span, SpanUtils.resolveType(unitOfWork.getMessage()),
+                                          phaseListener);
+    }
+
+    /**
+     * Returns the span started by an {@link OpenTraceHandlerInterceptor} for the current {@link UnitOfWork}, or
+     * {@code null} if there is no current UnitOfWork or its message is not traced. Allows work which is performed in
+     * a phase of the UnitOfWork after the handler span went out of scope, such as storing a saga on commit, to be
+     * traced as part of handling the message.
+     *
+     * @return the span started for the current {@link UnitOfWork}, or {@code null}
+     */
+    static TracedSpan currentHandlerSpan() {
+        if (!CurrentUnitOfWork.isStarted()) {
             return null;
+        }
+        UnitOfWork<?> unitOfWork = CurrentUnitOfWork.get();
+        Object span = unitOfWork.getResource(HANDLER_SPAN_RESOURCE);
+        if (span == null) {
+            span = unitOfWork.getResource(BATCH_SPAN_RESOURCE);
+        }
+        return (TracedSpan) span;
+    }
+
+    /**
+     * Start the span of the given batch, continuing the trace of the first message in the batch.
+     */
+    private TracedSpan startBatchSpan(BatchingUnitOfWork<?> unitOfWork) {
+        Message<?> firstMessage = unitOfWork.getMessages().get(0);
+        FlightEvents.Recording batchEvent = FlightEvents.begin(FlightEvents.Kind.BATCH);
+        TracedSpan span = backend.startSpan("handle" + SpanUtils.resolveType(firstMessage) + "Batch",
+                                            TracedSpan.Kind.SERVER,
+                                            firstMessage.getMetaData());
+        span.tag(SpanUtils.TAG_AXON_MSG_TYPE, SpanUtils.resolveType(firstMessage));
+        span.tag(TAG_AXON_BATCH_SIZE, Integer.toString(unitOfWork.getMessages().size()));
+        if (processorName != null) {
+            span.tag(SpanUtils.TAG_PROCESSOR_NAME, processorName);
+        }
+        unitOfWork.onCleanup(u -> {
+            span.finish();
+            if (batchEvent != null) {
+                String messageType = SpanUtils.resolveType(firstMessage);
+                batchEvent.batchSize(unitOfWork.getMessages().size())
+                          .complete(span, "handle" + messageType + "Batch", messageType,
+                                    firstMessage.getPayloadType().getName());
+            }
         });
+        return span;
     }
 
-    @Override
-    public Object handle(UnitOfWork unitOfWork, InterceptorChain interceptorChain) throws Exception {
-        MetaData metaData = unitOfWork.getMessage().getMetaData();
-
-        String operationName = "handle" + SpanUtils.resolveType(unitOfWork.getMessage());
-        TraceContextOrSamplingFlags extracted = commandMessageExtractor.extract(unitOfWork.getMessage());
-        Span span;
-        if (extracted == null) {
-            span = tracing.tracer().nextSpan();
-        } else {
-            span = tracing.tracer().nextSpan(extracted);
-        }
-        span.name(operationName).kind(Span.Kind.SERVER).start();
-        SpanUtils.withMessageTags(span, unitOfWork.getMessage());
-        try(Tracer.SpanInScope ignored = tracing.tracer().withSpanInScope(span)) {
-            unitOfWork.onCleanup(u -> span.finish());
+    private Object proceedInSpan(TracedSpan span, InterceptorChain interceptorChain, UnitOfWorkPhaseTimer phaseTimer,
+                                 Message<?> message) throws Exception {
+        FlightEvents.Recording handleEvent = FlightEvents.begin(FlightEvents.Kind.HANDLE);
+        SlowHandlerWatchdog.InFlightHandler inFlightHandler = watchdog == null ? null : watchdog.track(span, message);
+        try (SpanScope ignored = backend.makeCurrent(span)) {
             return interceptorChain.proceed();
+        } catch (Exception e) {
+            span.error(e);
+            throw e;
+        } finally {
+            if (inFlightHandler != null) {
+                watchdog.untrack(inFlightHandler);
+            }
+            if (handleEvent != null) {
+                String messageType = SpanUtils.resolveType(message);
+                handleEvent.complete(span, "handle" + messageType, messageType, message.getPayloadType().getName());
+            }
+            if (phaseTimer != null) {
+                phaseTimer.handled();
+            }
         }
     }
 
+    /**
+     * The progress of the replayed events handled in a single unit of work, which is a batch for event processors.
+     * Only accessed by the thread handling the batch.
+     */
+    private static final class ReplayBatch {
+
+        private final TracedSpan span;
+        private final long startNanos = System.nanoTime();
+        private int events;
+
+        private ReplayBatch(TracedSpan span) {
+            this.span = span;
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link OpenTraceHandlerInterceptor}.
+     * <p>
+     * The {@link SpanMode} defaults to {@link SpanMode#PER_MESSAGE}, new traces are sampled as configured on the
+     * tracing library, {@link UnitOfWork} phases are not timed and the {@link ReplayMode} defaults to
+     * {@link ReplayMode#TRACE}. The {@link TracingBackend} is a <b>hard requirement</b> and as such should be
+     * provided.
+     */
+    public static class Builder {
+
+        private TracingBackend backend;
+        private Float sampleRate;
+        private SpanMode spanMode = SpanMode.PER_MESSAGE;
+        private boolean unitOfWorkPhases = false;
+        private UnitOfWorkPhaseListener phaseListener = UnitOfWorkPhaseListener.NO_OP;
+        private String processorName;
+        private SlowHandlerWatchdog watchdog;
+        private ReplayMode replayMode = ReplayMode.TRACE;
+        private float replaySampleRate = 0.01f;
+        private ReplayListener replayListener = ReplayListener.NO_OP;
+
+        /**
+         * Sets the {@link Tracing} used to extract the {@link brave.propagation.TraceContext} from handled messages
+         * and to start spans with, by wrapping it in a {@link BraveTracingBackend}.
+         *
+         * @param tracing the {@link Tracing} used to extract trace contexts and to start spans with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracing tracing) {
+            assertNonNull(tracing, "Tracer may not be null");
+            this.backend = new BraveTracingBackend(tracing);
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingBackend} used to extract the trace context from handled messages and to start spans
+         * with.
+         *
+         * @param backend the {@link TracingBackend} used to extract trace contexts and to start spans with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets the rate, between {@code 0.0} and {@code 1.0}, at which traces started by this interceptor are sampled.
+         * It applies only to messages which do not carry a sampling decision of an upstream span; such messages
+         * always follow the upstream decision. Defaults to the sampling configured on the tracing library.
+         *
+         * @param sampleRate the rate at which traces started by this interceptor are sampled
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder sampleRate(float sampleRate) {
+            assertThat(sampleRate, rate -> rate >= 0.0f && rate <= 1.0f,
+                       "The sample rate should be between 0.0 and 1.0");
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SpanMode} describing whether a span is started per message or per batch of messages.
+         * Defaults to {@link SpanMode#PER_MESSAGE}.
+         *
+         * @param spanMode the {@link SpanMode} describing whether a span is started per message or per batch
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder spanMode(SpanMode spanMode) {
+            assertNonNull(spanMode, "SpanMode may not be null");
+            this.spanMode = spanMode;
+            return this;
+        }
+
+        /**
+         * Sets whether the prepare commit, commit, after commit and rollback phases of the {@link UnitOfWork} are
+         * timed, annotating the span with their durations. With {@link SpanMode#PER_BATCH}, the phases are timed once
+         * per batch. Defaults to {@code false}.
+         *
+         * @param unitOfWorkPhases whether the phases of the {@link UnitOfWork} are timed
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder unitOfWorkPhases(boolean unitOfWorkPhases) {
+            this.unitOfWorkPhases = unitOfWorkPhases;
+            return this;
+        }
+
+        /**
+         * Sets the {@link UnitOfWorkPhaseListener} notified of the duration of the timed {@link UnitOfWork} phases.
+         * Only applies when {@link #unitOfWorkPhases(boolean) unit of work phases are timed}. Defaults to
+         * {@link UnitOfWorkPhaseListener#NO_OP}.
+         *
+         * @param phaseListener the {@link UnitOfWorkPhaseListener} notified of the phase durations
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder phaseListener(UnitOfWorkPhaseListener phaseListener) {
+            assertNonNull(phaseListener, "UnitOfWorkPhaseListener may not be null");
+            this.phaseListener = phaseListener;
+            return this;
+        }
+
+        /**
+         * Sets the name of the event processor this interceptor is registered on, which is tagged on the handler spans
+         * as {@code axon.processor.name}. Defaults to not tagging a processor name.
+         *
+         * @param processorName the name of the event processor this interceptor is registered on
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder processorName(String processorName) {
+            assertNonNull(processorName, "The processor name may not be null");
+            this.processorName = processorName;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SlowHandlerWatchdog} sampling the stacks of handlers which run longer than its threshold,
+         * adding the sampled frames to the handler spans. Defaults to not watching handlers.
+         *
+         * @param watchdog the {@link SlowHandlerWatchdog} watching the handlers invoked by this interceptor
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder watchdog(SlowHandlerWatchdog watchdog) {
+            assertNonNull(watchdog, "SlowHandlerWatchdog may not be null");
+            this.watchdog = watchdog;
+            return this;
+        }
+
+        /**
+         * Sets the {@link ReplayMode} describing how events replayed after a reset of a tracking event processor are
+         * traced. Defaults to {@link ReplayMode#TRACE}, tracing them like any other event.
+         *
+         * @param replayMode the {@link ReplayMode} describing how replayed events are traced
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder replayMode(ReplayMode replayMode) {
+            assertNonNull(replayMode, "ReplayMode may not be null");
+            this.replayMode = replayMode;
+            return this;
+        }
+
+        /**
+         * Sets the rate, between {@code 0.0} and {@code 1.0}, at which the traces started for replayed events are
+         * sampled in {@link ReplayMode#SAMPLED}. Defaults to {@code 0.01}.
+         *
+         * @param replaySampleRate the rate at which the traces of replayed events are sampled
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder replaySampleRate(float replaySampleRate) {
+            assertThat(replaySampleRate, rate -> rate >= 0.0f && rate <= 1.0f,
+                       "The replay sample rate should be between 0.0 and 1.0");
+            this.replaySampleRate = replaySampleRate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link ReplayListener} notified of the progress of replays, in any other {@link ReplayMode} than
+         * {@link ReplayMode#TRACE}. Defaults to {@link ReplayListener#NO_OP}.
+         *
+         * @param replayListener the {@link ReplayListener} notified of the progress of replays
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder replayListener(ReplayListener replayListener) {
+            assertNonNull(replayListener, "ReplayListener may not be null");
+            this.replayListener = replayListener;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link OpenTraceHandlerInterceptor} as specified through this Builder.
+         *
+         * @return a {@link OpenTraceHandlerInterceptor} as specified through this Builder
+         */
+        public OpenTraceHandlerInterceptor build() {
+            return new OpenTraceHandlerInterceptor(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
+        }
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import brave.handler.MutableSpan;
+import java.util.Objects;
+
+/**
+ * Identifies the operation a finished span represents, being the span name and the {@code axon.message.type},
+ * payload type and command name tags set through {@link SpanUtils}.
+ *
+ * @since 4.2
+ */
+final class OperationKey {
+
+    final String spanName;
+    final String messageType;
+    final String payloadType;
+    final String commandName;
+    private final int hashCode;
+
+    OperationKey(String spanName, String messageType, String payloadType, String commandName) {
+        this.spanName = spanName;
+        this.messageType = messageType;
+        this.payloadType = payloadType;
+        this.commandName = commandName;
+        this.hashCode = Objects.hash(spanName, messageType, payloadType, commandName);
+    }
+
+    /**
+     * Returns the key of the operation the given {@code span} represents.
+     *
+     * @param span the finished span to return the operation key for
+     * @return the key of the operation the given span represents
+     */
+    static OperationKey of(MutableSpan span) {
+        return new OperationKey(span.name(),
+                                span.tag(SpanUtils.TAG_AXON_MSG_TYPE),
+                                span.tag(SpanUtils.TAG_AXON_PAYLOAD_TYPE),
+                                span.tag(SpanUtils.TAG_AXON_COMMAND_NAME));
+    }
+
+    /**
+     * Returns a readable description of the operation, being the span name followed by the command name or, if
+     * absent, the payload type.
+     *
+     * @return a readable description of the operation
+     */
+    String describe() {
+        String messageName = commandName != null ? commandName : payloadType;
+        return messageName == null ? String.valueOf(spanName) : spanName + " " + messageName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        OperationKey that = (OperationKey) o;
+        return Objects.equals(spanName, that.spanName)
+                && Objects.equals(messageType, that.messageType)
+                && Objects.equals(payloadType, that.payloadType)
+                && Objects.equals(commandName, that.commandName);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate, error and duration (RED) statistics of a single operation, as aggregated by the
+ * {@link RedMetricsAggregator}. An operation is identified by the span name, the {@code axon.message.type}, the
+ * payload type and, for commands, the command name of the spans it aggregates.
+ * <p>
+ * All counters are striped ({@link LongAdder}), allowing many threads to record concurrently without contention.
+ * Durations are additionally counted in a fixed set of latency buckets, described by {@link #bucketBoundaries(TimeUnit)}.
+ * Per bucket, the most recent invocation of which the trace is sampled is kept as {@link #exemplar(int) exemplar},
+ * linking the bucket to an example trace. Exemplars are replaced without locking, so under concurrent recording the
+ * kept exemplar is one of the most recent ones.
+ *
+ * @since 4.2
+ */
+public class OperationStatistics {
+
+    private static final long[] BUCKET_BOUNDARIES_MICROS = {
+            100, 250, 500,
+            1_000, 2_500, 5_000,
+            10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000,
+            1_000_000, 2_500_000, 5_000_000, 10_000_000
+    };
+
+    private final String spanName;
+    private final String messageType;
+    private final String payloadType;
+    private final String commandName;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalDurationMicros = new LongAdder();
+    private final LongAccumulator maxDurationMicros = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets;
+    private final AtomicReferenceArray<Exemplar> exemplars;
+
+    /**
+     * Initialize the statistics of the operation described by the given parameters.
+     *
+     * @param spanName    the name of the spans aggregated in these statistics
+     * @param messageType the {@code axon.message.type} of the spans aggregated in these statistics
+     * @param payloadType the payload type of the spans aggregated in these statistics
+     * @param commandName the command name of the spans aggregated in these statistics, or {@code null} if these are
+     *                    not command spans
+     */
+    OperationStatistics(String spanName, String messageType, String payloadType, String commandName) {
+        this.spanName = spanName;
+        this.messageType = messageType;
+        this.payloadType = payloadType;
+        this.commandName = commandName;
+        this.buckets = new LongAdder[BUCKET_BOUNDARIES_MICROS.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.exemplars = new AtomicReferenceArray<>(buckets.length);
+    }
+
+    /**
+     * Record a single invocation of this operation.
+     *
+     * @param durationMicros the duration of the invocation, in microseconds
+     * @param error          whether the invocation resulted in an error
+     */
+    void record(long durationMicros, boolean error) {
+        count.increment();
+        if (error) {
+            errors.increment();
+        }
+        totalDurationMicros.add(durationMicros);
+        maxDurationMicros.accumulate(durationMicros);
+        buckets[bucketIndex(durationMicros)].increment();
+    }
+
+    /**
+     * Record a single invocation of this operation which was part of a sampled trace, keeping it as exemplar of the
+     * latency bucket its duration falls in.
+     *
+     * @param durationMicros the duration of the invocation, in microseconds
+     * @param error          whether the invocation resulted in an error
+     * @param exemplar       the exemplar describing the invocation
+     */
+    void record(long durationMicros, boolean error, Exemplar exemplar) {
+        record(durationMicros, error);
+        exemplars.lazySet(bucketIndex(durationMicros), exemplar);
+    }
+
+    /**
+     * Returns the index of the latency bucket the given {@code durationMicros} falls in.
+     *
+     * @param durationMicros the duration to find the latency bucket for, in microseconds
+     * @return the index of the latency bucket the given duration falls in
+     */
+    static int bucketIndex(long durationMicros) {
+        int index = 0;
+        while (index < BUCKET_BOUNDARIES_MICROS.length && durationMicros > BUCKET_BOUNDARIES_MICROS[index]) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the inclusive upper boundaries of the latency buckets, in the given {@code unit}. Durations exceeding
+     * the last boundary are counted in an additional, unbounded bucket.
+     *
+     * @param unit the {@link TimeUnit} to express the boundaries in
+     * @return the inclusive upper boundaries of the latency buckets
+     */
+    public static double[] bucketBoundaries(TimeUnit unit) {
+        double[] boundaries = new double[BUCKET_BOUNDARIES_MICROS.length];
+        double microsPerUnit = microsPer(unit);
+        for (int i = 0; i < boundaries.length; i++) {
+            boundaries[i] = BUCKET_BOUNDARIES_MICROS[i] / microsPerUnit;
+        }
+        return boundaries;
+    }
+
+    private static double microsPer(TimeUnit unit) {
+        return unit.toNanos(1) / 1000d;
+    }
+
+    /**
+     * Returns the number of latency buckets, including the unbounded bucket.
+     *
+     * @return the number of latency buckets
+     */
+    public static int bucketCount() {
+        return BUCKET_BOUNDARIES_MICROS.length + 1;
+    }
+
+    /**
+     * Returns the name of the spans aggregated in these statistics.
+     *
+     * @return the name of the spans aggregated in these statistics
+     */
+    public String spanName() {
+        return spanName;
+    }
+
+    /**
+     * Returns the {@code axon.message.type} of the spans aggregated in these statistics.
+     *
+     * @return the {@code axon.message.type} of the spans aggregated in these statistics
+     */
+    public String messageType() {
+        return messageType;
+    }
+
+    /**
+     * Returns the payload type of the spans aggregated in these statistics.
+     *
+     * @return the payload type of the spans aggregated in these statistics
+     */
+    public String payloadType() {
+        return payloadType;
+    }
+
+    /**
+     * Returns the command name of the spans aggregated in these statistics, or {@code null} if these are no command
+     * spans.
+     *
+     * @return the command name of the spans aggregated in these statistics, or {@code null}
+     */
+    public String commandName() {
+        return commandName;
+    }
+
+    /**
+     * Returns the number of invocations of this operation.
+     *
+     * @return the number of invocations of this operation
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the number of invocations of this operation which resulted in an error.
+     *
+     * @return the number of invocations of this operation which resulted in an error
+     */
+    public long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * Returns the sum of the durations of all invocations of this operation.
+     *
+     * @param unit the {@link TimeUnit} to express the duration in
+     * @return the sum of the durations of all invocations of this operation
+     */
+    public double totalDuration(TimeUnit unit) {
+        return totalDurationMicros.sum() / microsPer(unit);
+    }
+
+    /**
+     * Returns the longest duration of any invocation of this operation.
+     *
+     * @param unit the {@link TimeUnit} to express the duration in
+     * @return the longest duration of any invocation of this operation
+     */
+    public double maxDuration(TimeUnit unit) {
+        return maxDurationMicros.get() / microsPer(unit);
+    }
+
+    /**
+     * Returns the number of invocations of which the duration fell in the latency bucket with the given
+     * {@code index}.
+     *
+     * @param index the index of the latency bucket, as described by {@link #bucketBoundaries(TimeUnit)}
+     * @return the number of invocations of which the duration fell in the given latency bucket
+     */
+    public long bucket(int index) {
+        return buckets[index].sum();
+    }
+
+    /**
+     * Returns the number of invocations of which the duration fell in the latency bucket with the given
+     * {@code index} or in any of the lower buckets.
+     *
+     * @param index the index of the latency bucket, as described by {@link #bucketBoundaries(TimeUnit)}
+     * @return the cumulative number of invocations up to and including the given latency bucket
+     */
+    public long cumulativeBucket(int index) {
+        long sum = 0;
+        for (int i = 0; i <= index; i++) {
+            sum += buckets[i].sum();
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the most recent invocation of which the duration fell in the latency bucket with the given
+     * {@code index} and of which the trace was sampled, or {@code null} if there is none.
+     *
+     * @param index the index of the latency bucket, as described by {@link #bucketBoundaries(TimeUnit)}
+     * @return the exemplar of the given latency bucket, or {@code null}
+     */
+    public Exemplar exemplar(int index) {
+        return exemplars.get(index);
+    }
+
+    @Override
+    public String toString() {
+        return "OperationStatistics{" +
+                "spanName='" + spanName + '\'' +
+                ", messageType='" + messageType + '\'' +
+                ", payloadType='" + payloadType + '\'' +
+                ", commandName='" + commandName + '\'' +
+                ", count=" + count() +
+                ", errors=" + errors() +
+                '}';
+    }
+}
@@ -0,0 +1,521 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+import static org.axonframework.common.BuilderUtils.assertStrictPositive;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.messaging.SubscribableMessageSource;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.messaging.responsetypes.ResponseType;
+
+/**
+ * A bounded cache of the results of point queries sent through a {@link TracingQueryGateway}. Only the results of the
+ * queries which are {@link Builder#cache(String...) configured to be cached} are cached, keyed on the query payload
+ * and the expected response type. Query payloads should hence implement {@code equals} and {@code hashCode} based on
+ * their values.
+ * <p>
+ * Results expire after a time to live, and the least recently used results of a query are evicted when the maximum
+ * number of entries of that query is reached. Results are invalidated before they expire by events of the configured
+ * {@link Builder#invalidateOn(String, String...) invalidating payload types}, once the cache is
+ * {@link #subscribeTo(SubscribableMessageSource) subscribed} to the event bus, or when {@link #onEvents(List)} or
+ * {@link #invalidate(String)} is invoked explicitly. Events published in a unit of work invalidate results after that
+ * unit of work commits. Results of failed queries and {@code null} results are not cached.
+ * <p>
+ * Invalidation by events follows the event bus, not the query models. Query models updated by tracking event
+ * processors lag behind the publication of the events they handle, and a query handled in between caches the
+ * outdated state until its result expires. The time to live should therefore be kept in the order of the processing
+ * lag of the query models, or the handlers updating a query model should {@link #invalidate(String) invalidate} the
+ * results of its queries themselves.
+ * <p>
+ * A query may be in flight while its results are invalidated, in which case its result may reflect the state before
+ * the invalidation. To prevent caching such a result, the {@link #generation(String) generation} of the query is
+ * obtained before dispatching it and passed along when {@link #put(String, Object, ResponseType, Object, long)
+ * caching} the result, which is skipped if the results of the query were invalidated in the meantime.
+ *
+ * @since 4.2
+ */
+public class QueryResultCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<String, Set<String>> invalidations;
+    private final Map<String, QueryResults> results;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidatedResults = new LongAdder();
+
+    /**
+     * Instantiate a Builder to be able to create a {@link QueryResultCache}.
+     * <p>
+     * The maximum number of entries per query defaults to {@code 1000}, the time to live to one second and the
+     * {@link Clock} to the system UTC clock. By default, no queries are cached and no events invalidate cached
+     * results.
+     *
+     * @return a Builder to be able to create a {@link QueryResultCache}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link QueryResultCache} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link QueryResultCache} instance
+     */
+    protected QueryResultCache(Builder builder) {
+        builder.validate();
+        this.maxEntries = builder.maxEntries;
+        this.ttlMillis = builder.ttl.toMillis();
+        this.clock = builder.clock;
+        this.invalidations = new HashMap<>();
+        builder.invalidations.forEach((type, queryNames) -> invalidations.put(type, new HashSet<>(queryNames)));
+        Map<String, QueryResults> results = new HashMap<>();
+        builder.cachedQueries.forEach(queryName -> results.put(queryName, new QueryResults()));
+        this.results = Collections.unmodifiableMap(results);
+    }
+
+    /**
+     * Returns whether the results of the queries with the given {@code queryName} are cached.
+     *
+     * @param queryName the name of the query
+     * @return {@code true} if the results of the queries with the given name are cached, {@code false} otherwise
+     */
+    public boolean caches(String queryName) {
+        return results.containsKey(queryName);
+    }
+
+    /**
+     * Returns the cached result of the query with the given {@code queryName}, {@code query} payload and
+     * {@code responseType}, or {@code null} if there is no result cached or it expired.
+     *
+     * @param queryName    the name of the query
+     * @param query        the payload of the query
+     * @param responseType the expected response type of the query
+     * @param <R>          the type of result
+     * @return the cached result, or {@code null} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R get(String queryName, Object query, ResponseType<R> responseType) {
+        QueryResults queryResults = results.get(queryName);
+        if (queryResults == null) {
+            return null;
+        }
+        Object cached = queryResults.get(new CacheKey(query, responseType), clock.millis());
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return (R) cached;
+    }
+
+    /**
+     * Returns the generation of the results of the queries with the given {@code queryName}, which changes whenever
+     * these results are invalidated. Should be obtained before dispatching a query of which no result is cached.
+     *
+     * @param queryName the name of the queries to return the generation of
+     * @return the generation of the results of the queries with the given name
+     */
+    public long generation(String queryName) {
+        QueryResults queryResults = results.get(queryName);
+        return queryResults == null ? 0 : queryResults.generation();
+    }
+
+    /**
+     * Cache the given {@code result} of the query with the given {@code queryName}, {@code query} payload and
+     * {@code responseType}. A {@code null} result, or the result of a query which is not cached, is ignored.
+     *
+     * @param queryName    the name of the query
+     * @param query        the payload of the query
+     * @param responseType the expected response type of the query
+     * @param result       the result of the query
+     */
+    public void put(String queryName, Object query, ResponseType<?> responseType, Object result) {
+        put(queryName, query, responseType, result, generation(queryName));
+    }
+
+    /**
+     * Cache the given {@code result} of the query with the given {@code queryName}, {@code query} payload and
+     * {@code responseType}, unless the results of the query were invalidated since the given {@code generation} was
+     * {@link #generation(String) obtained}. A {@code null} result, or the result of a query which is not cached, is
+     * ignored.
+     *
+     * @param queryName    the name of the query
+     * @param query        the payload of the query
+     * @param responseType the expected response type of the query
+     * @param result       the result of the query
+     * @param generation   the generation of the query, obtained before it was dispatched
+     */
+    public void put(String queryName, Object query, ResponseType<?> responseType, Object result, long generation) {
+        QueryResults queryResults = results.get(queryName);
+        if (result == null || queryResults == null) {
+            return;
+        }
+        queryResults.put(new CacheKey(query, responseType), result, clock.millis() + ttlMillis, generation);
+    }
+
+    /**
+     * Invalidate the cached results of the queries with the given {@code queryName}.
+     *
+     * @param queryName the name of the queries of which the results are invalidated
+     */
+    public void invalidate(String queryName) {
+        QueryResults queryResults = results.get(queryName);
+        if (queryResults != null) {
+            queryResults.invalidate();
+        }
+    }
+
+    /**
+     * Invalidate all cached results.
+     */
+    public void invalidateAll() {
+        results.values().forEach(QueryResults::invalidate);
+    }
+
+    /**
+     * Invalidate the cached results of the queries configured to be invalidated by the payload types of the given
+     * {@code events}. When the events are published in a unit of work which did not commit yet, the results are
+     * invalidated after it commits.
+     *
+     * @param events the published events
+     */
+    public void onEvents(List<? extends EventMessage<?>> events) {
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        if (CurrentUnitOfWork.isStarted()) {
+            UnitOfWork<?> root = CurrentUnitOfWork.get().root();
+            if (root.phase().isBefore(UnitOfWork.Phase.AFTER_COMMIT)) {
+                root.afterCommit(u -> invalidateFor(events));
+                return;
+            }
+        }
+        invalidateFor(events);
+    }
+
+    private void invalidateFor(List<? extends EventMessage<?>> events) {
+        for (EventMessage<?> event : events) {
+            Set<String> queryNames = invalidations.get(event.getPayloadType().getName());
+            if (queryNames == null) {
+                continue;
+            }
+            if (queryNames.isEmpty()) {
+                invalidateAll();
+            } else {
+                queryNames.forEach(this::invalidate);
+            }
+        }
+    }
+
+    /**
+     * Subscribe this cache to the given {@code eventSource}, such as the event bus, to invalidate cached results
+     * when events of the invalidating payload types are published, or after the unit of work publishing them
+     * commits.
+     *
+     * @param eventSource the source of the events invalidating cached results
+     * @return a {@link Registration} to cancel the subscription with
+     */
+    public Registration subscribeTo(SubscribableMessageSource<EventMessage<?>> eventSource) {
+        return eventSource.subscribe(this::onEvents);
+    }
+
+    /**
+     * Returns the number of queries answered from the cache.
+     *
+     * @return the number of queries answered from the cache
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of queries for which no result was cached.
+     *
+     * @return the number of queries for which no result was cached
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of results evicted because the maximum number of entries was reached.
+     *
+     * @return the number of evicted results
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of results invalidated by events or explicit invalidation.
+     *
+     * @return the number of invalidated results
+     */
+    public long invalidations() {
+        return invalidatedResults.sum();
+    }
+
+    /**
+     * The cached results of the queries with a single name, guarded by their own lock. Invalidation replaces the
+     * results rather than removing them one by one.
+     */
+    private final class QueryResults {
+
+        private Map<CacheKey, CachedResult> entries = newEntries();
+        private long generation;
+
+        private synchronized Object get(CacheKey key, long now) {
+            CachedResult cached = entries.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAt <= now) {
+                entries.remove(key);
+                return null;
+            }
+            return cached.result;
+        }
+
+        private synchronized long generation() {
+            return generation;
+        }
+
+        private synchronized void put(CacheKey key, Object result, long expiresAt, long expectedGeneration) {
+            if (generation == expectedGeneration) {
+                entries.put(key, new CachedResult(result, expiresAt));
+            }
+        }
+
+        private synchronized void invalidate() {
+            generation++;
+            invalidatedResults.add(entries.size());
+            entries = newEntries();
+        }
+
+        private Map<CacheKey, CachedResult> newEntries() {
+            return new LinkedHashMap<CacheKey, CachedResult>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedResult> eldest) {
+                    boolean evict = size() > maxEntries;
+                    if (evict) {
+                        evictions.increment();
+                    }
+                    return evict;
+                }
+            };
+        }
+    }
+
+    /**
+     * The identity of a query of a given name, by payload and expected response type.
+     */
+    private static final class CacheKey {
+
+        private final Object query;
+        private final Class<?> responseTypeClass;
+        private final Class<?> expectedResponseType;
+        private final int hashCode;
+
+        private CacheKey(Object query, ResponseType<?> responseType) {
+            this.query = query;
+            this.responseTypeClass = responseType.getClass();
+            this.expectedResponseType = responseType.getExpectedResponseType();
+            this.hashCode = Objects.hash(query, responseTypeClass, expectedResponseType);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return Objects.equals(query, other.query)
+                    && responseTypeClass.equals(other.responseTypeClass)
+                    && expectedResponseType.equals(other.expectedResponseType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * A cached result and the time it expires, in milliseconds since the epoch.
+     */
+    private static final class CachedResult {
+
+        private final Object result;
+        private final long expiresAt;
+
+        private CachedResult(Object result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link QueryResultCache}.
+     * <p>
+     * The maximum number of entries per query defaults to {@code 1000}, the time to live to one second and the
+     * {@link Clock} to the system UTC clock. By default, no queries are cached and no events invalidate cached
+     * results.
+     */
+    public static class Builder {
+
+        private int maxEntries = 1000;
+        private Duration ttl = Duration.ofSeconds(1);
+        private Clock clock = Clock.systemUTC();
+        private final Set<String> cachedQueries = new HashSet<>();
+        private final Map<String, Set<String>> invalidations = new HashMap<>();
+
+        /**
+         * Cache the results of the queries with the given {@code queryNames}. The results of other queries are not
+         * cached.
+         *
+         * @param queryNames the names of the queries of which the results are cached
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder cache(String... queryNames) {
+            for (String queryName : queryNames) {
+                assertNonNull(queryName, "The query name may not be null");
+                cachedQueries.add(queryName);
+            }
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of cached results per query name, beyond which the least recently used results of
+         * that query are evicted. Defaults to {@code 1000}.
+         *
+         * @param maxEntries the maximum number of cached results per query name
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder maxEntries(int maxEntries) {
+            assertStrictPositive(maxEntries, "The maximum number of entries should be a positive number");
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets the time a result is cached. Defaults to one second, as results may be outdated for as long as the
+         * query models lag behind the events invalidating them.
+         *
+         * @param ttl the time a result is cached
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder ttl(Duration ttl) {
+            assertNonNull(ttl, "The time to live may not be null");
+            assertStrictPositive(ttl.toMillis(), "The time to live should be a positive duration");
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Clock} deciding when cached results expire. Defaults to the system UTC clock.
+         *
+         * @param clock the {@link Clock} deciding when cached results expire
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder clock(Clock clock) {
+            assertNonNull(clock, "Clock may not be null");
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Invalidate the cached results of the queries with the given {@code queryNames} whenever an event with the
+         * given {@code eventPayloadType} is published. Without query names, all cached results are invalidated by
+         * such an event.
+         *
+         * @param eventPayloadType the fully qualified name of the payload type of the invalidating events
+         * @param queryNames       the names of the queries of which the results are invalidated
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder invalidateOn(String eventPayloadType, String... queryNames) {
+            assertNonNull(eventPayloadType, "The event payload type may not be null");
+            Set<String> names = invalidations.get(eventPayloadType);
+            if (names != null && names.isEmpty()) {
+                // the payload type already invalidates all results
+                return this;
+            }
+            if (queryNames.length == 0) {
+                invalidations.put(eventPayloadType, new HashSet<>());
+            } else {
+                invalidations.computeIfAbsent(eventPayloadType, type -> new HashSet<>())
+                             .addAll(Arrays.asList(queryNames));
+            }
+            return this;
+        }
+
+        /**
+         * Invalidate the cached results of the queries with the given {@code queryNames} whenever an event with the
+         * given {@code eventPayloadType} is published. Without query names, all cached results are invalidated by
+         * such an event.
+         *
+         * @param eventPayloadType the payload type of the invalidating events
+         * @param queryNames       the names of the queries of which the results are invalidated
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder invalidateOn(Class<?> eventPayloadType, String... queryNames) {
+            assertNonNull(eventPayloadType, "The event payload type may not be null");
+            return invalidateOn(eventPayloadType.getName(), queryNames);
+        }
+
+        /**
+         * Initializes a {@link QueryResultCache} as specified through this Builder.
+         *
+         * @return a {@link QueryResultCache} as specified through this Builder
+         */
+        public QueryResultCache build() {
+            return new QueryResultCache(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            // Kept to be overridden
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+
+/**
+ * Listener notified of the updates emitted through a {@link TracingQueryUpdateEmitter}. All methods do nothing by
+ * default, so that implementations only need to override the notifications they are interested in.
+ *
+ * @since 4.2
+ */
+public interface QueryUpdateListener {
+
+    /**
+     * A {@link QueryUpdateListener} ignoring all updates.
+     */
+    QueryUpdateListener NO_OP = new QueryUpdateListener() {
+    };
+
+    /**
+     * Invoked when an update has been emitted to all subscription queries matching the filter it was emitted with.
+     *
+     * @param updateType           the payload type of the emitted update
+     * @param matchedSubscriptions the number of subscription queries the update was emitted to
+     * @param filterDuration       the time spent evaluating the filter against all subscription queries
+     * @param duration             the time emitting the update took, including the evaluation of the filter
+     */
+    default void onEmit(String updateType, int matchedSubscriptions, Duration filterDuration, Duration duration) {
+    }
+
+    /**
+     * Invoked when an update could not be buffered for a subscription query, because its subscriber did not keep up
+     * with the updates emitted to it.
+     *
+     * @param queryName  the name of the subscription query of which the update buffer is full
+     * @param bufferSize the size of the update buffer of the subscription query
+     */
+    default void onBufferFull(String queryName, int bufferSize) {
+    }
+}
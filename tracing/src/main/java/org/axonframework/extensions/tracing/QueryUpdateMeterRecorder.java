@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link QueryUpdateListener} recording the fan out of query updates through Micrometer. Registers:
+ * <ul>
+ * <li>{@code axon.query.update.emit.duration}, a timer of the emission of updates, tagged with the
+ * {@code updateType},</li>
+ * <li>{@code axon.query.update.filter.duration}, a timer of the evaluation of the filters updates are emitted with,
+ * tagged with the {@code updateType},</li>
+ * <li>{@code axon.query.update.matched}, a distribution summary of the number of subscription queries an update is
+ * emitted to, tagged with the {@code updateType},</li>
+ * <li>{@code axon.query.update.buffer.full}, a counter of the updates which did not fit in the update buffer of a
+ * subscription query, tagged with the {@code queryName}.</li>
+ * </ul>
+ * The timers and the distribution summary publish a percentile histogram.
+ *
+ * @since 4.2
+ */
+public class QueryUpdateMeterRecorder implements QueryUpdateListener {
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Timer> emitDurations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> filterDurations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> matchedSubscriptions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> bufferFull = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize a {@link QueryUpdateListener} recording the fan out of query updates in the given {@code registry}.
+     *
+     * @param registry the {@link MeterRegistry} to register the query update meters in
+     */
+    public QueryUpdateMeterRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onEmit(String updateType, int matchedSubscriptionCount, Duration filterDuration, Duration duration) {
+        emitDurations.computeIfAbsent(
+                updateType,
+                key -> Timer.builder("axon.query.update.emit.duration")
+                            .description("The time spent emitting query updates to subscription queries")
+                            .tag("updateType", updateType)
+                            .publishPercentileHistogram()
+                            .register(registry)
+        ).record(duration);
+        filterDurations.computeIfAbsent(
+                updateType,
+                key -> Timer.builder("axon.query.update.filter.duration")
+                            .description("The time spent matching query updates against subscription queries")
+                            .tag("updateType", updateType)
+                            .publishPercentileHistogram()
+                            .register(registry)
+        ).record(filterDuration);
+        matchedSubscriptions.computeIfAbsent(
+                updateType,
+                key -> DistributionSummary.builder("axon.query.update.matched")
+                                          .description("The number of subscription queries a query update is "
+                                                               + "emitted to")
+                                          .tag("updateType", updateType)
+                                          .publishPercentileHistogram()
+                                          .register(registry)
+        ).record(matchedSubscriptionCount);
+    }
+
+    @Override
+    public void onBufferFull(String queryName, int bufferSize) {
+        bufferFull.computeIfAbsent(
+                queryName,
+                key -> Counter.builder("axon.query.update.buffer.full")
+                              .description("The number of query updates which did not fit in the update buffer "
+                                                   + "of a subscription query")
+                              .tag("queryName", queryName)
+                              .register(registry)
+        ).increment();
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertStrictPositive;
+
+import brave.handler.FinishedSpanHandler;
+import brave.handler.MutableSpan;
+import brave.propagation.TraceContext;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.axonframework.common.AxonConfigurationException;
+
+/**
+ * A {@link FinishedSpanHandler} keeping the most recently finished spans and the slowest spans per operation in
+ * memory, to debug slow requests on a single node without querying a central tracing backend.
+ * <p>
+ * Memory is bounded on all ends. Recent spans are kept in a ring of a fixed size, in which the spans which finished
+ * longest ago are overwritten first; traces are assembled from the ring when read. The slowest spans are kept per
+ * operation, for a bounded number of operations. When a new operation is encountered and the bound is reached, the
+ * operation which least recently finished a span is evicted.
+ * <p>
+ * Recording is lock-free: finishing a span claims a ring slot through a single atomic increment, and only spans
+ * slower than the fastest of the slowest spans of their operation attempt to replace a slot through compare-and-set.
+ * By default only sampled spans are recorded; set {@link Builder#alwaysSampleLocal(boolean)} to also record spans
+ * which are not reported to the tracing backend.
+ *
+ * @since 4.2
+ */
+public class RecentTraceStore extends FinishedSpanHandler {
+
+    private static final Comparator<RecordedSpan> SLOWEST_FIRST =
+            Comparator.comparingLong(RecordedSpan::duration).reversed();
+
+    private final boolean alwaysSampleLocal;
+    private final int slowestPerOperation;
+    private final int maxOperations;
+    private final AtomicReferenceArray<RecordedSpan> recentSpans;
+    private final AtomicLong recordedSpans = new AtomicLong();
+    private final ConcurrentMap<OperationKey, SlowestSpans> slowestSpans = new ConcurrentHashMap<>();
+    private final LongAdder evictedOperations = new LongAdder();
+
+    /**
+     * Instantiate a Builder to be able to create a {@link RecentTraceStore}.
+     * <p>
+     * The number of recent spans defaults to {@code 10000}, the number of slowest spans per operation to {@code 10}
+     * and the maximum number of operations to {@code 500}. Local sampling of all spans defaults to {@code false}.
+     *
+     * @return a Builder to be able to create a {@link RecentTraceStore}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link RecentTraceStore} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link RecentTraceStore} instance
+     */
+    protected RecentTraceStore(Builder builder) {
+        builder.validate();
+        this.alwaysSampleLocal = builder.alwaysSampleLocal;
+        this.slowestPerOperation = builder.slowestPerOperation;
+        this.maxOperations = builder.maxOperations;
+        this.recentSpans = new AtomicReferenceArray<>(builder.maxSpans);
+    }
+
+    @Override
+    public boolean handle(TraceContext context, MutableSpan span) {
+        if (span.startTimestamp() == 0 || span.finishTimestamp() == 0) {
+            return true;
+        }
+        RecordedSpan recorded = RecordedSpan.of(context, span, OperationKey.of(span));
+        int slot = (int) (recordedSpans.getAndIncrement() % recentSpans.length());
+        recentSpans.lazySet(slot, recorded);
+        SlowestSpans slowest = slowestSpans.get(recorded.operationKey());
+        if (slowest == null) {
+            slowest = registerOperation(recorded.operationKey());
+        }
+        slowest.offer(recorded);
+        return true;
+    }
+
+    private SlowestSpans registerOperation(OperationKey key) {
+        if (slowestSpans.size() >= maxOperations) {
+            evictLeastRecentlyUsedOperation();
+        }
+        SlowestSpans created = new SlowestSpans(slowestPerOperation);
+        SlowestSpans existing = slowestSpans.putIfAbsent(key, created);
+        return existing == null ? created : existing;
+    }
+
+    private void evictLeastRecentlyUsedOperation() {
+        Map.Entry<OperationKey, SlowestSpans> leastRecentlyUsed = null;
+        for (Map.Entry<OperationKey, SlowestSpans> entry : slowestSpans.entrySet()) {
+            if (leastRecentlyUsed == null
+                    || entry.getValue().lastFinishTimestamp < leastRecentlyUsed.getValue().lastFinishTimestamp) {
+                leastRecentlyUsed = entry;
+            }
+        }
+        if (leastRecentlyUsed != null
+                && slowestSpans.remove(leastRecentlyUsed.getKey(), leastRecentlyUsed.getValue())) {
+            evictedOperations.increment();
+        }
+    }
+
+    @Override
+    public boolean alwaysSampleLocal() {
+        return alwaysSampleLocal;
+    }
+
+    /**
+     * Returns the most recently finished traces still held by this store, the most recently finished trace first.
+     * Traces of which the oldest spans have already been overwritten are returned incomplete.
+     *
+     * @param limit the maximum number of traces to return
+     * @return the most recently finished traces still held by this store
+     */
+    public List<RecordedTrace> recentTraces(int limit) {
+        Map<TraceKey, List<RecordedSpan>> spansByTrace = new HashMap<>();
+        for (RecordedSpan span : snapshot()) {
+            spansByTrace.computeIfAbsent(new TraceKey(span.traceIdHigh(), span.traceIdLow()),
+                                         k -> new ArrayList<>())
+                        .add(span);
+        }
+        List<RecordedTrace> traces = new ArrayList<>(spansByTrace.size());
+        for (List<RecordedSpan> spans : spansByTrace.values()) {
+            spans.sort(Comparator.comparingLong(RecordedSpan::startTimestamp));
+            traces.add(new RecordedTrace(spans));
+        }
+        traces.sort(Comparator.comparingLong(RecordedTrace::finishTimestamp).reversed());
+        return traces.size() > limit ? new ArrayList<>(traces.subList(0, limit)) : traces;
+    }
+
+    /**
+     * Returns the spans of the trace with the given {@code traceId} still held by this store, or {@code null} if
+     * none are.
+     *
+     * @param traceId the identifier of the trace, as a hexadecimal string
+     * @return the trace with the given identifier, or {@code null} if no spans of it are held
+     */
+    public RecordedTrace trace(String traceId) {
+        TraceKey key = TraceKey.parse(traceId);
+        if (key == null) {
+            return null;
+        }
+        List<RecordedSpan> spans = new ArrayList<>();
+        for (RecordedSpan span : snapshot()) {
+            if (span.belongsTo(key.traceIdHigh, key.traceId)) {
+                spans.add(span);
+            }
+        }
+        if (spans.isEmpty()) {
+            return null;
+        }
+        spans.sort(Comparator.comparingLong(RecordedSpan::startTimestamp));
+        return new RecordedTrace(spans);
+    }
+
+    /**
+     * Returns the slowest spans per operation, the slowest span first. Operations are described by the span name,
+     * followed by the command name or payload type of the message.
+     *
+     * @return the slowest spans per operation
+     */
+    public Map<String, List<RecordedSpan>> slowestSpans() {
+        Map<String, List<RecordedSpan>> result = new LinkedHashMap<>();
+        slowestSpans.forEach((key, slowest) -> result.merge(key.describe(), slowest.spans(), (a, b) -> {
+            a.addAll(b);
+            a.sort(SLOWEST_FIRST);
+            return a;
+        }));
+        return result;
+    }
+
+    /**
+     * Returns the total number of spans recorded by this store.
+     *
+     * @return the total number of spans recorded by this store
+     */
+    public long recordedSpans() {
+        return recordedSpans.get();
+    }
+
+    /**
+     * Returns the number of operations of which the slowest spans were evicted to make room for new operations.
+     *
+     * @return the number of evicted operations
+     */
+    public long evictedOperations() {
+        return evictedOperations.sum();
+    }
+
+    private List<RecordedSpan> snapshot() {
+        List<RecordedSpan> spans = new ArrayList<>(recentSpans.length());
+        for (int i = 0; i < recentSpans.length(); i++) {
+            RecordedSpan span = recentSpans.get(i);
+            if (span != null) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    /**
+     * The slowest spans of a single operation. Slots are only replaced through compare-and-set, and only by spans
+     * which are slower than the current threshold, so the common case of a fast span costs a single volatile read.
+     */
+    private static class SlowestSpans {
+
+        private final AtomicReferenceArray<RecordedSpan> slots;
+        private volatile long threshold = -1;
+        private volatile long lastFinishTimestamp;
+
+        private SlowestSpans(int size) {
+            this.slots = new AtomicReferenceArray<>(size);
+        }
+
+        private void offer(RecordedSpan span) {
+            lastFinishTimestamp = span.finishTimestamp();
+            long duration = span.duration();
+            while (duration > threshold) {
+                int fastestIndex = -1;
+                RecordedSpan fastest = null;
+                for (int i = 0; i < slots.length(); i++) {
+                    RecordedSpan current = slots.get(i);
+                    if (current == null) {
+                        fastestIndex = i;
+                        fastest = null;
+                        break;
+                    }
+                    if (fastest == null || current.duration() < fastest.duration()) {
+                        fastestIndex = i;
+                        fastest = current;
+                    }
+                }
+                if (fastest != null && fastest.duration() >= duration) {
+                    updateThreshold();
+                    return;
+                }
+                if (slots.compareAndSet(fastestIndex, fastest, span)) {
+                    updateThreshold();
+                    return;
+                }
+            }
+        }
+
+        private void updateThreshold() {
+            long fastest = Long.MAX_VALUE;
+            for (int i = 0; i < slots.length(); i++) {
+                RecordedSpan current = slots.get(i);
+                if (current == null) {
+                    threshold = -1;
+                    return;
+                }
+                fastest = Math.min(fastest, current.duration());
+            }
+            threshold = fastest;
+        }
+
+        private List<RecordedSpan> spans() {
+            List<RecordedSpan> spans = new ArrayList<>(slots.length());
+            for (int i = 0; i < slots.length(); i++) {
+                RecordedSpan span = slots.get(i);
+                if (span != null) {
+                    spans.add(span);
+                }
+            }
+            spans.sort(SLOWEST_FIRST);
+            return spans;
+        }
+    }
+
+    private static final class TraceKey {
+
+        private final long traceIdHigh;
+        private final long traceId;
+
+        private TraceKey(long traceIdHigh, long traceId) {
+            this.traceIdHigh = traceIdHigh;
+            this.traceId = traceId;
+        }
+
+        private static TraceKey parse(String traceId) {
+            if (traceId == null || traceId.isEmpty() || traceId.length() > 32) {
+                return null;
+            }
+            try {
+                int lowStart = Math.max(0, traceId.length() - 16);
+                long high = lowStart == 0 ? 0 : Long.parseUnsignedLong(traceId.substring(0, lowStart), 16);
+                return new TraceKey(high, Long.parseUnsignedLong(traceId.substring(lowStart), 16));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            TraceKey that = (TraceKey) o;
+            return traceIdHigh == that.traceIdHigh && traceId == that.traceId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(traceIdHigh) * 31 + Long.hashCode(traceId);
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link RecentTraceStore}.
+     * <p>
+     * The number of recent spans defaults to {@code 10000}, the number of slowest spans per operation to {@code 10}
+     * and the maximum number of operations to {@code 500}. Local sampling of all spans defaults to {@code false}.
+     */
+    public static class Builder {
+
+        private int maxSpans = 10_000;
+        private int slowestPerOperation = 10;
+        private int maxOperations = 500;
+        private boolean alwaysSampleLocal = false;
+
+        /**
+         * Sets the number of most recently finished spans to keep. Defaults to {@code 10000}.
+         *
+         * @param maxSpans the number of most recently finished spans to keep
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder maxSpans(int maxSpans) {
+            assertStrictPositive(maxSpans, "The maximum number of spans should be a positive number");
+            this.maxSpans = maxSpans;
+            return this;
+        }
+
+        /**
+         * Sets the number of slowest spans to keep per operation. Defaults to {@code 10}.
+         *
+         * @param slowestPerOperation the number of slowest spans to keep per operation
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder slowestPerOperation(int slowestPerOperation) {
+            assertStrictPositive(slowestPerOperation,
+                                 "The number of slowest spans per operation should be a positive number");
+            this.slowestPerOperation = slowestPerOperation;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of operations to keep the slowest spans for. Defaults to {@code 500}.
+         *
+         * @param maxOperations the maximum number of operations to keep the slowest spans for
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder maxOperations(int maxOperations) {
+            assertStrictPositive(maxOperations, "The maximum number of operations should be a positive number");
+            this.maxOperations = maxOperations;
+            return this;
+        }
+
+        /**
+         * Sets whether all spans should be recorded, regardless of whether they are sampled for reporting to the
+         * tracing backend. Defaults to {@code false}.
+         *
+         * @param alwaysSampleLocal whether all spans should be recorded
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder alwaysSampleLocal(boolean alwaysSampleLocal) {
+            this.alwaysSampleLocal = alwaysSampleLocal;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link RecentTraceStore} as specified through this Builder.
+         *
+         * @return a {@link RecentTraceStore} as specified through this Builder
+         */
+        public RecentTraceStore build() {
+            return new RecentTraceStore(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            // Kept to be overridden
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import brave.handler.MutableSpan;
+import brave.propagation.TraceContext;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable copy of a finished span, as kept by the {@link RecentTraceStore}. Identifiers are stored in their
+ * numeric form and only rendered as hexadecimal strings when read, keeping recording cheap.
+ *
+ * @since 4.2
+ */
+public class RecordedSpan {
+
+    private static final String[] NO_TAGS = new String[0];
+
+    private final long traceIdHigh;
+    private final long traceId;
+    private final long parentId;
+    private final long spanId;
+    private final String name;
+    private final String kind;
+    private final long startTimestamp;
+    private final long finishTimestamp;
+    private final boolean error;
+    private final String[] tags;
+    private final OperationKey operation;
+
+    private RecordedSpan(TraceContext context, MutableSpan span, OperationKey operation, String[] tags) {
+        this.traceIdHigh = context.traceIdHigh();
+        this.traceId = context.traceId();
+        this.parentId = context.parentIdAsLong();
+        this.spanId = context.spanId();
+        this.name = span.name();
+        this.kind = span.kind() == null ? null : span.kind().name();
+        this.startTimestamp = span.startTimestamp();
+        this.finishTimestamp = span.finishTimestamp();
+        this.error = span.error() != null || span.tag("error") != null;
+        this.tags = tags;
+        this.operation = operation;
+    }
+
+    /**
+     * Copy the given finished {@code span}.
+     *
+     * @param context   the {@link TraceContext} of the finished span
+     * @param span      the finished span to copy
+     * @param operation the operation the span represents
+     * @return an immutable copy of the given span
+     */
+    static RecordedSpan of(TraceContext context, MutableSpan span, OperationKey operation) {
+        TagCollector tags = new TagCollector();
+        span.forEachTag(TagCollector::accept, tags);
+        return new RecordedSpan(context, span, operation, tags.toArray());
+    }
+
+    /**
+     * Returns the identifier of the trace this span belongs to, as a lower-case hexadecimal string.
+     *
+     * @return the identifier of the trace this span belongs to
+     */
+    public String traceId() {
+        return traceIdHigh == 0 ? toHex(traceId) : toHex(traceIdHigh) + toHex(traceId);
+    }
+
+    /**
+     * Returns the identifier of this span, as a lower-case hexadecimal string.
+     *
+     * @return the identifier of this span
+     */
+    public String spanId() {
+        return toHex(spanId);
+    }
+
+    /**
+     * Returns the identifier of the parent of this span, as a lower-case hexadecimal string, or {@code null} for a
+     * root span.
+     *
+     * @return the identifier of the parent of this span, or {@code null}
+     */
+    public String parentId() {
+        return parentId == 0 ? null : toHex(parentId);
+    }
+
+    /**
+     * Returns the name of this span.
+     *
+     * @return the name of this span
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the kind of this span, or {@code null} for a local span.
+     *
+     * @return the kind of this span, or {@code null}
+     */
+    public String kind() {
+        return kind;
+    }
+
+    /**
+     * Returns a description of the operation this span represents, being the span name followed by the command name
+     * or payload type of the message.
+     *
+     * @return a description of the operation this span represents
+     */
+    public String operation() {
+        return operation.describe();
+    }
+
+    /**
+     * Returns the start of this span, in epoch microseconds.
+     *
+     * @return the start of this span, in epoch microseconds
+     */
+    public long startTimestamp() {
+        return startTimestamp;
+    }
+
+    /**
+     * Returns the end of this span, in epoch microseconds.
+     *
+     * @return the end of this span, in epoch microseconds
+     */
+    public long finishTimestamp() {
+        return finishTimestamp;
+    }
+
+    /**
+     * Returns the duration of this span, in microseconds.
+     *
+     * @return the duration of this span, in microseconds
+     */
+    public long duration() {
+        return finishTimestamp - startTimestamp;
+    }
+
+    /**
+     * Returns whether this span finished with an error.
+     *
+     * @return whether this span finished with an error
+     */
+    public boolean error() {
+        return error;
+    }
+
+    /**
+     * Returns the tags of this span.
+     *
+     * @return the tags of this span
+     */
+    public Map<String, String> tags() {
+        if (tags.length == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            result.put(tags[i], tags[i + 1]);
+        }
+        return result;
+    }
+
+    OperationKey operationKey() {
+        return operation;
+    }
+
+    long traceIdHigh() {
+        return traceIdHigh;
+    }
+
+    long traceIdLow() {
+        return traceId;
+    }
+
+    boolean belongsTo(long traceIdHigh, long traceId) {
+        return this.traceId == traceId && this.traceIdHigh == traceIdHigh;
+    }
+
+    private static String toHex(long value) {
+        String hex = Long.toHexString(value);
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    @Override
+    public String toString() {
+        return "RecordedSpan{" +
+                "traceId='" + traceId() + '\'' +
+                ", spanId='" + spanId() + '\'' +
+                ", name='" + name + '\'' +
+                ", duration=" + duration() +
+                '}';
+    }
+
+    private static class TagCollector {
+
+        private String[] tags = NO_TAGS;
+        private int size;
+
+        private void accept(String key, String value) {
+            if (size == tags.length) {
+                String[] grown = new String[Math.max(8, size * 2)];
+                System.arraycopy(tags, 0, grown, 0, size);
+                tags = grown;
+            }
+            tags[size++] = key;
+            tags[size++] = value;
+        }
+
+        private String[] toArray() {
+            if (size == tags.length) {
+                return tags;
+            }
+            String[] result = new String[size];
+            System.arraycopy(tags, 0, result, 0, size);
+            return result;
+        }
+    }
+}
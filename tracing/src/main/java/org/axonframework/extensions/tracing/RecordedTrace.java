@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The spans of a single trace which are still held by a {@link RecentTraceStore}. As the store evicts the oldest
+ * spans first, a trace may be incomplete.
+ *
+ * @since 4.2
+ */
+public class RecordedTrace {
+
+    private final String traceId;
+    private final List<RecordedSpan> spans;
+    private final long startTimestamp;
+    private final long finishTimestamp;
+
+    /**
+     * Initialize a {@link RecordedTrace} consisting of the given {@code spans}, ordered by their start.
+     *
+     * @param spans the spans of the trace, ordered by their start
+     */
+    RecordedTrace(List<RecordedSpan> spans) {
+        this.traceId = spans.get(0).traceId();
+        this.spans = Collections.unmodifiableList(spans);
+        long start = Long.MAX_VALUE;
+        long finish = Long.MIN_VALUE;
+        for (RecordedSpan span : spans) {
+            start = Math.min(start, span.startTimestamp());
+            finish = Math.max(finish, span.finishTimestamp());
+        }
+        this.startTimestamp = start;
+        this.finishTimestamp = finish;
+    }
+
+    /**
+     * Returns the identifier of this trace, as a lower-case hexadecimal string.
+     *
+     * @return the identifier of this trace
+     */
+    public String traceId() {
+        return traceId;
+    }
+
+    /**
+     * Returns the spans of this trace held by the store, ordered by their start.
+     *
+     * @return the spans of this trace held by the store
+     */
+    public List<RecordedSpan> spans() {
+        return spans;
+    }
+
+    /**
+     * Returns the start of the earliest span of this trace, in epoch microseconds.
+     *
+     * @return the start of the earliest span of this trace, in epoch microseconds
+     */
+    public long startTimestamp() {
+        return startTimestamp;
+    }
+
+    /**
+     * Returns the end of the latest span of this trace, in epoch microseconds.
+     *
+     * @return the end of the latest span of this trace, in epoch microseconds
+     */
+    public long finishTimestamp() {
+        return finishTimestamp;
+    }
+
+    /**
+     * Returns the time between the start of the earliest and the end of the latest span of this trace, in
+     * microseconds.
+     *
+     * @return the duration of this trace, in microseconds
+     */
+    public long duration() {
+        return finishTimestamp - startTimestamp;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertStrictPositive;
+
+import brave.handler.FinishedSpanHandler;
+import brave.handler.MutableSpan;
+import brave.propagation.TraceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+
+/**
+ * A {@link FinishedSpanHandler} which aggregates the spans finished by the tracing gateways and interceptors into
+ * rate, error and duration (RED) {@link OperationStatistics} per operation. Operations are keyed by span name and the
+ * {@code axon.message.type}, payload type and command name tags set through {@link SpanUtils}. Spans without an
+ * {@code axon.message.type} tag are ignored.
+ * <p>
+ * By default this handler {@link #alwaysSampleLocal() samples all spans locally}, so that the statistics have full
+ * fidelity regardless of the sampling rate of spans which are reported to the tracing backend. The number of
+ * distinct operations is bounded; spans of operations exceeding that bound are only counted as
+ * {@link #rejectedSpans() rejected}. Spans of sampled traces are kept as {@link Exemplar exemplars} of the latency
+ * bucket they fall in.
+ * <p>
+ * To expose the statistics, use the {@link RedMetricsMeterBinder}, write them in the OpenMetrics text format through
+ * the {@link OpenMetricsWriter}, which includes the exemplars, or read them through {@link #operations()}.
+ *
+ * @since 4.2
+ */
+public class RedMetricsAggregator extends FinishedSpanHandler {
+
+    private final boolean alwaysSampleLocal;
+    private final int maxOperations;
+    private final ConcurrentMap<OperationKey, OperationStatistics> operations = new ConcurrentHashMap<>();
+    private final List<Consumer<OperationStatistics>> operationListeners = new CopyOnWriteArrayList<>();
+    private final LongAdder rejectedSpans = new LongAdder();
+
+    /**
+     * Instantiate a Builder to be able to create a {@link RedMetricsAggregator}.
+     * <p>
+     * Local sampling of all spans defaults to {@code true} and the maximum number of distinct operations defaults to
+     * {@code 1000}.
+     *
+     * @return a Builder to be able to create a {@link RedMetricsAggregator}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link RedMetricsAggregator} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link RedMetricsAggregator} instance
+     */
+    protected RedMetricsAggregator(Builder builder) {
+        builder.validate();
+        this.alwaysSampleLocal = builder.alwaysSampleLocal;
+        this.maxOperations = builder.maxOperations;
+    }
+
+    @Override
+    public boolean handle(TraceContext context, MutableSpan span) {
+        String messageType = span.tag(SpanUtils.TAG_AXON_MSG_TYPE);
+        if (messageType == null || span.startTimestamp() == 0 || span.finishTimestamp() == 0) {
+            return true;
+        }
+        OperationKey key = OperationKey.of(span);
+        OperationStatistics statistics = operations.get(key);
+        if (statistics == null) {
+            statistics = registerOperation(key);
+            if (statistics == null) {
+                rejectedSpans.increment();
+                return true;
+            }
+        }
+        boolean error = span.error() != null || span.tag("error") != null;
+        long durationMicros = span.finishTimestamp() - span.startTimestamp();
+        if (Boolean.TRUE.equals(context.sampled())) {
+            statistics.record(durationMicros, error, new Exemplar(
+                    context.traceIdString(), context.spanIdString(), durationMicros, span.finishTimestamp()
+            ));
+        } else {
+            statistics.record(durationMicros, error);
+        }
+        return true;
+    }
+
+    private OperationStatistics registerOperation(OperationKey key) {
+        if (operations.size() >= maxOperations) {
+            return operations.get(key);
+        }
+        OperationStatistics created = new OperationStatistics(
+                key.spanName, key.messageType, key.payloadType, key.commandName
+        );
+        OperationStatistics existing = operations.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        operationListeners.forEach(listener -> listener.accept(created));
+        return created;
+    }
+
+    @Override
+    public boolean alwaysSampleLocal() {
+        return alwaysSampleLocal;
+    }
+
+    /**
+     * Returns the statistics of all operations aggregated so far.
+     *
+     * @return the statistics of all operations aggregated so far
+     */
+    public Collection<OperationStatistics> operations() {
+        return Collections.unmodifiableCollection(new ArrayList<>(operations.values()));
+    }
+
+    /**
+     * Returns the number of spans which were not aggregated, because the maximum number of distinct operations was
+     * reached.
+     *
+     * @return the number of spans which were not aggregated
+     */
+    public long rejectedSpans() {
+        return rejectedSpans.sum();
+    }
+
+    /**
+     * Register a {@code listener} which is invoked with the {@link OperationStatistics} of every operation
+     * encountered from now on. The listener is invoked immediately for all operations which are already known.
+     *
+     * @param listener the listener to invoke for every operation
+     * @return a {@link Registration} to cancel the listener with
+     */
+    public Registration onOperation(Consumer<OperationStatistics> listener) {
+        operationListeners.add(listener);
+        operations.values().forEach(listener);
+        return () -> operationListeners.remove(listener);
+    }
+
+    /**
+     * Builder class to instantiate a {@link RedMetricsAggregator}.
+     * <p>
+     * Local sampling of all spans defaults to {@code true} and the maximum number of distinct operations defaults to
+     * {@code 1000}.
+     */
+    public static class Builder {
+
+        private boolean alwaysSampleLocal = true;
+        private int maxOperations = 1000;
+
+        /**
+         * Sets whether all spans should be recorded locally, regardless of whether they are sampled for reporting to
+         * the tracing backend. Defaults to {@code true}.
+         *
+         * @param alwaysSampleLocal whether all spans should be recorded locally
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder alwaysSampleLocal(boolean alwaysSampleLocal) {
+            this.alwaysSampleLocal = alwaysSampleLocal;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of distinct operations to aggregate statistics for. Defaults to {@code 1000}.
+         *
+         * @param maxOperations the maximum number of distinct operations to aggregate statistics for
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder maxOperations(int maxOperations) {
+            assertStrictPositive(maxOperations, "The maximum number of operations should be a positive number");
+            this.maxOperations = maxOperations;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link RedMetricsAggregator} as specified through this Builder.
+         *
+         * @return a {@link RedMetricsAggregator} as specified through this Builder
+         */
+        public RedMetricsAggregator build() {
+            return new RedMetricsAggregator(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            // Kept to be overridden
+        }
+    }
+}
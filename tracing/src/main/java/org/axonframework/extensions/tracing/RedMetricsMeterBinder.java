@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link MeterBinder} exposing the {@link OperationStatistics} of a {@link RedMetricsAggregator} to a
+ * {@link MeterRegistry}. Meters are registered for every operation the aggregator encounters, also after binding.
+ * <p>
+ * Per operation the following meters are registered, tagged with the {@code span}, {@code messageType},
+ * {@code payloadType} and {@code commandName} of the operation:
+ * <ul>
+ * <li>{@code axon.message.requests}, counting all invocations,</li>
+ * <li>{@code axon.message.errors}, counting the invocations resulting in an error,</li>
+ * <li>{@code axon.message.duration}, timing all invocations,</li>
+ * <li>{@code axon.message.duration.max}, the longest invocation so far,</li>
+ * <li>{@code axon.message.duration.bucket}, cumulative invocation counts per latency bucket, tagged with the
+ * upper boundary of the bucket in seconds as {@code le}.</li>
+ * </ul>
+ *
+ * @since 4.2
+ */
+public class RedMetricsMeterBinder implements MeterBinder {
+
+    private static final String NONE = "none";
+
+    private final RedMetricsAggregator aggregator;
+
+    /**
+     * Initialize a {@link MeterBinder} exposing the statistics of the given {@code aggregator}.
+     *
+     * @param aggregator the {@link RedMetricsAggregator} of which the statistics are exposed
+     */
+    public RedMetricsMeterBinder(RedMetricsAggregator aggregator) {
+        this.aggregator = aggregator;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        aggregator.onOperation(operation -> bindOperation(registry, operation));
+    }
+
+    private void bindOperation(MeterRegistry registry, OperationStatistics operation) {
+        Tags tags = Tags.of(Tag.of("span", valueOrNone(operation.spanName())),
+                            Tag.of("messageType", valueOrNone(operation.messageType())),
+                            Tag.of("payloadType", valueOrNone(operation.payloadType())),
+                            Tag.of("commandName", valueOrNone(operation.commandName())));
+        FunctionCounter.builder("axon.message.requests", operation, OperationStatistics::count)
+                       .description("The number of handled or dispatched messages")
+                       .tags(tags)
+                       .register(registry);
+        FunctionCounter.builder("axon.message.errors", operation, OperationStatistics::errors)
+                       .description("The number of handled or dispatched messages which resulted in an error")
+                       .tags(tags)
+                       .register(registry);
+        FunctionTimer.builder("axon.message.duration",
+                              operation,
+                              OperationStatistics::count,
+                              o -> o.totalDuration(TimeUnit.MICROSECONDS),
+                              TimeUnit.MICROSECONDS)
+                     .description("The time spent handling or dispatching messages")
+                     .tags(tags)
+                     .register(registry);
+        TimeGauge.builder("axon.message.duration.max",
+                          operation,
+                          TimeUnit.MICROSECONDS,
+                          o -> o.maxDuration(TimeUnit.MICROSECONDS))
+                 .description("The longest time spent handling or dispatching a message")
+                 .tags(tags)
+                 .register(registry);
+        double[] boundaries = OperationStatistics.bucketBoundaries(TimeUnit.SECONDS);
+        for (int i = 0; i < OperationStatistics.bucketCount(); i++) {
+            int index = i;
+            String upperBoundary = i < boundaries.length ? Double.toString(boundaries[i]) : "+Inf";
+            FunctionCounter.builder("axon.message.duration.bucket", operation, o -> o.cumulativeBucket(index))
+                           .description("The number of messages handled or dispatched within a duration")
+                           .tags(tags.and("le", upperBoundary))
+                           .register(registry);
+        }
+    }
+
+    private static String valueOrNone(String value) {
+        return value == null ? NONE : value;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+
+/**
+ * Listener notified of the progress of replays by an {@link OpenTraceHandlerInterceptor} which traces replayed events
+ * in another {@link ReplayMode} than {@link ReplayMode#TRACE}. All methods do nothing by default, so that
+ * implementations only need to override the notifications they are interested in.
+ *
+ * @since 4.2
+ */
+public interface ReplayListener {
+
+    /**
+     * A {@link ReplayListener} ignoring all replay progress.
+     */
+    ReplayListener NO_OP = new ReplayListener() {
+    };
+
+    /**
+     * Invoked when a batch of replayed events has been handled, when the unit of work of the batch is cleaned up.
+     *
+     * @param processorName the name of the event processor replaying the events, or {@code null} if unknown
+     * @param batchSize     the number of replayed events in the batch
+     * @param duration      the time between the start of handling the first event and the clean up of the batch
+     */
+    default void onReplayBatch(String processorName, int batchSize, Duration duration) {
+    }
+}
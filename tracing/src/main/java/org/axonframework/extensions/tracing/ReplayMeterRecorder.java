@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link ReplayListener} recording the progress of replays through Micrometer. Registers:
+ * <ul>
+ * <li>{@code axon.replay.events}, a counter of the replayed events, tagged with the {@code processor} ({@code none}
+ * when unknown); its rate is the replay throughput,</li>
+ * <li>{@code axon.replay.batch.duration}, a timer of the time spent per batch of replayed events, tagged with the
+ * {@code processor}, publishing a percentile histogram.</li>
+ * </ul>
+ *
+ * @since 4.2
+ */
+public class ReplayMeterRecorder implements ReplayListener {
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Counter> events = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> batches = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize a {@link ReplayListener} recording replay progress in the given {@code registry}.
+     *
+     * @param registry the {@link MeterRegistry} to register the replay meters in
+     */
+    public ReplayMeterRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onReplayBatch(String processorName, int batchSize, Duration duration) {
+        String processor = processorName == null ? NONE : processorName;
+        events.computeIfAbsent(processor, key -> Counter.builder("axon.replay.events")
+                                                        .description("The number of replayed events handled")
+                                                        .tag("processor", processor)
+                                                        .register(registry))
+              .increment(batchSize);
+        batches.computeIfAbsent(processor, key -> Timer.builder("axon.replay.batch.duration")
+                                                       .description("The time spent per batch of replayed events")
+                                                       .tag("processor", processor)
+                                                       .publishPercentileHistogram()
+                                                       .register(registry))
+               .record(duration);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+/**
+ * Describes how the {@link OpenTraceHandlerInterceptor} traces events which are replayed after a reset of a tracking
+ * event processor, as detected through {@link org.axonframework.eventhandling.ReplayToken#isReplay(
+ * org.axonframework.messaging.Message)}. Replayed events carry the trace context of their original publication, which
+ * may be years old, and tracing each of them floods the tracing backend and slows down the replay.
+ *
+ * @since 4.2
+ */
+public enum ReplayMode {
+
+    /**
+     * Trace replayed events like any other event, continuing the trace of their original publication.
+     */
+    TRACE,
+
+    /**
+     * Handle replayed events without any span.
+     */
+    NO_SPANS,
+
+    /**
+     * Start a single progress span per batch of replayed events, in a new trace, tagged with the number of events in
+     * the batch and the throughput of the batch in events per second.
+     */
+    BATCH_PROGRESS,
+
+    /**
+     * Start a span per replayed event in a new trace, rather than continuing the trace of its original publication,
+     * sampled at a separate replay sample rate.
+     */
+    SAMPLED
+}
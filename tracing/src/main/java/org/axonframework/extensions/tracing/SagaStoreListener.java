@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+
+/**
+ * Listener notified of the operations performed on a {@link TracingSagaStore}. All methods do nothing by default, so
+ * that implementations only need to override the notifications they are interested in.
+ *
+ * @since 4.2
+ */
+public interface SagaStoreListener {
+
+    /**
+     * A {@link SagaStoreListener} ignoring all operations.
+     */
+    SagaStoreListener NO_OP = new SagaStoreListener() {
+    };
+
+    /**
+     * Invoked when the sagas associated with an association value have been looked up.
+     *
+     * @param sagaType       the type of saga looked up
+     * @param associationKey the key of the association value the sagas were looked up with
+     * @param resolvedSagas  the number of saga instances associated with the association value
+     */
+    default void onAssociationLookup(Class<?> sagaType, String associationKey, int resolvedSagas) {
+    }
+
+    /**
+     * Invoked when an operation on the saga store completed.
+     *
+     * @param sagaType  the type of saga the operation was performed for
+     * @param operation the operation, being one of {@code findSagas}, {@code loadSaga}, {@code insertSaga},
+     *                  {@code updateSaga} or {@code deleteSaga}
+     * @param duration  the time the operation took
+     * @param failed    whether the operation failed with an exception
+     */
+    default void onOperation(Class<?> sagaType, String operation, Duration duration, boolean failed) {
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link SagaStoreListener} recording saga store operations through Micrometer. Registers:
+ * <ul>
+ * <li>{@code axon.saga.associations.resolved}, a distribution summary of the number of saga instances an association
+ * value resolves to, tagged with the {@code sagaType} and {@code associationKey},</li>
+ * <li>{@code axon.saga.store.duration}, a timer of the saga store operations, tagged with the {@code sagaType}, the
+ * {@code operation} and the {@code outcome} ({@code success} or {@code failure}).</li>
+ * </ul>
+ * Both publish a percentile histogram.
+ *
+ * @since 4.2
+ */
+public class SagaStoreMeterRecorder implements SagaStoreListener {
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, DistributionSummary> resolvedSagas = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize a {@link SagaStoreListener} recording saga store operations in the given {@code registry}.
+     *
+     * @param registry the {@link MeterRegistry} to register the saga store meters in
+     */
+    public SagaStoreMeterRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onAssociationLookup(Class<?> sagaType, String associationKey, int resolvedSagaCount) {
+        resolvedSagas.computeIfAbsent(
+                sagaType.getName() + ':' + associationKey,
+                key -> DistributionSummary.builder("axon.saga.associations.resolved")
+                                          .description("The number of saga instances an association value "
+                                                               + "resolves to")
+                                          .tag("sagaType", sagaType.getName())
+                                          .tag("associationKey", associationKey)
+                                          .publishPercentileHistogram()
+                                          .register(registry)
+        ).record(resolvedSagaCount);
+    }
+
+    @Override
+    public void onOperation(Class<?> sagaType, String operation, Duration duration, boolean failed) {
+        String outcome = failed ? "failure" : "success";
+        operations.computeIfAbsent(
+                sagaType.getName() + ':' + operation + ':' + outcome,
+                key -> Timer.builder("axon.saga.store.duration")
+                            .description("The time spent in saga store operations")
+                            .tag("sagaType", sagaType.getName())
+                            .tag("operation", operation)
+                            .tag("outcome", outcome)
+                            .publishPercentileHistogram()
+                            .register(registry)
+        ).record(duration);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.messaging.Message;
+
+/**
+ * Utility class holding the logic shared by the {@link TracingDeadlineManager} and {@link TracingEventScheduler} to
+ * mark scheduled messages with the time they should fire and the trace which scheduled them, and to trace them when
+ * they fire.
+ */
+abstract class ScheduledFirings {
+
+    /**
+     * The meta data key holding the time, in epoch milliseconds, at which a scheduled message should fire.
+     */
+    static final String SCHEDULED_TIME_KEY = "axon-scheduled-time";
+    static final String TAG_SCHEDULING_LAG = "axon.scheduling.lag.ms";
+    static final String TAG_SCHEDULED_TIME = "axon.scheduling.scheduled";
+
+    private ScheduledFirings() {
+        // Utility class
+    }
+
+    /**
+     * Returns the moment a message scheduled now with the given {@code delay} should fire, according to the clock
+     * used by Axon to timestamp messages.
+     *
+     * @param delay the delay with which the message is scheduled
+     * @return the moment the message should fire
+     */
+    static Instant fireTimeAfter(Duration delay) {
+        return GenericEventMessage.clock.instant().plus(delay);
+    }
+
+    /**
+     * Returns the meta data to add to a message scheduled to fire at the given {@code scheduledTime}, holding that
+     * time and, if tracing, the current trace context.
+     *
+     * @param backend       the {@link TracingBackend} of which the current trace context is added
+     * @param scheduledTime the moment the message is scheduled to fire
+     * @return the meta data to add to the scheduled message
+     */
+    static Map<String, String> schedulingMetaData(TracingBackend backend, Instant scheduledTime) {
+        Map<String, String> metaData = new HashMap<>();
+        backend.injectCurrentContext(metaData);
+        metaData.put(SCHEDULED_TIME_KEY, Long.toString(scheduledTime.toEpochMilli()));
+        return metaData;
+    }
+
+    /**
+     * Returns the moment the given {@code message} was scheduled to fire, or {@code null} if it was not scheduled
+     * through a tracing component.
+     *
+     * @param message the fired message
+     * @return the moment the message was scheduled to fire, or {@code null}
+     */
+    static Instant scheduledTime(Message<?> message) {
+        Object scheduledTime = message.getMetaData().get(SCHEDULED_TIME_KEY);
+        if (scheduledTime == null) {
+            return null;
+        }
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(scheduledTime.toString()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the time between the given {@code scheduledTime} and now, according to the clock used by Axon to
+     * timestamp messages.
+     *
+     * @param scheduledTime the moment a message was scheduled to fire
+     * @return the time between the moment the message was scheduled to fire and now
+     */
+    static Duration lagSince(Instant scheduledTime) {
+        return Duration.between(scheduledTime, GenericEventMessage.clock.instant());
+    }
+
+    /**
+     * Tag the given {@code span} of a fired message with its scheduled time and lag.
+     *
+     * @param span          the span of the fired message
+     * @param scheduledTime the moment the message was scheduled to fire
+     * @param lag           the time between the moment the message was scheduled to fire and the moment it fired
+     */
+    static void tagFiring(TracedSpan span, Instant scheduledTime, Duration lag) {
+        span.tag(TAG_SCHEDULED_TIME, scheduledTime.toString());
+        span.tag(TAG_SCHEDULING_LAG, Long.toString(lag.toMillis()));
+    }
+}
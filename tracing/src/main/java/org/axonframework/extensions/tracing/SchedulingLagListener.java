@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+
+/**
+ * Listener notified of the lag of every deadline or scheduled event fired through a {@link TracingDeadlineManager} or
+ * {@link TracingEventScheduler}, being the time between the moment the message was scheduled to fire and the moment
+ * it actually fired.
+ *
+ * @since 4.2
+ */
+@FunctionalInterface
+public interface SchedulingLagListener {
+
+    /**
+     * The source of lag of fired deadlines.
+     */
+    String DEADLINE = "deadline";
+    /**
+     * The source of lag of fired scheduled events.
+     */
+    String SCHEDULED_EVENT = "event";
+
+    /**
+     * A {@link SchedulingLagListener} ignoring all lag.
+     */
+    SchedulingLagListener NO_OP = (source, name, lag) -> {
+    };
+
+    /**
+     * Invoked when a deadline or scheduled event fires.
+     *
+     * @param source the source of the fired message, either {@link #DEADLINE} or {@link #SCHEDULED_EVENT}
+     * @param name   the deadline name or the payload type of the scheduled event
+     * @param lag    the time between the moment the message was scheduled to fire and the moment it fired, which is
+     *               negative if it fired early
+     */
+    void onFiring(String source, String name, Duration lag);
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link SchedulingLagListener} recording the lag of fired deadlines and scheduled events in a Micrometer
+ * {@link Timer} named {@code axon.scheduling.lag}, tagged with the {@code source} ({@code deadline} or {@code event})
+ * and the {@code name} of the fired message. The timer publishes a percentile histogram, so that the lag distribution
+ * can be aggregated across instances. Messages which fired early are recorded with a lag of zero.
+ *
+ * @since 4.2
+ */
+public class SchedulingLagMeterRecorder implements SchedulingLagListener {
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize a {@link SchedulingLagListener} recording the scheduling lag in the given {@code registry}.
+     *
+     * @param registry the {@link MeterRegistry} to register the lag timers in
+     */
+    public SchedulingLagMeterRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onFiring(String source, String name, Duration lag) {
+        timers.computeIfAbsent(source + ':' + name, key -> createTimer(source, name))
+              .record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+
+    private Timer createTimer(String source, String name) {
+        return Timer.builder("axon.scheduling.lag")
+                    .description("The time between the moment a deadline or event was scheduled to fire and "
+                                         + "the moment it fired")
+                    .tag("source", source)
+                    .tag("name", name)
+                    .publishPercentileHistogram()
+                    .register(registry);
+    }
+}
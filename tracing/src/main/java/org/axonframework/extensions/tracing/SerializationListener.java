@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+
+/**
+ * Listener notified of the serialization performed through a {@link TracingSerializer}. All methods do nothing by
+ * default, so that implementations only need to override the notifications they are interested in.
+ *
+ * @since 4.2
+ */
+public interface SerializationListener {
+
+    /**
+     * A {@link SerializationListener} ignoring all serialization.
+     */
+    SerializationListener NO_OP = new SerializationListener() {
+    };
+
+    /**
+     * Invoked when an object has been serialized.
+     *
+     * @param type     the name of the serialized type
+     * @param duration the time the serialization took
+     * @param size     the size of the serialized form, being the number of bytes for a {@code byte[]} and the number
+     *                 of characters for a {@code String}, or {@code -1} for any other representation
+     */
+    default void onSerialize(String type, Duration duration, long size) {
+    }
+
+    /**
+     * Invoked when an object has been deserialized.
+     *
+     * @param type     the name of the deserialized type
+     * @param duration the time the deserialization took
+     * @param size     the size of the serialized form, being the number of bytes for a {@code byte[]} and the number
+     *                 of characters for a {@code String}, or {@code -1} for any other representation
+     */
+    default void onDeserialize(String type, Duration duration, long size) {
+    }
+
+    /**
+     * Invoked when {@link org.axonframework.messaging.MetaData} containing trace context entries has been serialized.
+     *
+     * @param size the number of characters of the keys and values of the trace context entries
+     */
+    default void onTraceMetaData(long size) {
+    }
+}
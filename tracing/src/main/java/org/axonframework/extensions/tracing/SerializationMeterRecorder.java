@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link SerializationListener} recording serialization through Micrometer. Registers:
+ * <ul>
+ * <li>{@code axon.serialization.duration}, a timer of the (de)serialization, tagged with the {@code type} and the
+ * {@code operation} ({@code serialize} or {@code deserialize}),</li>
+ * <li>{@code axon.serialization.size}, a distribution summary of the size of the serialized form, with the same
+ * tags,</li>
+ * <li>{@code axon.serialization.trace.metadata.size}, a distribution summary of the size of the trace context entries
+ * in serialized meta data.</li>
+ * </ul>
+ * All publish a percentile histogram.
+ *
+ * @since 4.2
+ */
+public class SerializationMeterRecorder implements SerializationListener {
+
+    private static final String SERIALIZE = "serialize";
+    private static final String DESERIALIZE = "deserialize";
+
+    private final MeterRegistry registry;
+    private final DistributionSummary traceMetaDataSize;
+    private final ConcurrentMap<String, Timer> durations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> sizes = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize a {@link SerializationListener} recording serialization in the given {@code registry}.
+     *
+     * @param registry the {@link MeterRegistry} to register the serialization meters in
+     */
+    public SerializationMeterRecorder(MeterRegistry registry) {
+        this.registry = registry;
+        this.traceMetaDataSize = DistributionSummary.builder("axon.serialization.trace.metadata.size")
+                                                    .description("The size of the trace context entries in "
+                                                                         + "serialized meta data")
+                                                    .baseUnit("bytes")
+                                                    .publishPercentileHistogram()
+                                                    .register(registry);
+    }
+
+    @Override
+    public void onSerialize(String type, Duration duration, long size) {
+        record(SERIALIZE, type, duration, size);
+    }
+
+    @Override
+    public void onDeserialize(String type, Duration duration, long size) {
+        record(DESERIALIZE, type, duration, size);
+    }
+
+    @Override
+    public void onTraceMetaData(long size) {
+        traceMetaDataSize.record(size);
+    }
+
+    private void record(String operation, String type, Duration duration, long size) {
+        String key = operation + ':' + type;
+        durations.computeIfAbsent(key, k -> Timer.builder("axon.serialization.duration")
+                                                 .description("The time spent serializing and deserializing")
+                                                 .tag("type", type)
+                                                 .tag("operation", operation)
+                                                 .publishPercentileHistogram()
+                                                 .register(registry))
+                 .record(duration);
+        if (size >= 0) {
+            sizes.computeIfAbsent(key, k -> DistributionSummary.builder("axon.serialization.size")
+                                                               .description("The size of the serialized form")
+                                                               .baseUnit("bytes")
+                                                               .tag("type", type)
+                                                               .tag("operation", operation)
+                                                               .publishPercentileHistogram()
+                                                               .register(registry))
+                 .record(size);
+        }
+    }
+}
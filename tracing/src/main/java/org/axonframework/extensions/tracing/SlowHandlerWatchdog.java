@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+import static org.axonframework.common.BuilderUtils.assertStrictPositive;
+import static org.axonframework.common.BuilderUtils.assertThat;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.AxonThreadFactory;
+import org.axonframework.messaging.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watchdog sampling the stacks of handlers which are still running after a threshold, revealing where a slow handler
+ * is stuck while it is stuck, rather than only learning it was slow once its span finished.
+ * <p>
+ * An {@link OpenTraceHandlerInterceptor} configured with a watchdog registers every handler it invokes in a fixed size,
+ * lock-free table of in-flight handlers. A single daemon thread scans the table every sample interval. Once a handler
+ * has been running for longer than the threshold, the stack of its thread is sampled on every scan until the
+ * configured number of samples is taken. The frames of all samples are aggregated, counting in how many samples each
+ * frame occurs, and logged as a warning with the trace identifier of the handler span. When the handler finishes, the
+ * aggregated frames are added to its span as the {@code axon.handler.stack} tag.
+ * <p>
+ * Sampling a stack briefly pauses the sampled thread, hence the threshold should be well above the duration of
+ * regular handlers. Handlers which find the table full are not watched and are counted as
+ * {@link #untrackedHandlers() untracked}.
+ *
+ * @since 4.2
+ */
+public class SlowHandlerWatchdog implements Closeable {
+
+    static final String TAG_HANDLER_STACK = "axon.handler.stack";
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final int MAX_PROBES = 16;
+
+    private final long thresholdNanos;
+    private final long sampleIntervalNanos;
+    private final int samples;
+    private final int maxFrames;
+    private final AtomicReferenceArray<InFlightHandler> inFlight;
+    private final int slotMask;
+    private final Thread scanThread;
+    private final LongAdder slowHandlers = new LongAdder();
+    private final LongAdder untrackedHandlers = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link SlowHandlerWatchdog}.
+     * <p>
+     * The threshold defaults to one second, the sample interval to {@code 100} milliseconds, the number of samples
+     * per slow handler to {@code 3}, the number of frames per sample to {@code 20} and the number of in-flight
+     * handlers which can be watched to {@code 256}. The scanning thread is created by an {@link AxonThreadFactory},
+     * and is always marked as a daemon thread.
+     *
+     * @return a Builder to be able to create a {@link SlowHandlerWatchdog}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link SlowHandlerWatchdog} based on the fields contained in the {@link Builder}, and start its
+     * scanning thread.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link SlowHandlerWatchdog} instance
+     */
+    protected SlowHandlerWatchdog(Builder builder) {
+        builder.validate();
+        this.thresholdNanos = builder.threshold.toNanos();
+        this.sampleIntervalNanos = builder.sampleInterval.toNanos();
+        this.samples = builder.samples;
+        this.maxFrames = builder.maxFrames;
+        int slots = builder.maxInFlight == 1 ? 1 : Integer.highestOneBit(builder.maxInFlight - 1) << 1;
+        this.inFlight = new AtomicReferenceArray<>(slots);
+        this.slotMask = slots - 1;
+        this.scanThread = builder.threadFactory.newThread(this::scanLoop);
+        this.scanThread.setDaemon(true);
+        this.scanThread.start();
+    }
+
+    /**
+     * Start watching the handling of the given {@code message} by the current thread, traced in the given
+     * {@code span}.
+     *
+     * @param span    the span tracing the handling of the message
+     * @param message the message being handled
+     * @return the watched handler, to pass to {@link #untrack(InFlightHandler)} once it finished, or {@code null} if
+     * the table of in-flight handlers is full
+     */
+    InFlightHandler track(TracedSpan span, Message<?> message) {
+        Thread thread = Thread.currentThread();
+        int start = (int) (thread.getId() * 0x9E3779B9L);
+        for (int probe = 0; probe < MAX_PROBES && probe <= slotMask; probe++) {
+            int slot = (start + probe) & slotMask;
+            if (inFlight.get(slot) == null) {
+                InFlightHandler handler = new InFlightHandler(thread, span, message, slot);
+                if (inFlight.compareAndSet(slot, null, handler)) {
+                    return handler;
+                }
+            }
+        }
+        untrackedHandlers.increment();
+        return null;
+    }
+
+    /**
+     * Stop watching the given {@code handler}. If its stack was sampled, the aggregated frames are added to its span.
+     *
+     * @param handler the handler which finished
+     */
+    void untrack(InFlightHandler handler) {
+        inFlight.compareAndSet(handler.slot, handler, null);
+        FrameSamples frameSamples = handler.frameSamples;
+        if (frameSamples != null) {
+            handler.span.tag(TAG_HANDLER_STACK, frameSamples.render());
+            if (!handler.reported) {
+                report(handler, frameSamples, System.nanoTime() - handler.startNanos);
+            }
+        }
+    }
+
+    private void scanLoop() {
+        while (!closed) {
+            LockSupport.parkNanos(this, sampleIntervalNanos);
+            try {
+                scan();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to sample the stacks of slow handlers.", e);
+            }
+        }
+    }
+
+    /**
+     * Sample the stacks of the in-flight handlers which have been running for longer than the threshold.
+     */
+    void scan() {
+        long now = System.nanoTime();
+        for (int slot = 0; slot <= slotMask; slot++) {
+            InFlightHandler handler = inFlight.get(slot);
+            if (handler == null || now - handler.startNanos < thresholdNanos) {
+                continue;
+            }
+            FrameSamples current = handler.frameSamples;
+            if (current != null && current.count >= samples) {
+                continue;
+            }
+            StackTraceElement[] stack = handler.thread.getStackTrace();
+            if (inFlight.get(slot) != handler) {
+                // the handler finished while sampling, so the stack may belong to another handler
+                continue;
+            }
+            FrameSamples updated = FrameSamples.add(current, stack, maxFrames);
+            handler.frameSamples = updated;
+            if (current == null) {
+                slowHandlers.increment();
+            }
+            if (updated.count >= samples) {
+                handler.reported = true;
+                report(handler, updated, now - handler.startNanos);
+            }
+        }
+    }
+
+    private void report(InFlightHandler handler, FrameSamples frameSamples, long elapsedNanos) {
+        logger.warn("Handler of [{}] in trace [{}] has been running for {}ms. Frames of {} stack samples:\n{}",
+                    handler.message.getPayloadType().getName(),
+                    handler.span.traceId(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    frameSamples.count,
+                    frameSamples.render());
+    }
+
+    /**
+     * Returns the number of handlers of which the stack was sampled for running longer than the threshold.
+     *
+     * @return the number of handlers which ran longer than the threshold
+     */
+    public long slowHandlers() {
+        return slowHandlers.sum();
+    }
+
+    /**
+     * Returns the number of handlers which were not watched, because the table of in-flight handlers was full.
+     *
+     * @return the number of handlers which were not watched
+     */
+    public long untrackedHandlers() {
+        return untrackedHandlers.sum();
+    }
+
+    /**
+     * Stop the scanning thread. Handlers registered afterwards are no longer sampled.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(scanThread);
+    }
+
+    /**
+     * A handler which is being watched, referenced from the table of in-flight handlers.
+     */
+    static final class InFlightHandler {
+
+        private final Thread thread;
+        private final TracedSpan span;
+        private final Message<?> message;
+        private final int slot;
+        private final long startNanos = System.nanoTime();
+        // only written by the scanning thread
+        private volatile FrameSamples frameSamples;
+        private volatile boolean reported;
+
+        private InFlightHandler(Thread thread, TracedSpan span, Message<?> message, int slot) {
+            this.thread = thread;
+            this.span = span;
+            this.message = message;
+            this.slot = slot;
+        }
+    }
+
+    /**
+     * Immutable aggregation of the frames of the stack samples of a handler, counting the samples each frame occurs
+     * in, in the order the frames were first encountered from the top of the stack.
+     */
+    private static final class FrameSamples {
+
+        private final int count;
+        private final Map<String, Integer> frames;
+
+        private FrameSamples(int count, Map<String, Integer> frames) {
+            this.count = count;
+            this.frames = frames;
+        }
+
+        private static FrameSamples add(FrameSamples current, StackTraceElement[] stack, int maxFrames) {
+            Map<String, Integer> frames = current == null ? new LinkedHashMap<>() : new LinkedHashMap<>(current.frames);
+            for (int i = 0; i < stack.length && i < maxFrames; i++) {
+                frames.merge(stack[i].toString(), 1, Integer::sum);
+            }
+            return new FrameSamples(current == null ? 1 : current.count + 1, frames);
+        }
+
+        private String render() {
+            StringBuilder rendered = new StringBuilder();
+            frames.forEach((frame, occurrences) -> {
+                if (rendered.length() > 0) {
+                    rendered.append('\n');
+                }
+                rendered.append(occurrences).append('/').append(count).append(' ').append(frame);
+            });
+            return rendered.toString();
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link SlowHandlerWatchdog}.
+     * <p>
+     * The threshold defaults to one second, the sample interval to {@code 100} milliseconds, the number of samples
+     * per slow handler to {@code 3}, the number of frames per sample to {@code 20} and the number of in-flight
+     * handlers which can be watched to {@code 256}. The scanning thread is created by an {@link AxonThreadFactory}.
+     */
+    public static class Builder {
+
+        private Duration threshold = Duration.ofSeconds(1);
+        private Duration sampleInterval = Duration.ofMillis(100);
+        private int samples = 3;
+        private int maxFrames = 20;
+        private int maxInFlight = 256;
+        private ThreadFactory threadFactory = new AxonThreadFactory("SlowHandlerWatchdog");
+
+        /**
+         * Sets the time a handler may run before its stack is sampled. Defaults to one second.
+         *
+         * @param threshold the time a handler may run before its stack is sampled
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder threshold(Duration threshold) {
+            assertNonNull(threshold, "The threshold may not be null");
+            assertThat(threshold, t -> !t.isNegative(), "The threshold may not be negative");
+            this.threshold = threshold;
+            return this;
+        }
+
+        /**
+         * Sets the interval at which the in-flight handlers are scanned, which is also the interval between the stack
+         * samples of a slow handler. Defaults to {@code 100} milliseconds.
+         *
+         * @param sampleInterval the interval at which the in-flight handlers are scanned
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder sampleInterval(Duration sampleInterval) {
+            assertNonNull(sampleInterval, "The sample interval may not be null");
+            assertStrictPositive(sampleInterval.toNanos(), "The sample interval should be a positive duration");
+            this.sampleInterval = sampleInterval;
+            return this;
+        }
+
+        /**
+         * Sets the number of stack samples taken of a slow handler. Defaults to {@code 3}.
+         *
+         * @param samples the number of stack samples taken of a slow handler
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder samples(int samples) {
+            assertStrictPositive(samples, "The number of samples should be a positive number");
+            this.samples = samples;
+            return this;
+        }
+
+        /**
+         * Sets the number of frames from the top of the stack kept per sample. Defaults to {@code 20}.
+         *
+         * @param maxFrames the number of frames kept per sample
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder maxFrames(int maxFrames) {
+            assertStrictPositive(maxFrames, "The number of frames should be a positive number");
+            this.maxFrames = maxFrames;
+            return this;
+        }
+
+        /**
+         * Sets the number of concurrently running handlers which can be watched, rounded up to a power of two.
+         * Defaults to {@code 256}.
+         *
+         * @param maxInFlight the number of concurrently running handlers which can be watched
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            assertStrictPositive(maxInFlight, "The number of in-flight handlers should be a positive number");
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Sets the {@link ThreadFactory} used to create the scanning thread. Defaults to an
+         * {@link AxonThreadFactory}.
+         *
+         * @param threadFactory the {@link ThreadFactory} used to create the scanning thread
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            assertNonNull(threadFactory, "ThreadFactory may not be null");
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link SlowHandlerWatchdog} as specified through this Builder.
+         *
+         * @return a {@link SlowHandlerWatchdog} as specified through this Builder
+         */
+        public SlowHandlerWatchdog build() {
+            return new SlowHandlerWatchdog(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            // Kept to be overridden
+        }
+    }
+}
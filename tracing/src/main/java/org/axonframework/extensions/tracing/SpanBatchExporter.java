@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import zipkin2.Span;
+import zipkin2.codec.SpanBytesEncoder;
+import zipkin2.reporter.Sender;
+
+/**
+ * Exports a batch of finished {@link Span}s towards a tracing backend. Used by the {@link BatchingSpanReporter} on
+ * its own exporting thread, hence implementations are allowed to block.
+ *
+ * @since 4.2
+ */
+@FunctionalInterface
+public interface SpanBatchExporter {
+
+    /**
+     * Export the given batch of {@code spans}.
+     *
+     * @param spans the batch of finished {@link Span}s to export
+     * @throws Exception if the batch could not be exported
+     */
+    void export(List<Span> spans) throws Exception;
+
+    /**
+     * Create a {@link SpanBatchExporter} which encodes spans in the {@link zipkin2.codec.Encoding} of the given
+     * {@link Sender} and sends them with it. A batch is split up in several messages if it would otherwise exceed the
+     * {@link Sender#messageMaxBytes()}.
+     *
+     * @param sender the {@link Sender} used to transport the encoded spans
+     * @return a {@link SpanBatchExporter} sending spans through the given {@code sender}
+     */
+    static SpanBatchExporter forSender(Sender sender) {
+        SpanBytesEncoder encoder;
+        switch (sender.encoding()) {
+            case PROTO3:
+                encoder = SpanBytesEncoder.PROTO3;
+                break;
+            case THRIFT:
+                encoder = SpanBytesEncoder.THRIFT;
+                break;
+            default:
+                encoder = SpanBytesEncoder.JSON_V2;
+        }
+        return spans -> {
+            List<byte[]> message = new ArrayList<>(spans.size());
+            for (Span span : spans) {
+                byte[] encoded = encoder.encode(span);
+                message.add(encoded);
+                if (message.size() > 1 && sender.messageSizeInBytes(message) > sender.messageMaxBytes()) {
+                    message.remove(message.size() - 1);
+                    sender.sendSpans(message).execute();
+                    message = new ArrayList<>(spans.size());
+                    message.add(encoded);
+                }
+            }
+            if (!message.isEmpty()) {
+                sender.sendSpans(message).execute();
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+/**
+ * Describes how the {@link OpenTraceHandlerInterceptor} maps handled messages on spans.
+ *
+ * @since 4.2
+ */
+public enum SpanMode {
+
+    /**
+     * Start a span for every handled message.
+     */
+    PER_MESSAGE,
+
+    /**
+     * Start a single span for all messages handled in the same
+     * {@link org.axonframework.messaging.unitofwork.BatchingUnitOfWork}, as used by event processors processing events
+     * in batches. Messages handled in any other unit of work still get a span per message.
+     */
+    PER_BATCH
+}
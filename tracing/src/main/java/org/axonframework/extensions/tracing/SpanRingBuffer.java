@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free ring buffer used to hand over finished spans from application threads to an exporting thread.
+ * <p>
+ * Any number of threads may {@link #offer(Object, long)} elements concurrently. Although a single thread is expected
+ * to drain the buffer, {@link #poll(long[])} is safe to call from multiple threads, which allows producers to evict
+ * the oldest element when the buffer is full. Every slot keeps the time at which its element was offered, so the
+ * consumer can determine how long elements have been waiting without wrapping them.
+ *
+ * @param <E> the type of element contained in this buffer
+ * @since 4.2
+ */
+class SpanRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final long[] timestamps;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+
+    /**
+     * Initialize a ring buffer which is able to contain at least the given {@code capacity} of elements. The actual
+     * capacity is rounded up to the next power of two.
+     *
+     * @param capacity the minimal number of elements this buffer should be able to contain
+     */
+    SpanRingBuffer(int capacity) {
+        int actualCapacity = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = actualCapacity - 1;
+        this.elements = new AtomicReferenceArray<>(actualCapacity);
+        this.sequences = new AtomicLongArray(actualCapacity);
+        this.timestamps = new long[actualCapacity];
+        for (int i = 0; i < actualCapacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Attempt to add the given {@code element} to this buffer, without ever blocking.
+     *
+     * @param element   the element to add
+     * @param timestamp the time, in nanoseconds, at which the element is offered
+     * @return {@code true} if the element was added, {@code false} if the buffer is full
+     */
+    boolean offer(E element, long timestamp) {
+        long position = enqueuePosition.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = enqueuePosition.get();
+            }
+        }
+        timestamps[index] = timestamp;
+        elements.lazySet(index, element);
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Remove the oldest element from this buffer, without ever blocking.
+     *
+     * @param timestampHolder an optional array of which the first position is set to the time at which the returned
+     *                        element was offered. May be {@code null}
+     * @return the oldest element in this buffer, or {@code null} if the buffer is empty
+     */
+    E poll(long[] timestampHolder) {
+        long position = dequeuePosition.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = dequeuePosition.get();
+            }
+        }
+        E element = elements.get(index);
+        if (timestampHolder != null) {
+            timestampHolder[0] = timestamps[index];
+        }
+        elements.lazySet(index, null);
+        sequences.set(index, position + mask + 1);
+        return element;
+    }
+
+    /**
+     * Retrieve the time at which the oldest element in this buffer was offered, without removing it.
+     *
+     * @param timestampHolder an array of which the first position is set to the time at which the oldest element was
+     *                        offered
+     * @return {@code true} if the timestamp was retrieved, {@code false} if the buffer is empty or the oldest element
+     * is still being offered
+     */
+    boolean peekTimestamp(long[] timestampHolder) {
+        while (true) {
+            long position = dequeuePosition.get();
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                return false;
+            }
+            long timestamp = timestamps[index];
+            // the slot may have been polled and offered again while reading its timestamp
+            if (sequences.get(index) == position + 1) {
+                timestampHolder[0] = timestamp;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns an estimate of the number of elements in this buffer. The value may be stale by the time it is returned
+     * when other threads are concurrently offering or polling.
+     *
+     * @return an estimate of the number of elements in this buffer
+     */
+    int size() {
+        long size = enqueuePosition.get() - dequeuePosition.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * Returns the maximum number of elements this buffer can contain.
+     *
+     * @return the maximum number of elements this buffer can contain
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+/**
+ * The scope of a span put in scope of the current thread through {@link TracingBackend#makeCurrent(TracedSpan)}.
+ * Closing it restores the previous scope.
+ *
+ * @since 4.2
+ */
+@FunctionalInterface
+public interface SpanScope extends AutoCloseable {
+
+    @Override
+    void close();
+}
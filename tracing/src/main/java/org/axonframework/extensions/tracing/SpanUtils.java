@@ -14,6 +14,7 @@ public class SpanUtils {
     static final String TAG_AXON_ID = "axon.message.id";
     static final String TAG_AXON_MSG_TYPE = "axon.message.type";
     static final String TAG_AXON_COMMAND_NAME = "axon.message.commandname";
+    static final String TAG_PROCESSOR_NAME = "axon.processor.name";
 
     /**
      * Registers message-specific tags to the given {@code Span} based on the given {@code message}.
@@ -31,6 +32,21 @@ public class SpanUtils {
         }
     }
 
+    /**
+     * Registers message-specific tags to the given {@link TracedSpan} based on the given {@code message}.
+     *
+     * @param span    the {@link TracedSpan} to register the tags with
+     * @param message the message to retrieve details from
+     */
+    public static void withMessageTags(TracedSpan span, Message<?> message) {
+        span.tag(TAG_AXON_ID, message.getIdentifier());
+        span.tag(TAG_AXON_MSG_TYPE, resolveType(message));
+        span.tag(TAG_AXON_PAYLOAD_TYPE, message.getPayloadType().getName());
+        if (message instanceof CommandMessage) {
+            span.tag(TAG_AXON_COMMAND_NAME, ((CommandMessage<?>) message).getCommandName());
+        }
+    }
+
     /**
      * Resolves the type of message as a String, for use in description of operations.
      * <p>
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+
+/**
+ * Listener notified of the operations performed on a {@link TracingTokenStore}. All methods do nothing by default, so
+ * that implementations only need to override the notifications they are interested in.
+ *
+ * @since 4.2
+ */
+public interface TokenStoreListener {
+
+    /**
+     * A {@link TokenStoreListener} ignoring all operations.
+     */
+    TokenStoreListener NO_OP = new TokenStoreListener() {
+    };
+
+    /**
+     * Invoked when an operation on the token store completed.
+     *
+     * @param processorName the name of the processor the operation was performed for
+     * @param segment       the segment the operation was performed for, or {@code -1} for operations on all segments
+     *                      of the processor
+     * @param operation     the operation, being the name of the invoked token store method, such as
+     *                      {@code fetchToken}, {@code storeToken} or {@code extendClaim}
+     * @param duration      the time the operation took
+     * @param outcome       the {@link Outcome} of the operation
+     */
+    default void onOperation(String processorName, int segment, String operation, Duration duration,
+                             Outcome outcome) {
+    }
+
+    /**
+     * Invoked when a thread claimed a segment after a period without claim. That period starts with the first failed
+     * claim attempt of the thread, or with the thread releasing its claim, and ends when the thread successfully
+     * fetches a token.
+     *
+     * @param processorName the name of the processor the thread claimed a segment of
+     * @param duration      the time the thread spent without claimed segment
+     */
+    default void onClaimAcquired(String processorName, Duration duration) {
+    }
+
+    /**
+     * The outcome of an operation on the token store.
+     */
+    enum Outcome {
+
+        /**
+         * The operation succeeded.
+         */
+        SUCCESS,
+
+        /**
+         * The operation failed because the segment is claimed by another owner.
+         */
+        CLAIM_FAILED,
+
+        /**
+         * The operation failed for any other reason.
+         */
+        FAILURE
+    }
+}
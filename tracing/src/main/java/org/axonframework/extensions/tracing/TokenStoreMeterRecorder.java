@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link TokenStoreListener} recording token store operations through Micrometer. Registers:
+ * <ul>
+ * <li>{@code axon.tokenstore.duration}, a timer of the token store operations, tagged with the {@code processor}, the
+ * {@code segment} ({@code all} for operations on all segments), the {@code operation} and the {@code outcome}
+ * ({@code success}, {@code claim_failed} or {@code failure}),</li>
+ * <li>{@code axon.tokenstore.unclaimed}, a timer of the time threads spent without claimed segment before claiming
+ * one, tagged with the {@code processor}.</li>
+ * </ul>
+ * Both publish a percentile histogram.
+ *
+ * @since 4.2
+ */
+public class TokenStoreMeterRecorder implements TokenStoreListener {
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Timer> operations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> unclaimed = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize a {@link TokenStoreListener} recording token store operations in the given {@code registry}.
+     *
+     * @param registry the {@link MeterRegistry} to register the token store meters in
+     */
+    public TokenStoreMeterRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onOperation(String processorName, int segment, String operation, Duration duration,
+                            Outcome outcome) {
+        operations.computeIfAbsent(
+                processorName + ':' + segment + ':' + operation + ':' + outcome,
+                key -> Timer.builder("axon.tokenstore.duration")
+                            .description("The time spent in token store operations")
+                            .tag("processor", processorName)
+                            .tag("segment", segment < 0 ? "all" : Integer.toString(segment))
+                            .tag("operation", operation)
+                            .tag("outcome", outcome.name().toLowerCase())
+                            .publishPercentileHistogram()
+                            .register(registry)
+        ).record(duration);
+    }
+
+    @Override
+    public void onClaimAcquired(String processorName, Duration duration) {
+        unclaimed.computeIfAbsent(processorName,
+                                  key -> Timer.builder("axon.tokenstore.unclaimed")
+                                              .description("The time threads spent without claimed segment")
+                                              .tag("processor", processorName)
+                                              .publishPercentileHistogram()
+                                              .register(registry))
+                 .record(duration);
+    }
+}
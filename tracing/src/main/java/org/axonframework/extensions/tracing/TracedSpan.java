@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+/**
+ * A span started through a {@link TracingBackend}.
+ *
+ * @since 4.2
+ */
+public interface TracedSpan {
+
+    /**
+     * Tag this span with the given {@code key} and {@code value}.
+     *
+     * @param key   the key of the tag
+     * @param value the value of the tag
+     * @return this span, for fluent interfacing
+     */
+    TracedSpan tag(String key, String value);
+
+    /**
+     * Record an event with the given {@code name} at the current time on this span.
+     *
+     * @param name the name of the event
+     * @return this span, for fluent interfacing
+     */
+    TracedSpan annotate(String name);
+
+    /**
+     * Mark this span as failed with the given {@code error}.
+     *
+     * @param error the error the traced operation failed with
+     * @return this span, for fluent interfacing
+     */
+    TracedSpan error(Throwable error);
+
+    /**
+     * Finish this span. Only the first invocation has an effect.
+     */
+    void finish();
+
+    /**
+     * Returns whether this span records the tags and events added to it, which is not the case for spans of unsampled
+     * traces. Allows callers to skip building tags and events which would be discarded.
+     *
+     * @return {@code true} if this span records its tags and events, {@code false} otherwise
+     */
+    boolean isRecording();
+
+    /**
+     * Returns the identifier of the trace this span belongs to, as rendered by the tracing library, or {@code null}
+     * if the span belongs to no trace. Allows correlating log statements about a span with the trace.
+     *
+     * @return the identifier of the trace this span belongs to, or {@code null}
+     */
+    String traceId();
+
+    /**
+     * Returns the identifier of this span, as rendered by the tracing library, or {@code null} if the span belongs
+     * to no trace.
+     *
+     * @return the identifier of this span, or {@code null}
+     */
+    String spanId();
+
+    /**
+     * The role of a span in the communication between components.
+     */
+    enum Kind {
+
+        /**
+         * The span describes the sending side of a request, such as dispatching a command or query.
+         */
+        CLIENT,
+
+        /**
+         * The span describes the handling side of a request, such as handling a command or query.
+         */
+        SERVER,
+
+        /**
+         * The span describes the publication of a message which is handled asynchronously.
+         */
+        PRODUCER,
+
+        /**
+         * The span describes the asynchronous handling of a message.
+         */
+        CONSUMER,
+
+        /**
+         * The span describes an operation within a component.
+         */
+        INTERNAL
+    }
+}
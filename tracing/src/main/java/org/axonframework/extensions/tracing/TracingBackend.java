@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Service provider interface abstracting the tracing library used by the tracing gateways and interceptors. It
+ * exposes only the operations those components need: starting spans, putting them in scope and propagating the
+ * current trace context through the {@link org.axonframework.messaging.MetaData} of messages.
+ * <p>
+ * Implementations are provided for Brave ({@link BraveTracingBackend}) and OpenTelemetry
+ * ({@link OpenTelemetryTracingBackend}). When tracing is disabled, the {@link NoopTracingBackend} should be used; the
+ * components recognize it when they are created and bypass tracing entirely.
+ *
+ * @since 4.2
+ */
+public interface TracingBackend {
+
+    /**
+     * Start a span with the given {@code name} and {@code kind}, as a child of the {@link #currentSpan() current
+     * span} or as the root of a new trace if there is none.
+     *
+     * @param name the name of the span
+     * @param kind the {@link TracedSpan.Kind} of the span
+     * @return the started span
+     */
+    TracedSpan startSpan(String name, TracedSpan.Kind kind);
+
+    /**
+     * Start a span with the given {@code name} and {@code kind}, continuing the trace propagated in the given
+     * {@code carrier}, typically the {@link org.axonframework.messaging.MetaData} of a handled message. If the carrier
+     * holds no trace context, the span is started as by {@link #startSpan(String, TracedSpan.Kind)}.
+     *
+     * @param name    the name of the span
+     * @param kind    the {@link TracedSpan.Kind} of the span
+     * @param carrier the entries which may hold a propagated trace context
+     * @return the started span
+     */
+    TracedSpan startSpan(String name, TracedSpan.Kind kind, Map<String, ?> carrier);
+
+    /**
+     * Returns the span in scope of the current thread, or {@code null} if there is none.
+     *
+     * @return the span in scope of the current thread, or {@code null}
+     */
+    TracedSpan currentSpan();
+
+    /**
+     * Put the given {@code span} in scope of the current thread, until the returned {@link SpanScope} is closed. A
+     * {@code null} span clears the scope instead.
+     *
+     * @param span the span to put in scope, or {@code null} to clear the scope
+     * @return the {@link SpanScope} restoring the previous scope when closed
+     */
+    SpanScope makeCurrent(TracedSpan span);
+
+    /**
+     * Write the trace context of the {@link #currentSpan() current span} to the given {@code carrier}, so that it can
+     * be continued by the handler of a message. Does nothing if there is no current span.
+     *
+     * @param carrier the entries to write the trace context to
+     */
+    void injectCurrentContext(Map<String, String> carrier);
+
+    /**
+     * Returns the keys this backend may write when {@link #injectCurrentContext(Map) injecting} the trace context.
+     *
+     * @return the keys this backend may write when injecting the trace context
+     */
+    Collection<String> propagationKeys();
+
+    /**
+     * Returns a backend which samples the traces it starts at the given {@code rate}. Spans continuing a trace with a
+     * sampling decision follow that decision instead.
+     *
+     * @param rate the rate, between {@code 0.0} and {@code 1.0}, at which new traces are sampled
+     * @return a backend sampling the traces it starts at the given rate
+     */
+    TracingBackend withSampleRate(float rate);
+
+    /**
+     * Returns whether the given {@code backend} traces anything at all, that is whether it is not the
+     * {@link NoopTracingBackend}. Components evaluate this once, when they are created.
+     *
+     * @param backend the backend to verify
+     * @return {@code true} if the given backend traces, {@code false} if it is the {@link NoopTracingBackend}
+     */
+    static boolean isTracing(TracingBackend backend) {
+        return !(backend instanceof NoopTracingBackend);
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+import brave.Tracing;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.distributed.CommandBusConnector;
+import org.axonframework.commandhandling.distributed.Member;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.messaging.MessageHandler;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+
+/**
+ * A {@link CommandBusConnector} wrapping another CommandBusConnector, tracing the commands a
+ * {@link org.axonframework.commandhandling.distributed.DistributedCommandBus} sends to its members and measuring the
+ * time they spend in transit.
+ * <p>
+ * Commands sent while a span is in scope are traced in a {@code sendCommand} span, tagged with the member the command
+ * is sent to, and the trace context of that span is added to the {@link org.axonframework.messaging.MetaData} of the
+ * command. The handler on the receiving member thereby continues the trace as a child of the hop. Commands sent with a
+ * callback finish their span when the result is received; others when the command is handed to the transport.
+ * <p>
+ * Every sent command is additionally marked with the time it was sent. When a command handler subscribed through this
+ * connector receives the command, the time between sending and handling is tagged on the current handler span and
+ * reported to the {@link CommandRoutingListener}. This time is measured by the clocks of two members, so it is only as
+ * accurate as their synchronization. Both the sending and the receiving member should use a tracing connector.
+ *
+ * @since 4.2
+ */
+public class TracingCommandBusConnector implements CommandBusConnector {
+
+    /**
+     * The meta data key holding the time, in epoch milliseconds, at which a command was sent to a member.
+     */
+    static final String SENT_TIME_KEY = "axon-command-sent-time";
+    static final String TAG_TRANSIT = "axon.command.transit.ms";
+
+    private final CommandBusConnector delegate;
+    private final TracingBackend backend;
+    private final boolean tracing;
+    private final CommandRoutingListener listener;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingCommandBusConnector}.
+     * <p>
+     * The {@link CommandRoutingListener} defaults to {@link CommandRoutingListener#NO_OP}. The delegate
+     * {@link CommandBusConnector} and the {@link TracingBackend} are <b>hard requirements</b> and as such should be
+     * provided.
+     *
+     * @return a Builder to be able to create a {@link TracingCommandBusConnector}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingCommandBusConnector} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingCommandBusConnector} instance
+     */
+    protected TracingCommandBusConnector(Builder builder) {
+        builder.validate();
+        this.delegate = builder.delegate;
+        this.backend = builder.backend;
+        this.tracing = TracingBackend.isTracing(builder.backend);
+        this.listener = builder.listener;
+    }
+
+    @Override
+    public <C> void send(Member destination, CommandMessage<? extends C> command) throws Exception {
+        TracedSpan span = startSpan(destination, command);
+        long start = System.nanoTime();
+        boolean failed = false;
+        try (SpanScope ignored = span != null ? backend.makeCurrent(span) : null) {
+            delegate.send(destination, command.andMetaData(sendingMetaData()));
+        } catch (Exception | Error e) {
+            failed = true;
+            if (span != null) {
+                span.error(e);
+            }
+            throw e;
+        } finally {
+            if (span != null) {
+                span.finish();
+            }
+            listener.onSent(command.getCommandName(), destination.name(),
+                            Duration.ofNanos(System.nanoTime() - start), failed);
+        }
+    }
+
+    @Override
+    public <C, R> void send(Member destination, CommandMessage<C> command, CommandCallback<? super C, R> callback)
+            throws Exception {
+        TracedSpan span = startSpan(destination, command);
+        long start = System.nanoTime();
+        CommandCallback<C, R> tracingCallback = (commandMessage, result) -> {
+            if (span != null) {
+                if (result.isExceptional()) {
+                    span.error(result.exceptionResult());
+                }
+                span.finish();
+            }
+            listener.onSent(command.getCommandName(), destination.name(),
+                            Duration.ofNanos(System.nanoTime() - start), result.isExceptional());
+            callback.onResult(commandMessage, result);
+        };
+        try (SpanScope ignored = span != null ? backend.makeCurrent(span) : null) {
+            delegate.send(destination, command.andMetaData(sendingMetaData()), tracingCallback);
+        } catch (Exception | Error e) {
+            if (span != null) {
+                span.error(e);
+                span.finish();
+            }
+            listener.onSent(command.getCommandName(), destination.name(),
+                            Duration.ofNanos(System.nanoTime() - start), true);
+            throw e;
+        }
+    }
+
+    private TracedSpan startSpan(Member destination, CommandMessage<?> command) {
+        if (!tracing || backend.currentSpan() == null) {
+            return null;
+        }
+        TracedSpan span = backend.startSpan("sendCommand", TracedSpan.Kind.CLIENT);
+        SpanUtils.withMessageTags(span, command);
+        span.tag(TracingCommandRouter.TAG_MEMBER, destination.name());
+        span.tag(TracingCommandRouter.TAG_MEMBER_LOCAL, Boolean.toString(destination.local()));
+        return span;
+    }
+
+    /**
+     * Returns the meta data to add to a command being sent, holding the current time and, if tracing, the trace
+     * context of the span in scope. Must be invoked with the span of the hop in scope.
+     */
+    private Map<String, String> sendingMetaData() {
+        Map<String, String> metaData = new HashMap<>();
+        if (tracing) {
+            backend.injectCurrentContext(metaData);
+        }
+        metaData.put(SENT_TIME_KEY, Long.toString(GenericEventMessage.clock.millis()));
+        return metaData;
+    }
+
+    @Override
+    public Registration subscribe(String commandName, MessageHandler<? super CommandMessage<?>> handler) {
+        return delegate.subscribe(commandName, new TransitMeasuringHandler(handler));
+    }
+
+    @Override
+    public Registration registerHandlerInterceptor(
+            MessageHandlerInterceptor<? super CommandMessage<?>> handlerInterceptor) {
+        return delegate.registerHandlerInterceptor(handlerInterceptor);
+    }
+
+    private void measureTransit(CommandMessage<?> command) {
+        Object sentTime = command.getMetaData().get(SENT_TIME_KEY);
+        if (sentTime == null) {
+            return;
+        }
+        Duration transit;
+        try {
+            transit = Duration.ofMillis(GenericEventMessage.clock.millis() - Long.parseLong(sentTime.toString()));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (tracing) {
+            TracedSpan span = backend.currentSpan();
+            if (span == null) {
+                span = OpenTraceHandlerInterceptor.currentHandlerSpan();
+            }
+            if (span != null) {
+                span.tag(TAG_TRANSIT, Long.toString(transit.toMillis()));
+            }
+        }
+        listener.onReceived(command.getCommandName(), transit);
+    }
+
+    /**
+     * Handler measuring the transit time of received commands before delegating to the subscribed handler.
+     */
+    private class TransitMeasuringHandler implements MessageHandler<CommandMessage<?>> {
+
+        private final MessageHandler<? super CommandMessage<?>> delegate;
+
+        private TransitMeasuringHandler(MessageHandler<? super CommandMessage<?>> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object handle(CommandMessage<?> message) throws Exception {
+            measureTransit(message);
+            return delegate.handle(message);
+        }
+
+        @Override
+        public boolean canHandle(CommandMessage<?> message) {
+            return delegate.canHandle(message);
+        }
+
+        @Override
+        public Class<?> getTargetType() {
+            return delegate.getTargetType();
+        }
+
+        @Override
+        public boolean canHandleType(Class<?> payloadType) {
+            return delegate.canHandleType(payloadType);
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingCommandBusConnector}.
+     * <p>
+     * The {@link CommandRoutingListener} defaults to {@link CommandRoutingListener#NO_OP}. The delegate
+     * {@link CommandBusConnector} and the {@link TracingBackend} are <b>hard requirements</b> and as such should be
+     * provided.
+     */
+    public static class Builder {
+
+        private CommandBusConnector delegate;
+        private TracingBackend backend;
+        private CommandRoutingListener listener = CommandRoutingListener.NO_OP;
+
+        /**
+         * Sets the {@link CommandBusConnector} this tracing-wrapper delegates the actual transport of commands to.
+         *
+         * @param delegate the {@link CommandBusConnector} to delegate the actual transport of commands to
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegate(CommandBusConnector delegate) {
+            assertNonNull(delegate, "Delegate CommandBusConnector may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Tracing} used to trace sent commands, by wrapping it in a {@link BraveTracingBackend}.
+         *
+         * @param tracing the {@link Tracing} used to trace sent commands
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracing tracing) {
+            assertNonNull(tracing, "Tracing may not be null");
+            this.backend = new BraveTracingBackend(tracing);
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingBackend} used to trace sent commands.
+         *
+         * @param backend the {@link TracingBackend} used to trace sent commands
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets the {@link CommandRoutingListener} notified of every sent and received command. Defaults to
+         * {@link CommandRoutingListener#NO_OP}.
+         *
+         * @param listener the {@link CommandRoutingListener} notified of every sent and received command
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder listener(CommandRoutingListener listener) {
+            assertNonNull(listener, "CommandRoutingListener may not be null");
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingCommandBusConnector} as specified through this Builder.
+         *
+         * @return a {@link TracingCommandBusConnector} as specified through this Builder
+         */
+        public TracingCommandBusConnector build() {
+            return new TracingCommandBusConnector(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(delegate, "The delegate CommandBusConnector is a hard requirement and should be provided");
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
+        }
+    }
+}
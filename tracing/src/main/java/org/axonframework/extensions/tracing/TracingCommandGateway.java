@@ -17,8 +17,6 @@ package org.axonframework.extensions.tracing;
 
 import static org.axonframework.common.BuilderUtils.assertNonNull;
 
-import brave.Span;
-import brave.Tracer.SpanInScope;
 import brave.Tracing;
 import java.lang.invoke.MethodHandles;
 import java.util.concurrent.CompletableFuture;
@@ -55,7 +53,8 @@ public class TracingCommandGateway implements CommandGateway {
 
     private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-    private final Tracing tracing;
+    private final TracingBackend backend;
+    private final boolean tracing;
     private final CommandGateway delegate;
 
     /**
@@ -66,8 +65,8 @@ public class TracingCommandGateway implements CommandGateway {
      * {@link DefaultCommandGateway}. A registered CommandGateway will always take precedence over a configured
      * CommandBus.
      * <p>
-     * The {@link Tracing} and {@link CommandBus} are <b>hard requirements</b> and as such should be provided.
-     * provided.
+     * The {@link TracingBackend} and {@link CommandBus} are <b>hard requirements</b> and as such should be provided.
+     * When the {@link NoopTracingBackend} is provided, commands are sent without any tracing.
      *
      * @return a Builder to be able to create a {@link TracingCommandGateway}
      */
@@ -78,25 +77,33 @@ public class TracingCommandGateway implements CommandGateway {
     /**
      * Instantiate a {@link TracingCommandGateway} based on the fields contained in the {@link Builder}.
      * <p>
-     * Will assert that the {@link Tracing} and delegate {@link CommandGateway} are not {@code null}, and will throw an
-     * {@link AxonConfigurationException} if they are.
+     * Will assert that the {@link TracingBackend} and delegate {@link CommandGateway} are not {@code null}, and will
+     * throw an {@link AxonConfigurationException} if they are.
      *
      * @param builder the {@link Builder} used to instantiate a {@link TracingCommandGateway} instance
      */
     protected TracingCommandGateway(Builder builder) {
         builder.validate();
-        this.tracing = builder.tracing;
+        this.backend = builder.backend;
+        this.tracing = TracingBackend.isTracing(builder.backend);
         this.delegate = builder.buildDelegateCommandGateway();
     }
 
     @Override
     public <C, R> void send(C command, CommandCallback<? super C, ? super R> callback) {
+        if (!tracing) {
+            delegate.send(command, callback);
+            return;
+        }
         CommandMessage<?> cmd = GenericCommandMessage.asCommandMessage(command);
-        sendWithSpan(tracing, "sendCommandMessage", cmd, (tracer, parentSpan, childSpan) -> {
+        sendWithSpan("sendCommandMessage", cmd, (parentSpan, childSpan) -> {
             CompletableFuture<?> resultReceived = new CompletableFuture<>();
             delegate.send(command, (CommandCallback<C, R>) (commandMessage, commandResultMessage) -> {
-                try (SpanInScope ignored = tracer.tracer().withSpanInScope(parentSpan)) {
+                try (SpanScope ignored = backend.makeCurrent(parentSpan)) {
                     childSpan.annotate("resultReceived");
+                    if (commandResultMessage.isExceptional()) {
+                        childSpan.error(commandResultMessage.exceptionResult());
+                    }
                     callback.onResult(commandMessage, commandResultMessage);
                     childSpan.annotate("afterCallbackInvocation");
                 } finally {
@@ -110,16 +117,25 @@ public class TracingCommandGateway implements CommandGateway {
 
     @Override
     public <R> R sendAndWait(Object command) {
+        if (!tracing) {
+            return delegate.sendAndWait(command);
+        }
         return doSendAndExtract(command, FutureCallback::getResult);
     }
 
     @Override
     public <R> R sendAndWait(Object command, long timeout, TimeUnit unit) {
+        if (!tracing) {
+            return delegate.sendAndWait(command, timeout, unit);
+        }
         return doSendAndExtract(command, f -> f.getResult(timeout, unit));
     }
 
     @Override
     public <R> CompletableFuture<R> send(Object command) {
+        if (!tracing) {
+            return delegate.send(command);
+        }
         FutureCallback<Object, R> callback = new FutureCallback<>();
         send(command, new FailureLoggingCallback<>(logger, callback));
         CompletableFuture<R> result = new CompletableFuture<>();
@@ -135,7 +151,7 @@ public class TracingCommandGateway implements CommandGateway {
                         result.completeExceptionally(e);
                     }
                 });
-        return result;
+        return TracingExecutors.continueInCurrentContext(result, backend);
     }
 
     private <R> R doSendAndExtract(Object command,
@@ -152,23 +168,38 @@ public class TracingCommandGateway implements CommandGateway {
 
     private <R> void sendAndRestoreParentSpan(Object command, FutureCallback<Object, R> futureCallback) {
         CommandMessage<?> cmd = GenericCommandMessage.asCommandMessage(command);
-        sendWithSpan(tracing, "sendCommandMessageAndWait", cmd, (tracer, parentSpan, childSpan) -> {
+        sendWithSpan("sendCommandMessageAndWait", cmd, (parentSpan, childSpan) -> {
             delegate.send(cmd, futureCallback);
-            futureCallback.thenRun(() -> childSpan.annotate("resultReceived"));
-
             childSpan.annotate("dispatchComplete");
-            futureCallback.thenRun(childSpan::finish);
+            futureCallback.whenComplete((result, exception) -> {
+                childSpan.annotate("resultReceived");
+                if (exception != null) {
+                    childSpan.error(exception);
+                } else if (result.isExceptional()) {
+                    childSpan.error(result.exceptionResult());
+                }
+                childSpan.finish();
+            });
         });
     }
 
-    private void sendWithSpan(Tracing tracing, String operation, CommandMessage<?> command, SpanConsumer consumer) {
-        Span parent = tracing.tracer().currentSpan();
-        final Span newSpan = tracing.tracer().nextSpan().kind(Span.Kind.CLIENT).name(operation).start();
+    private void sendWithSpan(String operation, CommandMessage<?> command, SpanConsumer consumer) {
+        FlightEvents.Recording dispatchEvent = FlightEvents.begin(FlightEvents.Kind.DISPATCH);
+        TracedSpan parent = backend.currentSpan();
+        final TracedSpan newSpan = backend.startSpan(operation, TracedSpan.Kind.CLIENT);
         SpanUtils.withMessageTags(newSpan, command);
-        try (SpanInScope ignored = tracing.tracer().withSpanInScope(newSpan)) {
-            consumer.accept(tracing, parent, newSpan);
-        } finally {
+        try (SpanScope ignored = backend.makeCurrent(newSpan)) {
+            consumer.accept(parent, newSpan);
+        } catch (RuntimeException | Error e) {
+            // no result will arrive to finish the span, as dispatching itself failed
+            newSpan.error(e);
             newSpan.finish();
+            throw e;
+        } finally {
+            if (dispatchEvent != null) {
+                dispatchEvent.complete(newSpan, operation, SpanUtils.resolveType(command),
+                                       command.getPayloadType().getName());
+            }
         }
     }
 
@@ -191,7 +222,7 @@ public class TracingCommandGateway implements CommandGateway {
     @FunctionalInterface
     private interface SpanConsumer {
 
-        void accept(Tracing tracer, Span activeSpan, Span parentSpan);
+        void accept(TracedSpan parentSpan, TracedSpan childSpan);
     }
 
     /**
@@ -207,7 +238,7 @@ public class TracingCommandGateway implements CommandGateway {
      */
     public static class Builder {
 
-        private Tracing tracing;
+        private TracingBackend backend;
         private CommandBus delegateBus;
         private CommandGateway delegateGateway;
 
@@ -219,7 +250,19 @@ public class TracingCommandGateway implements CommandGateway {
          */
         public Builder tracer(Tracing tracing) {
             assertNonNull(tracing, "Tracer may not be null");
-            this.tracing = tracing;
+            this.backend = new BraveTracingBackend(tracing);
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingBackend} used to start a span for dispatched {@link CommandMessage}s.
+         *
+         * @param backend the {@link TracingBackend} used to start a span for dispatched {@link CommandMessage}s
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
             return this;
         }
 
@@ -280,7 +323,7 @@ public class TracingCommandGateway implements CommandGateway {
          *                                    specifications
          */
         protected void validate() throws AxonConfigurationException {
-            assertNonNull(tracing, "The Tracer is a hard requirement and should be provided");
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
             if (delegateBus == null) {
                 assertNonNull(
                         delegateGateway, "The delegate CommandGateway is a hard requirement and should be provided"
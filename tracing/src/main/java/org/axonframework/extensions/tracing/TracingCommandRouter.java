@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+import brave.Tracing;
+import java.time.Duration;
+import java.util.Optional;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.distributed.CommandMessageFilter;
+import org.axonframework.commandhandling.distributed.CommandRouter;
+import org.axonframework.commandhandling.distributed.Member;
+import org.axonframework.commandhandling.distributed.RoutingStrategy;
+import org.axonframework.common.AxonConfigurationException;
+
+/**
+ * A {@link CommandRouter} wrapping another CommandRouter, tracing the routing decisions of a
+ * {@link org.axonframework.commandhandling.distributed.DistributedCommandBus} and reporting them to a
+ * {@link CommandRoutingListener}.
+ * <p>
+ * Every destination lookup made while a span is in scope, typically the span of the {@link TracingCommandGateway}, is
+ * traced in a {@code findDestination} span tagged with the selected member and whether it is the local member. When a
+ * {@link RoutingStrategy} is configured, the routing key of the command is tagged as well; it should be the strategy
+ * the delegate router uses, otherwise the tagged key may differ from the key the command was routed by. Lookups which
+ * do not find a member are tagged with {@code axon.routing.unresolved}.
+ * <p>
+ * The listener is notified of every lookup, also outside of a trace, so that the distribution of commands over the
+ * members shows whether uneven routing overloads a node.
+ *
+ * @since 4.2
+ */
+public class TracingCommandRouter implements CommandRouter {
+
+    static final String TAG_ROUTING_KEY = "axon.routing.key";
+    static final String TAG_MEMBER = "axon.routing.member";
+    static final String TAG_MEMBER_LOCAL = "axon.routing.member.local";
+    static final String TAG_UNRESOLVED = "axon.routing.unresolved";
+
+    private final CommandRouter delegate;
+    private final TracingBackend backend;
+    private final boolean tracing;
+    private final RoutingStrategy routingStrategy;
+    private final CommandRoutingListener listener;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingCommandRouter}.
+     * <p>
+     * The {@link CommandRoutingListener} defaults to {@link CommandRoutingListener#NO_OP} and routing keys are not
+     * tagged unless a {@link RoutingStrategy} is configured. The delegate {@link CommandRouter} and the
+     * {@link TracingBackend} are <b>hard requirements</b> and as such should be provided.
+     *
+     * @return a Builder to be able to create a {@link TracingCommandRouter}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingCommandRouter} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingCommandRouter} instance
+     */
+    protected TracingCommandRouter(Builder builder) {
+        builder.validate();
+        this.delegate = builder.delegate;
+        this.backend = builder.backend;
+        this.tracing = TracingBackend.isTracing(builder.backend);
+        this.routingStrategy = builder.routingStrategy;
+        this.listener = builder.listener;
+    }
+
+    @Override
+    public Optional<Member> findDestination(CommandMessage<?> command) {
+        TracedSpan span = tracing && backend.currentSpan() != null
+                ? backend.startSpan("findDestination", TracedSpan.Kind.INTERNAL)
+                : null;
+        long start = System.nanoTime();
+        Optional<Member> destination;
+        try (SpanScope ignored = span != null ? backend.makeCurrent(span) : null) {
+            destination = delegate.findDestination(command);
+        } catch (RuntimeException | Error e) {
+            if (span != null) {
+                span.error(e);
+                span.finish();
+            }
+            throw e;
+        }
+        Duration lookup = Duration.ofNanos(System.nanoTime() - start);
+        String memberName = destination.map(Member::name).orElse(null);
+        boolean local = destination.map(Member::local).orElse(false);
+        if (span != null) {
+            tagRouting(span, command, memberName, local);
+            span.finish();
+        }
+        listener.onRouted(command.getCommandName(), memberName, local, lookup);
+        return destination;
+    }
+
+    private void tagRouting(TracedSpan span, CommandMessage<?> command, String memberName, boolean local) {
+        SpanUtils.withMessageTags(span, command);
+        if (routingStrategy != null) {
+            String routingKey = routingStrategy.getRoutingKey(command);
+            if (routingKey != null) {
+                span.tag(TAG_ROUTING_KEY, routingKey);
+            }
+        }
+        if (memberName == null) {
+            span.tag(TAG_UNRESOLVED, "true");
+        } else {
+            span.tag(TAG_MEMBER, memberName);
+            span.tag(TAG_MEMBER_LOCAL, Boolean.toString(local));
+        }
+    }
+
+    @Override
+    public void updateMembership(int loadFactor, CommandMessageFilter commandFilter) {
+        delegate.updateMembership(loadFactor, commandFilter);
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingCommandRouter}.
+     * <p>
+     * The {@link CommandRoutingListener} defaults to {@link CommandRoutingListener#NO_OP} and routing keys are not
+     * tagged unless a {@link RoutingStrategy} is configured. The delegate {@link CommandRouter} and the
+     * {@link TracingBackend} are <b>hard requirements</b> and as such should be provided.
+     */
+    public static class Builder {
+
+        private CommandRouter delegate;
+        private TracingBackend backend;
+        private RoutingStrategy routingStrategy;
+        private CommandRoutingListener listener = CommandRoutingListener.NO_OP;
+
+        /**
+         * Sets the {@link CommandRouter} this tracing-wrapper delegates the actual routing of commands to.
+         *
+         * @param delegate the {@link CommandRouter} to delegate the actual routing of commands to
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegate(CommandRouter delegate) {
+            assertNonNull(delegate, "Delegate CommandRouter may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Tracing} used to trace routing decisions, by wrapping it in a {@link BraveTracingBackend}.
+         *
+         * @param tracing the {@link Tracing} used to trace routing decisions
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracing tracing) {
+            assertNonNull(tracing, "Tracing may not be null");
+            this.backend = new BraveTracingBackend(tracing);
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingBackend} used to trace routing decisions.
+         *
+         * @param backend the {@link TracingBackend} used to trace routing decisions
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets the {@link RoutingStrategy} used to resolve the routing key tagged on traced lookups. This should be
+         * the strategy the delegate {@link CommandRouter} routes commands by. Defaults to not tagging routing keys.
+         *
+         * @param routingStrategy the {@link RoutingStrategy} used to resolve the routing key of commands
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder routingStrategy(RoutingStrategy routingStrategy) {
+            assertNonNull(routingStrategy, "RoutingStrategy may not be null");
+            this.routingStrategy = routingStrategy;
+            return this;
+        }
+
+        /**
+         * Sets the {@link CommandRoutingListener} notified of every routing decision. Defaults to
+         * {@link CommandRoutingListener#NO_OP}.
+         *
+         * @param listener the {@link CommandRoutingListener} notified of every routing decision
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder listener(CommandRoutingListener listener) {
+            assertNonNull(listener, "CommandRoutingListener may not be null");
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingCommandRouter} as specified through this Builder.
+         *
+         * @return a {@link TracingCommandRouter} as specified through this Builder
+         */
+        public TracingCommandRouter build() {
+            return new TracingCommandRouter(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(delegate, "The delegate CommandRouter is a hard requirement and should be provided");
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+import brave.Tracing;
+import java.time.Duration;
+import java.time.Instant;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+import org.axonframework.deadline.DeadlineManager;
+import org.axonframework.deadline.DeadlineMessage;
+import org.axonframework.deadline.GenericDeadlineMessage;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.ScopeDescriptor;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+/**
+ * A {@link DeadlineManager} wrapping another DeadlineManager, tracing the firing of the deadlines it schedules.
+ * <p>
+ * Deadlines are scheduled with the current trace context and the time they should fire in their
+ * {@link org.axonframework.messaging.MetaData}. When a deadline fires, a {@code fireDeadline} span is started which
+ * continues the trace that scheduled it, tagged with the scheduled time and the lag in milliseconds between the
+ * scheduled and the actual time of firing. The lag is also reported to the configured {@link SchedulingLagListener},
+ * also when tracing is disabled through the {@link NoopTracingBackend}.
+ * <p>
+ * The tracing handler interceptor is registered on the delegate when this DeadlineManager is created.
+ *
+ * @since 4.2
+ */
+public class TracingDeadlineManager implements DeadlineManager {
+
+    private final DeadlineManager delegate;
+    private final TracingBackend backend;
+    private final boolean tracing;
+    private final SchedulingLagListener lagListener;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingDeadlineManager}.
+     * <p>
+     * The {@link SchedulingLagListener} defaults to {@link SchedulingLagListener#NO_OP}. The delegate
+     * {@link DeadlineManager} and the {@link TracingBackend} are <b>hard requirements</b> and as such should be
+     * provided.
+     *
+     * @return a Builder to be able to create a {@link TracingDeadlineManager}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingDeadlineManager} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingDeadlineManager} instance
+     */
+    protected TracingDeadlineManager(Builder builder) {
+        builder.validate();
+        this.delegate = builder.delegate;
+        this.backend = builder.backend;
+        this.tracing = TracingBackend.isTracing(builder.backend);
+        this.lagListener = builder.lagListener;
+        delegate.registerHandlerInterceptor(this::handleFiring);
+    }
+
+    @Override
+    public String schedule(Instant triggerDateTime,
+                           String deadlineName,
+                           Object messageOrPayload,
+                           ScopeDescriptor deadlineScope) {
+        return delegate.schedule(triggerDateTime,
+                                 deadlineName,
+                                 withSchedulingMetaData(deadlineName, messageOrPayload, triggerDateTime),
+                                 deadlineScope);
+    }
+
+    @Override
+    public String schedule(Duration triggerDuration,
+                           String deadlineName,
+                           Object messageOrPayload,
+                           ScopeDescriptor deadlineScope) {
+        return delegate.schedule(triggerDuration,
+                                 deadlineName,
+                                 withSchedulingMetaData(deadlineName,
+                                                        messageOrPayload,
+                                                        ScheduledFirings.fireTimeAfter(triggerDuration)),
+                                 deadlineScope);
+    }
+
+    private DeadlineMessage<?> withSchedulingMetaData(String deadlineName,
+                                                      Object messageOrPayload,
+                                                      Instant scheduledTime) {
+        return GenericDeadlineMessage.asDeadlineMessage(deadlineName, messageOrPayload)
+                                     .andMetaData(ScheduledFirings.schedulingMetaData(backend, scheduledTime));
+    }
+
+    private Object handleFiring(UnitOfWork<? extends DeadlineMessage<?>> unitOfWork, InterceptorChain chain)
+            throws Exception {
+        DeadlineMessage<?> deadline = unitOfWork.getMessage();
+        Instant scheduledTime = ScheduledFirings.scheduledTime(deadline);
+        if (scheduledTime == null) {
+            return chain.proceed();
+        }
+        Duration lag = ScheduledFirings.lagSince(scheduledTime);
+        lagListener.onFiring(SchedulingLagListener.DEADLINE, deadline.getDeadlineName(), lag);
+        if (!tracing) {
+            return chain.proceed();
+        }
+
+        TracedSpan span = backend.startSpan("fireDeadline", TracedSpan.Kind.CONSUMER, deadline.getMetaData());
+        SpanUtils.withMessageTags(span, deadline);
+        span.tag("axon.deadline.name", deadline.getDeadlineName());
+        ScheduledFirings.tagFiring(span, scheduledTime, lag);
+        try (SpanScope ignored = backend.makeCurrent(span)) {
+            return chain.proceed();
+        } catch (Exception e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.finish();
+        }
+    }
+
+    @Override
+    public void cancelSchedule(String deadlineName, String scheduleId) {
+        delegate.cancelSchedule(deadlineName, scheduleId);
+    }
+
+    @Override
+    public void cancelAll(String deadlineName) {
+        delegate.cancelAll(deadlineName);
+    }
+
+    @Override
+    public Registration registerDispatchInterceptor(
+            MessageDispatchInterceptor<? super DeadlineMessage<?>> dispatchInterceptor) {
+        return delegate.registerDispatchInterceptor(dispatchInterceptor);
+    }
+
+    @Override
+    public Registration registerHandlerInterceptor(
+            MessageHandlerInterceptor<? super DeadlineMessage<?>> handlerInterceptor) {
+        return delegate.registerHandlerInterceptor(handlerInterceptor);
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingDeadlineManager}.
+     * <p>
+     * The {@link SchedulingLagListener} defaults to {@link SchedulingLagListener#NO_OP}. The delegate
+     * {@link DeadlineManager} and the {@link TracingBackend} are <b>hard requirements</b> and as such should be
+     * provided.
+     */
+    public static class Builder {
+
+        private DeadlineManager delegate;
+        private TracingBackend backend;
+        private SchedulingLagListener lagListener = SchedulingLagListener.NO_OP;
+
+        /**
+         * Sets the {@link DeadlineManager} this tracing-wrapper delegates the actual scheduling of deadlines to.
+         *
+         * @param delegate the {@link DeadlineManager} to delegate the actual scheduling of deadlines to
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegate(DeadlineManager delegate) {
+            assertNonNull(delegate, "Delegate DeadlineManager may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Tracing} used to trace fired deadlines, by wrapping it in a {@link BraveTracingBackend}.
+         *
+         * @param tracing the {@link Tracing} used to trace fired deadlines
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracing tracing) {
+            assertNonNull(tracing, "Tracing may not be null");
+            this.backend = new BraveTracingBackend(tracing);
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingBackend} used to trace fired deadlines.
+         *
+         * @param backend the {@link TracingBackend} used to trace fired deadlines
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SchedulingLagListener} notified of the lag of every fired deadline. Defaults to
+         * {@link SchedulingLagListener#NO_OP}.
+         *
+         * @param lagListener the {@link SchedulingLagListener} notified of the lag of every fired deadline
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder lagListener(SchedulingLagListener lagListener) {
+            assertNonNull(lagListener, "SchedulingLagListener may not be null");
+            this.lagListener = lagListener;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingDeadlineManager} as specified through this Builder.
+         *
+         * @return a {@link TracingDeadlineManager} as specified through this Builder
+         */
+        public TracingDeadlineManager build() {
+            return new TracingDeadlineManager(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(delegate, "The delegate DeadlineManager is a hard requirement and should be provided");
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+import brave.Tracing;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.eventhandling.scheduling.EventScheduler;
+import org.axonframework.eventhandling.scheduling.ScheduleToken;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+
+/**
+ * An {@link EventScheduler} wrapping another EventScheduler, tracing the firing of the events it schedules.
+ * <p>
+ * Events are scheduled with the current trace context and the time they should fire in their
+ * {@link org.axonframework.messaging.MetaData}. As an EventScheduler fires events by publishing them on an
+ * {@link EventBus}, a dispatch interceptor is registered on the EventBus the delegate publishes to. When a scheduled
+ * event is published, that interceptor traces a {@code fireScheduledEvent} span which continues the trace that
+ * scheduled the event, tagged with the scheduled time and the lag in milliseconds between the scheduled and the
+ * actual time of firing. The trace context of that span replaces the scheduling context in the event, so that the
+ * handling of the event is traced as part of the firing. The lag is also reported to the configured
+ * {@link SchedulingLagListener}, also when tracing is disabled through the {@link NoopTracingBackend}.
+ *
+ * @since 4.2
+ */
+public class TracingEventScheduler implements EventScheduler {
+
+    private final EventScheduler delegate;
+    private final TracingBackend backend;
+    private final boolean tracing;
+    private final SchedulingLagListener lagListener;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingEventScheduler}.
+     * <p>
+     * The {@link SchedulingLagListener} defaults to {@link SchedulingLagListener#NO_OP}. The delegate
+     * {@link EventScheduler}, the {@link EventBus} it publishes to and the {@link TracingBackend} are <b>hard
+     * requirements</b> and as such should be provided.
+     *
+     * @return a Builder to be able to create a {@link TracingEventScheduler}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingEventScheduler} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingEventScheduler} instance
+     */
+    protected TracingEventScheduler(Builder builder) {
+        builder.validate();
+        this.delegate = builder.delegate;
+        this.backend = builder.backend;
+        this.tracing = TracingBackend.isTracing(builder.backend);
+        this.lagListener = builder.lagListener;
+        builder.eventBus.registerDispatchInterceptor(new FiringInterceptor());
+    }
+
+    @Override
+    public ScheduleToken schedule(Instant triggerDateTime, Object event) {
+        return delegate.schedule(triggerDateTime, withSchedulingMetaData(event, triggerDateTime));
+    }
+
+    @Override
+    public ScheduleToken schedule(Duration triggerDuration, Object event) {
+        return delegate.schedule(triggerDuration,
+                                 withSchedulingMetaData(event, ScheduledFirings.fireTimeAfter(triggerDuration)));
+    }
+
+    @Override
+    public ScheduleToken reschedule(ScheduleToken scheduleToken, Duration triggerDuration, Object event) {
+        return delegate.reschedule(scheduleToken,
+                                   triggerDuration,
+                                   withSchedulingMetaData(event, ScheduledFirings.fireTimeAfter(triggerDuration)));
+    }
+
+    @Override
+    public void cancelSchedule(ScheduleToken scheduleToken) {
+        delegate.cancelSchedule(scheduleToken);
+    }
+
+    private EventMessage<?> withSchedulingMetaData(Object event, Instant scheduledTime) {
+        return GenericEventMessage.asEventMessage(event)
+                                  .andMetaData(ScheduledFirings.schedulingMetaData(backend, scheduledTime));
+    }
+
+    private EventMessage<?> fire(EventMessage<?> event) {
+        Instant scheduledTime = ScheduledFirings.scheduledTime(event);
+        if (scheduledTime == null) {
+            return event;
+        }
+        Duration lag = ScheduledFirings.lagSince(scheduledTime);
+        lagListener.onFiring(SchedulingLagListener.SCHEDULED_EVENT, event.getPayloadType().getName(), lag);
+        if (!tracing) {
+            return event;
+        }
+
+        TracedSpan span = backend.startSpan("fireScheduledEvent", TracedSpan.Kind.PRODUCER, event.getMetaData());
+        SpanUtils.withMessageTags(span, event);
+        ScheduledFirings.tagFiring(span, scheduledTime, lag);
+        try (SpanScope ignored = backend.makeCurrent(span)) {
+            Map<String, String> firingContext = new HashMap<>();
+            backend.injectCurrentContext(firingContext);
+            return event.andMetaData(firingContext);
+        } finally {
+            span.finish();
+        }
+    }
+
+    private class FiringInterceptor implements MessageDispatchInterceptor<EventMessage<?>> {
+
+        @Override
+        public BiFunction<Integer, EventMessage<?>, EventMessage<?>> handle(List<? extends EventMessage<?>> messages) {
+            return (index, event) -> fire(event);
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingEventScheduler}.
+     * <p>
+     * The {@link SchedulingLagListener} defaults to {@link SchedulingLagListener#NO_OP}. The delegate
+     * {@link EventScheduler}, the {@link EventBus} it publishes to and the {@link TracingBackend} are <b>hard
+     * requirements</b> and as such should be provided.
+     */
+    public static class Builder {
+
+        private EventScheduler delegate;
+        private EventBus eventBus;
+        private TracingBackend backend;
+        private SchedulingLagListener lagListener = SchedulingLagListener.NO_OP;
+
+        /**
+         * Sets the {@link EventScheduler} this tracing-wrapper delegates the actual scheduling of events to.
+         *
+         * @param delegate the {@link EventScheduler} to delegate the actual scheduling of events to
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegate(EventScheduler delegate) {
+            assertNonNull(delegate, "Delegate EventScheduler may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link EventBus} the delegate {@link EventScheduler} publishes fired events to. A dispatch
+         * interceptor tracing the firing of scheduled events is registered on it.
+         *
+         * @param eventBus the {@link EventBus} the delegate {@link EventScheduler} publishes fired events to
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder eventBus(EventBus eventBus) {
+            assertNonNull(eventBus, "EventBus may not be null");
+            this.eventBus = eventBus;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Tracing} used to trace fired events, by wrapping it in a {@link BraveTracingBackend}.
+         *
+         * @param tracing the {@link Tracing} used to trace fired events
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracing tracing) {
+            assertNonNull(tracing, "Tracing may not be null");
+            this.backend = new BraveTracingBackend(tracing);
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingBackend} used to trace fired events.
+         *
+         * @param backend the {@link TracingBackend} used to trace fired events
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SchedulingLagListener} notified of the lag of every fired event. Defaults to
+         * {@link SchedulingLagListener#NO_OP}.
+         *
+         * @param lagListener the {@link SchedulingLagListener} notified of the lag of every fired event
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder lagListener(SchedulingLagListener lagListener) {
+            assertNonNull(lagListener, "SchedulingLagListener may not be null");
+            this.lagListener = lagListener;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingEventScheduler} as specified through this Builder.
+         *
+         * @return a {@link TracingEventScheduler} as specified through this Builder
+         */
+        public TracingEventScheduler build() {
+            return new TracingEventScheduler(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(delegate, "The delegate EventScheduler is a hard requirement and should be provided");
+            assertNonNull(eventBus, "The EventBus is a hard requirement and should be provided");
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
+        }
+    }
+}
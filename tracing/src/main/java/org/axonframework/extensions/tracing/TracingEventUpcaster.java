@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+import static org.axonframework.common.BuilderUtils.assertThat;
+
+import brave.Tracing;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.LazyDeserializingObject;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+
+/**
+ * An {@link EventUpcaster} wrapping another EventUpcaster, reporting the events it upcasts and the time spent in its
+ * upcast functions to an {@link UpcasterListener}. To instrument an
+ * {@link org.axonframework.serialization.upcasting.event.EventUpcasterChain}, wrap every upcaster before composing the
+ * chain, so that every upcaster is reported by its own name.
+ * <p>
+ * Upcasting is lazy: an upcaster merely declares how an event is upcasted, while the data of the event is converted
+ * when it is read, typically when an event handler deserializes the payload. Hence both moments are reported
+ * separately. The upcasting of an event from one type or revision to another is reported when the upcaster declares
+ * it, while the time spent in the upcast functions of the upcaster is reported when they are applied to the data of
+ * the event. Conversions between data formats performed by the {@link org.axonframework.serialization.Converter} are
+ * not included.
+ * <p>
+ * Optionally, a sample of the conversions is traced in an {@code upcast} span. Conversions are only traced within a
+ * trace, typically as child of the span started by the {@link OpenTraceHandlerInterceptor} for the batch of events
+ * being handled, so that replays of old event streams show which upcasters consume their time.
+ *
+ * @since 4.2
+ */
+public class TracingEventUpcaster implements EventUpcaster {
+
+    static final String TAG_UPCASTER = "axon.upcaster";
+    static final String TAG_UPCAST_FROM = "axon.upcast.from";
+    static final String TAG_UPCAST_TO = "axon.upcast.to";
+
+    private final EventUpcaster delegate;
+    private final String name;
+    private final TracingBackend backend;
+    private final boolean tracing;
+    private final float spanSampleRate;
+    private final UpcasterListener listener;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingEventUpcaster}.
+     * <p>
+     * The name defaults to the simple class name of the delegate {@link EventUpcaster}, the
+     * {@link UpcasterListener} to {@link UpcasterListener#NO_OP} and the span sample rate to {@code 0.0}, tracing no
+     * conversions. The delegate EventUpcaster and the {@link TracingBackend} are <b>hard requirements</b> and as such
+     * should be provided.
+     *
+     * @return a Builder to be able to create a {@link TracingEventUpcaster}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingEventUpcaster} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingEventUpcaster} instance
+     */
+    protected TracingEventUpcaster(Builder builder) {
+        builder.validate();
+        this.delegate = builder.delegate;
+        this.name = builder.name != null ? builder.name : nameOf(builder.delegate);
+        this.backend = builder.backend;
+        this.tracing = TracingBackend.isTracing(builder.backend) && builder.spanSampleRate > 0.0f;
+        this.spanSampleRate = builder.spanSampleRate;
+        this.listener = builder.listener;
+    }
+
+    private static String nameOf(EventUpcaster upcaster) {
+        String simpleName = upcaster.getClass().getSimpleName();
+        return simpleName.isEmpty() ? upcaster.getClass().getName() : simpleName;
+    }
+
+    @Override
+    public Stream<IntermediateEventRepresentation> upcast(
+            Stream<IntermediateEventRepresentation> intermediateRepresentations
+    ) {
+        return delegate.upcast(intermediateRepresentations.map(TracedRepresentation::new))
+                       .map(this::unwrap);
+    }
+
+    private IntermediateEventRepresentation unwrap(IntermediateEventRepresentation representation) {
+        if (representation instanceof TracedRepresentation && ((TracedRepresentation) representation).owner() == this) {
+            return ((TracedRepresentation) representation).delegate;
+        }
+        return representation;
+    }
+
+    /**
+     * Returns the name this upcaster is reported by.
+     *
+     * @return the name this upcaster is reported by
+     */
+    public String name() {
+        return name;
+    }
+
+    private <T> Function<T, T> timed(Function<T, T> conversion, SerializedType from, SerializedType to) {
+        return input -> {
+            TracedSpan span = startSpan(from, to);
+            long start = System.nanoTime();
+            try (SpanScope ignored = span != null ? backend.makeCurrent(span) : null) {
+                return conversion.apply(input);
+            } catch (RuntimeException | Error e) {
+                if (span != null) {
+                    span.error(e);
+                }
+                throw e;
+            } finally {
+                if (span != null) {
+                    span.finish();
+                }
+                listener.onConversion(name, from, Duration.ofNanos(System.nanoTime() - start));
+            }
+        };
+    }
+
+    private TracedSpan startSpan(SerializedType from, SerializedType to) {
+        if (!tracing || ThreadLocalRandom.current().nextFloat() >= spanSampleRate) {
+            return null;
+        }
+        TracedSpan parent = backend.currentSpan();
+        if (parent == null) {
+            parent = OpenTraceHandlerInterceptor.currentHandlerSpan();
+            if (parent == null) {
+                return null;
+            }
+        }
+        try (SpanScope ignored = backend.makeCurrent(parent)) {
+            TracedSpan span = backend.startSpan("upcast", TracedSpan.Kind.INTERNAL);
+            span.tag(TAG_UPCASTER, name);
+            span.tag(TAG_UPCAST_FROM, describe(from));
+            span.tag(TAG_UPCAST_TO, describe(to));
+            return span;
+        }
+    }
+
+    private static String describe(SerializedType type) {
+        return type.getRevision() == null ? type.getName() : type.getName() + '#' + type.getRevision();
+    }
+
+    /**
+     * Representation of an event handed to the delegate upcaster, reporting the upcasts the upcaster declares on it.
+     */
+    private class TracedRepresentation implements IntermediateEventRepresentation {
+
+        private final IntermediateEventRepresentation delegate;
+
+        private TracedRepresentation(IntermediateEventRepresentation delegate) {
+            this.delegate = delegate;
+        }
+
+        private TracingEventUpcaster owner() {
+            return TracingEventUpcaster.this;
+        }
+
+        @Override
+        public <T> IntermediateEventRepresentation upcast(SerializedType outputType,
+                                                          Class<T> expectedRepresentationType,
+                                                          Function<T, T> upcastFunction,
+                                                          Function<MetaData, MetaData> metaDataUpcastFunction) {
+            SerializedType from = delegate.getType();
+            listener.onUpcast(name, from, outputType);
+            return delegate.upcast(outputType,
+                                   expectedRepresentationType,
+                                   timed(upcastFunction, from, outputType),
+                                   metaDataUpcastFunction);
+        }
+
+        @Override
+        public SerializedType getType() {
+            return delegate.getType();
+        }
+
+        @Override
+        public SerializedObject<?> getData() {
+            return delegate.getData();
+        }
+
+        @Override
+        public <D> SerializedObject<D> getData(Class<D> requiredType) {
+            return delegate.getData(requiredType);
+        }
+
+        @Override
+        public String getMessageIdentifier() {
+            return delegate.getMessageIdentifier();
+        }
+
+        @Override
+        public Optional<String> getAggregateType() {
+            return delegate.getAggregateType();
+        }
+
+        @Override
+        public Optional<String> getAggregateIdentifier() {
+            return delegate.getAggregateIdentifier();
+        }
+
+        @Override
+        public Optional<Long> getSequenceNumber() {
+            return delegate.getSequenceNumber();
+        }
+
+        @Override
+        public Optional<TrackingToken> getTrackingToken() {
+            return delegate.getTrackingToken();
+        }
+
+        @Override
+        public Instant getTimestamp() {
+            return delegate.getTimestamp();
+        }
+
+        @Override
+        public LazyDeserializingObject<MetaData> getMetaData() {
+            return delegate.getMetaData();
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingEventUpcaster}.
+     * <p>
+     * The name defaults to the simple class name of the delegate {@link EventUpcaster}, the
+     * {@link UpcasterListener} to {@link UpcasterListener#NO_OP} and the span sample rate to {@code 0.0}, tracing no
+     * conversions. The delegate EventUpcaster and the {@link TracingBackend} are <b>hard requirements</b> and as such
+     * should be provided.
+     */
+    public static class Builder {
+
+        private EventUpcaster delegate;
+        private String name;
+        private TracingBackend backend;
+        private float spanSampleRate = 0.0f;
+        private UpcasterListener listener = UpcasterListener.NO_OP;
+
+        /**
+         * Sets the {@link EventUpcaster} this tracing-wrapper delegates the actual upcasting to.
+         *
+         * @param delegate the {@link EventUpcaster} to delegate the actual upcasting to
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegate(EventUpcaster delegate) {
+            assertNonNull(delegate, "Delegate EventUpcaster may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the name the upcaster is reported by. Defaults to the simple class name of the delegate
+         * {@link EventUpcaster}.
+         *
+         * @param name the name the upcaster is reported by
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder name(String name) {
+            assertThat(name, n -> n != null && !n.isEmpty(), "The upcaster name may not be null or empty");
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Tracing} used to trace conversions, by wrapping it in a {@link BraveTracingBackend}.
+         *
+         * @param tracing the {@link Tracing} used to trace conversions
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracing tracing) {
+            assertNonNull(tracing, "Tracing may not be null");
+            this.backend = new BraveTracingBackend(tracing);
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingBackend} used to trace conversions.
+         *
+         * @param backend the {@link TracingBackend} used to trace conversions
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets the fraction, between {@code 0.0} and {@code 1.0}, of the conversions within a trace which are traced
+         * in a span. Defaults to {@code 0.0}, tracing no conversions.
+         *
+         * @param spanSampleRate the fraction of the conversions within a trace which are traced in a span
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder spanSampleRate(float spanSampleRate) {
+            assertThat(spanSampleRate, rate -> rate >= 0.0f && rate <= 1.0f,
+                       "The span sample rate should be between 0.0 and 1.0");
+            this.spanSampleRate = spanSampleRate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link UpcasterListener} notified of every upcast and conversion. Defaults to
+         * {@link UpcasterListener#NO_OP}.
+         *
+         * @param listener the {@link UpcasterListener} notified of every upcast and conversion
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder listener(UpcasterListener listener) {
+            assertNonNull(listener, "UpcasterListener may not be null");
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingEventUpcaster} as specified through this Builder.
+         *
+         * @return a {@link TracingEventUpcaster} as specified through this Builder
+         */
+        public TracingEventUpcaster build() {
+            return new TracingEventUpcaster(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(delegate, "The delegate EventUpcaster is a hard requirement and should be provided");
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * An {@link Executor} which runs the tasks it is given in the trace context of the thread which submitted them. Use
+ * {@link TracingExecutors#wrap(Executor, TracingBackend)} to create an instance matching the type of the delegate.
+ *
+ * @since 4.2
+ */
+public class TracingExecutor implements Executor {
+
+    private final Executor delegate;
+    private final TracingBackend backend;
+
+    /**
+     * Initialize an {@link Executor} delegating tasks to the given {@code delegate}, propagating the trace context of
+     * the given {@code backend}.
+     *
+     * @param delegate the {@link Executor} to execute the tasks with
+     * @param backend  the {@link TracingBackend} of which the trace context is propagated
+     */
+    public TracingExecutor(Executor delegate, TracingBackend backend) {
+        assertNonNull(delegate, "The delegate Executor may not be null");
+        assertNonNull(backend, "The TracingBackend may not be null");
+        this.delegate = delegate;
+        this.backend = backend;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(TracingExecutors.wrap(command, backend));
+    }
+
+    /**
+     * Returns the {@link TracingBackend} of which the trace context is propagated.
+     *
+     * @return the {@link TracingBackend} of which the trace context is propagated
+     */
+    protected TracingBackend backend() {
+        return backend;
+    }
+}
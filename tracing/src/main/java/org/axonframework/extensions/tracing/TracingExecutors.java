@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Utility class to propagate the current trace context of a {@link TracingBackend} to work which is executed on
+ * another thread, such as tasks handed to an {@link Executor} or continuations of a {@link CompletableFuture}.
+ * <p>
+ * The span which is current when the work is handed off is captured, and put in scope of the executing thread for the
+ * duration of the work only. Work handed off outside of a trace runs with a cleared scope, so that a context which
+ * leaked onto a pooled thread is never picked up by the next task. With the {@link NoopTracingBackend}, executors,
+ * tasks and futures are returned as is.
+ *
+ * @since 4.2
+ */
+public abstract class TracingExecutors {
+
+    private TracingExecutors() {
+        // Utility class
+    }
+
+    /**
+     * Wrap the given {@code delegate} so that tasks executed by it run in the trace context of the thread which
+     * submitted them.
+     *
+     * @param delegate the {@link Executor} to wrap
+     * @param backend  the {@link TracingBackend} of which the trace context is propagated
+     * @return an {@link Executor} propagating the trace context to its tasks
+     */
+    public static Executor wrap(Executor delegate, TracingBackend backend) {
+        if (!TracingBackend.isTracing(backend) || delegate instanceof TracingExecutor) {
+            return delegate;
+        }
+        if (delegate instanceof ScheduledExecutorService) {
+            return new TracingScheduledExecutorService((ScheduledExecutorService) delegate, backend);
+        }
+        if (delegate instanceof ExecutorService) {
+            return new TracingExecutorService((ExecutorService) delegate, backend);
+        }
+        return new TracingExecutor(delegate, backend);
+    }
+
+    /**
+     * Wrap the given {@code delegate} so that tasks submitted to it run in the trace context of the thread which
+     * submitted them.
+     *
+     * @param delegate the {@link ExecutorService} to wrap
+     * @param backend  the {@link TracingBackend} of which the trace context is propagated
+     * @return an {@link ExecutorService} propagating the trace context to its tasks
+     */
+    public static ExecutorService wrap(ExecutorService delegate, TracingBackend backend) {
+        return (ExecutorService) wrap((Executor) delegate, backend);
+    }
+
+    /**
+     * Wrap the given {@code delegate} so that tasks scheduled with it run in the trace context of the thread which
+     * scheduled them.
+     *
+     * @param delegate the {@link ScheduledExecutorService} to wrap
+     * @param backend  the {@link TracingBackend} of which the trace context is propagated
+     * @return a {@link ScheduledExecutorService} propagating the trace context to its tasks
+     */
+    public static ScheduledExecutorService wrap(ScheduledExecutorService delegate, TracingBackend backend) {
+        return (ScheduledExecutorService) wrap((Executor) delegate, backend);
+    }
+
+    /**
+     * Wrap the given {@code task} so that it runs in the trace context which is current while calling this method.
+     *
+     * @param task    the {@link Runnable} to wrap
+     * @param backend the {@link TracingBackend} of which the trace context is propagated
+     * @return a {@link Runnable} running the given task in the current trace context
+     */
+    public static Runnable wrap(Runnable task, TracingBackend backend) {
+        if (!TracingBackend.isTracing(backend)) {
+            return task;
+        }
+        TracedSpan captured = backend.currentSpan();
+        return () -> {
+            try (SpanScope ignored = backend.makeCurrent(captured)) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * Wrap the given {@code task} so that it runs in the trace context which is current while calling this method.
+     *
+     * @param task    the {@link Callable} to wrap
+     * @param backend the {@link TracingBackend} of which the trace context is propagated
+     * @param <T>     the type of result of the task
+     * @return a {@link Callable} running the given task in the current trace context
+     */
+    public static <T> Callable<T> wrap(Callable<T> task, TracingBackend backend) {
+        if (!TracingBackend.isTracing(backend)) {
+            return task;
+        }
+        TracedSpan captured = backend.currentSpan();
+        return () -> {
+            try (SpanScope ignored = backend.makeCurrent(captured)) {
+                return task.call();
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link CompletableFuture} completing with the outcome of the given {@code future}, while the trace
+     * context which is current while calling this method is in scope. Continuations which are executed by the thread
+     * completing the future, such as those registered through {@link CompletableFuture#thenApply}, thus run in the
+     * trace context of the caller rather than in whatever context the completing thread happens to have.
+     *
+     * @param future  the {@link CompletableFuture} of which the outcome is propagated
+     * @param backend the {@link TracingBackend} of which the trace context is propagated
+     * @param <T>     the type of result of the future
+     * @return a {@link CompletableFuture} completing in the current trace context
+     */
+    public static <T> CompletableFuture<T> continueInCurrentContext(CompletableFuture<T> future,
+                                                                    TracingBackend backend) {
+        if (!TracingBackend.isTracing(backend)) {
+            return future;
+        }
+        TracedSpan captured = backend.currentSpan();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((value, exception) -> {
+            try (SpanScope ignored = backend.makeCurrent(captured)) {
+                if (exception != null) {
+                    result.completeExceptionally(exception);
+                } else {
+                    result.complete(value);
+                }
+            }
+        });
+        return result;
+    }
+}
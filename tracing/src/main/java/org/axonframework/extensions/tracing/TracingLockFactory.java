@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+import static org.axonframework.common.BuilderUtils.assertStrictPositive;
+import static org.axonframework.common.BuilderUtils.assertThat;
+
+import brave.Tracing;
+import java.time.Duration;
+import java.util.List;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.lock.Lock;
+import org.axonframework.common.lock.LockFactory;
+
+/**
+ * A {@link LockFactory} wrapping another LockFactory, measuring the time spent waiting for aggregate locks. Use one
+ * instance per aggregate type, configured as the lock factory of that aggregate's
+ * {@link org.axonframework.modelling.command.LockingRepository}.
+ * <p>
+ * When obtaining a lock within a trace, the acquisition is traced in an {@code obtainLock} child span, tagged with the
+ * aggregate type and identifier. Every wait is reported to the configured {@link LockWaitListener}. Acquisitions
+ * waiting at least the contention threshold are considered contended: their span is tagged with
+ * {@code axon.lock.contended} and the wait is recorded per aggregate identifier in a bounded {@link HeavyHitters}
+ * sketch. The most contended aggregates, returned by {@link #contendedAggregates(int)}, are the candidates to split or
+ * to route consistently.
+ *
+ * @since 4.2
+ */
+public class TracingLockFactory implements LockFactory {
+
+    static final String TAG_AGGREGATE_TYPE = "axon.aggregate.type";
+    static final String TAG_AGGREGATE_ID = "axon.aggregate.id";
+    static final String TAG_LOCK_WAIT = "axon.lock.wait.us";
+    static final String TAG_LOCK_CONTENDED = "axon.lock.contended";
+
+    private final LockFactory delegate;
+    private final TracingBackend backend;
+    private final boolean tracing;
+    private final String aggregateType;
+    private final LockWaitListener listener;
+    private final long contentionThresholdNanos;
+    private final HeavyHitters contendedAggregates;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingLockFactory}.
+     * <p>
+     * The {@link LockWaitListener} defaults to {@link LockWaitListener#NO_OP}, the contention threshold to one
+     * millisecond and the number of tracked contended aggregates to {@code 100}. The delegate {@link LockFactory}, the
+     * {@link TracingBackend} and the aggregate type are <b>hard requirements</b> and as such should be provided.
+     *
+     * @return a Builder to be able to create a {@link TracingLockFactory}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingLockFactory} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingLockFactory} instance
+     */
+    protected TracingLockFactory(Builder builder) {
+        builder.validate();
+        this.delegate = builder.delegate;
+        this.backend = builder.backend;
+        this.tracing = TracingBackend.isTracing(builder.backend);
+        this.aggregateType = builder.aggregateType;
+        this.listener = builder.listener;
+        this.contentionThresholdNanos = builder.contentionThreshold.toNanos();
+        this.contendedAggregates = new HeavyHitters(builder.trackedAggregates);
+    }
+
+    @Override
+    public Lock obtainLock(String identifier) {
+        TracedSpan span = tracing && backend.currentSpan() != null
+                ? backend.startSpan("obtainLock", TracedSpan.Kind.INTERNAL)
+                : null;
+        long start = System.nanoTime();
+        try {
+            Lock lock = delegate.obtainLock(identifier);
+            long waitNanos = System.nanoTime() - start;
+            recordWait(identifier, waitNanos, span);
+            return lock;
+        } catch (RuntimeException | Error e) {
+            if (span != null) {
+                span.error(e);
+            }
+            throw e;
+        } finally {
+            if (span != null) {
+                span.finish();
+            }
+        }
+    }
+
+    private void recordWait(String identifier, long waitNanos, TracedSpan span) {
+        listener.onLockObtained(aggregateType, identifier, Duration.ofNanos(waitNanos));
+        boolean contended = waitNanos >= contentionThresholdNanos;
+        if (contended) {
+            contendedAggregates.record(identifier, waitNanos / 1000);
+        }
+        if (span != null) {
+            span.tag(TAG_AGGREGATE_TYPE, aggregateType);
+            span.tag(TAG_AGGREGATE_ID, identifier);
+            span.tag(TAG_LOCK_WAIT, Long.toString(waitNanos / 1000));
+            if (contended) {
+                span.tag(TAG_LOCK_CONTENDED, "true");
+            }
+        }
+    }
+
+    /**
+     * Returns the type of aggregate this lock factory obtains locks for.
+     *
+     * @return the type of aggregate this lock factory obtains locks for
+     */
+    public String aggregateType() {
+        return aggregateType;
+    }
+
+    /**
+     * Returns at most {@code limit} of the most contended aggregates, heaviest first. The weight of each aggregate is
+     * its estimated accumulated time spent waiting for contended locks, in microseconds.
+     *
+     * @param limit the maximum number of aggregates to return
+     * @return the most contended aggregates, heaviest first
+     */
+    public List<HeavyHitters.HeavyHitter> contendedAggregates(int limit) {
+        return contendedAggregates.top(limit);
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingLockFactory}.
+     * <p>
+     * The {@link LockWaitListener} defaults to {@link LockWaitListener#NO_OP}, the contention threshold to one
+     * millisecond and the number of tracked contended aggregates to {@code 100}. The delegate {@link LockFactory}, the
+     * {@link TracingBackend} and the aggregate type are <b>hard requirements</b> and as such should be provided.
+     */
+    public static class Builder {
+
+        private LockFactory delegate;
+        private TracingBackend backend;
+        private String aggregateType;
+        private LockWaitListener listener = LockWaitListener.NO_OP;
+        private Duration contentionThreshold = Duration.ofMillis(1);
+        private int trackedAggregates = 100;
+
+        /**
+         * Sets the {@link LockFactory} this tracing-wrapper delegates the actual locking to.
+         *
+         * @param delegate the {@link LockFactory} to delegate the actual locking to
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegate(LockFactory delegate) {
+            assertNonNull(delegate, "Delegate LockFactory may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Tracing} used to trace lock acquisitions, by wrapping it in a {@link BraveTracingBackend}.
+         *
+         * @param tracing the {@link Tracing} used to trace lock acquisitions
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracing tracing) {
+            assertNonNull(tracing, "Tracing may not be null");
+            this.backend = new BraveTracingBackend(tracing);
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingBackend} used to trace lock acquisitions.
+         *
+         * @param backend the {@link TracingBackend} used to trace lock acquisitions
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets the type of aggregate the lock factory obtains locks for, used to tag spans and to report lock waits.
+         *
+         * @param aggregateType the type of aggregate the lock factory obtains locks for
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder aggregateType(String aggregateType) {
+            assertThat(aggregateType, t -> t != null && !t.isEmpty(), "The aggregate type may not be null or empty");
+            this.aggregateType = aggregateType;
+            return this;
+        }
+
+        /**
+         * Sets the {@link LockWaitListener} notified of every obtained lock. Defaults to
+         * {@link LockWaitListener#NO_OP}.
+         *
+         * @param listener the {@link LockWaitListener} notified of every obtained lock
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder listener(LockWaitListener listener) {
+            assertNonNull(listener, "LockWaitListener may not be null");
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Sets the minimal time spent waiting for a lock for the acquisition to be considered contended. Defaults to
+         * one millisecond.
+         *
+         * @param contentionThreshold the minimal wait of a contended lock acquisition
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder contentionThreshold(Duration contentionThreshold) {
+            assertNonNull(contentionThreshold, "The contention threshold may not be null");
+            assertThat(contentionThreshold, t -> !t.isNegative(), "The contention threshold may not be negative");
+            this.contentionThreshold = contentionThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of contended aggregates to track. Defaults to {@code 100}.
+         *
+         * @param trackedAggregates the maximum number of contended aggregates to track
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder trackedAggregates(int trackedAggregates) {
+            assertStrictPositive(trackedAggregates, "The number of tracked aggregates should be a positive number");
+            this.trackedAggregates = trackedAggregates;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingLockFactory} as specified through this Builder.
+         *
+         * @return a {@link TracingLockFactory} as specified through this Builder
+         */
+        public TracingLockFactory build() {
+            return new TracingLockFactory(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(delegate, "The delegate LockFactory is a hard requirement and should be provided");
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
+            assertNonNull(aggregateType, "The aggregate type is a hard requirement and should be provided");
+        }
+    }
+}
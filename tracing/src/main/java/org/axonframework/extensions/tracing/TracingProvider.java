@@ -16,7 +16,7 @@
 package org.axonframework.extensions.tracing;
 
 import brave.Tracing;
-import brave.propagation.TraceContext;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import org.axonframework.messaging.Message;
@@ -32,7 +32,8 @@ import org.axonframework.messaging.correlation.CorrelationDataProvider;
  */
 public class TracingProvider implements CorrelationDataProvider {
 
-  private Tracing tracing;
+    private final TracingBackend backend;
+    private final boolean tracing;
 
     /**
      * Initialize a {@link CorrelationDataProvider} implementation which uses the provided {@link Tracing} to set the
@@ -42,16 +43,29 @@ public class TracingProvider implements CorrelationDataProvider {
      *               {@link MetaData}
      */
     public TracingProvider(Tracing tracing) {
-        this.tracing = tracing;
+        this(new BraveTracingBackend(tracing));
+    }
+
+    /**
+     * Initialize a {@link CorrelationDataProvider} implementation which uses the provided {@link TracingBackend} to
+     * set the active span on a {@link Message}'s {@link MetaData}. With the {@link NoopTracingBackend}, no
+     * correlation data is provided at all.
+     *
+     * @param backend the {@link TracingBackend} used to retrieve the active span to be placed on a {@link Message}'s
+     *                {@link MetaData}
+     */
+    public TracingProvider(TracingBackend backend) {
+        this.backend = backend;
+        this.tracing = TracingBackend.isTracing(backend);
     }
 
     @Override
     public Map<String, ?> correlationDataFor(Message<?> message) {
-      TraceContext.Injector<Map> mapInjector = tracing.propagation().injector(Map::put);
-      Map<String, String> headers = new LinkedHashMap();
-      if (tracing.currentTraceContext().get() != null) {
-        mapInjector.inject(tracing.currentTraceContext().get(), headers);
-      }
-      return headers;
+        if (!tracing) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        backend.injectCurrentContext(headers);
+        return headers;
     }
 }
\ No newline at end of file
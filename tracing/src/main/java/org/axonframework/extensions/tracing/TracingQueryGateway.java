@@ -17,8 +17,6 @@ package org.axonframework.extensions.tracing;
 
 import static org.axonframework.common.BuilderUtils.assertNonNull;
 
-import brave.Span;
-import brave.Tracer;
 import brave.Tracing;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -41,6 +39,10 @@ import org.axonframework.queryhandling.SubscriptionQueryResult;
  * Note that this implementation <b>>does not</b> support tracing for calls towards
  * {@link #scatterGather(String, Object, ResponseType, long, TimeUnit)} and
  * {@link #subscriptionQuery(String, Object, ResponseType, ResponseType, SubscriptionQueryBackpressure, int)} yet.
+ * <p>
+ * Optionally, the results of point queries are cached in a {@link QueryResultCache}. Queries answered from the cache
+ * are not dispatched, and their span is tagged with {@code cache=hit}; the spans of other queries the cache caches
+ * are tagged with {@code cache=miss}.
  *
  * @author Christophe Bouhier
  * @author Steven van Beelen
@@ -48,8 +50,12 @@ import org.axonframework.queryhandling.SubscriptionQueryResult;
  */
 public class TracingQueryGateway implements QueryGateway {
 
-    private final Tracing tracing;
+    static final String TAG_CACHE = "cache";
+
+    private final TracingBackend backend;
+    private final boolean tracing;
     private final QueryGateway delegate;
+    private final QueryResultCache resultCache;
 
     /**
      * Instantiate a Builder to be able to create a {@link TracingQueryGateway}.
@@ -58,8 +64,8 @@ public class TracingQueryGateway implements QueryGateway {
      * queries to. If a QueryBus is provided directly, it will be used to instantiate a {@link DefaultQueryGateway}.
      * A registered QueryGateway will always take precedence over a configured QueryBus.
      * <p>
-     * The {@link Tracing} and delegate {@link QueryGateway} are <b>hard requirements</b> and as such should be
-     * provided.
+     * The {@link TracingBackend} and delegate {@link QueryGateway} are <b>hard requirements</b> and as such should be
+     * provided. When the {@link NoopTracingBackend} is provided, queries are sent without any tracing.
      *
      * @return a Builder to be able to create a {@link TracingQueryGateway}
      */
@@ -70,24 +76,71 @@ public class TracingQueryGateway implements QueryGateway {
     /**
      * Instantiate a {@link TracingQueryGateway} based on the fields contained in the {@link Builder}.
      * <p>
-     * Will assert that the {@link Tracing} and delegate {@link QueryGateway} are not {@code null}, and will throw an
-     * {@link AxonConfigurationException} if they are.
+     * Will assert that the {@link TracingBackend} and delegate {@link QueryGateway} are not {@code null}, and will
+     * throw an {@link AxonConfigurationException} if they are.
      *
      * @param builder the {@link Builder} used to instantiate a {@link TracingQueryGateway} instance
      */
     protected TracingQueryGateway(Builder builder) {
         builder.validate();
-        this.tracing = builder.tracing;
+        this.backend = builder.backend;
+        this.tracing = TracingBackend.isTracing(builder.backend);
         this.delegate = builder.buildDelegateQueryGateway();
+        this.resultCache = builder.resultCache;
     }
 
     @Override
     public <R, Q> CompletableFuture<R> query(String queryName, Q query, ResponseType<R> responseType) {
-        Span newSpan = tracing.tracer().nextSpan().name(queryName).start();
-        try (Tracer.SpanInScope ignored = tracing.tracer().withSpanInScope(newSpan)) {
-            return delegate.query(queryName, query, responseType)
-                .whenComplete((r, e) -> newSpan.finish());
+        boolean cached = resultCache != null && resultCache.caches(queryName);
+        R cachedResult = cached ? resultCache.get(queryName, query, responseType) : null;
+        if (!tracing) {
+            return cachedResult != null
+                    ? CompletableFuture.completedFuture(cachedResult)
+                    : queryAndCache(queryName, query, responseType, cached);
+        }
+        FlightEvents.Recording dispatchEvent = FlightEvents.begin(FlightEvents.Kind.DISPATCH);
+        TracedSpan newSpan = backend.startSpan(queryName, TracedSpan.Kind.INTERNAL);
+        newSpan.tag(SpanUtils.TAG_AXON_MSG_TYPE, QueryMessage.class.getSimpleName());
+        newSpan.tag(SpanUtils.TAG_AXON_PAYLOAD_TYPE, query.getClass().getName());
+        if (cachedResult != null) {
+            newSpan.tag(TAG_CACHE, "hit");
+            newSpan.finish();
+            if (dispatchEvent != null) {
+                dispatchEvent.complete(newSpan, queryName, QueryMessage.class.getSimpleName(),
+                                       query.getClass().getName());
+            }
+            return CompletableFuture.completedFuture(cachedResult);
+        }
+        if (cached) {
+            newSpan.tag(TAG_CACHE, "miss");
+        }
+        CompletableFuture<R> result;
+        try (SpanScope ignored = backend.makeCurrent(newSpan)) {
+            result = queryAndCache(queryName, query, responseType, cached)
+                .whenComplete((r, e) -> {
+                    if (e != null) {
+                        newSpan.error(e);
+                    }
+                    newSpan.finish();
+                });
+        }
+        if (dispatchEvent != null) {
+            dispatchEvent.complete(newSpan, queryName, QueryMessage.class.getSimpleName(), query.getClass().getName());
         }
+        return TracingExecutors.continueInCurrentContext(result, backend);
+    }
+
+    private <R, Q> CompletableFuture<R> queryAndCache(String queryName, Q query, ResponseType<R> responseType,
+                                                      boolean cached) {
+        if (!cached) {
+            return delegate.query(queryName, query, responseType);
+        }
+        long generation = resultCache.generation(queryName);
+        return delegate.query(queryName, query, responseType).whenComplete((r, e) -> {
+            if (e == null) {
+                resultCache.put(queryName, query, responseType, r, generation);
+            }
+        });
     }
 
     @Override
@@ -124,24 +177,38 @@ public class TracingQueryGateway implements QueryGateway {
      * queries to. If a QueryBus is provided directly, it will be used to instantiate a {@link DefaultQueryGateway}.
      * A registered QueryGateway will always take precedence over a configured QueryBus.
      * <p>
-     * The {@link Tracing} and delegate {@link QueryGateway} are <b>hard requirements</b> and as such should be
-     * provided.
+     * The {@link TracingBackend} and delegate {@link QueryGateway} are <b>hard requirements</b> and as such should be
+     * provided. When the {@link NoopTracingBackend} is provided, queries are sent without any tracing.
      */
     public static class Builder {
 
-        private Tracing tracing;
+        private TracingBackend backend;
         private QueryBus delegateBus;
         private QueryGateway delegateGateway;
+        private QueryResultCache resultCache;
 
         /**
-         * Sets the {@link Tracer} used to set a {@link Span} on dispatched {@link QueryMessage}s.
+         * Sets the {@link Tracing} used to set a {@link brave.Span} on dispatched {@link QueryMessage}s, by wrapping it
+         * in a {@link BraveTracingBackend}.
          *
-         * @param tracing a {@link Tracing} used to set a {@link Span} on dispatched {@link QueryMessage}s.
+         * @param tracing a {@link Tracing} used to set a {@link brave.Span} on dispatched {@link QueryMessage}s.
          * @return the current Builder instance, for fluent interfacing
          */
         public Builder tracer(Tracing tracing) {
             assertNonNull(tracing, "Tracing may not be null");
-            this.tracing = tracing;
+            this.backend = new BraveTracingBackend(tracing);
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingBackend} used to start a span for dispatched {@link QueryMessage}s.
+         *
+         * @param backend the {@link TracingBackend} used to start a span for dispatched {@link QueryMessage}s
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
             return this;
         }
 
@@ -159,6 +226,20 @@ public class TracingQueryGateway implements QueryGateway {
             return this;
         }
 
+        /**
+         * Sets the {@link QueryResultCache} answering repeated point queries of the query names it caches without
+         * dispatching them. Cache hits complete immediately, with a span tagged {@code cache=hit}. Defaults to not
+         * caching query results.
+         *
+         * @param resultCache the {@link QueryResultCache} answering repeated point queries
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder resultCache(QueryResultCache resultCache) {
+            assertNonNull(resultCache, "QueryResultCache may not be null");
+            this.resultCache = resultCache;
+            return this;
+        }
+
         /**
          * Sets the {@link QueryGateway} this tracing-wrapper will delegate the actual sending of queries towards.
          *
@@ -202,7 +283,7 @@ public class TracingQueryGateway implements QueryGateway {
          *                                    specifications
          */
         protected void validate() throws AxonConfigurationException {
-            assertNonNull(tracing, "The Tracing is a hard requirement and should be provided");
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
             if (delegateBus == null) {
                 assertNonNull(
                         delegateGateway, "The delegate QueryGateway is a hard requirement and should be provided"
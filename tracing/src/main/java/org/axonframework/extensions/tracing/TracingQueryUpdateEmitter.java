@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+import brave.Tracing;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.axonframework.queryhandling.SubscriptionQueryBackpressure;
+import org.axonframework.queryhandling.SubscriptionQueryMessage;
+import org.axonframework.queryhandling.SubscriptionQueryUpdateMessage;
+import org.axonframework.queryhandling.UpdateHandlerRegistration;
+import reactor.core.publisher.Flux;
+
+/**
+ * A {@link QueryUpdateEmitter} wrapping another QueryUpdateEmitter, tracing the fan out of every emitted update to
+ * the matching subscription queries in a child span of the span handling the message, and reporting it to a
+ * {@link QueryUpdateListener}.
+ * <p>
+ * Every update is emitted in an {@code emitQueryUpdate} span, tagged with the payload type of the update, the number
+ * of subscription queries the filter matched, the time spent evaluating the filter in microseconds and the number of
+ * subscription queries of which the update buffer was full. Like the
+ * {@link org.axonframework.queryhandling.SimpleQueryUpdateEmitter}, updates emitted while a {@link UnitOfWork} did
+ * not commit yet are emitted after it commits, so that the span covers the actual fan out. As the handler span went out of
+ * scope by then, the span started by the {@link OpenTraceHandlerInterceptor} for the current UnitOfWork is used as
+ * parent when no span is in scope.
+ * <p>
+ * The update buffer of a subscription query is considered full when more updates were emitted to it than its
+ * subscriber consumed, beyond the buffer size the subscription query was registered with. Every update emitted to a
+ * full buffer is counted, as it indicates a subscriber which does not keep up with the updates emitted to it.
+ * <p>
+ * With hundreds of subscription queries, emitting updates can take a considerable part of the time spent by the
+ * event handler emitting them. The span and the {@link QueryUpdateListener} show when that fan out becomes a
+ * bottleneck.
+ *
+ * @since 4.2
+ */
+public class TracingQueryUpdateEmitter implements QueryUpdateEmitter {
+
+    static final String TAG_UPDATE_TYPE = "axon.query.update.type";
+    static final String TAG_MATCHED = "axon.query.update.matched";
+    static final String TAG_FILTER_TIME = "axon.query.update.filter.us";
+    static final String TAG_BUFFER_FULL = "axon.query.update.buffer.full";
+
+    private final QueryUpdateEmitter delegate;
+    private final TracingBackend backend;
+    private final boolean tracing;
+    private final QueryUpdateListener listener;
+    private final boolean listening;
+    private final ConcurrentMap<SubscriptionQueryMessage<?, ?, ?>, UpdateBuffer> updateBuffers =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingQueryUpdateEmitter}.
+     * <p>
+     * The {@link QueryUpdateListener} defaults to {@link QueryUpdateListener#NO_OP}. The delegate
+     * {@link QueryUpdateEmitter} and the {@link TracingBackend} are <b>hard requirements</b> and as such should be
+     * provided.
+     *
+     * @return a Builder to be able to create a {@link TracingQueryUpdateEmitter}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingQueryUpdateEmitter} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingQueryUpdateEmitter} instance
+     */
+    protected TracingQueryUpdateEmitter(Builder builder) {
+        builder.validate();
+        this.delegate = builder.delegate;
+        this.backend = builder.backend;
+        this.tracing = TracingBackend.isTracing(builder.backend);
+        this.listener = builder.listener;
+        this.listening = builder.listener != QueryUpdateListener.NO_OP;
+    }
+
+    @Override
+    public <U> void emit(Predicate<SubscriptionQueryMessage<?, ?, U>> filter,
+                         SubscriptionQueryUpdateMessage<U> update) {
+        if (!tracing && !listening) {
+            delegate.emit(filter, update);
+            return;
+        }
+        if (CurrentUnitOfWork.isStarted() && CurrentUnitOfWork.get().phase().isBefore(UnitOfWork.Phase.COMMIT)) {
+            CurrentUnitOfWork.get().afterCommit(u -> traceEmit(filter, update));
+        } else {
+            traceEmit(filter, update);
+        }
+    }
+
+    private <U> void traceEmit(Predicate<SubscriptionQueryMessage<?, ?, U>> filter,
+                               SubscriptionQueryUpdateMessage<U> update) {
+        String updateType = update.getPayloadType().getName();
+        Emission emission = new Emission();
+        TracedSpan handlerSpan = backend.currentSpan() == null
+                ? OpenTraceHandlerInterceptor.currentHandlerSpan()
+                : null;
+        long start = System.nanoTime();
+        try (SpanScope ignored = handlerSpan != null ? backend.makeCurrent(handlerSpan) : null) {
+            TracedSpan span = backend.startSpan("emitQueryUpdate", TracedSpan.Kind.PRODUCER);
+            span.tag(TAG_UPDATE_TYPE, updateType);
+            try (SpanScope ignoredSpanScope = backend.makeCurrent(span)) {
+                Predicate<SubscriptionQueryMessage<?, ?, U>> measuredFilter = query -> test(emission, filter, query);
+                delegate.emit(measuredFilter, update);
+            } catch (RuntimeException | Error e) {
+                span.error(e);
+                throw e;
+            } finally {
+                span.tag(TAG_MATCHED, Integer.toString(emission.matched));
+                span.tag(TAG_FILTER_TIME, Long.toString(TimeUnit.NANOSECONDS.toMicros(emission.filterNanos)));
+                if (emission.bufferFull > 0) {
+                    span.tag(TAG_BUFFER_FULL, Integer.toString(emission.bufferFull));
+                }
+                span.finish();
+            }
+        } finally {
+            listener.onEmit(updateType,
+                            emission.matched,
+                            Duration.ofNanos(emission.filterNanos),
+                            Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private <U> boolean test(Emission emission,
+                             Predicate<SubscriptionQueryMessage<?, ?, U>> filter,
+                             SubscriptionQueryMessage<?, ?, U> query) {
+        long filterStart = System.nanoTime();
+        boolean matches = filter.test(query);
+        emission.filterNanos += System.nanoTime() - filterStart;
+        if (matches) {
+            emission.matched++;
+            UpdateBuffer updateBuffer = updateBuffers.get(query);
+            if (updateBuffer != null && updateBuffer.emitted()) {
+                emission.bufferFull++;
+                listener.onBufferFull(query.getQueryName(), updateBuffer.size);
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public void complete(Predicate<SubscriptionQueryMessage<?, ?, ?>> filter) {
+        delegate.complete(filter);
+    }
+
+    @Override
+    public void completeExceptionally(Predicate<SubscriptionQueryMessage<?, ?, ?>> filter, Throwable cause) {
+        delegate.completeExceptionally(filter, cause);
+    }
+
+    @Override
+    public boolean queryUpdateHandlerRegistered(SubscriptionQueryMessage<?, ?, ?> query) {
+        return delegate.queryUpdateHandlerRegistered(query);
+    }
+
+    @Override
+    public <U> UpdateHandlerRegistration<U> registerUpdateHandler(SubscriptionQueryMessage<?, ?, ?> query,
+                                                                  SubscriptionQueryBackpressure backpressure,
+                                                                  int updateBufferSize) {
+        UpdateHandlerRegistration<U> registration =
+                delegate.registerUpdateHandler(query, backpressure, updateBufferSize);
+        if (!tracing && !listening) {
+            return registration;
+        }
+        UpdateBuffer updateBuffer = new UpdateBuffer(updateBufferSize);
+        updateBuffers.put(query, updateBuffer);
+        Flux<SubscriptionQueryUpdateMessage<U>> updates =
+                registration.getUpdates()
+                            .doOnNext(update -> updateBuffer.consumed())
+                            .doFinally(signal -> updateBuffers.remove(query, updateBuffer));
+        return new UpdateHandlerRegistration<>(() -> {
+            updateBuffers.remove(query, updateBuffer);
+            return registration.getRegistration().cancel();
+        }, updates);
+    }
+
+    @Override
+    public Registration registerDispatchInterceptor(
+            MessageDispatchInterceptor<? super SubscriptionQueryUpdateMessage<?>> dispatchInterceptor) {
+        return delegate.registerDispatchInterceptor(dispatchInterceptor);
+    }
+
+    /**
+     * The progress of emitting a single update. Only accessed by the thread emitting the update, which evaluates the
+     * filter.
+     */
+    private static final class Emission {
+
+        private int matched;
+        private long filterNanos;
+        private int bufferFull;
+    }
+
+    /**
+     * The number of updates emitted to a single subscription query which its subscriber did not consume yet.
+     */
+    private static final class UpdateBuffer {
+
+        private final int size;
+        private final AtomicLong pending = new AtomicLong();
+
+        private UpdateBuffer(int size) {
+            this.size = size;
+        }
+
+        /**
+         * Registers an update emitted to the subscription query, returning whether it exceeds the buffer size.
+         */
+        private boolean emitted() {
+            return pending.incrementAndGet() > size;
+        }
+
+        private void consumed() {
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingQueryUpdateEmitter}.
+     * <p>
+     * The {@link QueryUpdateListener} defaults to {@link QueryUpdateListener#NO_OP}. The delegate
+     * {@link QueryUpdateEmitter} and the {@link TracingBackend} are <b>hard requirements</b> and as such should be
+     * provided.
+     */
+    public static class Builder {
+
+        private QueryUpdateEmitter delegate;
+        private TracingBackend backend;
+        private QueryUpdateListener listener = QueryUpdateListener.NO_OP;
+
+        /**
+         * Sets the {@link QueryUpdateEmitter} this tracing-wrapper delegates the actual emission of updates to.
+         *
+         * @param delegate the {@link QueryUpdateEmitter} to delegate the actual emission of updates to
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegate(QueryUpdateEmitter delegate) {
+            assertNonNull(delegate, "Delegate QueryUpdateEmitter may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Tracing} used to trace the emission of updates, by wrapping it in a
+         * {@link BraveTracingBackend}.
+         *
+         * @param tracing the {@link Tracing} used to trace the emission of updates
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracing tracing) {
+            assertNonNull(tracing, "Tracing may not be null");
+            this.backend = new BraveTracingBackend(tracing);
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingBackend} used to trace the emission of updates.
+         *
+         * @param backend the {@link TracingBackend} used to trace the emission of updates
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets the {@link QueryUpdateListener} notified of every emitted update and every full update buffer.
+         * Defaults to {@link QueryUpdateListener#NO_OP}.
+         *
+         * @param listener the {@link QueryUpdateListener} notified of every emitted update
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder listener(QueryUpdateListener listener) {
+            assertNonNull(listener, "QueryUpdateListener may not be null");
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingQueryUpdateEmitter} as specified through this Builder.
+         *
+         * @return a {@link TracingQueryUpdateEmitter} as specified through this Builder
+         */
+        public TracingQueryUpdateEmitter build() {
+            return new TracingQueryUpdateEmitter(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(delegate, "The delegate QueryUpdateEmitter is a hard requirement and should be provided");
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+import brave.Tracing;
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.modelling.saga.AssociationValue;
+import org.axonframework.modelling.saga.AssociationValues;
+import org.axonframework.modelling.saga.repository.SagaStore;
+
+/**
+ * A {@link SagaStore} wrapping another SagaStore, tracing every operation performed on it in a child span of the span
+ * handling the event, and reporting it to a {@link SagaStoreListener}.
+ * <p>
+ * The association value lookup is traced in a {@code findSagas} span, tagged with the association key and the number
+ * of saga instances it resolved to. Loading, inserting, updating and deleting sagas are traced in {@code loadSaga},
+ * {@code insertSaga}, {@code updateSaga} and {@code deleteSaga} spans, tagged with the saga identifier and, when
+ * stored, the number of association values of the saga. As sagas are stored when the
+ * {@link org.axonframework.messaging.unitofwork.UnitOfWork} commits, after the handler span went out of scope, the span
+ * started by the {@link OpenTraceHandlerInterceptor} for the current UnitOfWork is used as parent when no span is in
+ * scope.
+ * <p>
+ * Sagas with a large number of associations, or association values resolving to many saga instances, are a common
+ * cause of poor event processing throughput. The tags and the {@link SagaStoreListener} make those visible per saga
+ * type.
+ *
+ * @param <T> the type of saga stored
+ * @since 4.2
+ */
+public class TracingSagaStore<T> implements SagaStore<T> {
+
+    static final String TAG_SAGA_TYPE = "axon.saga.type";
+    static final String TAG_SAGA_ID = "axon.saga.id";
+    static final String TAG_ASSOCIATION_KEY = "axon.saga.association.key";
+    static final String TAG_RESOLVED_SAGAS = "axon.saga.resolved.count";
+    static final String TAG_ASSOCIATION_COUNT = "axon.saga.association.count";
+
+    private final SagaStore<T> delegate;
+    private final TracingBackend backend;
+    private final boolean tracing;
+    private final SagaStoreListener listener;
+    private final boolean listening;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingSagaStore}.
+     * <p>
+     * The {@link SagaStoreListener} defaults to {@link SagaStoreListener#NO_OP}. The delegate {@link SagaStore} and
+     * the {@link TracingBackend} are <b>hard requirements</b> and as such should be provided.
+     *
+     * @param <T> the type of saga stored
+     * @return a Builder to be able to create a {@link TracingSagaStore}
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Instantiate a {@link TracingSagaStore} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingSagaStore} instance
+     */
+    protected TracingSagaStore(Builder<T> builder) {
+        builder.validate();
+        this.delegate = builder.delegate;
+        this.backend = builder.backend;
+        this.tracing = TracingBackend.isTracing(builder.backend);
+        this.listener = builder.listener;
+        this.listening = builder.listener != SagaStoreListener.NO_OP;
+    }
+
+    @Override
+    public Set<String> findSagas(Class<? extends T> sagaType, AssociationValue associationValue) {
+        if (!tracing && !listening) {
+            return delegate.findSagas(sagaType, associationValue);
+        }
+        return trace("findSagas", sagaType, span -> {
+            span.tag(TAG_ASSOCIATION_KEY, associationValue.getKey());
+            Set<String> sagaIdentifiers = delegate.findSagas(sagaType, associationValue);
+            span.tag(TAG_RESOLVED_SAGAS, Integer.toString(sagaIdentifiers.size()));
+            listener.onAssociationLookup(sagaType, associationValue.getKey(), sagaIdentifiers.size());
+            return sagaIdentifiers;
+        });
+    }
+
+    @Override
+    public <S extends T> Entry<S> loadSaga(Class<S> sagaType, String sagaIdentifier) {
+        if (!tracing && !listening) {
+            return delegate.loadSaga(sagaType, sagaIdentifier);
+        }
+        return trace("loadSaga", sagaType, span -> {
+            span.tag(TAG_SAGA_ID, sagaIdentifier);
+            Entry<S> entry = delegate.loadSaga(sagaType, sagaIdentifier);
+            if (entry != null) {
+                span.tag(TAG_ASSOCIATION_COUNT, Integer.toString(entry.associationValues().size()));
+            }
+            return entry;
+        });
+    }
+
+    @Override
+    public void deleteSaga(Class<? extends T> sagaType,
+                           String sagaIdentifier,
+                           Set<AssociationValue> associationValues) {
+        if (!tracing && !listening) {
+            delegate.deleteSaga(sagaType, sagaIdentifier, associationValues);
+            return;
+        }
+        trace("deleteSaga", sagaType, span -> {
+            span.tag(TAG_SAGA_ID, sagaIdentifier);
+            span.tag(TAG_ASSOCIATION_COUNT, Integer.toString(associationValues.size()));
+            delegate.deleteSaga(sagaType, sagaIdentifier, associationValues);
+            return null;
+        });
+    }
+
+    @Override
+    public void insertSaga(Class<? extends T> sagaType,
+                           String sagaIdentifier,
+                           T saga,
+                           Set<AssociationValue> associationValues) {
+        if (!tracing && !listening) {
+            delegate.insertSaga(sagaType, sagaIdentifier, saga, associationValues);
+            return;
+        }
+        trace("insertSaga", sagaType, span -> {
+            span.tag(TAG_SAGA_ID, sagaIdentifier);
+            span.tag(TAG_ASSOCIATION_COUNT, Integer.toString(associationValues.size()));
+            delegate.insertSaga(sagaType, sagaIdentifier, saga, associationValues);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateSaga(Class<? extends T> sagaType,
+                           String sagaIdentifier,
+                           T saga,
+                           AssociationValues associationValues) {
+        if (!tracing && !listening) {
+            delegate.updateSaga(sagaType, sagaIdentifier, saga, associationValues);
+            return;
+        }
+        trace("updateSaga", sagaType, span -> {
+            span.tag(TAG_SAGA_ID, sagaIdentifier);
+            span.tag(TAG_ASSOCIATION_COUNT, Integer.toString(associationValues.size()));
+            span.tag("axon.saga.association.added", Integer.toString(associationValues.addedAssociations().size()));
+            span.tag("axon.saga.association.removed",
+                     Integer.toString(associationValues.removedAssociations().size()));
+            delegate.updateSaga(sagaType, sagaIdentifier, saga, associationValues);
+            return null;
+        });
+    }
+
+    private <R> R trace(String operation, Class<?> sagaType, SpanFunction<R> function) {
+        TracedSpan handlerSpan = backend.currentSpan() == null
+                ? OpenTraceHandlerInterceptor.currentHandlerSpan()
+                : null;
+        long start = System.nanoTime();
+        boolean failed = false;
+        try (SpanScope ignored = handlerSpan != null ? backend.makeCurrent(handlerSpan) : null) {
+            TracedSpan span = backend.startSpan(operation, TracedSpan.Kind.CLIENT);
+            span.tag(TAG_SAGA_TYPE, sagaType.getName());
+            try (SpanScope ignoredSpanScope = backend.makeCurrent(span)) {
+                return function.apply(span);
+            } catch (RuntimeException | Error e) {
+                failed = true;
+                span.error(e);
+                throw e;
+            } finally {
+                span.finish();
+            }
+        } finally {
+            listener.onOperation(sagaType, operation, Duration.ofNanos(System.nanoTime() - start), failed);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SpanFunction<R> {
+
+        R apply(TracedSpan span);
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingSagaStore}.
+     * <p>
+     * The {@link SagaStoreListener} defaults to {@link SagaStoreListener#NO_OP}. The delegate {@link SagaStore} and
+     * the {@link TracingBackend} are <b>hard requirements</b> and as such should be provided.
+     *
+     * @param <T> the type of saga stored
+     */
+    public static class Builder<T> {
+
+        private SagaStore<T> delegate;
+        private TracingBackend backend;
+        private SagaStoreListener listener = SagaStoreListener.NO_OP;
+
+        /**
+         * Sets the {@link SagaStore} this tracing-wrapper delegates the actual storage of sagas to.
+         *
+         * @param delegate the {@link SagaStore} to delegate the actual storage of sagas to
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<T> delegate(SagaStore<T> delegate) {
+            assertNonNull(delegate, "Delegate SagaStore may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Tracing} used to trace saga store operations, by wrapping it in a
+         * {@link BraveTracingBackend}.
+         *
+         * @param tracing the {@link Tracing} used to trace saga store operations
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<T> tracer(Tracing tracing) {
+            assertNonNull(tracing, "Tracing may not be null");
+            this.backend = new BraveTracingBackend(tracing);
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingBackend} used to trace saga store operations.
+         *
+         * @param backend the {@link TracingBackend} used to trace saga store operations
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<T> backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SagaStoreListener} notified of every saga store operation. Defaults to
+         * {@link SagaStoreListener#NO_OP}.
+         *
+         * @param listener the {@link SagaStoreListener} notified of every saga store operation
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<T> listener(SagaStoreListener listener) {
+            assertNonNull(listener, "SagaStoreListener may not be null");
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingSagaStore} as specified through this Builder.
+         *
+         * @return a {@link TracingSagaStore} as specified through this Builder
+         */
+        public TracingSagaStore<T> build() {
+            return new TracingSagaStore<>(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(delegate, "The delegate SagaStore is a hard requirement and should be provided");
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ScheduledExecutorService} which runs the tasks scheduled with it in the trace context of the thread which
+ * scheduled them. Every execution of a periodic task runs in the context captured when it was scheduled.
+ *
+ * @since 4.2
+ */
+public class TracingScheduledExecutorService extends TracingExecutorService implements ScheduledExecutorService {
+
+    private final ScheduledExecutorService delegate;
+
+    /**
+     * Initialize a {@link ScheduledExecutorService} delegating tasks to the given {@code delegate}, propagating the
+     * trace context of the given {@code backend}.
+     *
+     * @param delegate the {@link ScheduledExecutorService} to execute the tasks with
+     * @param backend  the {@link TracingBackend} of which the trace context is propagated
+     */
+    public TracingScheduledExecutorService(ScheduledExecutorService delegate, TracingBackend backend) {
+        super(delegate, backend);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return delegate.schedule(TracingExecutors.wrap(command, backend()), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return delegate.schedule(TracingExecutors.wrap(callable, backend()), delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return delegate.scheduleAtFixedRate(TracingExecutors.wrap(command, backend()), initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        return delegate.scheduleWithFixedDelay(TracingExecutors.wrap(command, backend()), initialDelay, delay, unit);
+    }
+}
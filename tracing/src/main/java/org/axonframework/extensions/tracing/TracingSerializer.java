@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+import brave.Tracing;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.Converter;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.Serializer;
+
+/**
+ * A {@link Serializer} wrapping another Serializer, measuring the duration of every serialization and
+ * deserialization and the size of the serialized form per serialized type. The measurements are always reported to
+ * the configured {@link SerializationListener}, and added as annotations to the current span if it is recorded.
+ * <p>
+ * The size is known for {@code byte[]} (in bytes) and {@code String} (in characters) representations only. When
+ * {@link MetaData} is serialized, the size of the trace context entries it contains is reported separately, as the
+ * number of characters of their keys and values. This approximates the bytes these entries add to every message,
+ * excluding the framing of the serializer. By default the trace context entries are the keys the
+ * {@link TracingBackend} propagates, the scheduled time of deadlines and scheduled events and the sent time of
+ * commands routed through a {@link TracingCommandBusConnector}.
+ *
+ * @since 4.2
+ */
+public class TracingSerializer implements Serializer {
+
+    private final Serializer delegate;
+    private final TracingBackend backend;
+    private final boolean tracing;
+    private final SerializationListener listener;
+    private final String[] traceMetaDataKeys;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingSerializer}.
+     * <p>
+     * The {@link SerializationListener} defaults to {@link SerializationListener#NO_OP} and the trace meta data keys
+     * to the {@link TracingBackend#propagationKeys() propagation keys} of the backend, the scheduled time key and the
+     * command sent time key. The delegate {@link Serializer} and the {@link TracingBackend} are <b>hard
+     * requirements</b> and as such should be provided.
+     *
+     * @return a Builder to be able to create a {@link TracingSerializer}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingSerializer} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingSerializer} instance
+     */
+    protected TracingSerializer(Builder builder) {
+        builder.validate();
+        this.delegate = builder.delegate;
+        this.backend = builder.backend;
+        this.tracing = TracingBackend.isTracing(builder.backend);
+        this.listener = builder.listener;
+        Collection<String> keys = builder.traceMetaDataKeys;
+        if (keys == null) {
+            List<String> defaultKeys = new ArrayList<>(builder.backend.propagationKeys());
+            defaultKeys.add(ScheduledFirings.SCHEDULED_TIME_KEY);
+            defaultKeys.add(TracingCommandBusConnector.SENT_TIME_KEY);
+            keys = defaultKeys;
+        }
+        this.traceMetaDataKeys = keys.toArray(new String[0]);
+    }
+
+    @Override
+    public <T> SerializedObject<T> serialize(Object object, Class<T> expectedRepresentation) {
+        long start = System.nanoTime();
+        SerializedObject<T> serialized = delegate.serialize(object, expectedRepresentation);
+        long durationNanos = System.nanoTime() - start;
+        String type = serialized.getType().getName();
+        long size = sizeOf(serialized.getData());
+        listener.onSerialize(type, Duration.ofNanos(durationNanos), size);
+        long traceMetaDataSize = object instanceof MetaData ? traceMetaDataSize((MetaData) object) : 0;
+        if (traceMetaDataSize > 0) {
+            listener.onTraceMetaData(traceMetaDataSize);
+        }
+        TracedSpan span = recordingSpan();
+        if (span != null) {
+            span.annotate(annotation("serialize", type, size, durationNanos));
+            if (traceMetaDataSize > 0) {
+                span.annotate("traceMetaData " + traceMetaDataSize + "B");
+            }
+        }
+        return serialized;
+    }
+
+    @Override
+    public <S, T> T deserialize(SerializedObject<S> serializedObject) {
+        long start = System.nanoTime();
+        T deserialized = delegate.deserialize(serializedObject);
+        long durationNanos = System.nanoTime() - start;
+        String type = serializedObject.getType().getName();
+        long size = sizeOf(serializedObject.getData());
+        listener.onDeserialize(type, Duration.ofNanos(durationNanos), size);
+        TracedSpan span = recordingSpan();
+        if (span != null) {
+            span.annotate(annotation("deserialize", type, size, durationNanos));
+        }
+        return deserialized;
+    }
+
+    private TracedSpan recordingSpan() {
+        if (!tracing) {
+            return null;
+        }
+        TracedSpan span = backend.currentSpan();
+        return span != null && span.isRecording() ? span : null;
+    }
+
+    private long traceMetaDataSize(MetaData metaData) {
+        long size = 0;
+        for (String key : traceMetaDataKeys) {
+            Object value = metaData.get(key);
+            if (value != null) {
+                size += key.length() + value.toString().length();
+            }
+        }
+        return size;
+    }
+
+    private static long sizeOf(Object data) {
+        if (data instanceof byte[]) {
+            return ((byte[]) data).length;
+        }
+        if (data instanceof String) {
+            return ((String) data).length();
+        }
+        return -1;
+    }
+
+    private static String annotation(String operation, String type, long size, long durationNanos) {
+        StringBuilder annotation = new StringBuilder(operation).append(' ').append(type);
+        if (size >= 0) {
+            annotation.append(' ').append(size).append('B');
+        }
+        return annotation.append(' ').append(durationNanos / 1000).append("us").toString();
+    }
+
+    @Override
+    public <T> boolean canSerializeTo(Class<T> expectedRepresentation) {
+        return delegate.canSerializeTo(expectedRepresentation);
+    }
+
+    @Override
+    public Class classForType(SerializedType type) {
+        return delegate.classForType(type);
+    }
+
+    @Override
+    public SerializedType typeForClass(Class type) {
+        return delegate.typeForClass(type);
+    }
+
+    @Override
+    public Converter getConverter() {
+        return delegate.getConverter();
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingSerializer}.
+     * <p>
+     * The {@link SerializationListener} defaults to {@link SerializationListener#NO_OP} and the trace meta data keys
+     * to the {@link TracingBackend#propagationKeys() propagation keys} of the backend, the scheduled time key and the
+     * command sent time key. The delegate {@link Serializer} and the {@link TracingBackend} are <b>hard
+     * requirements</b> and as such should be provided.
+     */
+    public static class Builder {
+
+        private Serializer delegate;
+        private TracingBackend backend;
+        private SerializationListener listener = SerializationListener.NO_OP;
+        private Collection<String> traceMetaDataKeys;
+
+        /**
+         * Sets the {@link Serializer} this tracing-wrapper delegates the actual serialization to.
+         *
+         * @param delegate the {@link Serializer} to delegate the actual serialization to
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegate(Serializer delegate) {
+            assertNonNull(delegate, "Delegate Serializer may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Tracing} of which the current span is annotated with the serialization measurements, by
+         * wrapping it in a {@link BraveTracingBackend}.
+         *
+         * @param tracing the {@link Tracing} of which the current span is annotated
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracing tracing) {
+            assertNonNull(tracing, "Tracing may not be null");
+            this.backend = new BraveTracingBackend(tracing);
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingBackend} of which the current span is annotated with the serialization
+         * measurements.
+         *
+         * @param backend the {@link TracingBackend} of which the current span is annotated
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SerializationListener} notified of every serialization and deserialization. Defaults to
+         * {@link SerializationListener#NO_OP}.
+         *
+         * @param listener the {@link SerializationListener} notified of every (de)serialization
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder listener(SerializationListener listener) {
+            assertNonNull(listener, "SerializationListener may not be null");
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Sets the meta data keys of which the entries are measured as trace context entries. Defaults to the
+         * {@link TracingBackend#propagationKeys() propagation keys} of the backend, the scheduled time key and the
+         * command sent time key.
+         *
+         * @param traceMetaDataKeys the meta data keys of the trace context entries
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder traceMetaDataKeys(Collection<String> traceMetaDataKeys) {
+            assertNonNull(traceMetaDataKeys, "The trace meta data keys may not be null");
+            this.traceMetaDataKeys = traceMetaDataKeys;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingSerializer} as specified through this Builder.
+         *
+         * @return a {@link TracingSerializer} as specified through this Builder
+         */
+        public TracingSerializer build() {
+            return new TracingSerializer(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(delegate, "The delegate Serializer is a hard requirement and should be provided");
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+import static org.axonframework.common.BuilderUtils.assertThat;
+
+import brave.Tracing;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventhandling.tokenstore.TokenStore;
+import org.axonframework.eventhandling.tokenstore.UnableToClaimTokenException;
+
+/**
+ * A {@link TokenStore} wrapping another TokenStore, tracing every operation performed on it and reporting it to a
+ * {@link TokenStoreListener}.
+ * <p>
+ * Every operation is traced in a span named after the invoked method, tagged with the processor name and, if
+ * applicable, the segment. Operations failing because the segment is claimed by another owner are tagged with
+ * {@code axon.token.claim.failed}. Tokens are stored when the batch of events commits, after the handler span went out
+ * of scope, so the span started by the {@link OpenTraceHandlerInterceptor} for the current
+ * {@link org.axonframework.messaging.unitofwork.UnitOfWork} is used as parent when no span is in scope. Other
+ * operations, such as fetching tokens and extending claims, start new traces, sampled at the configured rate.
+ * <p>
+ * Additionally, the time every thread spends without claimed segment is reported to the listener: from its first
+ * failed claim attempt, or from releasing its claim, until it successfully fetches a token again. Together with the
+ * duration of the operations, this allows sizing the number of segments and threads of tracking processors.
+ *
+ * @since 4.2
+ */
+public class TracingTokenStore implements TokenStore {
+
+    static final String TAG_SEGMENT = "axon.segment.id";
+    static final String TAG_CLAIM_FAILED = "axon.token.claim.failed";
+
+    private final TokenStore delegate;
+    private final TracingBackend backend;
+    private final boolean tracing;
+    private final Predicate<String> tracedProcessors;
+    private final TokenStoreListener listener;
+    private final boolean listening;
+    private final ThreadLocal<Map<String, Long>> unclaimedSince = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingTokenStore}.
+     * <p>
+     * The {@link TokenStoreListener} defaults to {@link TokenStoreListener#NO_OP}, the operations of all processors
+     * are traced and new traces are sampled as configured on the tracing library. The delegate {@link TokenStore} and
+     * the {@link TracingBackend} are <b>hard requirements</b> and as such should be provided.
+     *
+     * @return a Builder to be able to create a {@link TracingTokenStore}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingTokenStore} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingTokenStore} instance
+     */
+    protected TracingTokenStore(Builder builder) {
+        builder.validate();
+        this.delegate = builder.delegate;
+        this.backend = builder.sampleRate == null
+                ? builder.backend
+                : builder.backend.withSampleRate(builder.sampleRate);
+        this.tracing = TracingBackend.isTracing(builder.backend);
+        this.tracedProcessors = builder.tracedProcessors;
+        this.listener = builder.listener;
+        this.listening = builder.listener != TokenStoreListener.NO_OP;
+    }
+
+    @Override
+    public void initializeTokenSegments(String processorName, int segmentCount) {
+        trace("initializeTokenSegments", processorName, -1, () -> {
+            delegate.initializeTokenSegments(processorName, segmentCount);
+            return null;
+        });
+    }
+
+    @Override
+    public void initializeTokenSegments(String processorName, int segmentCount, TrackingToken initialToken) {
+        trace("initializeTokenSegments", processorName, -1, () -> {
+            delegate.initializeTokenSegments(processorName, segmentCount, initialToken);
+            return null;
+        });
+    }
+
+    @Override
+    public void storeToken(TrackingToken token, String processorName, int segment) {
+        trace("storeToken", processorName, segment, () -> {
+            delegate.storeToken(token, processorName, segment);
+            return null;
+        });
+    }
+
+    @Override
+    public TrackingToken fetchToken(String processorName, int segment) {
+        TrackingToken token = trace("fetchToken", processorName, segment,
+                                    () -> delegate.fetchToken(processorName, segment));
+        if (listening) {
+            Long since = unclaimedSince.get().remove(processorName);
+            if (since != null) {
+                listener.onClaimAcquired(processorName, Duration.ofNanos(System.nanoTime() - since));
+            }
+        }
+        return token;
+    }
+
+    @Override
+    public void extendClaim(String processorName, int segment) {
+        trace("extendClaim", processorName, segment, () -> {
+            delegate.extendClaim(processorName, segment);
+            return null;
+        });
+    }
+
+    @Override
+    public void releaseClaim(String processorName, int segment) {
+        trace("releaseClaim", processorName, segment, () -> {
+            delegate.releaseClaim(processorName, segment);
+            return null;
+        });
+        markUnclaimed(processorName);
+    }
+
+    @Override
+    public void initializeSegment(TrackingToken token, String processorName, int segment) {
+        trace("initializeSegment", processorName, segment, () -> {
+            delegate.initializeSegment(token, processorName, segment);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteToken(String processorName, int segment) {
+        trace("deleteToken", processorName, segment, () -> {
+            delegate.deleteToken(processorName, segment);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean requiresExplicitSegmentInitialization() {
+        return delegate.requiresExplicitSegmentInitialization();
+    }
+
+    @Override
+    public int[] fetchSegments(String processorName) {
+        return trace("fetchSegments", processorName, -1, () -> delegate.fetchSegments(processorName));
+    }
+
+    private <R> R trace(String operation, String processorName, int segment, Operation<R> function) {
+        boolean traced = tracing && tracedProcessors.test(processorName);
+        if (!traced && !listening) {
+            return function.invoke();
+        }
+        TracedSpan handlerSpan = traced && backend.currentSpan() == null
+                ? OpenTraceHandlerInterceptor.currentHandlerSpan()
+                : null;
+        long start = System.nanoTime();
+        TokenStoreListener.Outcome outcome = TokenStoreListener.Outcome.SUCCESS;
+        try (SpanScope ignored = handlerSpan != null ? backend.makeCurrent(handlerSpan) : null) {
+            TracedSpan span = traced ? startSpan(operation, processorName, segment) : null;
+            try (SpanScope ignoredSpanScope = span != null ? backend.makeCurrent(span) : null) {
+                return function.invoke();
+            } catch (UnableToClaimTokenException e) {
+                outcome = TokenStoreListener.Outcome.CLAIM_FAILED;
+                if (span != null) {
+                    span.tag(TAG_CLAIM_FAILED, "true");
+                }
+                markUnclaimed(processorName);
+                throw e;
+            } catch (RuntimeException | Error e) {
+                outcome = TokenStoreListener.Outcome.FAILURE;
+                if (span != null) {
+                    span.error(e);
+                }
+                throw e;
+            } finally {
+                if (span != null) {
+                    span.finish();
+                }
+            }
+        } finally {
+            listener.onOperation(processorName, segment, operation, Duration.ofNanos(System.nanoTime() - start),
+                                 outcome);
+        }
+    }
+
+    private TracedSpan startSpan(String operation, String processorName, int segment) {
+        TracedSpan span = backend.startSpan(operation, TracedSpan.Kind.CLIENT);
+        span.tag(SpanUtils.TAG_PROCESSOR_NAME, processorName);
+        if (segment >= 0) {
+            span.tag(TAG_SEGMENT, Integer.toString(segment));
+        }
+        return span;
+    }
+
+    private void markUnclaimed(String processorName) {
+        if (listening) {
+            unclaimedSince.get().putIfAbsent(processorName, System.nanoTime());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation<R> {
+
+        R invoke();
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingTokenStore}.
+     * <p>
+     * The {@link TokenStoreListener} defaults to {@link TokenStoreListener#NO_OP}, the operations of all processors
+     * are traced and new traces are sampled as configured on the tracing library. The delegate {@link TokenStore} and
+     * the {@link TracingBackend} are <b>hard requirements</b> and as such should be provided.
+     */
+    public static class Builder {
+
+        private TokenStore delegate;
+        private TracingBackend backend;
+        private Float sampleRate;
+        private Predicate<String> tracedProcessors = processorName -> true;
+        private TokenStoreListener listener = TokenStoreListener.NO_OP;
+
+        /**
+         * Sets the {@link TokenStore} this tracing-wrapper delegates the actual storage of tokens to.
+         *
+         * @param delegate the {@link TokenStore} to delegate the actual storage of tokens to
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegate(TokenStore delegate) {
+            assertNonNull(delegate, "Delegate TokenStore may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Tracing} used to trace token store operations, by wrapping it in a
+         * {@link BraveTracingBackend}.
+         *
+         * @param tracing the {@link Tracing} used to trace token store operations
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracing tracing) {
+            assertNonNull(tracing, "Tracing may not be null");
+            this.backend = new BraveTracingBackend(tracing);
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingBackend} used to trace token store operations.
+         *
+         * @param backend the {@link TracingBackend} used to trace token store operations
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder backend(TracingBackend backend) {
+            assertNonNull(backend, "TracingBackend may not be null");
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets the rate, between {@code 0.0} and {@code 1.0}, at which traces started by token store operations are
+         * sampled. Operations traced as part of handling a batch of events follow the sampling decision of its trace.
+         * Defaults to the sampling configured on the tracing library.
+         *
+         * @param sampleRate the rate at which traces started by token store operations are sampled
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder sampleRate(float sampleRate) {
+            assertThat(sampleRate, rate -> rate >= 0.0f && rate <= 1.0f,
+                       "The sample rate should be between 0.0 and 1.0");
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Predicate} deciding, by processor name, of which processors the token store operations are
+         * traced. Operations of other processors are still reported to the {@link TokenStoreListener}. Defaults to
+         * tracing the operations of all processors.
+         *
+         * @param tracedProcessors the {@link Predicate} deciding of which processors the operations are traced
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracedProcessors(Predicate<String> tracedProcessors) {
+            assertNonNull(tracedProcessors, "The traced processors predicate may not be null");
+            this.tracedProcessors = tracedProcessors;
+            return this;
+        }
+
+        /**
+         * Sets the {@link TokenStoreListener} notified of every operation. Defaults to
+         * {@link TokenStoreListener#NO_OP}.
+         *
+         * @param listener the {@link TokenStoreListener} notified of every operation
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder listener(TokenStoreListener listener) {
+            assertNonNull(listener, "TokenStoreListener may not be null");
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingTokenStore} as specified through this Builder.
+         *
+         * @return a {@link TracingTokenStore} as specified through this Builder
+         */
+        public TracingTokenStore build() {
+            return new TracingTokenStore(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder are set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(delegate, "The delegate TokenStore is a hard requirement and should be provided");
+            assertNonNull(backend, "The TracingBackend is a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+/**
+ * Listener notified of the duration of the {@link UnitOfWork} phases following the handling of a traced message, as
+ * timed by an {@link OpenTraceHandlerInterceptor} with unit of work phase timing enabled.
+ *
+ * @since 4.2
+ */
+@FunctionalInterface
+public interface UnitOfWorkPhaseListener {
+
+    /**
+     * A {@link UnitOfWorkPhaseListener} ignoring all phases.
+     */
+    UnitOfWorkPhaseListener NO_OP = (messageType, phase, duration) -> {
+    };
+
+    /**
+     * Invoked when a phase of a {@link UnitOfWork} completed.
+     *
+     * @param messageType the type of message handled in the unit of work, as in the {@code axon.message.type} tag
+     * @param phase       the completed phase, being one of {@link UnitOfWork.Phase#PREPARE_COMMIT},
+     *                    {@link UnitOfWork.Phase#COMMIT}, {@link UnitOfWork.Phase#AFTER_COMMIT} or
+     *                    {@link UnitOfWork.Phase#ROLLBACK}
+     * @param duration    the time the phase took
+     */
+    void onPhase(String messageType, UnitOfWork.Phase phase, Duration duration);
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+/**
+ * A {@link UnitOfWorkPhaseListener} recording the duration of {@link UnitOfWork} phases in a Micrometer
+ * {@link Timer} named {@code axon.unitofwork.phase}, tagged with the {@code messageType} and the {@code phase}. The
+ * timer publishes a percentile histogram.
+ *
+ * @since 4.2
+ */
+public class UnitOfWorkPhaseMeterRecorder implements UnitOfWorkPhaseListener {
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize a {@link UnitOfWorkPhaseListener} recording phase durations in the given {@code registry}.
+     *
+     * @param registry the {@link MeterRegistry} to register the phase timers in
+     */
+    public UnitOfWorkPhaseMeterRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onPhase(String messageType, UnitOfWork.Phase phase, Duration duration) {
+        timers.computeIfAbsent(messageType + ':' + phase,
+                               key -> Timer.builder("axon.unitofwork.phase")
+                                           .description("The time spent in the phases of a unit of work")
+                                           .tag("messageType", messageType)
+                                           .tag("phase", UnitOfWorkPhaseTimer.phaseName(phase))
+                                           .publishPercentileHistogram()
+                                           .register(registry))
+              .record(duration);
+    }
+}
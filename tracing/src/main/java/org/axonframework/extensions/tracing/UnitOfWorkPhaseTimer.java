@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+/**
+ * Times the phases of a {@link UnitOfWork} following the handling of a traced message, annotating the handler span
+ * with the duration of each phase and reporting it to a {@link UnitOfWorkPhaseListener}.
+ * <p>
+ * The unit of work invokes the handlers of the prepare commit and commit phases in registration order, and those of
+ * the after commit, rollback and cleanup phases in reverse order. Handlers added while a phase is in progress are
+ * still invoked in that phase. The end of each phase is therefore marked by a handler registered from within the
+ * previous marker, which runs after all handlers registered while the message was being handled, such as event store
+ * appends and transaction commits. The rollback phase is timed from the end of the message handling or the last
+ * completed phase, and as such includes the failed part of the phase that caused the rollback.
+ */
+class UnitOfWorkPhaseTimer {
+
+    private final TracedSpan span;
+    private final String messageType;
+    private final UnitOfWorkPhaseListener listener;
+    private volatile long lastMark;
+
+    private UnitOfWorkPhaseTimer(TracedSpan span, String messageType, UnitOfWorkPhaseListener listener) {
+        this.span = span;
+        this.messageType = messageType;
+        this.listener = listener;
+        this.lastMark = System.nanoTime();
+    }
+
+    /**
+     * Start timing the phases of the given {@code unitOfWork}. The returned timer should be {@link #handled() marked}
+     * when the message has been handled.
+     *
+     * @param unitOfWork  the {@link UnitOfWork} to time the phases of
+     * @param span        the span to annotate with the phase durations
+     * @param messageType the type of message handled in the unit of work
+     * @param listener    the {@link UnitOfWorkPhaseListener} to report the phase durations to
+     * @return the timer of the phases of the given unit of work
+     */
+    static UnitOfWorkPhaseTimer start(UnitOfWork<?> unitOfWork,
+                                      TracedSpan span,
+                                      String messageType,
+                                      UnitOfWorkPhaseListener listener) {
+        UnitOfWorkPhaseTimer timer = new UnitOfWorkPhaseTimer(span, messageType, listener);
+        unitOfWork.onPrepareCommit(u -> u.onPrepareCommit(timer::prepareCommitted));
+        unitOfWork.onRollback(u -> timer.record(UnitOfWork.Phase.ROLLBACK));
+        return timer;
+    }
+
+    /**
+     * Returns the name of the given {@code phase} as used in span annotations and metric tags.
+     *
+     * @param phase the phase to return the name of
+     * @return the name of the given phase
+     */
+    static String phaseName(UnitOfWork.Phase phase) {
+        switch (phase) {
+            case PREPARE_COMMIT:
+                return "prepareCommit";
+            case AFTER_COMMIT:
+                return "afterCommit";
+            default:
+                return phase.name().toLowerCase();
+        }
+    }
+
+    /**
+     * Mark the end of handling the message, which is the start of the prepare commit phase.
+     */
+    void handled() {
+        lastMark = System.nanoTime();
+    }
+
+    private void prepareCommitted(UnitOfWork<?> unitOfWork) {
+        record(UnitOfWork.Phase.PREPARE_COMMIT);
+        unitOfWork.onCommit(this::committed);
+    }
+
+    private void committed(UnitOfWork<?> unitOfWork) {
+        record(UnitOfWork.Phase.COMMIT);
+        unitOfWork.onCleanup(u -> record(UnitOfWork.Phase.AFTER_COMMIT));
+    }
+
+    private void record(UnitOfWork.Phase phase) {
+        long now = System.nanoTime();
+        long durationNanos = now - lastMark;
+        lastMark = now;
+        span.annotate(phaseName(phase) + " " + durationNanos / 1000 + "us");
+        listener.onPhase(messageType, phase, Duration.ofNanos(durationNanos));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+import org.axonframework.serialization.SerializedType;
+
+/**
+ * Listener notified of the upcasting performed by a {@link TracingEventUpcaster}. All methods do nothing by default,
+ * so that implementations only need to override the notifications they are interested in.
+ *
+ * @since 4.2
+ */
+public interface UpcasterListener {
+
+    /**
+     * A {@link UpcasterListener} ignoring all upcasting.
+     */
+    UpcasterListener NO_OP = new UpcasterListener() {
+    };
+
+    /**
+     * Invoked when an upcaster upcasts an event from one type or revision to another. Upcasting is lazy, so the
+     * conversion of the event itself is reported separately through {@link #onConversion(String, SerializedType,
+     * Duration)}.
+     *
+     * @param upcaster the name of the upcaster
+     * @param from     the type and revision of the event before upcasting
+     * @param to       the type and revision of the event after upcasting
+     */
+    default void onUpcast(String upcaster, SerializedType from, SerializedType to) {
+    }
+
+    /**
+     * Invoked when the upcast function of an upcaster has been applied to the data of an event, which happens when
+     * the upcasted event is read.
+     *
+     * @param upcaster the name of the upcaster
+     * @param from     the type and revision of the event before upcasting
+     * @param duration the time spent in the upcast function of the upcaster
+     */
+    default void onConversion(String upcaster, SerializedType from, Duration duration) {
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2010-2019. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.axonframework.serialization.SerializedType;
+
+/**
+ * An {@link UpcasterListener} recording upcasting through Micrometer. Registers:
+ * <ul>
+ * <li>{@code axon.upcaster.invocations}, a counter of the upcasted events, tagged with the {@code upcaster}, the
+ * {@code eventType} and the {@code fromRevision} and {@code toRevision} of the events ({@code none} when the
+ * revision is absent); the counts per revision show which legacy revisions are still read,</li>
+ * <li>{@code axon.upcaster.duration}, a timer of the time spent in the upcast functions of an upcaster, tagged
+ * with the {@code upcaster} and the {@code eventType} and {@code fromRevision} of the converted events, publishing a
+ * percentile histogram.</li>
+ * </ul>
+ *
+ * @since 4.2
+ */
+public class UpcasterMeterRecorder implements UpcasterListener {
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Counter> invocations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> conversions = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize a {@link UpcasterListener} recording upcasting in the given {@code registry}.
+     *
+     * @param registry the {@link MeterRegistry} to register the upcasting meters in
+     */
+    public UpcasterMeterRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onUpcast(String upcaster, SerializedType from, SerializedType to) {
+        String fromRevision = revisionOrNone(from);
+        String toRevision = revisionOrNone(to);
+        invocations.computeIfAbsent(upcaster + ':' + from.getName() + ':' + fromRevision + ':' + toRevision,
+                                    key -> Counter.builder("axon.upcaster.invocations")
+                                                  .description("The number of events upcasted by an upcaster")
+                                                  .tag("upcaster", upcaster)
+                                                  .tag("eventType", from.getName())
+                                                  .tag("fromRevision", fromRevision)
+                                                  .tag("toRevision", toRevision)
+                                                  .register(registry))
+                   .increment();
+    }
+
+    @Override
+    public void onConversion(String upcaster, SerializedType from, Duration duration) {
+        String fromRevision = revisionOrNone(from);
+        conversions.computeIfAbsent(upcaster + ':' + from.getName() + ':' + fromRevision,
+                                    key -> Timer.builder("axon.upcaster.duration")
+                                                .description("The time spent converting events in an upcaster")
+                                                .tag("upcaster", upcaster)
+                                                .tag("eventType", from.getName())
+                                                .tag("fromRevision", fromRevision)
+                                                .publishPercentileHistogram()
+                                                .register(registry))
+                   .record(duration);
+    }
+
+    private static String revisionOrNone(SerializedType type) {
+        return type.getRevision() == null ? NONE : type.getRevision();
+    }
+}
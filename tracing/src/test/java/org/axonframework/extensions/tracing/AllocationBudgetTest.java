@@ -0,0 +1,172 @@
+package org.axonframework.extensions.tracing;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import brave.ScopedSpan;
+import brave.Tracing;
+import brave.sampler.Sampler;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Properties;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.responsetypes.ResponseTypes;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.queryhandling.SimpleQueryBus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import zipkin2.reporter.Reporter;
+
+/**
+ * Test class verifying that the number of bytes allocated per dispatched or handled message by the tracing components
+ * stays within the budgets in {@code allocation-budget.properties}.
+ * <p>
+ * Allocations are measured with the allocation counter of the current thread, after a warm-up allowing the JIT to
+ * settle. Every message is traced in a sampled span, which is the most expensive path. When a change legitimately
+ * increases allocation, the budget should be raised in the same change, so that the increase is reviewed.
+ */
+public class AllocationBudgetTest {
+
+    private static final String BUDGET_RESOURCE = "/allocation-budget.properties";
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASUREMENT_ITERATIONS = 20_000;
+
+    private static com.sun.management.ThreadMXBean threadMXBean;
+    private static Properties budgets;
+
+    private Tracing tracing;
+
+    @BeforeClass
+    public static void loadBudgets() throws IOException {
+        java.lang.management.ThreadMXBean mxBean = ManagementFactory.getThreadMXBean();
+        assumeTrue("Thread allocation counters are not available on this JVM",
+                   mxBean instanceof com.sun.management.ThreadMXBean
+                           && ((com.sun.management.ThreadMXBean) mxBean).isThreadAllocatedMemorySupported());
+        threadMXBean = (com.sun.management.ThreadMXBean) mxBean;
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        budgets = new Properties();
+        try (InputStream budgetStream = AllocationBudgetTest.class.getResourceAsStream(BUDGET_RESOURCE)) {
+            assertNotNull("Allocation budget resource " + BUDGET_RESOURCE + " is missing", budgetStream);
+            budgets.load(budgetStream);
+        }
+    }
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .sampler(Sampler.ALWAYS_SAMPLE)
+                         .spanReporter(Reporter.NOOP)
+                         .build();
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    @Test
+    public void testDispatchInterceptorAllocationBudget() {
+        OpenTraceDispatchInterceptor interceptor = new OpenTraceDispatchInterceptor(tracing);
+        Message<?> message = new GenericMessage<>("payload");
+
+        assertWithinBudget("dispatchInterceptor", () -> withinSpan(
+                () -> interceptor.handle(Collections.singletonList(message)).apply(0, message)
+        ));
+    }
+
+    @Test
+    public void testHandlerInterceptorAllocationBudget() {
+        OpenTraceHandlerInterceptor interceptor = new OpenTraceHandlerInterceptor(tracing);
+        Message<?> message = tracedMessage();
+        InterceptorChain chain = () -> "result";
+
+        assertWithinBudget("handlerInterceptor", () -> {
+            DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(message);
+            unitOfWork.executeWithResult(() -> interceptor.handle(unitOfWork, chain));
+        });
+    }
+
+    @Test
+    public void testCorrelationDataProviderAllocationBudget() {
+        TracingProvider provider = new TracingProvider(tracing);
+        Message<?> message = new GenericMessage<>("payload");
+
+        assertWithinBudget("correlationDataProvider", () -> withinSpan(() -> provider.correlationDataFor(message)));
+    }
+
+    @Test
+    public void testCommandGatewayAllocationBudget() {
+        SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+        commandBus.subscribe(String.class.getName(), command -> "result");
+        TracingCommandGateway gateway = TracingCommandGateway.builder()
+                                                             .tracer(tracing)
+                                                             .delegateCommandBus(commandBus)
+                                                             .build();
+
+        assertWithinBudget("commandGateway", () -> gateway.sendAndWait("command"));
+    }
+
+    @Test
+    public void testQueryGatewayAllocationBudget() {
+        SimpleQueryBus queryBus = SimpleQueryBus.builder().build();
+        queryBus.subscribe(String.class.getName(), String.class, query -> "result");
+        TracingQueryGateway gateway = TracingQueryGateway.builder()
+                                                         .tracer(tracing)
+                                                         .delegateQueryBus(queryBus)
+                                                         .build();
+
+        assertWithinBudget("queryGateway",
+                           () -> gateway.query("query", ResponseTypes.instanceOf(String.class)).join());
+    }
+
+    private Message<?> tracedMessage() {
+        Message<?> message = new GenericMessage<>("payload");
+        OpenTraceDispatchInterceptor dispatchInterceptor = new OpenTraceDispatchInterceptor(tracing);
+        ScopedSpan span = tracing.tracer().startScopedSpan("dispatch");
+        try {
+            return dispatchInterceptor.handle(Collections.singletonList(message)).apply(0, message);
+        } finally {
+            span.finish();
+        }
+    }
+
+    private void withinSpan(Runnable operation) {
+        ScopedSpan span = tracing.tracer().startScopedSpan("parent");
+        try {
+            operation.run();
+        } finally {
+            span.finish();
+        }
+    }
+
+    private static void assertWithinBudget(String operation, Runnable perMessage) {
+        String budget = budgets.getProperty(operation);
+        assertNotNull("No allocation budget configured for [" + operation + "]", budget);
+        long budgetBytes = Long.parseLong(budget.trim());
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            perMessage.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            perMessage.run();
+        }
+        long bytesPerMessage =
+                (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / MEASUREMENT_ITERATIONS;
+
+        assertTrue("Allocation per message for [" + operation + "] is " + bytesPerMessage
+                           + " bytes, exceeding the budget of " + budgetBytes + " bytes",
+                   bytesPerMessage <= budgetBytes);
+    }
+}
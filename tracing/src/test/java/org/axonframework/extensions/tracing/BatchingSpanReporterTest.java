@@ -0,0 +1,270 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link BatchingSpanReporter}.
+ */
+public class BatchingSpanReporterTest {
+
+    private final List<List<Span>> exportedBatches = new CopyOnWriteArrayList<>();
+    private final CountDownLatch exporterBlock = new CountDownLatch(1);
+    private BatchingSpanReporter testSubject;
+
+    @After
+    public void close() {
+        exporterBlock.countDown();
+        if (testSubject != null) {
+            testSubject.close();
+        }
+    }
+
+    @Test
+    public void testExportsBatchWhenMaxBatchSizeIsReached() throws InterruptedException {
+        testSubject = BatchingSpanReporter.builder()
+                                          .exporter(exportedBatches::add)
+                                          .maxBatchSize(3)
+                                          .maxBatchDelay(Duration.ofMinutes(1))
+                                          .build();
+
+        for (int i = 1; i <= 3; i++) {
+            testSubject.report(span(i));
+        }
+
+        waitFor(() -> exportedBatches.size() == 1);
+        assertThat(spanIds(exportedBatches.get(0)), is("1,2,3"));
+        assertThat(testSubject.exportedSpans(), is(3L));
+        assertThat(testSubject.exportedBatches(), is(1L));
+        assertThat(testSubject.queueDepth(), is(0));
+    }
+
+    @Test
+    public void testExportsIncompleteBatchAfterMaxBatchDelay() throws InterruptedException {
+        testSubject = BatchingSpanReporter.builder()
+                                          .exporter(exportedBatches::add)
+                                          .maxBatchSize(100)
+                                          .maxBatchDelay(Duration.ofMillis(20))
+                                          .build();
+
+        testSubject.report(span(1));
+
+        waitFor(() -> exportedBatches.size() == 1);
+        assertThat(spanIds(exportedBatches.get(0)), is("1"));
+        assertTrue(testSubject.maxBatchLatency(TimeUnit.MILLISECONDS) >= 0);
+    }
+
+    @Test
+    public void testDropNewestKeepsBufferedSpansWhenQueueIsFull() throws InterruptedException {
+        testSubject = blockingReporter(BatchingSpanReporter.OverflowPolicy.DROP_NEWEST);
+        fillQueue();
+
+        testSubject.report(span(100));
+        exporterBlock.countDown();
+        testSubject.flush();
+
+        waitFor(() -> testSubject.exportedSpans() == 5);
+        assertThat(testSubject.droppedSpans(), is(1L));
+        assertThat(allExportedSpanIds(), is("1,2,3,4,5"));
+    }
+
+    @Test
+    public void testDropOldestEvictsBufferedSpansWhenQueueIsFull() throws InterruptedException {
+        testSubject = blockingReporter(BatchingSpanReporter.OverflowPolicy.DROP_OLDEST);
+        fillQueue();
+
+        testSubject.report(span(100));
+        exporterBlock.countDown();
+        testSubject.flush();
+
+        waitFor(() -> testSubject.exportedSpans() == 5);
+        assertThat(testSubject.droppedSpans(), is(1L));
+        assertThat(allExportedSpanIds(), is("1,3,4,5,100"));
+    }
+
+    @Test
+    public void testFailingExporterDropsBatch() throws InterruptedException {
+        testSubject = BatchingSpanReporter.builder()
+                                          .exporter(spans -> {
+                                              throw new IllegalStateException("backend unavailable");
+                                          })
+                                          .maxBatchSize(2)
+                                          .build();
+
+        testSubject.report(span(1));
+        testSubject.report(span(2));
+
+        waitFor(() -> testSubject.failedBatches() == 1);
+        assertThat(testSubject.droppedSpans(), is(2L));
+        assertThat(testSubject.exportedSpans(), is(0L));
+    }
+
+    @Test
+    public void testCloseExportsRemainingSpansAndDropsLaterSpans() {
+        testSubject = BatchingSpanReporter.builder()
+                                          .exporter(exportedBatches::add)
+                                          .maxBatchDelay(Duration.ofMinutes(1))
+                                          .build();
+        testSubject.report(span(1));
+        testSubject.report(span(2));
+
+        testSubject.close();
+        testSubject.report(span(3));
+
+        assertThat(allExportedSpanIds(), is("1,2"));
+        assertThat(testSubject.reportedSpans(), is(3L));
+        assertThat(testSubject.droppedSpans(), is(1L));
+    }
+
+    @Test
+    public void testIncompleteBatchWaitsNoLongerThanMaxBatchDelayAfterBeingReported() throws InterruptedException {
+        testSubject = BatchingSpanReporter.builder()
+                                          .exporter(exportedBatches::add)
+                                          .maxBatchSize(100)
+                                          .maxBatchDelay(Duration.ofMillis(500))
+                                          .build();
+        // report while the exporting thread waits on the empty queue
+        Thread.sleep(50);
+
+        testSubject.report(span(1));
+
+        waitFor(() -> exportedBatches.size() == 1);
+        assertTrue(testSubject.maxBatchLatency(TimeUnit.MILLISECONDS) < 750);
+    }
+
+    @Test
+    public void testFullBatchIsExportedWhenConcurrentReportsPassTheBatchSize() throws Exception {
+        for (int run = 0; run < 50; run++) {
+            exportedBatches.clear();
+            testSubject = BatchingSpanReporter.builder()
+                                              .exporter(exportedBatches::add)
+                                              .maxBatchSize(4)
+                                              .maxBatchDelay(Duration.ofMinutes(1))
+                                              .build();
+            CyclicBarrier barrier = new CyclicBarrier(8);
+            List<Thread> reporters = new ArrayList<>();
+            for (int i = 1; i <= 8; i++) {
+                long spanId = i;
+                reporters.add(startThread(() -> {
+                    await(barrier);
+                    testSubject.report(span(spanId));
+                }));
+            }
+            for (Thread reporter : reporters) {
+                reporter.join();
+            }
+
+            waitFor(() -> testSubject.exportedSpans() >= 4);
+            testSubject.close();
+        }
+    }
+
+    @Test
+    public void testSpansReportedWhileClosingAreEitherExportedOrDropped() throws Exception {
+        for (int run = 0; run < 200; run++) {
+            testSubject = BatchingSpanReporter.builder()
+                                              .exporter(exportedBatches::add)
+                                              .maxBatchSize(8)
+                                              .build();
+            CyclicBarrier barrier = new CyclicBarrier(5);
+            List<Thread> reporters = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                reporters.add(startThread(() -> {
+                    await(barrier);
+                    for (int id = 1; id <= 50; id++) {
+                        testSubject.report(span(id));
+                    }
+                }));
+            }
+            await(barrier);
+            testSubject.close();
+            for (Thread reporter : reporters) {
+                reporter.join();
+            }
+
+            assertThat(testSubject.exportedSpans() + testSubject.droppedSpans(), is(testSubject.reportedSpans()));
+        }
+    }
+
+    private static Thread startThread(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.start();
+        return thread;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (InterruptedException | BrokenBarrierException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates a reporter with a queue of four spans, of which the exporter blocks on the first batch of a single span.
+     */
+    private BatchingSpanReporter blockingReporter(BatchingSpanReporter.OverflowPolicy overflowPolicy) {
+        return BatchingSpanReporter.builder()
+                                   .exporter(spans -> {
+                                       exporterBlock.await();
+                                       exportedBatches.add(spans);
+                                   })
+                                   .queueCapacity(4)
+                                   .maxBatchSize(1)
+                                   .maxBatchDelay(Duration.ofMillis(1))
+                                   .overflowPolicy(overflowPolicy)
+                                   .build();
+    }
+
+    private void fillQueue() throws InterruptedException {
+        testSubject.report(span(1));
+        // wait for the exporting thread to take the first span, blocking it in the exporter
+        waitFor(() -> testSubject.queueDepth() == 0);
+        for (int i = 2; i <= 5; i++) {
+            testSubject.report(span(i));
+        }
+        assertThat(testSubject.queueDepth(), is(testSubject.queueCapacity()));
+    }
+
+    private String allExportedSpanIds() {
+        return spanIds(exportedBatches.stream().flatMap(List::stream).collect(Collectors.toList()));
+    }
+
+    private static String spanIds(List<Span> spans) {
+        return spans.stream().map(s -> Long.toString(Long.parseLong(s.id(), 16))).collect(Collectors.joining(","));
+    }
+
+    private static Span span(long id) {
+        return Span.newBuilder().traceId(1, 1).id(id).name("span" + id).build();
+    }
+
+    private static void waitFor(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.isMet()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition was not met within 5 seconds");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Condition {
+
+        boolean isMet();
+    }
+}
@@ -0,0 +1,105 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the Java Flight Recorder events emitted through {@link FlightEvents}.
+ */
+public class FlightEventsTest {
+
+    private final List<Span> spans = new ArrayList<>();
+    private Tracing tracing;
+    private TracingCommandGateway gateway;
+
+    @Before
+    public void before() {
+        assumeTrue(FlightRecorder.isAvailable());
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .spanReporter(spans::add)
+                         .build();
+        SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+        commandBus.registerHandlerInterceptor(OpenTraceHandlerInterceptor.builder().tracer(tracing).build());
+        commandBus.subscribe(String.class.getName(), command -> "handled");
+        gateway = TracingCommandGateway.builder().tracer(tracing).delegateCommandBus(commandBus).build();
+    }
+
+    @After
+    public void after() {
+        if (tracing != null) {
+            tracing.close();
+        }
+    }
+
+    @Test
+    public void testEventsAreDisabledByDefault() {
+        assertThat(FlightEvents.begin(FlightEvents.Kind.DISPATCH), nullValue());
+        assertThat(FlightEvents.begin(FlightEvents.Kind.HANDLE), nullValue());
+        assertThat(FlightEvents.begin(FlightEvents.Kind.BATCH), nullValue());
+    }
+
+    @Test
+    public void testEnabledEventsCarryTraceAndSpanIdentifiers() throws Exception {
+        Path dump = Files.createTempFile("axon-tracing", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.axonframework.Dispatch");
+            recording.enable("org.axonframework.Handle");
+            recording.start();
+
+            gateway.sendAndWait("order-1");
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        Map<String, RecordedEvent> events =
+                RecordingFile.readAllEvents(dump)
+                             .stream()
+                             .filter(event -> event.getEventType().getName().startsWith("org.axonframework."))
+                             .collect(Collectors.toMap(event -> event.getEventType().getName(),
+                                                       Function.identity()));
+        Files.deleteIfExists(dump);
+        Map<String, Span> spansByName = spans.stream().collect(Collectors.toMap(Span::name, Function.identity()));
+
+        RecordedEvent dispatch = events.get("org.axonframework.Dispatch");
+        Span dispatchSpan = spansByName.get("sendcommandmessageandwait");
+        assertThat(dispatch.getString("traceId"), is(dispatchSpan.traceId()));
+        assertThat(dispatch.getString("spanId"), is(dispatchSpan.id()));
+        assertThat(dispatch.getString("operation"), is("sendCommandMessageAndWait"));
+        assertThat(dispatch.getString("messageType"), is("CommandMessage"));
+        assertThat(dispatch.getString("payloadType"), is("java.lang.String"));
+
+        RecordedEvent handle = events.get("org.axonframework.Handle");
+        Span handleSpan = spansByName.get("handlecommandmessage");
+        assertThat(handle.getString("traceId"), is(dispatchSpan.traceId()));
+        assertThat(handle.getString("spanId"), is(handleSpan.id()));
+        assertThat(handle.getString("operation"), is("handleCommandMessage"));
+        assertThat(events.containsKey("org.axonframework.Batch"), is(false));
+    }
+}
@@ -0,0 +1,45 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Test class for the {@link HeavyHitters}.
+ */
+public class HeavyHittersTest {
+
+    @Test
+    public void testHeavyKeysSurviveEvictionOfLightKeys() {
+        HeavyHitters testSubject = new HeavyHitters(3);
+
+        for (int i = 0; i < 100; i++) {
+            testSubject.record("hot", 10);
+            testSubject.record("cold-" + i, 1);
+        }
+
+        List<HeavyHitters.HeavyHitter> top = testSubject.top(1);
+        assertThat(top.size(), is(1));
+        assertThat(top.get(0).key(), is("hot"));
+        assertThat(top.get(0).weight(), is(1000L));
+        assertThat(top.get(0).error(), is(0L));
+        assertThat(testSubject.top(10).size(), is(3));
+    }
+
+    @Test
+    public void testEvictingKeyInheritsWeightOfLightestKeyAsError() {
+        HeavyHitters testSubject = new HeavyHitters(2);
+        testSubject.record("a", 5);
+        testSubject.record("b", 2);
+
+        testSubject.record("c", 1);
+
+        assertThat(testSubject.isTracked("b"), is(false));
+        HeavyHitters.HeavyHitter evicting = testSubject.top(2).get(1);
+        assertThat(evicting.key(), is("c"));
+        assertThat(evicting.weight(), is(3L));
+        assertThat(evicting.error(), is(2L));
+    }
+}
@@ -0,0 +1,213 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import brave.Span;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.propagation.TraceContext;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import brave.sampler.Sampler;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the {@link MessageFlowTopology}.
+ */
+public class MessageFlowTopologyTest {
+
+    private MessageFlowTopology testSubject;
+    private Tracing tracing;
+
+    @Before
+    public void before() {
+        testSubject = MessageFlowTopology.builder().build();
+        tracing = tracing(testSubject);
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    @Test
+    public void testRecordsEdgeFromCommandDispatchToHandler() {
+        SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+        commandBus.registerHandlerInterceptor(OpenTraceHandlerInterceptor.builder().tracer(tracing).build());
+        commandBus.subscribe(String.class.getName(), command -> "handled");
+        TracingCommandGateway gateway = TracingCommandGateway.builder()
+                                                             .tracer(tracing)
+                                                             .delegateCommandBus(commandBus)
+                                                             .build();
+
+        gateway.sendAndWait("order-1");
+        gateway.sendAndWait("order-2");
+
+        assertThat(testSubject.nodes().size(), is(2));
+        assertThat(testSubject.edges().size(), is(1));
+        FlowEdge edge = testSubject.edges().iterator().next();
+        assertThat(edge.from().spanName(), is("sendCommandMessageAndWait"));
+        assertThat(edge.from().messageName(), is("java.lang.String"));
+        assertThat(edge.from().count(), is(2L));
+        assertThat(edge.to().spanName(), is("handleCommandMessage"));
+        assertThat(edge.count(), is(2L));
+        assertThat(edge.fanOut(), is(1.0));
+        assertThat(edge.errors(), is(0L));
+    }
+
+    @Test
+    public void testRecordsEdgesOfChildrenFinishingAfterTheirParent() {
+        Span command = start(null, "handleCommandMessage", "CommandMessage", "PlaceOrder", null);
+        command.finish();
+        finish(start(command, "handleEventMessage", "EventMessage", "OrderPlaced", "projections"));
+        finish(start(command, "handleEventMessage", "EventMessage", "OrderPlaced", "projections"));
+        finish(start(command, "handleEventMessage", "EventMessage", "OrderPlaced", "sagas"));
+
+        assertThat(testSubject.nodes().size(), is(3));
+        assertThat(testSubject.edges().size(), is(2));
+        FlowEdge projections = edgeTo("projections");
+        assertThat(projections.from().messageName(), is("PlaceOrder"));
+        assertThat(projections.to().describe(), is("handleEventMessage OrderPlaced [projections]"));
+        assertThat(projections.count(), is(2L));
+        assertThat(projections.fanOut(), is(2.0));
+        assertThat(projections.meanLag(TimeUnit.MICROSECONDS) >= 0, is(true));
+        assertThat(edgeTo("sagas").fanOut(), is(1.0));
+    }
+
+    @Test
+    public void testIgnoresSpansWithoutMessageType() {
+        Span command = start(null, "handleCommandMessage", "CommandMessage", "PlaceOrder", null);
+        Span internal = tracing.tracer().newChild(command.context()).name("internal").start();
+        finish(start(internal, "handleEventMessage", "EventMessage", "OrderPlaced", null));
+        internal.finish();
+        command.finish();
+
+        assertThat(testSubject.nodes().size(), is(2));
+        assertThat(testSubject.edges().size(), is(0));
+    }
+
+    @Test
+    public void testCountsErrorsAlongEdges() {
+        Span command = start(null, "handleCommandMessage", "CommandMessage", "PlaceOrder", null);
+        start(command, "handleEventMessage", "EventMessage", "OrderPlaced", null).error(new IllegalStateException())
+                                                                                 .finish();
+        command.finish();
+
+        assertThat(testSubject.edges().iterator().next().errors(), is(1L));
+    }
+
+    @Test
+    public void testRejectsSpansExceedingMaximumNumberOfEdges() {
+        testSubject = MessageFlowTopology.builder().maxEdges(1).build();
+        tracing.close();
+        tracing = tracing(testSubject);
+
+        Span command = start(null, "handleCommandMessage", "CommandMessage", "PlaceOrder", null);
+        finish(start(command, "handleEventMessage", "EventMessage", "OrderPlaced", "projections"));
+        finish(start(command, "handleEventMessage", "EventMessage", "OrderPlaced", "sagas"));
+        command.finish();
+
+        assertThat(testSubject.edges().size(), is(1));
+        assertThat(testSubject.rejectedSpans(), is(1L));
+    }
+
+    @Test
+    public void testDropsOldestChildrenWhenCacheSlotOverflows() {
+        testSubject = MessageFlowTopology.builder().cachedSpans(1).build();
+        tracing.close();
+        tracing = tracing(testSubject);
+
+        Span command = start(null, "handleCommandMessage", "CommandMessage", "PlaceOrder", null);
+        for (int i = 0; i < 70; i++) {
+            finish(start(command, "handleEventMessage", "EventMessage", "OrderPlaced", null));
+        }
+        command.finish();
+
+        assertThat(testSubject.droppedChildren(), is(6L));
+        assertThat(testSubject.edges().iterator().next().count(), is(64L));
+    }
+
+    @Test
+    public void testRecordsEdgesOfParentsAndChildrenFinishingConcurrently() throws Exception {
+        int pairs = 2000;
+        CyclicBarrier finishTogether = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // parents and children get distinct, adjacent span ids, so that no span evicts another from the cache
+            Future<?> parents = executor.submit(() -> {
+                for (long i = 0; i < pairs; i++) {
+                    finishTogether.await();
+                    handle(2 * i + 2, 0, "handleCommandMessage", "CommandMessage");
+                }
+                return null;
+            });
+            Future<?> children = executor.submit(() -> {
+                for (long i = 0; i < pairs; i++) {
+                    finishTogether.await();
+                    handle(2 * i + 3, 2 * i + 2, "handleEventMessage", "EventMessage");
+                }
+                return null;
+            });
+            parents.get(10, TimeUnit.SECONDS);
+            children.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(testSubject.edges().size(), is(1));
+        assertThat(testSubject.edges().iterator().next().count(), is((long) pairs));
+        assertThat(testSubject.droppedChildren(), is(0L));
+    }
+
+    private FlowEdge edgeTo(String processorName) {
+        return testSubject.edges().stream()
+                          .filter(edge -> processorName.equals(edge.to().processorName()))
+                          .findFirst()
+                          .get();
+    }
+
+    private Span start(Span parent, String name, String messageType, String messageName, String processorName) {
+        Span span = parent == null ? tracing.tracer().newTrace() : tracing.tracer().newChild(parent.context());
+        span.name(name)
+            .tag(SpanUtils.TAG_AXON_MSG_TYPE, messageType)
+            .tag(SpanUtils.TAG_AXON_PAYLOAD_TYPE, messageName);
+        if (processorName != null) {
+            span.tag(SpanUtils.TAG_PROCESSOR_NAME, processorName);
+        }
+        return span.start();
+    }
+
+    private void handle(long spanId, long parentId, String name, String messageType) {
+        TraceContext context = TraceContext.newBuilder().traceId(1).spanId(spanId).parentId(parentId).build();
+        MutableSpan span = new MutableSpan();
+        span.name(name);
+        span.tag(SpanUtils.TAG_AXON_MSG_TYPE, messageType);
+        span.startTimestamp(1);
+        span.finishTimestamp(2);
+        testSubject.handle(context, span);
+    }
+
+    private static void finish(Span span) {
+        span.finish();
+    }
+
+    private static Tracing tracing(MessageFlowTopology topology) {
+        return Tracing.newBuilder()
+                      .localServiceName("axon-tracing")
+                      .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                         .addScopeDecorator(StrictScopeDecorator.create())
+                                                                         .build())
+                      .sampler(Sampler.NEVER_SAMPLE)
+                      .addFinishedSpanHandler(topology)
+                      .build();
+    }
+}
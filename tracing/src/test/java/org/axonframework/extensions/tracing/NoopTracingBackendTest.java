@@ -0,0 +1,73 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.Test;
+
+/**
+ * Test class verifying that the tracing components bypass tracing entirely with the {@link NoopTracingBackend}.
+ */
+public class NoopTracingBackendTest {
+
+    private final TracingBackend testSubject = NoopTracingBackend.INSTANCE;
+
+    @Test
+    public void testIsNotTracing() {
+        assertThat(TracingBackend.isTracing(testSubject), is(false));
+        assertThat(testSubject.withSampleRate(0.5f), sameInstance(testSubject));
+        assertThat(testSubject.propagationKeys().isEmpty(), is(true));
+        assertThat(testSubject.startSpan("span", TracedSpan.Kind.INTERNAL).isRecording(), is(false));
+    }
+
+    @Test
+    public void testDispatchInterceptorLeavesMessageUntouched() {
+        Message<?> message = new GenericMessage<>("payload");
+
+        Message<?> result = new OpenTraceDispatchInterceptor(testSubject).handle(Collections.singletonList(message))
+                                                                         .apply(0, message);
+
+        assertThat(result, sameInstance(message));
+    }
+
+    @Test
+    public void testTracingProviderProvidesNoCorrelationData() {
+        assertThat(new TracingProvider(testSubject).correlationDataFor(new GenericMessage<>("payload")).isEmpty(),
+                   is(true));
+    }
+
+    @Test
+    public void testHandlerInterceptorProceedsWithoutSpan() {
+        OpenTraceHandlerInterceptor interceptor = OpenTraceHandlerInterceptor.builder().backend(testSubject).build();
+        AtomicReference<TracedSpan> spanInHandler = new AtomicReference<>();
+        DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(new GenericMessage<>("payload"));
+
+        Object result = unitOfWork.executeWithResult(() -> interceptor.handle(unitOfWork, () -> {
+            spanInHandler.set(testSubject.currentSpan());
+            return "result";
+        })).getPayload();
+
+        assertThat(result, is("result"));
+        assertThat(spanInHandler.get(), nullValue());
+    }
+
+    @Test
+    public void testGatewayDelegatesCommands() {
+        SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+        commandBus.subscribe(String.class.getName(), command -> "result");
+        TracingCommandGateway gateway = TracingCommandGateway.builder()
+                                                             .backend(testSubject)
+                                                             .delegateCommandBus(commandBus)
+                                                             .build();
+
+        assertThat(gateway.sendAndWait("command"), is("result"));
+    }
+}
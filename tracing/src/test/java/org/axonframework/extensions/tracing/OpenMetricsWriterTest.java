@@ -0,0 +1,102 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link OpenMetricsWriter}, writing the statistics and exemplars of a
+ * {@link RedMetricsAggregator}.
+ */
+public class OpenMetricsWriterTest {
+
+    private final List<Span> spans = new ArrayList<>();
+    private RedMetricsAggregator aggregator;
+    private Tracing tracing;
+
+    @Before
+    public void before() {
+        aggregator = RedMetricsAggregator.builder().build();
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .addFinishedSpanHandler(aggregator)
+                         .spanReporter(spans::add)
+                         .build();
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    @Test
+    public void testWritesSampledSpansAsExemplarOfTheirBucket() {
+        handle(new GenericMessage<>("payload"));
+        Span span = spans.get(0);
+        OperationStatistics statistics = aggregator.operations().iterator().next();
+        int bucket = OperationStatistics.bucketIndex(span.durationAsLong());
+
+        Exemplar exemplar = statistics.exemplar(bucket);
+        assertThat(exemplar.traceId(), is(span.traceId()));
+        assertThat(exemplar.spanId(), is(span.id()));
+        assertThat(exemplar.duration(TimeUnit.MICROSECONDS), is((double) span.durationAsLong()));
+
+        List<String> bucketLines = Arrays.stream(new OpenMetricsWriter(aggregator).write().split("\n"))
+                                         .filter(line -> line.startsWith("axon_message_duration_seconds_bucket"))
+                                         .collect(Collectors.toList());
+        assertThat(bucketLines.size(), is(OperationStatistics.bucketCount()));
+        assertThat(bucketLines.get(bucket), containsString(" 1 # {trace_id=\"" + span.traceId()
+                                                                   + "\",span_id=\"" + span.id() + "\"} "));
+        assertThat(bucketLines.get(0), containsString("le=\"0.0001\"}"));
+        assertThat(bucketLines.get(bucketLines.size() - 1), containsString("le=\"+Inf\"} 1"));
+        for (int i = 0; i < bucketLines.size(); i++) {
+            if (i != bucket) {
+                assertThat(bucketLines.get(i), not(containsString("#")));
+            }
+        }
+    }
+
+    @Test
+    public void testWritesMetricFamiliesTerminatedByEof() {
+        handle(new GenericMessage<>("payload"));
+
+        String output = new OpenMetricsWriter(aggregator).write();
+
+        assertThat(output, containsString("# TYPE axon_message_duration_seconds histogram\n"
+                                                  + "# HELP axon_message_duration_seconds "));
+        assertThat(output, containsString("# UNIT axon_message_duration_seconds seconds\n"));
+        assertThat(output, containsString("axon_message_duration_seconds_count{span=\"handleMessage\","
+                                                  + "messageType=\"Message\",payloadType=\"java.lang.String\","
+                                                  + "commandName=\"none\"} 1\n"));
+        assertThat(output, containsString("# TYPE axon_message_requests counter\n"));
+        assertThat(output, containsString("axon_message_requests_total{span=\"handleMessage\""));
+        assertThat(output, containsString("axon_message_errors_total{span=\"handleMessage\""));
+        assertThat(output.endsWith("# EOF\n"), is(true));
+    }
+
+    private void handle(Message<?> message) {
+        OpenTraceHandlerInterceptor interceptor = new OpenTraceHandlerInterceptor(tracing);
+        DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(message);
+        unitOfWork.executeWithResult(() -> interceptor.handle(unitOfWork, () -> "result"));
+    }
+}
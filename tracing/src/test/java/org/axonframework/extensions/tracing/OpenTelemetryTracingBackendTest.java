@@ -0,0 +1,141 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the {@link OpenTelemetryTracingBackend}.
+ */
+public class OpenTelemetryTracingBackendTest {
+
+    private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+    private SdkTracerProvider tracerProvider;
+    private OpenTelemetryTracingBackend testSubject;
+
+    @Before
+    public void before() {
+        tracerProvider = SdkTracerProvider.builder()
+                                          .addSpanProcessor(SimpleSpanProcessor.create(new CollectingExporter()))
+                                          .build();
+        testSubject = new OpenTelemetryTracingBackend(
+                OpenTelemetrySdk.builder()
+                                .setTracerProvider(tracerProvider)
+                                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                                .build()
+        );
+    }
+
+    @After
+    public void after() {
+        tracerProvider.close();
+    }
+
+    @Test
+    public void testHandlerSpanContinuesTraceOfGatewaySpan() {
+        SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+        commandBus.subscribe(String.class.getName(), command -> "result");
+        commandBus.registerHandlerInterceptor(OpenTraceHandlerInterceptor.builder().backend(testSubject).build());
+        TracingCommandGateway gateway = TracingCommandGateway.builder()
+                                                             .backend(testSubject)
+                                                             .delegateCommandBus(commandBus)
+                                                             .build();
+        gateway.registerDispatchInterceptor(new OpenTraceDispatchInterceptor(testSubject));
+
+        gateway.sendAndWait("command");
+
+        assertThat(spans.size(), is(2));
+        SpanData handlerSpan = spans.get(0);
+        SpanData gatewaySpan = spans.get(1);
+        assertThat(handlerSpan.getName(), is("handleCommandMessage"));
+        assertThat(handlerSpan.getKind(), is(SpanKind.SERVER));
+        assertThat(gatewaySpan.getName(), is("sendCommandMessageAndWait"));
+        assertThat(gatewaySpan.getKind(), is(SpanKind.CLIENT));
+        assertThat(handlerSpan.getTraceId(), is(gatewaySpan.getTraceId()));
+        assertThat(handlerSpan.getParentSpanId(), is(gatewaySpan.getSpanId()));
+        assertThat(handlerSpan.getAttributes().get(AttributeKey.stringKey("axon.message.payloadtype")),
+                   is("java.lang.String"));
+    }
+
+    @Test
+    public void testUnselectedTraceIsPropagatedAsUnsampled() throws Exception {
+        OpenTraceHandlerInterceptor interceptor = OpenTraceHandlerInterceptor.builder()
+                                                                             .backend(testSubject)
+                                                                             .sampleRate(0.0f)
+                                                                             .build();
+        AtomicReference<SpanContext> handlerContext = new AtomicReference<>();
+
+        handle(interceptor, new GenericMessage<>("payload"), () -> {
+            handlerContext.set(Span.current().getSpanContext());
+            return null;
+        });
+
+        assertThat(spans.size(), is(0));
+        assertThat(handlerContext.get().isValid(), is(true));
+        assertThat(handlerContext.get().isSampled(), is(false));
+    }
+
+    @Test
+    public void testFailingHandlerMarksSpanAsError() throws Exception {
+        OpenTraceHandlerInterceptor interceptor = OpenTraceHandlerInterceptor.builder().backend(testSubject).build();
+
+        handle(interceptor, new GenericMessage<>("payload"), () -> {
+            throw new IllegalStateException("failure");
+        });
+
+        assertThat(spans.size(), is(1));
+        assertThat(spans.get(0).getStatus().getStatusCode(), is(StatusCode.ERROR));
+        assertThat(spans.get(0).getEvents().get(0).getName(), is("exception"));
+    }
+
+    private static void handle(OpenTraceHandlerInterceptor interceptor,
+                               Message<?> message,
+                               InterceptorChain chain) {
+        DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(message);
+        unitOfWork.executeWithResult(() -> interceptor.handle(unitOfWork, chain));
+    }
+
+    private class CollectingExporter implements SpanExporter {
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> exported) {
+            spans.addAll(exported);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package org.axonframework.extensions.tracing;
 
-import static java.lang.Long.toHexString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -57,11 +56,22 @@ public class OpenTraceDispatchInterceptorTest {
         metaData.entrySet().forEach(entry -> System.out.println(entry.getKey() + "->" + entry.getValue()));
         // verify that the message has the span headers attached to it
         assertThat(metaData.size(), is(3));
-        assertThat(metaData.get("X-B3-TraceId"), is(toHexString(testSpan.context().spanId())));
-        assertThat(metaData.get("X-B3-SpanId"), is(toHexString(testSpan.context().traceId())));
+        assertThat(metaData.get("X-B3-TraceId"), is(testSpan.context().traceIdString()));
+        assertThat(metaData.get("X-B3-SpanId"), is(testSpan.context().spanIdString()));
         assertThat(metaData.get("X-B3-Sampled"), is("1"));
 
         testSpan.finish();
         assertThat(spans.size(), is(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDispatchWithoutCurrentTraceContextLeavesMessageUntouched() {
+        GenericMessage<String> msg = new GenericMessage<>("Payload");
+        BiFunction<Integer, Message<?>, Message<?>> handle =
+                openTraceDispatchInterceptor.handle(Collections.singletonList(msg));
+
+        Message<?> apply = handle.apply(0, msg);
+
+        assertThat(apply.getMetaData().isEmpty(), is(true));
+    }
+}
@@ -10,14 +10,24 @@ import brave.Tracing;
 import brave.propagation.StrictScopeDecorator;
 import brave.propagation.ThreadLocalCurrentTraceContext;
 import brave.propagation.TraceContext;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
 import org.axonframework.messaging.GenericMessage;
 import org.axonframework.messaging.InterceptorChain;
 import org.axonframework.messaging.Message;
+import org.axonframework.messaging.unitofwork.BatchingUnitOfWork;
 import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -85,6 +95,125 @@ public class OpenTraceHandlerInterceptorTest {
         assertThat(spans.get(0).parentId(), is(nullValue()));
     }
 
+    @Test
+    public void testSampleRateDecidesWhetherNewTracesAreSampled() throws Exception {
+        openTraceDispatchInterceptor = OpenTraceHandlerInterceptor.builder()
+                                                                  .tracer(tracing)
+                                                                  .sampleRate(0.0f)
+                                                                  .build();
+
+        executeHandlerInterceptor();
+
+        assertThat(spans.size(), is(0));
+    }
+
+    @Test
+    public void testProcessorNameIsTaggedOnHandlerSpans() throws Exception {
+        openTraceDispatchInterceptor = OpenTraceHandlerInterceptor.builder()
+                                                                  .tracer(tracing)
+                                                                  .processorName("projections")
+                                                                  .build();
+
+        executeHandlerInterceptor();
+
+        assertThat(spans.get(0).tags().get(SpanUtils.TAG_PROCESSOR_NAME), is("projections"));
+    }
+
+    @Test
+    public void testUpstreamSamplingDecisionTakesPrecedenceOverSampleRate() throws Exception {
+        openTraceDispatchInterceptor = OpenTraceHandlerInterceptor.builder()
+                                                                  .tracer(tracing)
+                                                                  .sampleRate(0.0f)
+                                                                  .build();
+        ScopedSpan testSpan = Tracing.currentTracer().startScopedSpan("test");
+        Map<String, String> metadata = new HashMap<>();
+        tracing.propagation().<Map<String, String>>injector(Map::put).inject(testSpan.context(), metadata);
+
+        executeHandlerInterceptor(new GenericMessage<Object>("Payload").withMetaData(metadata));
+        testSpan.finish();
+
+        assertThat(spans.size(), is(2));
+        assertThat(spans.get(0).parentId(), is(spans.get(1).id()));
+    }
+
+    @Test
+    public void testPerBatchSpanModeStartsSingleSpanForBatch() throws Exception {
+        openTraceDispatchInterceptor = OpenTraceHandlerInterceptor.builder()
+                                                                  .tracer(tracing)
+                                                                  .spanMode(SpanMode.PER_BATCH)
+                                                                  .build();
+        List<EventMessage<?>> batch = Arrays.asList(GenericEventMessage.asEventMessage("first"),
+                                                    GenericEventMessage.asEventMessage("second"),
+                                                    GenericEventMessage.asEventMessage("third"));
+        BatchingUnitOfWork<EventMessage<?>> batchingUnitOfWork = new BatchingUnitOfWork<>(batch);
+        List<TraceContext> handlerContexts = new ArrayList<>();
+
+        batchingUnitOfWork.executeWithResult(() -> openTraceDispatchInterceptor.handle(batchingUnitOfWork, () -> {
+            handlerContexts.add(tracing.currentTraceContext().get());
+            return null;
+        }));
+
+        assertThat(spans.size(), is(1));
+        assertThat(spans.get(0).name(), is("handleeventmessagebatch"));
+        assertThat(spans.get(0).tags().get("axon.batch.size"), is("3"));
+        assertThat(handlerContexts.size(), is(3));
+        assertThat(handlerContexts.get(2), is(handlerContexts.get(0)));
+    }
+
+    @Test
+    public void testUnitOfWorkPhasesAreTimedAfterHandling() throws Exception {
+        Map<UnitOfWork.Phase, Duration> phases = new EnumMap<>(UnitOfWork.Phase.class);
+        openTraceDispatchInterceptor = OpenTraceHandlerInterceptor.builder()
+                                                                  .tracer(tracing)
+                                                                  .unitOfWorkPhases(true)
+                                                                  .phaseListener((type, phase, duration) -> phases
+                                                                          .put(phase, duration))
+                                                                  .build();
+        DefaultUnitOfWork<Message<?>> uow = DefaultUnitOfWork.startAndGet(new GenericMessage<>("payload"));
+
+        uow.executeWithResult(() -> openTraceDispatchInterceptor.handle(uow, () -> {
+            // registered while handling, like an event store append
+            uow.onPrepareCommit(u -> sleep(20));
+            return null;
+        }));
+
+        assertThat(phases.keySet(), is(EnumSet.of(UnitOfWork.Phase.PREPARE_COMMIT,
+                                                   UnitOfWork.Phase.COMMIT,
+                                                   UnitOfWork.Phase.AFTER_COMMIT)));
+        assertThat(phases.get(UnitOfWork.Phase.PREPARE_COMMIT).toMillis() >= 20, is(true));
+        List<String> annotations = spans.get(0).annotations().stream()
+                                        .map(annotation -> annotation.value().split(" ")[0])
+                                        .collect(Collectors.toList());
+        assertThat(annotations, is(Arrays.asList("prepareCommit", "commit", "afterCommit")));
+    }
+
+    @Test
+    public void testRollbackIsTimedWhenHandlingFails() {
+        List<UnitOfWork.Phase> phases = new ArrayList<>();
+        openTraceDispatchInterceptor = OpenTraceHandlerInterceptor.builder()
+                                                                  .tracer(tracing)
+                                                                  .unitOfWorkPhases(true)
+                                                                  .phaseListener((type, phase, duration) -> phases
+                                                                          .add(phase))
+                                                                  .build();
+        DefaultUnitOfWork<Message<?>> uow = DefaultUnitOfWork.startAndGet(new GenericMessage<>("payload"));
+
+        uow.executeWithResult(() -> openTraceDispatchInterceptor.handle(uow, () -> {
+            throw new IllegalStateException("failure");
+        }));
+
+        assertThat(phases, is(Collections.singletonList(UnitOfWork.Phase.ROLLBACK)));
+        assertThat(spans.get(0).annotations().get(0).value().startsWith("rollback "), is(true));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void checkInterceptorSpan(Span span, Message message) {
         assertThat(span.name(), is("handlemessage"));
         assertThat(span.tags().get("axon.message.id"), is(message.getIdentifier()));
@@ -0,0 +1,261 @@
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.messaging.responsetypes.ResponseTypes.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.eventhandling.SimpleEventBus;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.queryhandling.SimpleQueryBus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link QueryResultCache}, caching the results of queries sent through a
+ * {@link TracingQueryGateway}.
+ */
+public class QueryResultCacheTest {
+
+    private final List<Span> spans = new ArrayList<>();
+    private final AtomicInteger handled = new AtomicInteger();
+    private final MutableClock clock = new MutableClock();
+    private Tracing tracing;
+    private SimpleQueryBus queryBus;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .spanReporter(spans::add)
+                         .build();
+        queryBus = SimpleQueryBus.builder().build();
+        queryBus.subscribe("findOrder", String.class, query -> {
+            if ("unknown".equals(query.getPayload())) {
+                throw new IllegalArgumentException("unknown order");
+            }
+            return "order " + query.getPayload() + " #" + handled.incrementAndGet();
+        });
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    @Test
+    public void testRepeatedQueryIsAnsweredFromCache() throws Exception {
+        QueryResultCache cache = QueryResultCache.builder().cache("findOrder").clock(clock).build();
+        TracingQueryGateway gateway = gateway(cache);
+
+        assertThat(gateway.query("findOrder", "1", instanceOf(String.class)).get(), is("order 1 #1"));
+        assertThat(gateway.query("findOrder", "1", instanceOf(String.class)).get(), is("order 1 #1"));
+        assertThat(gateway.query("findOrder", "2", instanceOf(String.class)).get(), is("order 2 #2"));
+
+        assertThat(handled.get(), is(2));
+        assertThat(cache.hits(), is(1L));
+        assertThat(cache.misses(), is(2L));
+        assertThat(spans.size(), is(3));
+        assertThat(spans.get(0).tags().get(TracingQueryGateway.TAG_CACHE), is("miss"));
+        assertThat(spans.get(1).tags().get(TracingQueryGateway.TAG_CACHE), is("hit"));
+        assertThat(spans.get(1).name(), is("findorder"));
+    }
+
+    @Test
+    public void testResultsExpireAfterTimeToLive() throws Exception {
+        TracingQueryGateway gateway = gateway(
+                QueryResultCache.builder().cache("findOrder").ttl(Duration.ofSeconds(5)).clock(clock).build()
+        );
+
+        gateway.query("findOrder", "1", instanceOf(String.class)).get();
+        clock.advance(Duration.ofSeconds(5));
+
+        assertThat(gateway.query("findOrder", "1", instanceOf(String.class)).get(), is("order 1 #2"));
+    }
+
+    @Test
+    public void testEventsOfConfiguredTypesInvalidateResults() throws Exception {
+        QueryResultCache cache = QueryResultCache.builder()
+                                                 .cache("findOrder")
+                                                 .clock(clock)
+                                                 .invalidateOn(Integer.class, "findOrder")
+                                                 .build();
+        SimpleEventBus eventBus = SimpleEventBus.builder().build();
+        cache.subscribeTo(eventBus);
+        TracingQueryGateway gateway = gateway(cache);
+
+        gateway.query("findOrder", "1", instanceOf(String.class)).get();
+        eventBus.publish(GenericEventMessage.asEventMessage("unrelated"));
+        assertThat(gateway.query("findOrder", "1", instanceOf(String.class)).get(), is("order 1 #1"));
+
+        eventBus.publish(GenericEventMessage.asEventMessage(42));
+        assertThat(gateway.query("findOrder", "1", instanceOf(String.class)).get(), is("order 1 #2"));
+        assertThat(cache.invalidations(), is(1L));
+    }
+
+    @Test
+    public void testResultOfQueryInFlightDuringInvalidationIsNotCached() throws Exception {
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch eventPublished = new CountDownLatch(1);
+        queryBus.subscribe("findSlowOrder", String.class, query -> {
+            queryStarted.countDown();
+            eventPublished.await();
+            return "slow order " + query.getPayload() + " #" + handled.incrementAndGet();
+        });
+        QueryResultCache cache = QueryResultCache.builder()
+                                                 .cache("findSlowOrder")
+                                                 .clock(clock)
+                                                 .invalidateOn(Integer.class, "findSlowOrder")
+                                                 .build();
+        SimpleEventBus eventBus = SimpleEventBus.builder().build();
+        cache.subscribeTo(eventBus);
+        TracingQueryGateway gateway = gateway(cache);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> inFlight =
+                    executor.submit(() -> gateway.query("findSlowOrder", "1", instanceOf(String.class)).get());
+            assertThat(queryStarted.await(5, TimeUnit.SECONDS), is(true));
+            eventBus.publish(GenericEventMessage.asEventMessage(42));
+            eventPublished.countDown();
+            assertThat(inFlight.get(5, TimeUnit.SECONDS), is("slow order 1 #1"));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(cache.get("findSlowOrder", "1", instanceOf(String.class)), nullValue());
+        assertThat(gateway.query("findSlowOrder", "1", instanceOf(String.class)).get(), is("slow order 1 #2"));
+    }
+
+    @Test
+    public void testEventsPublishedInUnitOfWorkInvalidateResultsAfterCommit() throws Exception {
+        QueryResultCache cache = QueryResultCache.builder()
+                                                 .cache("findOrder")
+                                                 .clock(clock)
+                                                 .invalidateOn(Integer.class, "findOrder")
+                                                 .build();
+        SimpleEventBus eventBus = SimpleEventBus.builder().build();
+        cache.subscribeTo(eventBus);
+        TracingQueryGateway gateway = gateway(cache);
+        gateway.query("findOrder", "1", instanceOf(String.class)).get();
+
+        List<String> resultsBeforeCommit = new ArrayList<>();
+        DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+        unitOfWork.onCommit(u -> resultsBeforeCommit.add(
+                gateway.query("findOrder", "1", instanceOf(String.class)).join()
+        ));
+        eventBus.publish(GenericEventMessage.asEventMessage(42));
+        unitOfWork.commit();
+
+        assertThat(resultsBeforeCommit.get(0), is("order 1 #1"));
+        assertThat(gateway.query("findOrder", "1", instanceOf(String.class)).get(), is("order 1 #2"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultIsEvicted() throws Exception {
+        QueryResultCache cache = QueryResultCache.builder().cache("findOrder").maxEntries(1).clock(clock).build();
+        TracingQueryGateway gateway = gateway(cache);
+
+        gateway.query("findOrder", "1", instanceOf(String.class)).get();
+        gateway.query("findOrder", "2", instanceOf(String.class)).get();
+
+        assertThat(cache.evictions(), is(1L));
+        assertThat(cache.get("findOrder", "1", instanceOf(String.class)), nullValue());
+        assertThat(cache.get("findOrder", "2", instanceOf(String.class)), is("order 2 #2"));
+    }
+
+    @Test
+    public void testResultsOfQueriesWhichAreNotConfiguredAreNotCached() throws Exception {
+        queryBus.subscribe("findCustomer", String.class, query -> "customer #" + handled.incrementAndGet());
+        QueryResultCache cache = QueryResultCache.builder().cache("findOrder").clock(clock).build();
+        TracingQueryGateway gateway = gateway(cache);
+
+        gateway.query("findCustomer", "1", instanceOf(String.class)).get();
+        assertThat(gateway.query("findCustomer", "1", instanceOf(String.class)).get(), is("customer #2"));
+
+        assertThat(cache.misses(), is(0L));
+        assertThat(spans.get(1).tags().containsKey(TracingQueryGateway.TAG_CACHE), is(false));
+    }
+
+    @Test
+    public void testInvalidatingQueryKeepsResultsOfOtherQueries() throws Exception {
+        queryBus.subscribe("findCustomer", String.class, query -> "customer #" + handled.incrementAndGet());
+        QueryResultCache cache = QueryResultCache.builder().cache("findOrder", "findCustomer").clock(clock).build();
+        TracingQueryGateway gateway = gateway(cache);
+        gateway.query("findOrder", "1", instanceOf(String.class)).get();
+        gateway.query("findCustomer", "1", instanceOf(String.class)).get();
+
+        cache.invalidate("findOrder");
+
+        assertThat(cache.get("findOrder", "1", instanceOf(String.class)), nullValue());
+        assertThat(cache.get("findCustomer", "1", instanceOf(String.class)), is("customer #2"));
+        assertThat(cache.invalidations(), is(1L));
+    }
+
+    @Test
+    public void testFailedQueriesAreNotCached() throws Exception {
+        QueryResultCache cache = QueryResultCache.builder().cache("findOrder").clock(clock).build();
+        TracingQueryGateway gateway = gateway(cache);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                gateway.query("findOrder", "unknown", instanceOf(String.class)).get();
+            } catch (ExecutionException expected) {
+                // expected
+            }
+        }
+
+        assertThat(cache.hits(), is(0L));
+        assertThat(cache.misses(), is(2L));
+    }
+
+    private TracingQueryGateway gateway(QueryResultCache cache) {
+        return TracingQueryGateway.builder().tracer(tracing).delegateQueryBus(queryBus).resultCache(cache).build();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.now();
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import brave.Span;
+import brave.Tracing;
+import brave.sampler.Sampler;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test class for the {@link RecentTraceStore}.
+ */
+public class RecentTraceStoreTest {
+
+    private Tracing tracing;
+    private RecentTraceStore testSubject;
+
+    @After
+    public void close() {
+        tracing.close();
+    }
+
+    @Test
+    public void testAssemblesRecentTracesMostRecentFirst() {
+        initialize(RecentTraceStore.builder().build(), Sampler.ALWAYS_SAMPLE);
+
+        Span first = span(null, "sendCommandMessage", 1_000, 100);
+        Span child = span(first, "handleMessage", 1_010, 50);
+        Span second = span(null, "sendQueryMessage", 2_000, 10);
+
+        List<RecordedTrace> traces = testSubject.recentTraces(10);
+
+        assertThat(traces.size(), is(2));
+        assertThat(traces.get(0).traceId(), is(second.context().traceIdString()));
+        RecordedTrace firstTrace = traces.get(1);
+        assertThat(firstTrace.duration(), is(100L));
+        assertThat(names(firstTrace.spans()), is("sendCommandMessage,handleMessage"));
+        assertThat(firstTrace.spans().get(1).parentId(), is(first.context().spanIdString()));
+        assertThat(firstTrace.spans().get(1).spanId(), is(child.context().spanIdString()));
+        assertThat(testSubject.recentTraces(1).size(), is(1));
+        assertThat(testSubject.trace(first.context().traceIdString()).spans().size(), is(2));
+        assertThat(testSubject.trace("abc"), nullValue());
+        assertThat(testSubject.trace("not-hex"), nullValue());
+    }
+
+    @Test
+    public void testOverwritesOldestSpans() {
+        initialize(RecentTraceStore.builder().maxSpans(2).build(), Sampler.ALWAYS_SAMPLE);
+
+        Span oldest = span(null, "first", 1_000, 10);
+        span(null, "second", 2_000, 10);
+        span(null, "third", 3_000, 10);
+
+        assertThat(testSubject.recentTraces(10).size(), is(2));
+        assertThat(testSubject.trace(oldest.context().traceIdString()), nullValue());
+        assertThat(testSubject.recordedSpans(), is(3L));
+    }
+
+    @Test
+    public void testKeepsSlowestSpansPerOperation() {
+        initialize(RecentTraceStore.builder().slowestPerOperation(2).build(), Sampler.ALWAYS_SAMPLE);
+
+        span(null, "handleMessage", 1_000, 30);
+        span(null, "handleMessage", 2_000, 10);
+        span(null, "handleMessage", 3_000, 50);
+        span(null, "handleMessage", 4_000, 20);
+
+        Map<String, List<RecordedSpan>> slowest = testSubject.slowestSpans();
+
+        assertThat(slowest.size(), is(1));
+        assertThat(slowest.get("handleMessage").stream().map(RecordedSpan::duration).collect(Collectors.toList())
+                          .toString(), is("[50, 30]"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedOperation() {
+        initialize(RecentTraceStore.builder().maxOperations(2).build(), Sampler.ALWAYS_SAMPLE);
+
+        span(null, "first", 1_000, 10);
+        span(null, "second", 2_000, 10);
+        span(null, "first", 3_000, 10);
+        span(null, "third", 4_000, 10);
+
+        assertThat(testSubject.slowestSpans().keySet().stream().sorted().collect(Collectors.joining(",")),
+                   is("first,third"));
+        assertThat(testSubject.evictedOperations(), is(1L));
+    }
+
+    @Test
+    public void testRecordsUnsampledSpansOnlyWhenSamplingLocally() {
+        initialize(RecentTraceStore.builder().build(), Sampler.NEVER_SAMPLE);
+        span(null, "unsampled", 1_000, 10);
+        assertThat(testSubject.recordedSpans(), is(0L));
+        tracing.close();
+
+        initialize(RecentTraceStore.builder().alwaysSampleLocal(true).build(), Sampler.NEVER_SAMPLE);
+        span(null, "unsampled", 1_000, 10);
+        assertThat(testSubject.recordedSpans(), is(1L));
+    }
+
+    private void initialize(RecentTraceStore store, Sampler sampler) {
+        testSubject = store;
+        tracing = Tracing.newBuilder()
+                         .sampler(sampler)
+                         .addFinishedSpanHandler(store)
+                         .spanReporter(span -> {
+                         })
+                         .build();
+    }
+
+    private Span span(Span parent, String name, long start, long duration) {
+        Span span = parent == null ? tracing.tracer().newTrace() : tracing.tracer().newChild(parent.context());
+        span.name(name).start(start);
+        span.finish(start + duration);
+        return span;
+    }
+
+    private static String names(List<RecordedSpan> spans) {
+        return spans.stream().map(RecordedSpan::name).collect(Collectors.joining(","));
+    }
+}
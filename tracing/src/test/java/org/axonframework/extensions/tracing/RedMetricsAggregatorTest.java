@@ -0,0 +1,210 @@
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.commandhandling.GenericCommandResultMessage.asCommandResultMessage;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import brave.sampler.Sampler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.axonframework.commandhandling.AsynchronousCommandBus;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link RedMetricsAggregator} and {@link RedMetricsMeterBinder}.
+ */
+public class RedMetricsAggregatorTest {
+
+    private List<Span> spans = new ArrayList<>();
+    private Tracing tracing;
+    private RedMetricsAggregator testSubject;
+
+    @Before
+    public void before() {
+        testSubject = RedMetricsAggregator.builder().build();
+        tracing = Tracing
+            .newBuilder()
+            .localServiceName("axon-tracing")
+            .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder().
+                addScopeDecorator(StrictScopeDecorator.create()).build())
+            .sampler(Sampler.NEVER_SAMPLE)
+            .addFinishedSpanHandler(testSubject)
+            .spanReporter(spans::add)
+            .build();
+    }
+
+    @After
+    public void close() {
+        tracing.close();
+        spans.clear();
+    }
+
+    @Test
+    public void testAggregatesUnsampledCommandSpans() {
+        CommandBus mockCommandBus = mock(CommandBus.class);
+        doAnswer(invocation -> {
+            ((CommandCallback) invocation.getArguments()[1])
+                    .onResult((CommandMessage) invocation.getArguments()[0], asCommandResultMessage("result"));
+            return null;
+        }).when(mockCommandBus).dispatch(isA(CommandMessage.class), isA(CommandCallback.class));
+        TracingCommandGateway gateway = TracingCommandGateway.builder()
+                                                             .tracer(tracing)
+                                                             .delegateCommandBus(mockCommandBus)
+                                                             .build();
+
+        gateway.sendAndWait("Command");
+        gateway.sendAndWait("Command");
+
+        assertThat(spans.size(), is(0));
+        assertThat(testSubject.operations().size(), is(1));
+        OperationStatistics statistics = testSubject.operations().iterator().next();
+        assertThat(statistics.spanName(), is("sendCommandMessageAndWait"));
+        assertThat(statistics.messageType(), is("CommandMessage"));
+        assertThat(statistics.payloadType(), is("java.lang.String"));
+        assertThat(statistics.commandName(), is("java.lang.String"));
+        assertThat(statistics.count(), is(2L));
+        assertThat(statistics.errors(), is(0L));
+        assertThat(statistics.cumulativeBucket(OperationStatistics.bucketCount() - 1), is(2L));
+    }
+
+    @Test
+    public void testCountsErrorsOfCommandsDispatchedOnAsynchronousCommandBus() throws Exception {
+        AsynchronousCommandBus commandBus = AsynchronousCommandBus.builder().build();
+        CountDownLatch dispatched = new CountDownLatch(1);
+        commandBus.subscribe(String.class.getName(), command -> {
+            dispatched.await();
+            throw new IllegalStateException("failure");
+        });
+        TracingCommandGateway gateway = TracingCommandGateway.builder()
+                                                             .tracer(tracing)
+                                                             .delegateCommandBus(commandBus)
+                                                             .build();
+        CompletableFuture<Object> result = gateway.send("Command");
+        dispatched.countDown();
+        try {
+            result.get();
+            fail("Expected the command to fail");
+        } catch (ExecutionException expected) {
+            // expected
+        } finally {
+            commandBus.shutdown();
+        }
+
+        OperationStatistics statistics = awaitOperation("sendCommandMessage");
+        assertThat(statistics.count(), is(1L));
+        assertThat(statistics.errors(), is(1L));
+    }
+
+    @Test
+    public void testCountsErrorsOfHandlerSpans() throws Exception {
+        OpenTraceHandlerInterceptor interceptor = new OpenTraceHandlerInterceptor(tracing);
+        InterceptorChain failingChain = () -> {
+            throw new IllegalStateException("failure");
+        };
+
+        handle(interceptor, () -> "result");
+        try {
+            handle(interceptor, failingChain);
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+
+        OperationStatistics statistics = testSubject.operations().iterator().next();
+        assertThat(statistics.spanName(), is("handleMessage"));
+        assertThat(statistics.count(), is(2L));
+        assertThat(statistics.errors(), is(1L));
+    }
+
+    @Test
+    public void testKeepsNoExemplarsOfUnsampledSpans() throws Exception {
+        handle(new OpenTraceHandlerInterceptor(tracing), () -> "result");
+
+        OperationStatistics statistics = testSubject.operations().iterator().next();
+        for (int i = 0; i < OperationStatistics.bucketCount(); i++) {
+            assertThat(statistics.exemplar(i), nullValue());
+        }
+    }
+
+    @Test
+    public void testRejectsSpansExceedingMaximumNumberOfOperations() throws Exception {
+        testSubject = RedMetricsAggregator.builder().maxOperations(1).build();
+        tracing.close();
+        tracing = Tracing.newBuilder().addFinishedSpanHandler(testSubject).spanReporter(spans::add).build();
+        OpenTraceHandlerInterceptor interceptor = new OpenTraceHandlerInterceptor(tracing);
+
+        handle(interceptor, () -> "result", new GenericMessage<>("payload"));
+        handle(interceptor, () -> "result", new GenericMessage<>(42));
+
+        assertThat(testSubject.operations().size(), is(1));
+        assertThat(testSubject.rejectedSpans(), is(1L));
+    }
+
+    @Test
+    public void testMeterBinderExposesOperationsRegisteredAfterBinding() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new RedMetricsMeterBinder(testSubject).bindTo(registry);
+
+        handle(new OpenTraceHandlerInterceptor(tracing), () -> "result");
+
+        FunctionCounter requests = registry.find("axon.message.requests")
+                                           .tag("payloadType", "java.lang.String")
+                                           .tag("commandName", "none")
+                                           .functionCounter();
+        assertThat(requests, notNullValue());
+        assertThat(requests.count(), is(1.0));
+        assertThat(registry.find("axon.message.duration").functionTimer().count(), is(1.0));
+        assertThat(registry.find("axon.message.duration.bucket").tag("le", "+Inf").functionCounter().count(),
+                   is(1.0));
+        assertThat(registry.find("axon.message.duration.max").timeGauge().value(TimeUnit.SECONDS) >= 0, is(true));
+    }
+
+    private OperationStatistics awaitOperation(String spanName) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            for (OperationStatistics operation : testSubject.operations()) {
+                if (spanName.equals(operation.spanName())) {
+                    return operation;
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("No span named [" + spanName + "] was aggregated");
+    }
+
+    private void handle(OpenTraceHandlerInterceptor interceptor, InterceptorChain chain) throws Exception {
+        handle(interceptor, chain, new GenericMessage<>("payload"));
+    }
+
+    private void handle(OpenTraceHandlerInterceptor interceptor, InterceptorChain chain, Message<?> message)
+            throws Exception {
+        DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(message);
+        unitOfWork.executeWithResult(() -> interceptor.handle(unitOfWork, chain));
+        if (unitOfWork.getExecutionResult().isExceptionResult()) {
+            throw (Exception) unitOfWork.getExecutionResult().getExceptionResult();
+        }
+    }
+}
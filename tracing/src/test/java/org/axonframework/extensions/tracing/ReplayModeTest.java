@@ -0,0 +1,161 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import brave.ScopedSpan;
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import brave.sampler.Sampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.eventhandling.GenericTrackedEventMessage;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.ReplayToken;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.messaging.unitofwork.BatchingUnitOfWork;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link ReplayMode ReplayModes} of the {@link OpenTraceHandlerInterceptor} and the
+ * {@link ReplayMeterRecorder}.
+ */
+public class ReplayModeTest {
+
+    private static final TrackingToken REPLAY_TOKEN = new ReplayToken(new GlobalSequenceTrackingToken(100));
+
+    private final List<Span> spans = new ArrayList<>();
+    private final List<String> notifications = new ArrayList<>();
+    private Tracing tracing;
+    private Map<String, String> historicalContext;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .sampler(Sampler.ALWAYS_SAMPLE)
+                         .spanReporter(spans::add)
+                         .build();
+        ScopedSpan publication = tracing.tracer().startScopedSpan("publish");
+        historicalContext = new HashMap<>();
+        tracing.propagation().<Map<String, String>>injector(Map::put).inject(publication.context(), historicalContext);
+        publication.finish();
+        spans.clear();
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    @Test
+    public void testReplayedEventsAreTracedByDefault() {
+        handle(OpenTraceHandlerInterceptor.builder().tracer(tracing).build(), replayed("first"));
+
+        assertThat(spans.size(), is(1));
+        assertThat(spans.get(0).traceId(), is(historicalContext.get("X-B3-TraceId")));
+    }
+
+    @Test
+    public void testNoSpansModeHandlesReplayedEventsWithoutSpans() {
+        OpenTraceHandlerInterceptor interceptor = interceptor(ReplayMode.NO_SPANS).build();
+
+        handle(interceptor, replayed("first"), replayed("second"));
+        handle(interceptor, live("third"));
+
+        assertThat(spans.size(), is(1));
+        assertThat(spans.get(0).tags().get(OpenTraceHandlerInterceptor.TAG_REPLAY), nullValue());
+        assertThat(notifications, is(Arrays.asList("projections 2")));
+    }
+
+    @Test
+    public void testBatchProgressModeStartsSingleSpanPerBatchInNewTrace() {
+        handle(interceptor(ReplayMode.BATCH_PROGRESS).build(), replayed("first"), replayed("second"));
+
+        assertThat(spans.size(), is(1));
+        Span progressSpan = spans.get(0);
+        assertThat(progressSpan.name(), is("replayeventmessagebatch"));
+        assertThat(progressSpan.traceId(), not(historicalContext.get("X-B3-TraceId")));
+        assertThat(progressSpan.tags().get(OpenTraceHandlerInterceptor.TAG_REPLAY), is("true"));
+        assertThat(progressSpan.tags().get(OpenTraceHandlerInterceptor.TAG_AXON_BATCH_SIZE), is("2"));
+        assertThat(progressSpan.tags().get(SpanUtils.TAG_PROCESSOR_NAME), is("projections"));
+        assertThat(Long.parseLong(progressSpan.tags().get(OpenTraceHandlerInterceptor.TAG_REPLAY_THROUGHPUT)) > 0,
+                   is(true));
+        assertThat(notifications, is(Arrays.asList("projections 2")));
+    }
+
+    @Test
+    public void testSampledModeAppliesReplaySampleRateToNewTraces() {
+        handle(interceptor(ReplayMode.SAMPLED).replaySampleRate(0.0f).build(), replayed("first"));
+        assertThat(spans.size(), is(0));
+
+        handle(interceptor(ReplayMode.SAMPLED).replaySampleRate(1.0f).build(), replayed("second"));
+        assertThat(spans.size(), is(1));
+        assertThat(spans.get(0).name(), is("handleeventmessage"));
+        assertThat(spans.get(0).parentId(), nullValue());
+        assertThat(spans.get(0).tags().get(OpenTraceHandlerInterceptor.TAG_REPLAY), is("true"));
+    }
+
+    @Test
+    public void testMeterRecorderCountsReplayedEventsPerProcessor() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OpenTraceHandlerInterceptor interceptor = OpenTraceHandlerInterceptor.builder()
+                                                                             .tracer(tracing)
+                                                                             .processorName("projections")
+                                                                             .replayMode(ReplayMode.NO_SPANS)
+                                                                             .replayListener(
+                                                                                     new ReplayMeterRecorder(registry)
+                                                                             )
+                                                                             .build();
+
+        handle(interceptor, replayed("first"), replayed("second"));
+        handle(interceptor, replayed("third"));
+
+        assertThat(registry.get("axon.replay.events").tag("processor", "projections").counter().count(), is(3.0));
+        assertThat(registry.get("axon.replay.batch.duration").tag("processor", "projections").timer().count(),
+                   is(2L));
+    }
+
+    private OpenTraceHandlerInterceptor.Builder interceptor(ReplayMode replayMode) {
+        return OpenTraceHandlerInterceptor.builder()
+                                          .tracer(tracing)
+                                          .processorName("projections")
+                                          .replayMode(replayMode)
+                                          .replayListener(new ReplayListener() {
+                                              @Override
+                                              public void onReplayBatch(String processorName, int batchSize,
+                                                                        Duration duration) {
+                                                  notifications.add(processorName + " " + batchSize);
+                                              }
+                                          });
+    }
+
+    private EventMessage<?> replayed(String payload) {
+        return new GenericTrackedEventMessage<>(REPLAY_TOKEN, live(payload));
+    }
+
+    private EventMessage<?> live(String payload) {
+        return GenericEventMessage.asEventMessage(payload).withMetaData(historicalContext);
+    }
+
+    private void handle(OpenTraceHandlerInterceptor interceptor, EventMessage<?>... events) {
+        BatchingUnitOfWork<EventMessage<?>> unitOfWork = new BatchingUnitOfWork<>(Arrays.asList(events));
+        unitOfWork.executeWithResult(() -> interceptor.handle(unitOfWork, () -> null));
+    }
+}
@@ -0,0 +1,114 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link SlowHandlerWatchdog}, watching the handlers invoked by an
+ * {@link OpenTraceHandlerInterceptor}.
+ */
+public class SlowHandlerWatchdogTest {
+
+    private final List<Span> spans = new ArrayList<>();
+    private Tracing tracing;
+    private SlowHandlerWatchdog watchdog;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .spanReporter(spans::add)
+                         .build();
+    }
+
+    @After
+    public void after() {
+        if (watchdog != null) {
+            watchdog.close();
+        }
+        tracing.close();
+    }
+
+    @Test
+    public void testStackOfSlowHandlerIsAddedToSpan() {
+        watchdog = SlowHandlerWatchdog.builder()
+                                      .threshold(Duration.ofMillis(20))
+                                      .sampleInterval(Duration.ofMillis(5))
+                                      .samples(2)
+                                      .build();
+
+        handle(this::blockUntilSampled);
+
+        assertThat(watchdog.slowHandlers(), is(1L));
+        String stack = spans.get(0).tags().get(SlowHandlerWatchdog.TAG_HANDLER_STACK);
+        assertThat(stack, notNullValue());
+        assertThat(stack, containsString("SlowHandlerWatchdogTest.blockUntilSampled"));
+    }
+
+    @Test
+    public void testFastHandlerIsNotSampled() {
+        watchdog = SlowHandlerWatchdog.builder().build();
+
+        handle(() -> "result");
+
+        assertThat(watchdog.slowHandlers(), is(0L));
+        assertThat(spans.get(0).tags().get(SlowHandlerWatchdog.TAG_HANDLER_STACK), nullValue());
+    }
+
+    @Test
+    public void testHandlersExceedingTableAreNotTracked() {
+        watchdog = SlowHandlerWatchdog.builder().maxInFlight(1).build();
+        TracedSpan span = new BraveTracingBackend(tracing).startSpan("test", TracedSpan.Kind.INTERNAL);
+        Message<?> message = new GenericMessage<>("payload");
+
+        SlowHandlerWatchdog.InFlightHandler first = watchdog.track(span, message);
+        assertThat(first, notNullValue());
+        assertThat(watchdog.track(span, message), nullValue());
+        assertThat(watchdog.untrackedHandlers(), is(1L));
+
+        watchdog.untrack(first);
+        assertThat(watchdog.track(span, message), notNullValue());
+    }
+
+    private Object blockUntilSampled() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (watchdog.slowHandlers() == 0) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("The slow handler was not sampled in time");
+            }
+            Thread.sleep(5);
+        }
+        return "result";
+    }
+
+    private void handle(InterceptorChain chain) {
+        OpenTraceHandlerInterceptor interceptor = OpenTraceHandlerInterceptor.builder()
+                                                                             .tracer(tracing)
+                                                                             .watchdog(watchdog)
+                                                                             .build();
+        DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(new GenericMessage<>("payload"));
+        unitOfWork.executeWithResult(() -> interceptor.handle(unitOfWork, chain));
+    }
+}
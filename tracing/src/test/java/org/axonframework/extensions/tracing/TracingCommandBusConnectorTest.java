@@ -0,0 +1,237 @@
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.NoHandlerForCommandException;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.commandhandling.distributed.CommandBusConnector;
+import org.axonframework.commandhandling.distributed.CommandMessageFilter;
+import org.axonframework.commandhandling.distributed.CommandRouter;
+import org.axonframework.commandhandling.distributed.ConsistentHash;
+import org.axonframework.commandhandling.distributed.DistributedCommandBus;
+import org.axonframework.commandhandling.distributed.Member;
+import org.axonframework.commandhandling.distributed.RoutingStrategy;
+import org.axonframework.commandhandling.distributed.SimpleMember;
+import org.axonframework.commandhandling.distributed.commandfilter.AcceptAll;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+import org.axonframework.messaging.MessageHandler;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link TracingCommandBusConnector} and {@link TracingCommandRouter}, routing commands between
+ * two members connected through an in-JVM {@link CommandBusConnector}.
+ */
+public class TracingCommandBusConnectorTest {
+
+    private static final RoutingStrategy ROUTING_STRATEGY = command -> command.getPayload().toString();
+
+    private final List<Span> spans = new ArrayList<>();
+    private final List<String> notifications = new ArrayList<>();
+    private final Map<String, SimpleCommandBus> members = new HashMap<>();
+    private Tracing tracing;
+    private CommandRoutingListener listener;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .spanReporter(spans::add)
+                         .build();
+        listener = new CommandRoutingListener() {
+            @Override
+            public void onRouted(String commandName, String member, boolean local, Duration lookup) {
+                notifications.add("routed " + member + " " + local);
+            }
+
+            @Override
+            public void onSent(String commandName, String member, Duration duration, boolean failed) {
+                notifications.add("sent " + member + " " + failed);
+            }
+
+            @Override
+            public void onReceived(String commandName, Duration transit) {
+                notifications.add("received " + commandName + " " + !transit.isNegative());
+            }
+        };
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    @Test
+    public void testRemoteCommandIsTracedAcrossTheHop() {
+        TracingCommandBusConnector remoteConnector = connector("node2");
+        remoteConnector.registerHandlerInterceptor(OpenTraceHandlerInterceptor.builder().tracer(tracing).build());
+        remoteConnector.subscribe(String.class.getName(), command -> "handled " + command.getPayload());
+        Member remoteMember = new SimpleMember<>("node2", "node2", SimpleMember.REMOTE_MEMBER, member -> {
+        });
+        TracingCommandGateway gateway = gateway(new ConsistentHash().with(remoteMember, 100, AcceptAll.INSTANCE));
+
+        Object result = gateway.sendAndWait("order-1");
+
+        assertThat(result, is("handled order-1"));
+        Map<String, Span> spansByName = spans.stream().collect(Collectors.toMap(Span::name, Function.identity()));
+        Span gatewaySpan = spansByName.get("sendcommandmessageandwait");
+        Span routingSpan = spansByName.get("finddestination");
+        assertThat(routingSpan.parentId(), is(gatewaySpan.id()));
+        assertThat(routingSpan.tags().get(TracingCommandRouter.TAG_ROUTING_KEY), is("order-1"));
+        assertThat(routingSpan.tags().get(TracingCommandRouter.TAG_MEMBER), is("node2"));
+        assertThat(routingSpan.tags().get(TracingCommandRouter.TAG_MEMBER_LOCAL), is("false"));
+        Span sendSpan = spansByName.get("sendcommand");
+        assertThat(sendSpan.parentId(), is(gatewaySpan.id()));
+        assertThat(sendSpan.kind(), is(Span.Kind.CLIENT));
+        assertThat(sendSpan.tags().get(TracingCommandRouter.TAG_MEMBER), is("node2"));
+        Span handlerSpan = spansByName.get("handlecommandmessage");
+        assertThat(handlerSpan.parentId(), is(sendSpan.id()));
+        assertThat(Long.parseLong(handlerSpan.tags().get(TracingCommandBusConnector.TAG_TRANSIT)) >= 0, is(true));
+        assertThat(notifications, is(Arrays.asList("routed node2 false",
+                                                   "received java.lang.String true",
+                                                   "sent node2 false")));
+    }
+
+    @Test
+    public void testUnresolvedDestinationIsTagged() {
+        TracingCommandGateway gateway = gateway(new ConsistentHash());
+
+        try {
+            gateway.sendAndWait("order-1");
+            fail("Expected the command to fail for lack of a destination");
+        } catch (NoHandlerForCommandException e) {
+            // expected
+        }
+
+        Span routingSpan = spans.stream().filter(span -> span.name().equals("finddestination")).findFirst().get();
+        assertThat(routingSpan.tags().get(TracingCommandRouter.TAG_UNRESOLVED), is("true"));
+        assertThat(routingSpan.tags().get(TracingCommandRouter.TAG_MEMBER), nullValue());
+        assertThat(notifications, is(Arrays.asList("routed null false")));
+    }
+
+    @Test
+    public void testCommandsSentOutsideOfTraceAreOnlyMeasured() throws Exception {
+        TracingCommandBusConnector remoteConnector = connector("node2");
+        remoteConnector.subscribe(String.class.getName(), command -> "handled");
+        Member remoteMember = new SimpleMember<>("node2", "node2", SimpleMember.REMOTE_MEMBER, member -> {
+        });
+        List<Object> results = new ArrayList<>();
+
+        CommandCallback<Object, Object> callback = (command, result) -> results.add(result.getPayload());
+        connector("node1").send(remoteMember, asCommandMessage("order-1"), callback);
+
+        assertThat(results, is(Arrays.<Object>asList("handled")));
+        assertThat(spans.size(), is(0));
+        assertThat(notifications, is(Arrays.asList("received java.lang.String true", "sent node2 false")));
+    }
+
+    @Test(expected = AxonConfigurationException.class)
+    public void testRouterRequiresDelegate() {
+        TracingCommandRouter.builder().tracer(tracing).build();
+    }
+
+    private TracingCommandGateway gateway(ConsistentHash consistentHash) {
+        TracingCommandRouter router = TracingCommandRouter.builder()
+                                                          .delegate(new ConsistentHashRouter(consistentHash))
+                                                          .tracer(tracing)
+                                                          .routingStrategy(ROUTING_STRATEGY)
+                                                          .listener(listener)
+                                                          .build();
+        DistributedCommandBus commandBus = DistributedCommandBus.builder()
+                                                                .commandRouter(router)
+                                                                .connector(connector("node1"))
+                                                                .build();
+        return TracingCommandGateway.builder().tracer(tracing).delegateCommandBus(commandBus).build();
+    }
+
+    private TracingCommandBusConnector connector(String memberName) {
+        return TracingCommandBusConnector.builder()
+                                         .delegate(new InMemoryConnector(memberName, members))
+                                         .tracer(tracing)
+                                         .listener(listener)
+                                         .build();
+    }
+
+    /**
+     * Stand-in for a {@link CommandRouter} based on a fixed {@link ConsistentHash}.
+     */
+    private static class ConsistentHashRouter implements CommandRouter {
+
+        private final ConsistentHash consistentHash;
+
+        private ConsistentHashRouter(ConsistentHash consistentHash) {
+            this.consistentHash = consistentHash;
+        }
+
+        @Override
+        public Optional<Member> findDestination(CommandMessage<?> command) {
+            return consistentHash.getMember(ROUTING_STRATEGY.getRoutingKey(command), command);
+        }
+
+        @Override
+        public void updateMembership(int loadFactor, CommandMessageFilter commandFilter) {
+            // membership is fixed
+        }
+    }
+
+    /**
+     * Stand-in for a {@link CommandBusConnector} transporting commands to the local segment of other members in the
+     * same JVM, by member name.
+     */
+    private static class InMemoryConnector implements CommandBusConnector {
+
+        private final Map<String, SimpleCommandBus> members;
+        private final SimpleCommandBus localSegment;
+
+        private InMemoryConnector(String memberName, Map<String, SimpleCommandBus> members) {
+            this.members = members;
+            this.localSegment = members.computeIfAbsent(memberName, name -> SimpleCommandBus.builder().build());
+        }
+
+        @Override
+        public <C> void send(Member destination, CommandMessage<? extends C> command) {
+            members.get(destination.name()).dispatch(command);
+        }
+
+        @Override
+        public <C, R> void send(Member destination, CommandMessage<C> command, CommandCallback<? super C, R> callback) {
+            members.get(destination.name()).dispatch(command, callback);
+        }
+
+        @Override
+        public Registration subscribe(String commandName, MessageHandler<? super CommandMessage<?>> handler) {
+            return localSegment.subscribe(commandName, handler);
+        }
+
+        @Override
+        public Registration registerHandlerInterceptor(
+                MessageHandlerInterceptor<? super CommandMessage<?>> handlerInterceptor) {
+            return localSegment.registerHandlerInterceptor(handlerInterceptor);
+        }
+    }
+}
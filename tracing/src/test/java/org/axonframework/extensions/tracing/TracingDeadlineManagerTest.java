@@ -0,0 +1,137 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import brave.ScopedSpan;
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.axonframework.deadline.DeadlineMessage;
+import org.axonframework.deadline.SimpleDeadlineManager;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.ScopeAware;
+import org.axonframework.messaging.ScopeDescriptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link TracingDeadlineManager}.
+ */
+public class TracingDeadlineManagerTest {
+
+    private static final ScopeDescriptor SCOPE = () -> "test-scope";
+
+    private final List<Span> spans = new CopyOnWriteArrayList<>();
+    private final List<Message<?>> firedDeadlines = new CopyOnWriteArrayList<>();
+    private final List<String> lagRecords = new CopyOnWriteArrayList<>();
+    private final CountDownLatch fired = new CountDownLatch(1);
+    private Tracing tracing;
+    private ScheduledExecutorService executor;
+    private SimpleDeadlineManager delegate;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .spanReporter(spans::add)
+                         .build();
+        ScopeAware scopeAware = new ScopeAware() {
+            @Override
+            public void send(Message<?> message, ScopeDescriptor scope) {
+                firedDeadlines.add(message);
+                fired.countDown();
+            }
+
+            @Override
+            public boolean canResolve(ScopeDescriptor scope) {
+                return true;
+            }
+        };
+        executor = Executors.newSingleThreadScheduledExecutor();
+        delegate = SimpleDeadlineManager.builder()
+                                        .scopeAwareProvider(scope -> Stream.of(scopeAware))
+                                        .scheduledExecutorService(executor)
+                                        .build();
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+        tracing.close();
+    }
+
+    @Test
+    public void testFiredDeadlineContinuesSchedulingTraceAndRecordsLag() throws InterruptedException {
+        TracingDeadlineManager testSubject = TracingDeadlineManager.builder()
+                                                                   .delegate(delegate)
+                                                                   .tracer(tracing)
+                                                                   .lagListener(this::recordLag)
+                                                                   .build();
+        ScopedSpan schedulingSpan = tracing.tracer().startScopedSpan("scheduling");
+        try {
+            testSubject.schedule(Duration.ofMillis(10), "deadlineName", "payload", SCOPE);
+        } finally {
+            schedulingSpan.finish();
+        }
+
+        assertTrue("Deadline did not fire", fired.await(5, TimeUnit.SECONDS));
+        Span fireSpan = awaitSpan("firedeadline");
+        assertThat(fireSpan.traceId(), is(schedulingSpan.context().traceIdString()));
+        assertThat(fireSpan.parentId(), is(schedulingSpan.context().spanIdString()));
+        assertThat(fireSpan.kind(), is(Span.Kind.CONSUMER));
+        assertThat(fireSpan.tags().get("axon.deadline.name"), is("deadlineName"));
+        assertThat(Long.parseLong(fireSpan.tags().get(ScheduledFirings.TAG_SCHEDULING_LAG)) >= 0, is(true));
+        assertThat(fireSpan.tags().get(ScheduledFirings.TAG_SCHEDULED_TIME), notNullValue());
+        DeadlineMessage<?> firedDeadline = (DeadlineMessage<?>) firedDeadlines.get(0);
+        assertThat(firedDeadline.getPayload(), is("payload"));
+        assertThat(firedDeadline.getMetaData().containsKey(ScheduledFirings.SCHEDULED_TIME_KEY), is(true));
+        assertThat(lagRecords.get(0), is(SchedulingLagListener.DEADLINE + ":deadlineName"));
+    }
+
+    @Test
+    public void testLagIsRecordedWhenTracingIsDisabled() throws InterruptedException {
+        TracingDeadlineManager testSubject = TracingDeadlineManager.builder()
+                                                                   .delegate(delegate)
+                                                                   .backend(NoopTracingBackend.INSTANCE)
+                                                                   .lagListener(this::recordLag)
+                                                                   .build();
+
+        testSubject.schedule(Duration.ofMillis(10), "deadlineName", null, SCOPE);
+
+        assertTrue("Deadline did not fire", fired.await(5, TimeUnit.SECONDS));
+        assertThat(spans.isEmpty(), is(true));
+        assertThat(lagRecords.get(0), is(SchedulingLagListener.DEADLINE + ":deadlineName"));
+    }
+
+    private void recordLag(String source, String name, Duration lag) {
+        lagRecords.add(source + ":" + name);
+    }
+
+    private Span awaitSpan(String name) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            for (Span span : spans) {
+                if (name.equals(span.name())) {
+                    return span;
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("No span named [" + name + "] was reported");
+    }
+}
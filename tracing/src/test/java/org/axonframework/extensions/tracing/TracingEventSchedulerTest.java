@@ -0,0 +1,106 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import brave.ScopedSpan;
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.eventhandling.SimpleEventBus;
+import org.axonframework.eventhandling.scheduling.java.SimpleEventScheduler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link TracingEventScheduler}.
+ */
+public class TracingEventSchedulerTest {
+
+    private final List<Span> spans = new CopyOnWriteArrayList<>();
+    private final List<EventMessage<?>> publishedEvents = new CopyOnWriteArrayList<>();
+    private final List<String> lagRecords = new CopyOnWriteArrayList<>();
+    private final CountDownLatch published = new CountDownLatch(1);
+    private Tracing tracing;
+    private ScheduledExecutorService executor;
+    private SimpleEventBus eventBus;
+    private TracingEventScheduler testSubject;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .spanReporter(spans::add)
+                         .build();
+        executor = Executors.newSingleThreadScheduledExecutor();
+        eventBus = SimpleEventBus.builder().build();
+        eventBus.subscribe(events -> {
+            publishedEvents.addAll(events);
+            published.countDown();
+        });
+        testSubject = TracingEventScheduler.builder()
+                                           .delegate(SimpleEventScheduler.builder()
+                                                                         .eventBus(eventBus)
+                                                                         .scheduledExecutorService(executor)
+                                                                         .build())
+                                           .eventBus(eventBus)
+                                           .tracer(tracing)
+                                           .lagListener((source, name, lag) -> lagRecords.add(source + ":" + name))
+                                           .build();
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+        tracing.close();
+    }
+
+    @Test
+    public void testFiredEventContinuesSchedulingTraceAndRecordsLag() throws InterruptedException {
+        ScopedSpan schedulingSpan = tracing.tracer().startScopedSpan("scheduling");
+        try {
+            testSubject.schedule(Duration.ofMillis(10), "event");
+        } finally {
+            schedulingSpan.finish();
+        }
+
+        assertTrue("Event was not published", published.await(5, TimeUnit.SECONDS));
+        Span fireSpan = spans.stream()
+                             .filter(span -> "firescheduledevent".equals(span.name()))
+                             .findFirst()
+                             .orElseThrow(() -> new AssertionError("No firing span was reported"));
+        assertThat(fireSpan.traceId(), is(schedulingSpan.context().traceIdString()));
+        assertThat(fireSpan.parentId(), is(schedulingSpan.context().spanIdString()));
+        assertThat(fireSpan.kind(), is(Span.Kind.PRODUCER));
+        assertThat(Long.parseLong(fireSpan.tags().get(ScheduledFirings.TAG_SCHEDULING_LAG)) >= 0, is(true));
+        EventMessage<?> publishedEvent = publishedEvents.get(0);
+        assertThat(publishedEvent.getPayload(), is("event"));
+        // handlers continue the trace as children of the firing span
+        assertThat(publishedEvent.getMetaData().get("X-B3-SpanId"), is(fireSpan.id()));
+        assertThat(lagRecords.get(0), is(SchedulingLagListener.SCHEDULED_EVENT + ":java.lang.String"));
+    }
+
+    @Test
+    public void testEventsNotScheduledThroughTracingSchedulerAreLeftUntouched() {
+        eventBus.publish(GenericEventMessage.asEventMessage("event"));
+
+        assertThat(publishedEvents.get(0).getMetaData().isEmpty(), is(true));
+        assertThat(spans.isEmpty(), is(true));
+        assertThat(lagRecords.isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,182 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.axonframework.eventhandling.GenericDomainEventEntry;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.upcasting.event.SingleEventUpcaster;
+import org.axonframework.serialization.upcasting.event.UpcastedEventRepresentation;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link TracingEventUpcaster} and {@link UpcasterMeterRecorder}.
+ */
+public class TracingEventUpcasterTest {
+
+    private static final String LEGACY_TYPE = "com.example.OrderPlaced";
+
+    private final List<Span> spans = new ArrayList<>();
+    private final List<String> notifications = new ArrayList<>();
+    private final XStreamSerializer serializer = XStreamSerializer.builder().build();
+    private Tracing tracing;
+    private UpcasterListener listener;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .spanReporter(spans::add)
+                         .build();
+        listener = new UpcasterListener() {
+            @Override
+            public void onUpcast(String upcaster, SerializedType from, SerializedType to) {
+                notifications.add("upcast " + upcaster + " " + from.getRevision() + "->" + to.getRevision());
+            }
+
+            @Override
+            public void onConversion(String upcaster, SerializedType from, Duration duration) {
+                notifications.add("convert " + upcaster + " " + from.getRevision());
+            }
+        };
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    @Test
+    public void testReportsUpcastsAndConversionsPerUpcaster() {
+        EventUpcasterChain chain = new EventUpcasterChain(traced(new RevisionUpcaster(null, "1"), 0.0f),
+                                                          traced(new RevisionUpcaster("1", "2"), 0.0f));
+        IntermediateEventRepresentation unrelated = event("com.example.Other", null);
+
+        List<IntermediateEventRepresentation> result =
+                chain.upcast(Stream.of(event(LEGACY_TYPE, null), unrelated)).collect(Collectors.toList());
+
+        assertThat(result.get(0).getType().getRevision(), is("2"));
+        assertThat(result.get(0), instanceOf(UpcastedEventRepresentation.class));
+        assertThat(result.get(1), sameInstance(unrelated));
+        assertThat(notifications, is(Arrays.asList("upcast RevisionUpcaster null->1",
+                                                   "upcast RevisionUpcaster 1->2")));
+        notifications.clear();
+
+        assertThat(new String(result.get(0).getData(byte[].class).getData()), is("order revision 2"));
+        assertThat(notifications, is(Arrays.asList("convert RevisionUpcaster null",
+                                                   "convert RevisionUpcaster 1")));
+    }
+
+    @Test
+    public void testSampledConversionsAreTracedUnderHandlerSpan() {
+        TracingEventUpcaster testSubject = traced(new RevisionUpcaster(null, "1"), 1.0f);
+        IntermediateEventRepresentation upcasted =
+                testSubject.upcast(Stream.of(event(LEGACY_TYPE, null))).findFirst().get();
+        OpenTraceHandlerInterceptor interceptor = OpenTraceHandlerInterceptor.builder().tracer(tracing).build();
+        DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(new GenericMessage<>("event"));
+
+        unitOfWork.executeWithResult(() -> interceptor.handle(unitOfWork, () -> upcasted.getData(byte[].class)));
+
+        assertThat(spans.size(), is(2));
+        Span upcastSpan = spans.get(0);
+        assertThat(upcastSpan.name(), is("upcast"));
+        assertThat(upcastSpan.parentId(), is(spans.get(1).id()));
+        assertThat(upcastSpan.tags().get(TracingEventUpcaster.TAG_UPCASTER), is("RevisionUpcaster"));
+        assertThat(upcastSpan.tags().get(TracingEventUpcaster.TAG_UPCAST_FROM), is(LEGACY_TYPE));
+        assertThat(upcastSpan.tags().get(TracingEventUpcaster.TAG_UPCAST_TO), is(LEGACY_TYPE + "#1"));
+    }
+
+    @Test
+    public void testMeterRecorderCountsUpcastsPerRevision() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TracingEventUpcaster testSubject = TracingEventUpcaster.builder()
+                                                               .delegate(new RevisionUpcaster(null, "1"))
+                                                               .name("orderPlacedV1")
+                                                               .tracer(tracing)
+                                                               .listener(new UpcasterMeterRecorder(registry))
+                                                               .build();
+
+        testSubject.upcast(Stream.of(event(LEGACY_TYPE, null), event(LEGACY_TYPE, null)))
+                   .forEach(event -> event.getData(byte[].class));
+
+        assertThat(registry.get("axon.upcaster.invocations")
+                           .tag("upcaster", "orderPlacedV1")
+                           .tag("eventType", LEGACY_TYPE)
+                           .tag("fromRevision", "none")
+                           .tag("toRevision", "1")
+                           .counter().count(), is(2.0));
+        assertThat(registry.get("axon.upcaster.duration").tag("upcaster", "orderPlacedV1").timer().count(), is(2L));
+        assertThat(spans.size(), is(0));
+    }
+
+    private TracingEventUpcaster traced(EventUpcaster upcaster, float spanSampleRate) {
+        return TracingEventUpcaster.builder()
+                                   .delegate(upcaster)
+                                   .tracer(tracing)
+                                   .spanSampleRate(spanSampleRate)
+                                   .listener(listener)
+                                   .build();
+    }
+
+    private IntermediateEventRepresentation event(String type, String revision) {
+        GenericDomainEventEntry<byte[]> entry = new GenericDomainEventEntry<>(
+                "Order", "order-1", 0, "event-1", Instant.now(), type, revision, "order".getBytes(), new byte[0]
+        );
+        return new InitialEventRepresentation(entry, serializer);
+    }
+
+    private static class RevisionUpcaster extends SingleEventUpcaster {
+
+        private final String fromRevision;
+        private final String toRevision;
+
+        private RevisionUpcaster(String fromRevision, String toRevision) {
+            this.fromRevision = fromRevision;
+            this.toRevision = toRevision;
+        }
+
+        @Override
+        protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            SerializedType type = intermediateRepresentation.getType();
+            return LEGACY_TYPE.equals(type.getName())
+                    && (fromRevision == null ? type.getRevision() == null : fromRevision.equals(type.getRevision()));
+        }
+
+        @Override
+        protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return intermediateRepresentation.upcastPayload(
+                    new SimpleSerializedType(LEGACY_TYPE, toRevision),
+                    byte[].class,
+                    payload -> ("order revision " + toRevision).getBytes()
+            );
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import brave.ScopedSpan;
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import brave.propagation.TraceContext;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the {@link TracingExecutors} and the executors it creates.
+ */
+public class TracingExecutorsTest {
+
+    private Tracing tracing;
+    private TracingBackend backend;
+    private ScheduledExecutorService delegate;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .build();
+        backend = new BraveTracingBackend(tracing);
+        delegate = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void after() throws InterruptedException {
+        delegate.shutdownNow();
+        delegate.awaitTermination(5, TimeUnit.SECONDS);
+        tracing.close();
+    }
+
+    @Test
+    public void testWrappedExecutorMatchesTypeOfDelegate() {
+        Executor plainExecutor = Runnable::run;
+
+        assertThat(TracingExecutors.wrap(plainExecutor, backend), instanceOf(TracingExecutor.class));
+        assertThat(TracingExecutors.wrap(Executors.newSingleThreadExecutor(), backend),
+                   instanceOf(TracingExecutorService.class));
+        assertThat(TracingExecutors.wrap(delegate, backend), instanceOf(TracingScheduledExecutorService.class));
+        ExecutorService wrapped = TracingExecutors.wrap((ExecutorService) delegate, backend);
+        assertThat(TracingExecutors.wrap(wrapped, backend), sameInstance(wrapped));
+    }
+
+    @Test
+    public void testNoopBackendReturnsDelegate() {
+        assertThat(TracingExecutors.wrap(delegate, NoopTracingBackend.INSTANCE), sameInstance(delegate));
+    }
+
+    @Test
+    public void testSubmittedTaskRunsInContextOfSubmitter() throws Exception {
+        ExecutorService testSubject = TracingExecutors.wrap((ExecutorService) delegate, backend);
+        ScopedSpan span = tracing.tracer().startScopedSpan("submitter");
+        TraceContext taskContext;
+        try {
+            taskContext = testSubject.submit(() -> tracing.currentTraceContext().get()).get();
+        } finally {
+            span.finish();
+        }
+
+        assertThat(taskContext, is(span.context()));
+    }
+
+    @Test
+    public void testContextDoesNotLeakBetweenPooledTasks() throws Exception {
+        // a task leaving a scope open on the pooled thread, bypassing the wrapper
+        delegate.submit(() -> tracing.currentTraceContext().newScope(
+                tracing.tracer().newTrace().context()
+        )).get();
+        ScheduledExecutorService testSubject = TracingExecutors.wrap(delegate, backend);
+
+        TraceContext taskContext =
+                testSubject.schedule(() -> tracing.currentTraceContext().get(), 1, TimeUnit.MILLISECONDS).get();
+
+        assertThat(taskContext, nullValue());
+    }
+
+    @Test
+    public void testInvokeAllRunsTasksInContextOfSubmitter() throws Exception {
+        ExecutorService testSubject = TracingExecutors.wrap((ExecutorService) delegate, backend);
+        ScopedSpan span = tracing.tracer().startScopedSpan("submitter");
+        TraceContext taskContext;
+        try {
+            Callable<TraceContext> task = () -> tracing.currentTraceContext().get();
+            taskContext = testSubject.invokeAll(Collections.singletonList(task))
+                                     .get(0)
+                                     .get();
+        } finally {
+            span.finish();
+        }
+
+        assertThat(taskContext, is(span.context()));
+    }
+
+    @Test
+    public void testFutureContinuationRunsInContextOfCaller() throws Exception {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        ScopedSpan span = tracing.tracer().startScopedSpan("caller");
+        CompletableFuture<TraceContext> continuation;
+        try {
+            continuation = TracingExecutors.continueInCurrentContext(future, backend)
+                                           .thenApply(result -> tracing.currentTraceContext().get());
+        } finally {
+            span.finish();
+        }
+
+        delegate.submit(() -> future.complete("result")).get();
+
+        assertThat(continuation.get(5, TimeUnit.SECONDS), is(span.context()));
+    }
+}
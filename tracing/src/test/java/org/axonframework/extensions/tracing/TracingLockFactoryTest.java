@@ -0,0 +1,104 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import brave.ScopedSpan;
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.axonframework.common.lock.Lock;
+import org.axonframework.common.lock.PessimisticLockFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link TracingLockFactory}.
+ */
+public class TracingLockFactoryTest {
+
+    private final List<Span> spans = new ArrayList<>();
+    private final List<Duration> waits = new ArrayList<>();
+    private Tracing tracing;
+    private TracingLockFactory testSubject;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .spanReporter(spans::add)
+                         .build();
+        testSubject = TracingLockFactory.builder()
+                                        .delegate(PessimisticLockFactory.usingDefaults())
+                                        .tracer(tracing)
+                                        .aggregateType("Order")
+                                        .listener((type, id, wait) -> waits.add(wait))
+                                        .contentionThreshold(Duration.ofMillis(20))
+                                        .build();
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    @Test
+    public void testContendedLockAcquisitionIsTracedAndTracked() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            Lock lock = testSubject.obtainLock("order-1");
+            locked.countDown();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lock.release();
+        });
+        holder.start();
+        assertThat(locked.await(5, TimeUnit.SECONDS), is(true));
+
+        ScopedSpan parent = tracing.tracer().startScopedSpan("handle");
+        try {
+            testSubject.obtainLock("order-1").release();
+            testSubject.obtainLock("order-2").release();
+        } finally {
+            parent.finish();
+        }
+        holder.join();
+
+        assertThat(spans.size(), is(3));
+        Span contended = spans.get(0);
+        assertThat(contended.name(), is("obtainlock"));
+        assertThat(contended.parentId(), is(parent.context().spanIdString()));
+        assertThat(contended.tags().get(TracingLockFactory.TAG_AGGREGATE_TYPE), is("Order"));
+        assertThat(contended.tags().get(TracingLockFactory.TAG_AGGREGATE_ID), is("order-1"));
+        assertThat(contended.tags().get(TracingLockFactory.TAG_LOCK_CONTENDED), is("true"));
+        assertThat(spans.get(1).tags().get(TracingLockFactory.TAG_LOCK_CONTENDED), nullValue());
+
+        assertThat(waits.size(), is(3));
+        List<HeavyHitters.HeavyHitter> contendedAggregates = testSubject.contendedAggregates(10);
+        assertThat(contendedAggregates.size(), is(1));
+        assertThat(contendedAggregates.get(0).key(), is("order-1"));
+        assertThat(contendedAggregates.get(0).weight() >= TimeUnit.MILLISECONDS.toMicros(20), is(true));
+    }
+
+    @Test
+    public void testLockAcquisitionOutsideTraceIsNotTraced() {
+        testSubject.obtainLock("order-1").release();
+
+        assertThat(spans.size(), is(0));
+        assertThat(waits.size(), is(1));
+    }
+}
@@ -0,0 +1,183 @@
+package org.axonframework.extensions.tracing;
+
+import static org.axonframework.messaging.responsetypes.ResponseTypes.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.queryhandling.GenericSubscriptionQueryMessage;
+import org.axonframework.queryhandling.SimpleQueryUpdateEmitter;
+import org.axonframework.queryhandling.SubscriptionQueryBackpressure;
+import org.axonframework.queryhandling.SubscriptionQueryMessage;
+import org.axonframework.queryhandling.SubscriptionQueryUpdateMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link TracingQueryUpdateEmitter} and {@link QueryUpdateMeterRecorder}.
+ */
+public class TracingQueryUpdateEmitterTest {
+
+    private final List<Span> spans = new ArrayList<>();
+    private final List<String> notifications = new ArrayList<>();
+    private Tracing tracing;
+    private TracingQueryUpdateEmitter testSubject;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .spanReporter(spans::add)
+                         .build();
+        QueryUpdateListener listener = new QueryUpdateListener() {
+            @Override
+            public void onEmit(String updateType, int matchedSubscriptions, Duration filterDuration,
+                               Duration duration) {
+                notifications.add("emit " + updateType + " " + matchedSubscriptions);
+            }
+
+            @Override
+            public void onBufferFull(String queryName, int bufferSize) {
+                notifications.add("full " + queryName + " " + bufferSize);
+            }
+        };
+        testSubject = TracingQueryUpdateEmitter.builder()
+                                               .delegate(SimpleQueryUpdateEmitter.builder().build())
+                                               .tracer(tracing)
+                                               .listener(listener)
+                                               .build();
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    @Test
+    public void testUpdatesEmittedByHandlerAreTracedAfterCommit() {
+        List<String> received = new ArrayList<>();
+        for (String orderId : Arrays.asList("order-1", "order-1", "order-2")) {
+            testSubject.<String>registerUpdateHandler(subscriptionQuery(orderId),
+                                                      SubscriptionQueryBackpressure.defaultBackpressure(),
+                                                      16)
+                    .getUpdates()
+                    .subscribe(update -> received.add(update.getPayload()));
+        }
+        OpenTraceHandlerInterceptor interceptor = OpenTraceHandlerInterceptor.builder().tracer(tracing).build();
+        DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(new GenericMessage<>("event"));
+        List<String> receivedWhileHandling = new ArrayList<>();
+
+        unitOfWork.executeWithResult(() -> interceptor.handle(unitOfWork, () -> {
+            testSubject.emit(String.class, "order-1"::equals, "shipped");
+            receivedWhileHandling.addAll(received);
+            return null;
+        }));
+
+        assertThat(receivedWhileHandling.size(), is(0));
+        assertThat(received, is(Arrays.asList("shipped", "shipped")));
+        assertThat(spans.size(), is(2));
+        Span emitSpan = spans.get(0);
+        assertThat(emitSpan.name(), is("emitqueryupdate"));
+        assertThat(emitSpan.kind(), is(Span.Kind.PRODUCER));
+        assertThat(emitSpan.parentId(), is(spans.get(1).id()));
+        assertThat(emitSpan.tags().get(TracingQueryUpdateEmitter.TAG_UPDATE_TYPE), is("java.lang.String"));
+        assertThat(emitSpan.tags().get(TracingQueryUpdateEmitter.TAG_MATCHED), is("2"));
+        assertThat(emitSpan.tags().containsKey(TracingQueryUpdateEmitter.TAG_FILTER_TIME), is(true));
+        assertThat(notifications, is(Arrays.asList("emit java.lang.String 2")));
+    }
+
+    @Test
+    public void testUpdatesEmittedDuringPrepareCommitAreTracedAfterCommit() {
+        List<String> received = new ArrayList<>();
+        testSubject.<String>registerUpdateHandler(subscriptionQuery("order-1"),
+                                                  SubscriptionQueryBackpressure.defaultBackpressure(),
+                                                  16)
+                .getUpdates()
+                .subscribe(update -> received.add(update.getPayload()));
+        DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(new GenericMessage<>("event"));
+        unitOfWork.onPrepareCommit(u -> testSubject.emit(String.class, "order-1"::equals, "shipped"));
+
+        unitOfWork.commit();
+
+        assertThat(received, is(Arrays.asList("shipped")));
+        assertThat(spans.size(), is(1));
+        assertThat(spans.get(0).tags().get(TracingQueryUpdateEmitter.TAG_MATCHED), is("1"));
+        assertThat(notifications, is(Arrays.asList("emit java.lang.String 1")));
+    }
+
+    @Test
+    public void testUpdatesExceedingBufferOfSlowSubscriberAreReported() {
+        testSubject.<String>registerUpdateHandler(subscriptionQuery("order-1"),
+                                                  SubscriptionQueryBackpressure.defaultBackpressure(),
+                                                  2)
+                .getUpdates()
+                .subscribe(new BaseSubscriber<SubscriptionQueryUpdateMessage<String>>() {
+                    @Override
+                    protected void hookOnSubscribe(Subscription subscription) {
+                        // requests a single update only, like a subscriber which does not keep up
+                        subscription.request(1);
+                    }
+                });
+
+        for (int i = 0; i < 5; i++) {
+            testSubject.emit(String.class, "order-1"::equals, "update-" + i);
+        }
+
+        assertThat(notifications.stream().filter(n -> n.startsWith("full")).collect(Collectors.toList()),
+                   is(Arrays.asList("full findOrder 2", "full findOrder 2")));
+        assertThat(spans.get(2).tags().get(TracingQueryUpdateEmitter.TAG_BUFFER_FULL), nullValue());
+        assertThat(spans.get(3).tags().get(TracingQueryUpdateEmitter.TAG_BUFFER_FULL), is("1"));
+        assertThat(spans.get(4).tags().get(TracingQueryUpdateEmitter.TAG_BUFFER_FULL), is("1"));
+    }
+
+    @Test
+    public void testMeterRecorderRecordsFanOutPerUpdateType() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        testSubject = TracingQueryUpdateEmitter.builder()
+                                               .delegate(SimpleQueryUpdateEmitter.builder().build())
+                                               .backend(NoopTracingBackend.INSTANCE)
+                                               .listener(new QueryUpdateMeterRecorder(registry))
+                                               .build();
+        for (String orderId : Arrays.asList("order-1", "order-2", "order-3")) {
+            testSubject.registerUpdateHandler(subscriptionQuery(orderId),
+                                              SubscriptionQueryBackpressure.defaultBackpressure(),
+                                              16)
+                       .getUpdates()
+                       .subscribe();
+        }
+
+        testSubject.emit(String.class, orderId -> !orderId.equals("order-3"), "shipped");
+        testSubject.emit(String.class, "order-3"::equals, "shipped");
+
+        assertThat(registry.get("axon.query.update.emit.duration").tag("updateType", "java.lang.String")
+                           .timer().count(), is(2L));
+        assertThat(registry.get("axon.query.update.filter.duration").timer().count(), is(2L));
+        assertThat(registry.get("axon.query.update.matched").summary().totalAmount(), is(3.0));
+        assertThat(registry.find("axon.query.update.buffer.full").counter(), nullValue());
+        assertThat(spans.size(), is(0));
+    }
+
+    private static SubscriptionQueryMessage<String, String, String> subscriptionQuery(String orderId) {
+        return new GenericSubscriptionQueryMessage<>(orderId, "findOrder", instanceOf(String.class),
+                                                     instanceOf(String.class));
+    }
+}
@@ -0,0 +1,121 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.modelling.saga.AssociationValue;
+import org.axonframework.modelling.saga.AssociationValuesImpl;
+import org.axonframework.modelling.saga.repository.inmemory.InMemorySagaStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link TracingSagaStore}.
+ */
+public class TracingSagaStoreTest {
+
+    private static final AssociationValue ASSOCIATION = new AssociationValue("orderId", "42");
+
+    private final List<Span> spans = new ArrayList<>();
+    private final List<String> notifications = new ArrayList<>();
+    private Tracing tracing;
+    private InMemorySagaStore delegate;
+    private TracingSagaStore<Object> testSubject;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .spanReporter(spans::add)
+                         .build();
+        delegate = new InMemorySagaStore();
+        delegate.insertSaga(String.class, "saga-1", "saga", Collections.singleton(ASSOCIATION));
+        delegate.insertSaga(String.class, "saga-2", "saga", Collections.singleton(ASSOCIATION));
+        testSubject = TracingSagaStore.builder()
+                                      .delegate(delegate)
+                                      .tracer(tracing)
+                                      .listener(new RecordingListener())
+                                      .build();
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    @Test
+    public void testSagaStoreOperationsAreTracedAsChildrenOfHandlerSpan() {
+        OpenTraceHandlerInterceptor interceptor = OpenTraceHandlerInterceptor.builder().tracer(tracing).build();
+        DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(new GenericMessage<>("event"));
+        unitOfWork.executeWithResult(() -> interceptor.handle(unitOfWork, () -> {
+            testSubject.findSagas(String.class, ASSOCIATION);
+            testSubject.loadSaga(String.class, "saga-1");
+            // sagas are stored on commit, after the handler span went out of scope
+            unitOfWork.onPrepareCommit(u -> testSubject.updateSaga(
+                    String.class, "saga-1", "saga", new AssociationValuesImpl(Collections.singleton(ASSOCIATION))
+            ));
+            return null;
+        }));
+
+        Map<String, Span> spansByName = spans.stream().collect(Collectors.toMap(Span::name, Function.identity()));
+        Span handlerSpan = spansByName.get("handlemessage");
+        Span findSpan = spansByName.get("findsagas");
+        assertThat(findSpan.parentId(), is(handlerSpan.id()));
+        assertThat(findSpan.tags().get(TracingSagaStore.TAG_SAGA_TYPE), is("java.lang.String"));
+        assertThat(findSpan.tags().get(TracingSagaStore.TAG_ASSOCIATION_KEY), is("orderId"));
+        assertThat(findSpan.tags().get(TracingSagaStore.TAG_RESOLVED_SAGAS), is("2"));
+        assertThat(spansByName.get("loadsaga").parentId(), is(handlerSpan.id()));
+        Span updateSpan = spansByName.get("updatesaga");
+        assertThat(updateSpan.parentId(), is(handlerSpan.id()));
+        assertThat(updateSpan.tags().get(TracingSagaStore.TAG_ASSOCIATION_COUNT), is("1"));
+    }
+
+    @Test
+    public void testListenerIsNotifiedWhenTracingIsDisabled() {
+        testSubject = TracingSagaStore.builder()
+                                      .delegate(delegate)
+                                      .backend(NoopTracingBackend.INSTANCE)
+                                      .listener(new RecordingListener())
+                                      .build();
+
+        testSubject.findSagas(String.class, ASSOCIATION);
+        testSubject.deleteSaga(String.class, "saga-1", Collections.singleton(ASSOCIATION));
+
+        assertThat(spans.isEmpty(), is(true));
+        assertThat(notifications, is(Arrays.asList(
+                "lookup:orderId:2", "findSagas:false", "deleteSaga:false"
+        )));
+    }
+
+    private class RecordingListener implements SagaStoreListener {
+
+        @Override
+        public void onAssociationLookup(Class<?> sagaType, String associationKey, int resolvedSagas) {
+            notifications.add("lookup:" + associationKey + ":" + resolvedSagas);
+        }
+
+        @Override
+        public void onOperation(Class<?> sagaType, String operation, Duration duration, boolean failed) {
+            notifications.add(operation + ":" + failed);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+import brave.ScopedSpan;
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link TracingSerializer} and {@link SerializationMeterRecorder}.
+ */
+public class TracingSerializerTest {
+
+    private final List<Span> spans = new ArrayList<>();
+    private final List<String> notifications = new ArrayList<>();
+    private Tracing tracing;
+    private BraveTracingBackend backend;
+    private TracingSerializer testSubject;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .spanReporter(spans::add)
+                         .build();
+        backend = new BraveTracingBackend(tracing);
+        testSubject = TracingSerializer.builder()
+                                       .delegate(XStreamSerializer.builder().build())
+                                       .backend(backend)
+                                       .listener(new RecordingListener())
+                                       .build();
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    @Test
+    public void testSerializationOfTracedMetaDataIsMeasuredAndAnnotated() {
+        ScopedSpan span = tracing.tracer().startScopedSpan("dispatch");
+        try {
+            Map<String, String> traceEntries = new HashMap<>();
+            backend.injectCurrentContext(traceEntries);
+            MetaData metaData = MetaData.with("userId", "someone").mergedWith(traceEntries);
+
+            testSubject.serialize(metaData, byte[].class);
+        } finally {
+            span.finish();
+        }
+
+        String metaDataType = testSubject.typeForClass(MetaData.class).getName();
+        assertThat(notifications.size(), is(2));
+        assertThat(notifications.get(0).startsWith("serialize " + metaDataType + " "), is(true));
+        assertThat(notifications.get(1).startsWith("traceMetaData "), is(true));
+        List<String> annotations = new ArrayList<>();
+        spans.get(0).annotations().forEach(annotation -> annotations.add(annotation.value()));
+        assertThat(annotations.size(), is(2));
+        assertThat(annotations.get(0).startsWith("serialize " + metaDataType + " "), is(true));
+        assertThat(annotations.get(1).startsWith("traceMetaData "), is(true));
+    }
+
+    @Test
+    public void testDeserializationOutsideTraceIsMeasuredOnly() {
+        SerializedObject<byte[]> serialized = testSubject.serialize("payload", byte[].class);
+        notifications.clear();
+
+        assertThat(testSubject.deserialize(serialized), is("payload"));
+
+        assertThat(notifications.size(), is(1));
+        assertThat(notifications.get(0),
+                   is("deserialize " + serialized.getType().getName() + " " + serialized.getData().length));
+        assertThat(spans.size(), is(0));
+    }
+
+    @Test
+    public void testMeterRecorderRecordsDurationAndSizePerType() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        testSubject = TracingSerializer.builder()
+                                       .delegate(XStreamSerializer.builder().build())
+                                       .backend(NoopTracingBackend.INSTANCE)
+                                       .listener(new SerializationMeterRecorder(registry))
+                                       .build();
+
+        testSubject.deserialize(testSubject.serialize("payload", byte[].class));
+
+        assertThat(registry.find("axon.serialization.duration").tag("operation", "serialize").timer().count(),
+                   is(1L));
+        assertThat(registry.find("axon.serialization.size")
+                           .tags("type", testSubject.typeForClass(String.class).getName(), "operation", "deserialize")
+                           .summary(), notNullValue());
+    }
+
+    private class RecordingListener implements SerializationListener {
+
+        @Override
+        public void onSerialize(String type, Duration duration, long size) {
+            notifications.add("serialize " + type + " " + size);
+        }
+
+        @Override
+        public void onDeserialize(String type, Duration duration, long size) {
+            notifications.add("deserialize " + type + " " + size);
+        }
+
+        @Override
+        public void onTraceMetaData(long size) {
+            notifications.add("traceMetaData " + size);
+        }
+    }
+}
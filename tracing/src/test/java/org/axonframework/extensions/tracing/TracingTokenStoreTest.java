@@ -0,0 +1,143 @@
+package org.axonframework.extensions.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import brave.Tracing;
+import brave.propagation.StrictScopeDecorator;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventhandling.tokenstore.TokenStore;
+import org.axonframework.eventhandling.tokenstore.UnableToClaimTokenException;
+import org.axonframework.eventhandling.tokenstore.inmemory.InMemoryTokenStore;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zipkin2.Span;
+
+/**
+ * Test class for the {@link TracingTokenStore}.
+ */
+public class TracingTokenStoreTest {
+
+    private final List<Span> spans = new ArrayList<>();
+    private final List<String> notifications = new ArrayList<>();
+    private Tracing tracing;
+
+    @Before
+    public void before() {
+        tracing = Tracing.newBuilder()
+                         .localServiceName("axon-tracing")
+                         .currentTraceContext(ThreadLocalCurrentTraceContext.newBuilder()
+                                                                            .addScopeDecorator(StrictScopeDecorator.create())
+                                                                            .build())
+                         .spanReporter(spans::add)
+                         .build();
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    @Test
+    public void testStoringTokenOnCommitIsTracedAsChildOfHandlerSpan() {
+        InMemoryTokenStore delegate = new InMemoryTokenStore();
+        delegate.initializeTokenSegments("projection", 1);
+        TracingTokenStore testSubject = testSubject(delegate);
+        OpenTraceHandlerInterceptor interceptor = OpenTraceHandlerInterceptor.builder().tracer(tracing).build();
+        DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(new GenericMessage<>("event"));
+
+        testSubject.fetchToken("projection", 0);
+        unitOfWork.executeWithResult(() -> interceptor.handle(unitOfWork, () -> {
+            unitOfWork.onPrepareCommit(u -> testSubject.storeToken(new GlobalSequenceTrackingToken(1),
+                                                                  "projection", 0));
+            return null;
+        }));
+
+        Map<String, Span> spansByName = spans.stream().collect(Collectors.toMap(Span::name, Function.identity()));
+        Span fetchSpan = spansByName.get("fetchtoken");
+        assertThat(fetchSpan.parentId(), nullValue());
+        assertThat(fetchSpan.tags().get(SpanUtils.TAG_PROCESSOR_NAME), is("projection"));
+        assertThat(fetchSpan.tags().get(TracingTokenStore.TAG_SEGMENT), is("0"));
+        assertThat(spansByName.get("storetoken").parentId(), is(spansByName.get("handlemessage").id()));
+        assertThat(notifications, is(Arrays.asList("projection 0 fetchToken SUCCESS",
+                                                             "projection 0 storeToken SUCCESS")));
+    }
+
+    @Test
+    public void testFailedClaimsAreTaggedAndTimeWithoutClaimIsReported() {
+        TokenStore delegate = mock(TokenStore.class);
+        TrackingToken token = new GlobalSequenceTrackingToken(1);
+        when(delegate.fetchToken("projection", 0)).thenThrow(new UnableToClaimTokenException("claimed"))
+                                                  .thenReturn(token);
+        TracingTokenStore testSubject = testSubject(delegate);
+
+        try {
+            testSubject.fetchToken("projection", 0);
+            fail("Expected an UnableToClaimTokenException");
+        } catch (UnableToClaimTokenException expected) {
+            // expected
+        }
+        assertThat(testSubject.fetchToken("projection", 0), is(token));
+
+        assertThat(spans.get(0).tags().get(TracingTokenStore.TAG_CLAIM_FAILED), is("true"));
+        assertThat(spans.get(1).tags().get(TracingTokenStore.TAG_CLAIM_FAILED), nullValue());
+        assertThat(notifications, is(Arrays.asList("projection 0 fetchToken CLAIM_FAILED",
+                                                             "projection 0 fetchToken SUCCESS",
+                                                             "projection claimed")));
+    }
+
+    @Test
+    public void testOperationsOfUntracedProcessorsAreOnlyReported() {
+        TracingTokenStore testSubject = TracingTokenStore.builder()
+                                                         .delegate(new InMemoryTokenStore())
+                                                         .tracer(tracing)
+                                                         .tracedProcessors(name -> !name.equals("projection"))
+                                                         .listener(new RecordingListener())
+                                                         .build();
+
+        testSubject.fetchSegments("projection");
+
+        assertThat(spans.size(), is(0));
+        assertThat(notifications, is(Collections.singletonList("projection -1 fetchSegments SUCCESS")));
+    }
+
+    private TracingTokenStore testSubject(TokenStore delegate) {
+        return TracingTokenStore.builder()
+                                .delegate(delegate)
+                                .tracer(tracing)
+                                .listener(new RecordingListener())
+                                .build();
+    }
+
+    private class RecordingListener implements TokenStoreListener {
+
+        @Override
+        public void onOperation(String processorName, int segment, String operation, Duration duration,
+                                Outcome outcome) {
+            notifications.add(processorName + " " + segment + " " + operation + " " + outcome);
+        }
+
+        @Override
+        public void onClaimAcquired(String processorName, Duration duration) {
+            notifications.add(processorName + " claimed");
+        }
+    }
+}